@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+import ca.mcgill.cs.jetuml.views.ImageCreator;
+import ca.mcgill.cs.jetuml.views.TiledDiagramImage;
+
+/**
+ * Entry point for exporting diagram files to PNG images from the command 
+ * line, without showing the editor. Usage:
+ * 
+ * BatchExporter [-d outputDirectory] [-t threads] (file|directory)...
+ * 
+ * Directories are searched recursively for diagram files. Each image is 
+ * written next to its diagram file, with the diagram file extension replaced 
+ * by ".png". If an output directory is specified, the images are written in 
+ * it instead, in the same subdirectories as the diagram files relative to the 
+ * directory given as input. Files that would be exported to the same image as 
+ * a file found before them fail. Files whose image is newer than the diagram 
+ * file are skipped. The result and duration of each export are reported as 
+ * the exports complete.
+ * 
+ * Files are read, rendered and encoded concurrently on a pool of threads, 
+ * by default one per processor. Images are rendered one tile at a time with
+ * Java2D on the thread that exports them, so the exports do not wait for the 
+ * JavaFX application thread, which is not started. Text is still measured 
+ * with JavaFX: without a display, use -Dprism.order=sw to avoid warnings 
+ * about hardware rendering.
+ */
+public final class BatchExporter
+{
+	private static final String DIAGRAM_EXTENSION = ".jet";
+	private static final String IMAGE_FORMAT = "png";
+	private static final String USAGE = "Usage: BatchExporter [-d outputDirectory] [-t threads] (file|directory)...";
+	
+	/**
+	 * The possible outcomes of exporting a file.
+	 */
+	public enum Outcome 
+	{ EXPORTED, UP_TO_DATE, FAILED }
+	
+	private final Optional<File> aOutputDirectory;
+	private final int aThreads;
+	
+	/**
+	 * Creates an exporter.
+	 * 
+	 * @param pOutputDirectory The directory where to write the images, 
+	 *     or empty to write each image next to its diagram file.
+	 * @param pThreads The number of files to process concurrently.
+	 * @pre pOutputDirectory != null && pThreads > 0
+	 */
+	public BatchExporter(Optional<File> pOutputDirectory, int pThreads)
+	{
+		assert pOutputDirectory != null && pThreads > 0;
+		aOutputDirectory = pOutputDirectory;
+		aThreads = pThreads;
+	}
+	
+	/**
+	 * @param pArgs The options and the files to export. See the class comment.
+	 */
+	public static void main(String[] pArgs)
+	{
+		Optional<File> outputDirectory = Optional.empty();
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<File> inputs = new ArrayList<>();
+		try
+		{
+			for( int i = 0; i < pArgs.length; i++ )
+			{
+				boolean isOption = pArgs[i].equals("-d") || pArgs[i].equals("-t");
+				if( isOption && i + 1 == pArgs.length )
+				{
+					// An option without its value is an error, not a file name
+					inputs.clear();
+					break;
+				}
+				if( pArgs[i].equals("-d") )
+				{
+					outputDirectory = Optional.of(new File(pArgs[++i]));
+				}
+				else if( pArgs[i].equals("-t") )
+				{
+					threads = Math.max(1, Integer.parseInt(pArgs[++i]));
+				}
+				else
+				{
+					inputs.add(new File(pArgs[i]));
+				}
+			}
+		}
+		catch( NumberFormatException exception )
+		{
+			inputs.clear();
+		}
+		if( inputs.isEmpty() )
+		{
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		
+		long start = System.nanoTime();
+		List<Result> results = new BatchExporter(outputDirectory, threads).export(inputs, System.out::println);
+		
+		long failed = results.stream().filter(result -> result.getOutcome() == Outcome.FAILED).count();
+		long exported = results.stream().filter(result -> result.getOutcome() == Outcome.EXPORTED).count();
+		System.out.println(String.format("%d exported, %d up to date, %d failed in %d ms", exported, 
+				results.size() - exported - failed, failed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+		System.exit(failed == 0 ? 0 : 1);
+	}
+	
+	/**
+	 * Exports the diagram files in pInputs, searching directories recursively.
+	 * 
+	 * @param pInputs The files and directories to export.
+	 * @param pListener Notified of the result of each export as it completes.
+	 * @return The result of each export, in the order in which the files were found.
+	 * @pre pInputs != null && pListener != null
+	 */
+	public List<Result> export(List<File> pInputs, Consumer<Result> pListener)
+	{
+		assert pInputs != null && pListener != null;
+		Map<File, File> outputs = new LinkedHashMap<>();
+		pInputs.forEach(input -> findDiagramFiles(input, aOutputDirectory, outputs));
+		Map<File, File> exported = new HashMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(aThreads);
+		List<Future<Result>> futures = new ArrayList<>();
+		for( Map.Entry<File, File> entry : outputs.entrySet() )
+		{
+			File file = entry.getKey();
+			File output = entry.getValue();
+			File previous = exported.putIfAbsent(output.getAbsoluteFile(), file);
+			if( previous != null )
+			{
+				Result result = new Result(file, output, Outcome.FAILED, 0, "Same image as " + previous.getPath());
+				notify(pListener, result);
+				futures.add(CompletableFuture.completedFuture(result));
+				continue;
+			}
+			futures.add(executor.submit(() -> 
+			{
+				Result result = export(file, output);
+				notify(pListener, result);
+				return result;
+			}));
+		}
+		List<Result> results = new ArrayList<>();
+		try
+		{
+			for( Future<Result> future : futures )
+			{
+				results.add(future.get());
+			}
+		}
+		catch( InterruptedException | ExecutionException exception )
+		{
+			// Exports report their own failures, so this only happens if the thread is interrupted
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		return results;
+	}
+	
+	private static void notify(Consumer<Result> pListener, Result pResult)
+	{
+		synchronized(pListener)
+		{
+			pListener.accept(pResult);
+		}
+	}
+	
+	/*
+	 * Maps each diagram file in pFile to the file where its image is written. 
+	 * The images of the files in a directory are written in the subdirectory 
+	 * of pOutputDirectory with the same name.
+	 */
+	private static void findDiagramFiles(File pFile, Optional<File> pOutputDirectory, Map<File, File> pOutputs)
+	{
+		if( pFile.isDirectory() )
+		{
+			File[] children = pFile.listFiles();
+			if( children != null )
+			{
+				Arrays.sort(children);
+				for( File child : children )
+				{
+					if( child.isDirectory() )
+					{
+						findDiagramFiles(child, pOutputDirectory.map(directory -> new File(directory, child.getName())), pOutputs);
+					}
+					else if( child.getName().endsWith(DIAGRAM_EXTENSION) )
+					{
+						findDiagramFiles(child, pOutputDirectory, pOutputs);
+					}
+				}
+			}
+		}
+		else
+		{
+			pOutputs.put(pFile, outputFileFor(pFile, pOutputDirectory));
+		}
+	}
+	
+	/**
+	 * @param pInput A diagram file given as input, rather than found in a directory.
+	 * @return The file where the image of pInput is written.
+	 * @pre pInput != null
+	 */
+	public File outputFileFor(File pInput)
+	{
+		assert pInput != null;
+		return outputFileFor(pInput, aOutputDirectory);
+	}
+	
+	private static File outputFileFor(File pInput, Optional<File> pOutputDirectory)
+	{
+		String name = pInput.getName();
+		if( name.endsWith(DIAGRAM_EXTENSION) )
+		{
+			name = name.substring(0, name.length() - DIAGRAM_EXTENSION.length());
+		}
+		name += "." + IMAGE_FORMAT;
+		return new File(pOutputDirectory.orElse(pInput.getAbsoluteFile().getParentFile()), name);
+	}
+	
+	private Result export(File pInput, File pOutput)
+	{
+		long start = System.nanoTime();
+		if( pOutput.exists() && pOutput.lastModified() >= pInput.lastModified() )
+		{
+			return new Result(pInput, pOutput, Outcome.UP_TO_DATE, 0, "");
+		}
+		try
+		{
+			Diagram diagram = PersistenceService.read(pInput);
+			TiledDiagramImage image = ImageCreator.createTiledImage(diagram, TiledDiagramImage.Renderer.JAVA2D);
+			pOutput.getAbsoluteFile().getParentFile().mkdirs();
+			boolean written = false;
+			try( OutputStream out = new FileOutputStream(pOutput) )
+			{
+				written = ImageIO.write(image, IMAGE_FORMAT, out);
+			}
+			finally
+			{
+				if( !written )
+				{
+					pOutput.delete();
+				}
+			}
+			if( !written )
+			{
+				return new Result(pInput, pOutput, Outcome.FAILED, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 
+						"No image writer for " + IMAGE_FORMAT);
+			}
+			return new Result(pInput, pOutput, Outcome.EXPORTED, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), "");
+		}
+		catch( IOException | RuntimeException exception )
+		{
+			return new Result(pInput, pOutput, Outcome.FAILED, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 
+					String.valueOf(exception.getMessage()));
+		}
+	}
+	
+	/**
+	 * The result of exporting one diagram file.
+	 */
+	public static final class Result
+	{
+		private final File aInput;
+		private final File aOutput;
+		private final Outcome aOutcome;
+		private final long aMilliseconds;
+		private final String aMessage;
+		
+		private Result(File pInput, File pOutput, Outcome pOutcome, long pMilliseconds, String pMessage)
+		{
+			aInput = pInput;
+			aOutput = pOutput;
+			aOutcome = pOutcome;
+			aMilliseconds = pMilliseconds;
+			aMessage = pMessage;
+		}
+		
+		/**
+		 * @return The diagram file.
+		 */
+		public File getInput()
+		{
+			return aInput;
+		}
+		
+		/**
+		 * @return The image file.
+		 */
+		public File getOutput()
+		{
+			return aOutput;
+		}
+		
+		/**
+		 * @return The outcome of the export.
+		 */
+		public Outcome getOutcome()
+		{
+			return aOutcome;
+		}
+		
+		/**
+		 * @return The time spent exporting the file, in milliseconds.
+		 */
+		public long getMilliseconds()
+		{
+			return aMilliseconds;
+		}
+		
+		@Override
+		public String toString()
+		{
+			String result = String.format("%-10s %s -> %s (%d ms)", aOutcome, aInput.getPath(), aOutput.getPath(), aMilliseconds);
+			if( aOutcome == Outcome.FAILED )
+			{
+				result += ": " + aMessage;
+			}
+			return result;
+		}
+	}
+}
@@ -21,7 +21,11 @@
 package ca.mcgill.cs.jetuml.application;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
@@ -46,6 +50,12 @@ import ca.mcgill.cs.jetuml.diagram.nodes.PointNode;
  * The list of elements stored into the clipboard is assumed to respect the non-redundancy 
  * constraint that no element whose deletion leads to the deletion of a node is selected with the node.
  * 
+ * The clipboard holds an immutable snapshot of the copied elements, which is 
+ * replaced as a whole on every copy. Pasting materializes fresh clones of the 
+ * snapshot in time linear in the number of elements, by mapping each stored node 
+ * to its clone. The clones are moved by an offset that accumulates the shifts 
+ * applied to successive pastes, so that the snapshot itself never changes.
+ * 
  * The clipboard is a singleton. This is necessary to allow copying elements
  * between diagrams of the same type.
  */
@@ -53,8 +63,10 @@ public final class Clipboard
 {
 	private static final Clipboard INSTANCE = new Clipboard();
 	
-	private List<Node> aNodes = new ArrayList<>();
-	private List<Edge> aEdges = new ArrayList<>();
+	private List<Node> aNodes = Collections.emptyList();
+	private List<Edge> aEdges = Collections.emptyList();
+	private int aOffsetX = 0;
+	private int aOffsetY = 0;
 
 	/**
 	 * Creates an empty clip-board.
@@ -82,177 +94,129 @@ public final class Clipboard
 	public void copy(Iterable<DiagramElement> pSelection)
 	{
 		assert pSelection != null;
-		clear();
-		aEdges.addAll(copyEdges(pSelection));
-		aNodes.addAll(copyNodes(aEdges, pSelection));
-		removeDanglingEdges();
-		removeDanglingReferencesToParents();
-	}
-	
-	/**
-	 * @return A list of clones of the elements in this clipboard.
-	 */
-	public Iterable<DiagramElement> getElements()
-	{
-		List<Edge> clonedEdges = copyEdges(new ArrayList<>(aEdges));
-		List<Node> clonedNodes = copyNodes(clonedEdges, new ArrayList<>(aNodes));
-		List<DiagramElement> result = new ArrayList<>();
-		result.addAll(clonedEdges);
-		result.addAll(clonedNodes);
-		return result;
-	}
-	
-	/*
-	 * Empties the clipboard
-	 */
-	private void clear()
-	{
-		aNodes.clear();
-		aEdges.clear();
-	}
-	
-	/*
-	 * Makes a clone of every edges in pSelection and copies it into the clipboard	 
-	 */
-	private List<Edge> copyEdges(Iterable<DiagramElement> pSelection)
-	{
-		List<Edge> result = new ArrayList<>();
+		Set<Node> selected = Collections.newSetFromMap(new IdentityHashMap<>());
 		for( DiagramElement element : pSelection )
 		{
-			if( element instanceof Edge )
-			{	
-				result.add(((Edge) element).clone());
+			if( element instanceof Node )
+			{
+				selected.add((Node) element);
 			}
 		}
-		return result;
-	}
-	
-	/*
-	 * Makes a clone of every node in pSelection, copies it into the clipboard,
-	 * and reassigns its edges
-	 */
-	private List<Node> copyNodes(List<Edge> pEdges, Iterable<DiagramElement> pSelection)
-	{
-		List<Node> result = new ArrayList<>();
+		Map<Node, Node> clones = new IdentityHashMap<>();
+		List<Node> nodes = new ArrayList<>();
 		for( DiagramElement element : pSelection )
 		{
-			if( element instanceof Node )
+			if( !(element instanceof Node) || missingParent((Node) element, selected) )
 			{
-				if( missingParent( (Node)element ))
-				{
-					continue;
-				}
-				Node cloned = ((Node) element).clone();
-				result.add(cloned);
-				reassignEdges(pEdges, (Node)element, cloned);
+				continue;
 			}
+			Node node = (Node) element;
+			Node cloned = node.clone();
+			if( cloned instanceof ChildNode && ((ChildNode)cloned).getParent() != null )
+			{
+				((ChildNode)cloned).setParent(null);
+			}
+			mapClones(node, cloned, clones);
+			nodes.add(cloned);
 		}
-		return result;
+		aEdges = Collections.unmodifiableList(copyEdges(pSelection, clones));
+		aNodes = Collections.unmodifiableList(nodes);
+		aOffsetX = 0;
+		aOffsetY = 0;
 	}
 	
-	private void removeDanglingEdges()
+	/**
+	 * Moves the elements in the clipboard by pDeltaX and pDeltaY for all 
+	 * subsequent pastes, until the next copy. This is used to paste the next 
+	 * copy relative to a copy that was shifted when pasted.
+	 * 
+	 * @param pDeltaX The amount to move the elements horizontally.
+	 * @param pDeltaY The amount to move the elements vertically.
+	 */
+	public void shift(int pDeltaX, int pDeltaY)
 	{
-		List<Edge> toDelete = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( !recursivelyContains(edge.getStart()) || !recursivelyContains(edge.getEnd()))
-			{
-				toDelete.add(edge);
-			}
-		}
-		for( Edge edge : toDelete )
-		{
-			aEdges.remove(edge);
-		}
+		aOffsetX += pDeltaX;
+		aOffsetY += pDeltaY;
 	}
 	
-	private boolean recursivelyContains(Node pNode)
+	/**
+	 * @return A list of clones of the elements in this clipboard.
+	 */
+	public Iterable<DiagramElement> getElements()
 	{
+		Map<Node, Node> clones = new IdentityHashMap<>();
+		List<Node> clonedNodes = new ArrayList<>(aNodes.size());
 		for( Node node : aNodes )
 		{
-			if( node == pNode )
+			Node cloned = node.clone();
+			mapClones(node, cloned, clones);
+			if( aOffsetX != 0 || aOffsetY != 0 )
 			{
-				return true;
-			}
-			else if( node instanceof ParentNode )
-			{
-				if( recursivelyContains( pNode, ((ParentNode)node).getChildren()) )
-				{
-					return true;
-				}
+				cloned.translate(aOffsetX, aOffsetY);
 			}
+			clonedNodes.add(cloned);
 		}
-		return false;
+		List<DiagramElement> result = new ArrayList<>(aEdges.size() + clonedNodes.size());
+		result.addAll(copyEdges(aEdges, clones));
+		result.addAll(clonedNodes);
+		return result;
 	}
 	
-	private boolean recursivelyContains(Node pNode, List<ChildNode> pNodes)
+	/*
+	 * Makes a clone of every edge in pElements whose start and end nodes have 
+	 * been cloned, and connects the clone to the clones of its nodes. Edges 
+	 * with an end point that was not cloned are dropped.
+	 */
+	private static List<Edge> copyEdges(Iterable<? extends DiagramElement> pElements, Map<Node, Node> pClones)
 	{
-		for( Node node : pNodes )
+		List<Edge> result = new ArrayList<>();
+		for( DiagramElement element : pElements )
 		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( node instanceof ParentNode )
-			{
-				if(  recursivelyContains( pNode, ((ParentNode)node).getChildren()) )
+			if( element instanceof Edge )
+			{	
+				Edge edge = (Edge) element;
+				Node start = pClones.get(edge.getStart());
+				Node end = pClones.get(edge.getEnd());
+				if( start != null && end != null )
 				{
-					return true;
+					Edge cloned = edge.clone();
+					cloned.connect(start, end, edge.getDiagram());
+					result.add(cloned);
 				}
 			}
 		}
-		return false;
+		return result;
 	}
 	
-	private void reassignEdges(List<Edge> pEdges, Node pOld, Node pNew)
+	/*
+	 * Records that pNew is the clone of pOld, and that the descendants of pNew
+	 * are the clones of the corresponding descendants of pOld. The clones are
+	 * detached from the diagram of the originals, so that changing them is not 
+	 * reported to that diagram.
+	 */
+	private static void mapClones(Node pOld, Node pNew, Map<Node, Node> pClones)
 	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.getStart() == pOld )
-			{
-				edge.connect(pNew, edge.getEnd(), edge.getDiagram());
-			}
-			if( edge.getEnd() == pOld)
-			{
-				edge.connect(edge.getStart(), pNew, edge.getDiagram());
-			}
-		}
+		pClones.put(pOld, pNew);
+		pNew.detach();
 		if( pOld instanceof ParentNode )
 		{
 			List<ChildNode> oldChildren = ((ParentNode) pOld).getChildren();
 			List<ChildNode> newChildren = ((ParentNode) pNew).getChildren();
 			for( int i = 0; i < oldChildren.size(); i++)
 			{
-				reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
+				mapClones(oldChildren.get(i), newChildren.get(i), pClones);
 			}
 		}
 	}
 	
 	/*
 	 * Returns true of pNode needs a parent that isn't in 
-	 * the clipboard.
-	 */
-	private boolean missingParent(Node pNode)
-	{
-		return pNode instanceof ChildNode && ((ChildNode)pNode).requiresParent() && !aNodes.contains(((ChildNode)pNode).getParent()) ;
-	}
-	
-	/*
-	 * Removes the reference to the parent of any node that
-	 * does not have a parent in the copied node list.
+	 * the selection.
 	 */
-	private void removeDanglingReferencesToParents()
+	private static boolean missingParent(Node pNode, Set<Node> pSelected)
 	{
-		for( Node node : aNodes )
-		{
-			if( node instanceof ChildNode && ((ChildNode)node).getParent() != null )
-			{
-				if( !aNodes.contains(((ChildNode)node).getParent()))
-				{
-					((ChildNode)node).getParent().removeChild((ChildNode)node);
-				}
-			}
-		}
+		return pNode instanceof ChildNode && ((ChildNode)pNode).requiresParent() && 
+				!pSelected.contains(((ChildNode)pNode).getParent());
 	}
 	
 	/**
@@ -26,7 +26,7 @@ import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Properties;
 import ca.mcgill.cs.jetuml.diagram.Property;
 import ca.mcgill.cs.jetuml.diagram.builder.CompoundOperation;
-import ca.mcgill.cs.jetuml.diagram.builder.SimpleOperation;
+import ca.mcgill.cs.jetuml.diagram.builder.PropertyChangeOperation;
 
 /**
  * Tracks modification to the properties of a DiagramElement.
@@ -74,11 +74,7 @@ public class PropertyChangeTracker
 		{
 			if( !aOldValues.get(property.getName()).equals(property.get()))
 			{
-				final Object newValue = property.get();
-				final Object oldValue = aOldValues.get(property.getName());
-				operation.add(new SimpleOperation(
-						()-> property.set(newValue),
-						()-> property.set(oldValue)));
+				operation.add(new PropertyChangeOperation(property, aOldValues.get(property.getName()), property.get()));
 			}
 		}
 		return operation;
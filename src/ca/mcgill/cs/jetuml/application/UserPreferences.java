@@ -58,7 +58,8 @@ public final class UserPreferences
 	 */
 	public enum IntegerPreference
 	{
-		diagramWidth(0), diagramHeight(0);
+		diagramWidth(0), diagramHeight(0), undoDepth(1000), undoWeight(100000), 
+		undoMergeWindow(1000);
 		
 		private int aDefault;
 		
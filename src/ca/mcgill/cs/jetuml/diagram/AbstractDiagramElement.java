@@ -62,6 +62,14 @@ public abstract class AbstractDiagramElement implements DiagramElement
 		return aProperties;
 	}
 	
+	/**
+	 * Signals that the state of this element has changed. Subclasses
+	 * must call this method after any change to a value that can affect 
+	 * how the element is viewed. Changes made through the properties of 
+	 * the element are signaled automatically.
+	 */
+	protected abstract void notifyChanged();
+	
 	/**
 	 * Builds the properties object associated with this object.
 	 * Must be outside the constructor because of cloning.
@@ -70,6 +78,6 @@ public abstract class AbstractDiagramElement implements DiagramElement
 	 */
 	protected void buildProperties()
 	{
-		aProperties = new Properties();
+		aProperties = new Properties(this::notifyChanged);
 	}
 }
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2015-2019 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import ca.mcgill.cs.jetuml.diagram.edges.CallEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ChildNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ParentNode;
+
+/**
+ * A snapshot of the call relations of a sequence diagram, indexed
+ * so that the queries of ControlFlow do not need to scan the edges
+ * of the diagram. A call graph is built in a single pass over the 
+ * edges and becomes stale as soon as the diagram is modified: it is 
+ * managed by the SequenceDiagram, which rebuilds it when needed.
+ */
+final class CallGraph
+{
+	private final Map<Node, List<CallEdge>> aCalls = new IdentityHashMap<>();
+	private final Map<Node, CallNode> aCallers = new IdentityHashMap<>();
+	private final Map<Node, Integer> aCalleeIndices = new IdentityHashMap<>();
+	private final Map<Node, Integer> aNestingDepths = new IdentityHashMap<>();
+	
+	/**
+	 * Builds the call graph of pDiagram.
+	 * 
+	 * @param pDiagram The diagram to index.
+	 * @pre pDiagram != null
+	 */
+	CallGraph(SequenceDiagram pDiagram)
+	{
+		assert pDiagram != null;
+		for( Edge edge : pDiagram.edges() )
+		{
+			if( edge.getClass() == CallEdge.class )
+			{
+				List<CallEdge> calls = aCalls.computeIfAbsent(edge.getStart(), key -> new ArrayList<>());
+				if( !aCallers.containsKey(edge.getEnd()) )
+				{
+					aCallers.put(edge.getEnd(), (CallNode) edge.getStart());
+					aCalleeIndices.put(edge.getEnd(), calls.size());
+				}
+				calls.add((CallEdge) edge);
+			}
+		}
+		computeNestingDepths();
+	}
+	
+	/*
+	 * Traverses the call tree from each entry point, keeping track of the 
+	 * number of call nodes on the current path that belong to each implicit
+	 * parameter node. The nesting depth of a node is the number of such nodes
+	 * on its own implicit parameter when it is reached.
+	 */
+	private void computeNestingDepths()
+	{
+		Map<ParentNode, Integer> activations = new HashMap<>();
+		for( Node root : aCalls.keySet() )
+		{
+			if( aCallers.containsKey(root) )
+			{
+				continue;
+			}
+			Deque<Node> stack = new ArrayDeque<>();
+			Deque<Boolean> exiting = new ArrayDeque<>();
+			stack.push(root);
+			exiting.push(false);
+			while( !stack.isEmpty() )
+			{
+				Node node = stack.pop();
+				ParentNode parent = parentOf(node);
+				if( exiting.pop() )
+				{
+					activations.merge(parent, -1, Integer::sum);
+					continue;
+				}
+				if( aNestingDepths.containsKey(node) )
+				{
+					continue;
+				}
+				aNestingDepths.put(node, activations.getOrDefault(parent, 0));
+				activations.merge(parent, 1, Integer::sum);
+				stack.push(node);
+				exiting.push(true);
+				for( CallEdge call : aCalls.getOrDefault(node, Collections.emptyList()) )
+				{
+					Node callee = call.getEnd();
+					if( aCallers.get(callee) == node )
+					{
+						stack.push(callee);
+						exiting.push(false);
+					}
+				}
+			}
+		}
+	}
+	
+	private static ParentNode parentOf(Node pNode)
+	{
+		if( pNode instanceof ChildNode )
+		{
+			return ((ChildNode)pNode).getParent();
+		}
+		return null;
+	}
+	
+	/**
+	 * @param pCaller The caller node.
+	 * @return The call edges starting at pCaller, in diagram order.
+	 * @pre pCaller != null
+	 */
+	List<CallEdge> getCalls(Node pCaller)
+	{
+		assert pCaller != null;
+		return Collections.unmodifiableList(aCalls.getOrDefault(pCaller, Collections.emptyList()));
+	}
+	
+	/**
+	 * @param pNode The node to obtain the caller for.
+	 * @return The caller of pNode, if there is one.
+	 * @pre pNode != null
+	 */
+	Optional<CallNode> getCaller(Node pNode)
+	{
+		assert pNode != null;
+		return Optional.ofNullable(aCallers.get(pNode));
+	}
+	
+	/**
+	 * @param pNode A node that has a caller.
+	 * @return The position of pNode in the list of callees of its caller.
+	 * @pre getCaller(pNode).isPresent()
+	 */
+	int getCalleeIndex(Node pNode)
+	{
+		assert aCalleeIndices.containsKey(pNode);
+		return aCalleeIndices.get(pNode);
+	}
+	
+	/**
+	 * @param pNode The node to check.
+	 * @return The nesting depth of pNode, if it was reached 
+	 * from an entry point of the call graph.
+	 * @pre pNode != null
+	 */
+	Optional<Integer> getNestingDepth(Node pNode)
+	{
+		assert pNode != null;
+		return Optional.ofNullable(aNestingDepths.get(pNode));
+	}
+}
@@ -32,7 +32,9 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
 /**
  * An immutable wrapper around a SequenceDiagram that can answer
  * various queries about the control-flow represented by 
- * the wrapped sequence diagram.
+ * the wrapped sequence diagram. Queries are answered using the
+ * call graph cached by the diagram, so creating a ControlFlow
+ * object is cheap.
  */
 public final class ControlFlow
 {
@@ -63,12 +65,9 @@ public final class ControlFlow
 	{
 		assert pNode != null && aDiagram.contains(pNode);
 		List<Node> callees = new ArrayList<>();
-		for(Edge edge : aDiagram.edges() )
+		for( CallEdge call : aDiagram.getCallGraph().getCalls(pNode) )
 		{
-			if ( edge.getStart() == pNode && edge.getClass() == CallEdge.class )
-			{
-				callees.add(edge.getEnd());
-			}
+			callees.add(call.getEnd());
 		}
 		return callees;
 	}
@@ -81,15 +80,7 @@ public final class ControlFlow
 	public List<CallEdge> getCalls(Node pCaller)
 	{
 		assert pCaller != null;
-		ArrayList<CallEdge> result = new ArrayList<>();
-		for( Edge edge : aDiagram.edges() )
-		{
-			if( edge.getClass() == CallEdge.class && edge.getStart() == pCaller )
-			{
-				result.add((CallEdge)edge);
-			}
-		}
-		return result;
+		return new ArrayList<>(aDiagram.getCallGraph().getCalls(pCaller));
 	}
 	
 	/**
@@ -103,14 +94,7 @@ public final class ControlFlow
 	public Optional<CallNode> getCaller(Node pNode)
 	{
 		assert pNode != null && aDiagram.contains(pNode);
-		for( Edge edge : aDiagram.edges() )
-		{
-			if( edge.getEnd() == pNode  && edge.getClass() == CallEdge.class )
-			{
-				return Optional.of((CallNode) edge.getStart());
-			}
-		}
-		return Optional.empty();
+		return aDiagram.getCallGraph().getCaller(pNode);
 	}
 	
 	/**
@@ -124,10 +108,8 @@ public final class ControlFlow
 	public boolean isFirstCallee(CallNode pNode)
 	{
 		assert pNode != null;
-		Optional<CallNode> caller = getCaller(pNode);
-		assert caller.isPresent();
-		List<Node> callees = getCallees(caller.get());
-		return callees.get(0) == pNode;
+		assert getCaller(pNode).isPresent();
+		return aDiagram.getCallGraph().getCalleeIndex(pNode) == 0;
 	}
 	
 	/**
@@ -144,10 +126,10 @@ public final class ControlFlow
 		Optional<CallNode> caller = getCaller(pNode);
 		assert caller.isPresent();
 		assert !isFirstCallee(pNode);
-		List<Node> callees = getCallees(caller.get());
-		int index = callees.indexOf(pNode);
+		CallGraph graph = aDiagram.getCallGraph();
+		int index = graph.getCalleeIndex(pNode);
 		assert index >= 1;
-		return (CallNode) callees.get(index-1);
+		return (CallNode) graph.getCalls(caller.get()).get(index-1).getEnd();
 	}
 	
 	/**
@@ -174,6 +156,11 @@ public final class ControlFlow
 	public int getNestingDepth(CallNode pNode)
 	{
 		assert pNode != null;
+		Optional<Integer> depth = aDiagram.getCallGraph().getNestingDepth(pNode);
+		if( depth.isPresent() )
+		{
+			return depth.get();
+		}
 		int result = 0;
 		Optional<CallNode> node = getCaller(pNode);
 		while(node.isPresent())
@@ -210,7 +197,7 @@ public final class ControlFlow
 	public boolean hasNoCallees(CallNode pNode)
 	{
 		assert pNode != null;
-		return getCallees(pNode).isEmpty();
+		return aDiagram.getCallGraph().getCalls(pNode).isEmpty();
 	}
 	
 	/**
@@ -220,7 +207,7 @@ public final class ControlFlow
 	 */
 	public boolean onlyConnectedToOneCall(CallNode pNode, CallEdge pCallee)
 	{
-		List<CallEdge> calls = getCalls(pNode);
+		List<CallEdge> calls = aDiagram.getCallGraph().getCalls(pNode);
 		return !getCaller(pNode).isPresent() &&
 				calls.size() == 1 &&
 				calls.contains(pCallee);
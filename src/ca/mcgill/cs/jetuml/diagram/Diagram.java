@@ -21,8 +21,15 @@
 package ca.mcgill.cs.jetuml.diagram;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import ca.mcgill.cs.jetuml.diagram.nodes.ChildNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.ParentNode;
 
 /**
@@ -36,6 +43,8 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ParentNode;
  */
 public abstract class Diagram implements DiagramData
 {
+	private static final int CHANGE_LOG_CAPACITY = 1024;
+	
 	/*
 	 * Only root nodes are explicitly tracked by a diagram object. Nodes
 	 * that are children of their parent should be managed and accessed
@@ -43,6 +52,52 @@ public abstract class Diagram implements DiagramData
 	 */
 	private ArrayList<Node> aRootNodes;
 	private ArrayList<Edge> aEdges;
+	
+	/*
+	 * Identity sets with the same content as aRootNodes and aEdges, 
+	 * to check membership in constant time.
+	 */
+	private Set<Node> aRootNodeSet;
+	private Set<Edge> aEdgeSet;
+	
+	/*
+	 * Index of the edges connected to each node, maintained incrementally
+	 * as edges are added and removed. For each node, the edges are stored
+	 * in the same relative order as in aEdges. Nodes with no connected edges
+	 * have no entry. This index relies on the fact that the start and end nodes 
+	 * of an edge are not changed while the edge is in the diagram.
+	 */
+	private Map<Node, List<Edge>> aIncidentEdges;
+	
+	/*
+	 * Number of structural changes (addition or removal of root nodes 
+	 * and edges) performed on this diagram. Used to detect when 
+	 * information derived from the structure of the diagram is stale.
+	 */
+	private int aModificationCount = 0;
+	
+	/*
+	 * Number of changes of any kind performed on this diagram or on
+	 * its elements. Used to detect when information derived from the 
+	 * geometry of the diagram is stale.
+	 */
+	private int aVersion = 0;
+	
+	/*
+	 * The elements whose state changed since version aChangeLogStart, 
+	 * one per version. The log is reset by structural changes and when 
+	 * it exceeds its capacity.
+	 */
+	private final List<DiagramElement> aChangeLog = new ArrayList<>();
+	private int aChangeLogStart = 0;
+	
+	/*
+	 * Information derived from this diagram by other objects, such as
+	 * the cached geometry of its elements, keyed by the object that owns it.
+	 * Storing it in the diagram rather than in a map keyed by diagram or by 
+	 * element lets it be garbage-collected with the diagram.
+	 */
+	private final Map<Object, Object> aDerivedData = new IdentityHashMap<>();
 
 	/**
 	 * Creates an empty diagram.
@@ -51,6 +106,59 @@ public abstract class Diagram implements DiagramData
 	{
 		aRootNodes = new ArrayList<>();
 		aEdges = new ArrayList<>();
+		aRootNodeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+		aEdgeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+		aIncidentEdges = new IdentityHashMap<>();
+	}
+	
+	/**
+	 * Creates a diagram of the same type as this one, with a copy 
+	 * of each of its nodes and edges. The copy is made in a single pass 
+	 * over the elements, by mapping each node to its clone, and 
+	 * it shares no element with this diagram.
+	 * 
+	 * @return A copy of this diagram.
+	 */
+	public Diagram duplicate()
+	{
+		Diagram copy = DiagramType.typeOf(this).newInstance();
+		Map<Node, Node> clones = new IdentityHashMap<>();
+		List<Node> roots = new ArrayList<>(aRootNodes.size());
+		for( Node node : aRootNodes )
+		{
+			Node cloned = node.clone();
+			mapClones(node, cloned, clones);
+			roots.add(cloned);
+		}
+		List<Edge> edges = new ArrayList<>(aEdges.size());
+		for( Edge edge : aEdges )
+		{
+			Edge cloned = edge.clone();
+			cloned.connect(clones.get(edge.getStart()), clones.get(edge.getEnd()), copy);
+			edges.add(cloned);
+		}
+		copy.addElements(roots, edges);
+		return copy;
+	}
+	
+	/*
+	 * Records that pNew is the clone of pOld, and that the descendants of pNew
+	 * are the clones of the corresponding descendants of pOld. Clones keep 
+	 * the diagram of their original, so they are detached from it.
+	 */
+	private static void mapClones(Node pOld, Node pNew, Map<Node, Node> pClones)
+	{
+		pClones.put(pOld, pNew);
+		pNew.detach();
+		if( pOld instanceof ParentNode )
+		{
+			List<ChildNode> oldChildren = ((ParentNode) pOld).getChildren();
+			List<ChildNode> newChildren = ((ParentNode) pNew).getChildren();
+			for( int i = 0; i < oldChildren.size(); i++ )
+			{
+				mapClones(oldChildren.get(i), newChildren.get(i), pClones);
+			}
+		}
 	}
 	
 	@Override
@@ -88,7 +196,10 @@ public abstract class Diagram implements DiagramData
 	/**
 	 * Checks whether pElement is in the diagram. If pElement
 	 * is a node, the method returns true if it is a root node,
-	 * or any of its parent is a root node.
+	 * or any of its parent is a root node. Because nodes know their
+	 * parent, this check takes time proportional to the depth of
+	 * pElement in the containment hierarchy, and not to the size of 
+	 * the diagram.
 	 * 
 	 * @param pElement The element we want to check is in the diagram.
 	 * @return True if pElement is a node or edge in this diagram.
@@ -97,37 +208,24 @@ public abstract class Diagram implements DiagramData
 	public boolean contains(DiagramElement pElement)
 	{	
 		assert pElement != null;
-		if(aEdges.contains( pElement ))
-		{
-			return true;
-		}
-		for(Node node : aRootNodes)
+		if( pElement instanceof Edge )
 		{
-			if(containsNode( node, pElement))
-			{
-				return true;
-			}
+			return aEdgeSet.contains(pElement);
 		}
-		return false;
-	}
-	
-	private boolean containsNode(Node pTest, DiagramElement pTarget)
-	{
-		if(pTest == pTarget)
+		if( !(pElement instanceof Node) )
 		{
-			return true;
+			return false;
 		}
-		else if(pTest instanceof ParentNode)
+		Node node = (Node) pElement;
+		while( !aRootNodeSet.contains(node) )
 		{
-			for(Node node : ((ParentNode) pTest).getChildren())
+			if( !(node instanceof ChildNode) || ((ChildNode)node).getParent() == null )
 			{
-				if(containsNode(node, pTarget))
-				{
-					return true;
-				}
+				return false;
 			}
+			node = ((ChildNode)node).getParent();
 		}
-		return false;
+		return true;
 	}
 
 	/**
@@ -151,15 +249,104 @@ public abstract class Diagram implements DiagramData
 	public Iterable<Edge> edgesConnectedTo(Node pNode)
 	{
 		assert pNode != null && contains(pNode);
-		Collection<Edge> lReturn = new ArrayList<>();
-		for(Edge edge : aEdges)
+		List<Edge> edges = aIncidentEdges.get(pNode);
+		if( edges == null )
 		{
-			if (edge.getStart() == pNode || edge.getEnd() == pNode)
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(edges);
+	}
+	
+	/*
+	 * Registers pEdge with its start and end nodes. The edge is inserted 
+	 * in each incidence list at the position that preserves the order of aEdges,
+	 * assuming pEdge has already been inserted at pIndex in aEdges.
+	 */
+	private void indexEdge(int pIndex, Edge pEdge)
+	{
+		indexEdge(pIndex, pEdge, pEdge.getStart());
+		if( pEdge.getEnd() != pEdge.getStart() )
+		{
+			indexEdge(pIndex, pEdge, pEdge.getEnd());
+		}
+	}
+	
+	private void indexEdge(int pIndex, Edge pEdge, Node pNode)
+	{
+		List<Edge> edges = aIncidentEdges.computeIfAbsent(pNode, key -> new ArrayList<>());
+		if( pIndex == aEdges.size() - 1 )
+		{
+			edges.add(pEdge);
+			return;
+		}
+		int position = 0;
+		for( int i = 0; i < pIndex; i++ )
+		{
+			Edge edge = aEdges.get(i);
+			if( edge.getStart() == pNode || edge.getEnd() == pNode )
 			{
-				lReturn.add(edge);
+				position++;
 			}
 		}
-		return lReturn;
+		edges.add(position, pEdge);
+	}
+	
+	private void unindexEdge(Edge pEdge)
+	{
+		unindexEdge(pEdge, pEdge.getStart());
+		if( pEdge.getEnd() != pEdge.getStart() )
+		{
+			unindexEdge(pEdge, pEdge.getEnd());
+		}
+	}
+	
+	private void unindexEdge(Edge pEdge, Node pNode)
+	{
+		List<Edge> edges = aIncidentEdges.get(pNode);
+		if( edges == null )
+		{
+			return;
+		}
+		edges.remove(pEdge);
+		if( edges.isEmpty() )
+		{
+			aIncidentEdges.remove(pNode);
+		}
+	}
+	
+	/**
+	 * Checks that the index of edges connected to each node 
+	 * agrees with the list of edges in this diagram. This method
+	 * is linear in the number of edges and is intended to 
+	 * validate the index in tests.
+	 * 
+	 * @return True if the edges connected to each node, as returned by 
+	 * edgesConnectedTo, are exactly the edges of this diagram that start or 
+	 * end at this node, in the order in which they are stored in the diagram.
+	 */
+	boolean hasConsistentEdgeIndex()
+	{
+		Map<Node, List<Edge>> expected = new IdentityHashMap<>();
+		for( Edge edge : aEdges )
+		{
+			expected.computeIfAbsent(edge.getStart(), key -> new ArrayList<>()).add(edge);
+			if( edge.getEnd() != edge.getStart() )
+			{
+				expected.computeIfAbsent(edge.getEnd(), key -> new ArrayList<>()).add(edge);
+			}
+		}
+		if( expected.size() != aIncidentEdges.size() )
+		{
+			return false;
+		}
+		for( Map.Entry<Node, List<Edge>> entry : expected.entrySet() )
+		{
+			if( !entry.getValue().equals(aIncidentEdges.get(entry.getKey())))
+			{
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -174,6 +361,8 @@ public abstract class Diagram implements DiagramData
 		assert pNode != null;
 		recursiveAttach(pNode);
 		aRootNodes.add(pNode);
+		aRootNodeSet.add(pNode);
+		structureChanged();
 	}
 	
 	private void recursiveAttach(Node pNode)
@@ -203,16 +392,20 @@ public abstract class Diagram implements DiagramData
 	/**
 	 * Removes pNode from the list of root nodes in this
 	 * diagram. Callers must ensure that the removal preserves
-	 * the integrity of the diagram.
+	 * the integrity of the diagram. Edges connected to pNode or 
+	 * to any of its descendants remain indexed until they are 
+	 * removed with removeEdge.
 	 * 
 	 * @param pNode The node to remove.
 	 * @pre pNode != null && pNode is contained as a root node.
 	 */
 	public void removeRootNode(Node pNode)
 	{
-		assert pNode != null && aRootNodes.contains(pNode);
+		assert pNode != null && aRootNodeSet.contains(pNode);
 		recursiveDetch(pNode);
 		aRootNodes.remove(pNode);
+		aRootNodeSet.remove(pNode);
+		structureChanged();
 	}
 	
 	/**
@@ -226,6 +419,73 @@ public abstract class Diagram implements DiagramData
 	{
 		assert pEdge != null && pEdge.getStart() != null && pEdge.getEnd() != null && pEdge.getDiagram() != null;
 		aEdges.add(pEdge);
+		aEdgeSet.add(pEdge);
+		indexEdge(aEdges.size() - 1, pEdge);
+		structureChanged();
+	}
+	
+	/**
+	 * Adds all the nodes in pRootNodes as root nodes and all the edges in pEdges 
+	 * to this diagram, in order, as a single structural change. The edges should 
+	 * already be connected to their start and end nodes. The result is the same as 
+	 * adding the elements one at a time, but the diagram and its indexes are 
+	 * updated in a single pass.
+	 * 
+	 * @param pRootNodes The nodes to add.
+	 * @param pEdges The edges to add.
+	 * @pre pRootNodes != null && pEdges != null
+	 */
+	public void addElements(List<Node> pRootNodes, List<Edge> pEdges)
+	{
+		assert pRootNodes != null && pEdges != null;
+		aRootNodes.ensureCapacity(aRootNodes.size() + pRootNodes.size());
+		for( Node node : pRootNodes )
+		{
+			assert node != null;
+			recursiveAttach(node);
+			aRootNodes.add(node);
+			aRootNodeSet.add(node);
+		}
+		aEdges.ensureCapacity(aEdges.size() + pEdges.size());
+		for( Edge edge : pEdges )
+		{
+			assert edge != null && edge.getStart() != null && edge.getEnd() != null && edge.getDiagram() != null;
+			aEdges.add(edge);
+			aEdgeSet.add(edge);
+			indexEdge(aEdges.size() - 1, edge);
+		}
+		structureChanged();
+	}
+	
+	/**
+	 * Removes all the root nodes in pRootNodes and all the edges in pEdges 
+	 * from this diagram, as a single structural change. The relative order of 
+	 * the remaining elements is preserved. Callers must ensure that the removal 
+	 * preserves the integrity of the diagram.
+	 * 
+	 * @param pRootNodes The root nodes to remove.
+	 * @param pEdges The edges to remove.
+	 * @pre pRootNodes != null && pEdges != null
+	 * @pre All the elements are in this diagram.
+	 */
+	public void removeElements(List<Node> pRootNodes, List<Edge> pEdges)
+	{
+		assert pRootNodes != null && pEdges != null;
+		for( Node node : pRootNodes )
+		{
+			assert aRootNodeSet.contains(node);
+			recursiveDetch(node);
+			aRootNodeSet.remove(node);
+		}
+		aRootNodes.removeIf(node -> !aRootNodeSet.contains(node));
+		for( Edge edge : pEdges )
+		{
+			assert aEdgeSet.contains(edge);
+			aEdgeSet.remove(edge);
+			unindexEdge(edge);
+		}
+		aEdges.removeIf(edge -> !aEdgeSet.contains(edge));
+		structureChanged();
 	}
 	
 	/**
@@ -251,6 +511,101 @@ public abstract class Diagram implements DiagramData
 	{
 		assert pEdge != null && pIndex >=0 && pIndex <= aEdges.size();
 		aEdges.add(pIndex, pEdge);
+		aEdgeSet.add(pEdge);
+		indexEdge(pIndex, pEdge);
+		structureChanged();
+	}
+	
+	/**
+	 * @return A number that changes every time a root node or an edge 
+	 * is added to or removed from this diagram.
+	 */
+	int getModificationCount()
+	{
+		return aModificationCount;
+	}
+	
+	/**
+	 * @return A number that changes every time this diagram or any
+	 * of its elements is modified.
+	 */
+	public int getVersion()
+	{
+		return aVersion;
+	}
+	
+	/**
+	 * Records that the state of pElement has changed. This method is 
+	 * called by the elements of the diagram and should not be called 
+	 * by client code.
+	 * 
+	 * @param pElement The element that changed.
+	 * @pre pElement != null
+	 */
+	public void elementChanged(DiagramElement pElement)
+	{
+		assert pElement != null;
+		aVersion++;
+		if( aChangeLog.size() == CHANGE_LOG_CAPACITY )
+		{
+			aChangeLog.clear();
+			aChangeLogStart = aVersion;
+		}
+		else
+		{
+			aChangeLog.add(pElement);
+		}
+	}
+	
+	/**
+	 * Returns the elements whose state changed since pVersion, if
+	 * this information is still available. It is not available if the 
+	 * structure of the diagram changed since pVersion, or if too many
+	 * changes were made since then.
+	 * 
+	 * @param pVersion A version of this diagram, as returned by getVersion().
+	 * @return The elements that changed since pVersion, possibly with 
+	 *     duplicates, or empty if this cannot be determined.
+	 * @pre pVersion <= getVersion()
+	 */
+	public Optional<List<DiagramElement>> getChangesSince(int pVersion)
+	{
+		assert pVersion <= aVersion;
+		if( pVersion < aChangeLogStart )
+		{
+			return Optional.empty();
+		}
+		return Optional.of(Collections.unmodifiableList(
+				new ArrayList<>(aChangeLog.subList(pVersion - aChangeLogStart, aChangeLog.size()))));
+	}
+	
+	/**
+	 * Obtains the information that pOwner derives from this diagram,
+	 * creating it with pFactory the first time it is requested. The 
+	 * information is kept for as long as this diagram exists, and is
+	 * only used to avoid recomputations: it is not part of the diagram. 
+	 * It can refer to this diagram and its elements without keeping
+	 * them alive once the diagram is no longer used.
+	 * 
+	 * @param pOwner The object that computes the information. Owners are compared by identity.
+	 * @param pFactory Creates the initial information for pOwner.
+	 * @param <T> The type of the information.
+	 * @return The information that pOwner derives from this diagram.
+	 * @pre pOwner != null && pFactory != null
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T> T getDerivedData(Object pOwner, Supplier<T> pFactory)
+	{
+		assert pOwner != null && pFactory != null;
+		return (T) aDerivedData.computeIfAbsent(pOwner, key -> pFactory.get());
+	}
+	
+	private void structureChanged()
+	{
+		aModificationCount++;
+		aVersion++;
+		aChangeLog.clear();
+		aChangeLogStart = aVersion;
 	}
 	
 	/**
@@ -270,7 +625,10 @@ public abstract class Diagram implements DiagramData
 	 */
 	public void removeEdge(Edge pEdge)
 	{
-		assert pEdge != null && aEdges.contains(pEdge);
+		assert pEdge != null && aEdgeSet.contains(pEdge);
 		aEdges.remove(pEdge);
+		aEdgeSet.remove(pEdge);
+		unindexEdge(pEdge);
+		structureChanged();
 	}
 }
\ No newline at end of file
@@ -20,6 +20,9 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.diagram;
 
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import ca.mcgill.cs.jetuml.diagram.builder.ClassDiagramBuilder;
 import ca.mcgill.cs.jetuml.diagram.builder.DiagramBuilder;
 import ca.mcgill.cs.jetuml.diagram.builder.ObjectDiagramBuilder;
@@ -36,20 +39,23 @@ import ca.mcgill.cs.jetuml.views.SequenceDiagramViewer;
  */
 public enum DiagramType
 {
-	CLASS(ClassDiagram.class, ClassDiagramBuilder.class, new DiagramViewer()), 
-	SEQUENCE(SequenceDiagram.class, SequenceDiagramBuilder.class, new SequenceDiagramViewer()), 
-	STATE(StateDiagram.class, StateDiagramBuilder.class, new DiagramViewer()), 
-	OBJECT(ObjectDiagram.class, ObjectDiagramBuilder.class, new DiagramViewer()), 
-	USECASE(UseCaseDiagram.class, UseCaseDiagramBuilder.class, new DiagramViewer());
+	CLASS(ClassDiagram.class, ClassDiagram::new, ClassDiagramBuilder::new, new DiagramViewer()), 
+	SEQUENCE(SequenceDiagram.class, SequenceDiagram::new, SequenceDiagramBuilder::new, new SequenceDiagramViewer()), 
+	STATE(StateDiagram.class, StateDiagram::new, StateDiagramBuilder::new, new DiagramViewer()), 
+	OBJECT(ObjectDiagram.class, ObjectDiagram::new, ObjectDiagramBuilder::new, new DiagramViewer()), 
+	USECASE(UseCaseDiagram.class, UseCaseDiagram::new, UseCaseDiagramBuilder::new, new DiagramViewer());
 	
 	private final Class<?> aClass;
-	private final Class<?> aBuilderClass;
+	private final Supplier<Diagram> aConstructor;
+	private final Function<Diagram, DiagramBuilder> aBuilderConstructor;
 	private final DiagramViewer aViewer;
 	
-	DiagramType(Class<?> pClass, Class<?> pBuilderClass, DiagramViewer pViewer)
+	DiagramType(Class<?> pClass, Supplier<Diagram> pConstructor, Function<Diagram, DiagramBuilder> pBuilderConstructor, 
+			DiagramViewer pViewer)
 	{
 		aClass = pClass;
-		aBuilderClass = pBuilderClass;
+		aConstructor = pConstructor;
+		aBuilderConstructor = pBuilderConstructor;
 		aViewer = pViewer;
 	}
 	
@@ -77,15 +83,7 @@ public enum DiagramType
 	 */
 	public Diagram newInstance()
 	{
-		try
-		{
-			return (Diagram) aClass.getDeclaredConstructor().newInstance();
-		}
-		catch(ReflectiveOperationException exception)
-		{
-			assert false;
-			return null;
-		}
+		return aConstructor.get();
 	}
 	
 	/**
@@ -96,15 +94,7 @@ public enum DiagramType
 	public static DiagramBuilder newBuilderInstanceFor(Diagram pDiagram)
 	{
 		assert pDiagram != null;
-		try
-		{
-			return (DiagramBuilder) typeOf(pDiagram).aBuilderClass.getDeclaredConstructor(Diagram.class).newInstance(pDiagram);
-		}
-		catch(ReflectiveOperationException exception)
-		{
-			assert false;
-			return null;
-		}
+		return typeOf(pDiagram).aBuilderConstructor.apply(pDiagram);
 	}
 	
 	/**
@@ -32,7 +32,8 @@ public interface Node extends DiagramElement
 {
 	/**
 	 * @return The position of this node. Usually corresponds to the top left corner 
-	 * of its bounding box.
+	 * of its bounding box. The point is updated when the node moves, so clients 
+	 * that need a fixed location must copy it.
 	 */
 	Point position();
 
@@ -73,4 +74,11 @@ public interface Node extends DiagramElement
 	 * or empty() if the node is not attached.
 	 */
 	Optional<Diagram> getDiagram();
+	
+	/**
+	 * @return A number that changes every time this node or one
+	 * of the nodes it contains is modified. The stamps of different 
+	 * nodes are never equal.
+	 */
+	long getChangeStamp();
 }
@@ -41,10 +41,44 @@ import java.util.function.Supplier;
  * allows client code to insert a property at a specific index. Keeping properties in order
  * allows for uses such as displaying properties in a predictable order, for instance 
  * in GUI forms.
+ * 
+ * A Properties object can be created with a change handler, which is 
+ * run every time the value of one of its properties is set.
  */
 public class Properties implements Iterable<Property>
 {
 	private final List<Property> aProperties = new ArrayList<>();
+	private final Runnable aChangeHandler;
+	
+	/**
+	 * Creates an empty Properties object.
+	 */
+	public Properties()
+	{
+		this(() -> {});
+	}
+	
+	/**
+	 * Creates an empty Properties object that runs pChangeHandler
+	 * after the value of any of its properties is set.
+	 * 
+	 * @param pChangeHandler The code to run when a property changes.
+	 * @pre pChangeHandler != null
+	 */
+	public Properties(Runnable pChangeHandler)
+	{
+		assert pChangeHandler != null;
+		aChangeHandler = pChangeHandler;
+	}
+	
+	private Consumer<Object> notifying(Consumer<Object> pSetter)
+	{
+		return pValue -> 
+		{
+			pSetter.accept(pValue);
+			aChangeHandler.run();
+		};
+	}
 	
 	/**
 	 * Adds a visible property to the list. The property is added at the end of the list.
@@ -59,7 +93,7 @@ public class Properties implements Iterable<Property>
 		assert pName != null && pGetter != null & pSetter != null;
 		if( !contains(pName) )
 		{
-			aProperties.add(new Property(pName, pGetter, pSetter, true));
+			aProperties.add(new Property(pName, pGetter, notifying(pSetter), true));
 		}
 	}
 	
@@ -111,7 +145,7 @@ public class Properties implements Iterable<Property>
 		assert pName != null && pGetter != null & pSetter != null;
 		if( !contains(pName) )
 		{
-			aProperties.add(new Property(pName, pGetter, pSetter, false));
+			aProperties.add(new Property(pName, pGetter, notifying(pSetter), false));
 		}
 	}
 	
@@ -131,7 +165,7 @@ public class Properties implements Iterable<Property>
 		assert pIndex >=0 && pIndex <= aProperties.size();
 		if( !contains(pName) )
 		{
-			aProperties.add(pIndex, new Property(pName, pGetter, pSetter, true));
+			aProperties.add(pIndex, new Property(pName, pGetter, notifying(pSetter), true));
 		}
 	}
 
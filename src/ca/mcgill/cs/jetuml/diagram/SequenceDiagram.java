@@ -37,6 +37,9 @@ public final class SequenceDiagram extends Diagram
 	private static final Node[] NODE_PROTOTYPES = new Node[]{new ImplicitParameterNode(), new NoteNode()};
 	private static final Edge[] EDGE_PROTOTYPES = new Edge[]{new CallEdge(), new ReturnEdge(), new NoteEdge()};
 	
+	private CallGraph aCallGraph;
+	private int aCallGraphModificationCount;
+	
 	@Override
 	public Node[] getNodePrototypes()
 	{
@@ -49,6 +52,20 @@ public final class SequenceDiagram extends Diagram
 		return EDGE_PROTOTYPES;
 	}
 	
+	/**
+	 * @return The call graph of this diagram, rebuilt if the 
+	 * diagram was modified since it was last computed.
+	 */
+	CallGraph getCallGraph()
+	{
+		if( aCallGraph == null || aCallGraphModificationCount != getModificationCount() )
+		{
+			aCallGraph = new CallGraph(this);
+			aCallGraphModificationCount = getModificationCount();
+		}
+		return aCallGraph;
+	}
+	
 	@Override
 	public String getFileExtension() 
 	{
@@ -23,6 +23,7 @@ package ca.mcgill.cs.jetuml.diagram.builder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * An operation that is composed of other operations, following
@@ -36,6 +37,7 @@ import java.util.List;
 public class CompoundOperation implements DiagramOperation
 {
 	private List<DiagramOperation> aOperations = new ArrayList<>();
+	private int aWeight = 0;
 	
 	/**
 	 * Adds a sub-operation.
@@ -46,6 +48,7 @@ public class CompoundOperation implements DiagramOperation
 	public void add(DiagramOperation pOperation)
 	{
 		aOperations.add(pOperation);
+		aWeight += pOperation.getWeight();
 	}
 
 	@Override
@@ -68,6 +71,45 @@ public class CompoundOperation implements DiagramOperation
 		}
 	}
 	
+	/**
+	 * Merges this operation with pNext if pNext is a compound operation 
+	 * with the same number of sub-operations, and each sub-operation 
+	 * can be merged with the corresponding sub-operation of pNext.
+	 * 
+	 * @param pNext The operation that follows this one.
+	 * @return The merged operation, or empty if the two operations cannot be merged.
+	 */
+	@Override
+	public Optional<DiagramOperation> mergeWith(DiagramOperation pNext)
+	{
+		assert pNext != null;
+		if( !(pNext instanceof CompoundOperation) || ((CompoundOperation)pNext).aOperations.size() != aOperations.size() )
+		{
+			return Optional.empty();
+		}
+		List<DiagramOperation> next = ((CompoundOperation)pNext).aOperations;
+		CompoundOperation result = new CompoundOperation();
+		for( int i = 0; i < aOperations.size(); i++ )
+		{
+			Optional<DiagramOperation> merged = aOperations.get(i).mergeWith(next.get(i));
+			if( !merged.isPresent() )
+			{
+				return Optional.empty();
+			}
+			result.add(merged.get());
+		}
+		return Optional.of(result);
+	}
+	
+	/**
+	 * @return The total weight of the sub-operations.
+	 */
+	@Override
+	public int getWeight()
+	{
+		return aWeight;
+	}
+	
 	/**
 	 * @return True if this CompoundOperation contains
 	 * no sub-operation.
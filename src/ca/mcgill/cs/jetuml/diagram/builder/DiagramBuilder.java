@@ -203,33 +203,53 @@ public abstract class DiagramBuilder
 	 */
 	public final DiagramOperation createAddElementsOperation(Iterable<DiagramElement> pElements)
 	{
-		CompoundOperation operation = new CompoundOperation();
+		assert pElements != null;
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		int weight = 0;
 		for( DiagramElement element : pElements)
 		{
 			if( element instanceof Node )
 			{
-				operation.add(new SimpleOperation(
-						()-> aDiagram.addRootNode((Node)element),
-						()-> aDiagram.removeRootNode((Node)element)));
+				nodes.add((Node) element);
+				weight += weightOf((Node) element);
 			}
 			else if( element instanceof Edge)
 			{
-				/* We need to re-connect the edge to set the correct value for the
-				 * reference to the diagram, to cover the cases where elements might 
-				 * be added by being copied from one diagram and pasted into another.
-				 */
-				operation.add(new SimpleOperation(
-						()-> 
-						{ 
-							Edge edge = (Edge) element;
-							aDiagram.addEdge(edge); 
-							edge.connect(edge.getStart(), edge.getEnd(), aDiagram);	
-						},
-						()-> aDiagram.removeEdge((Edge)element)));
+				edges.add((Edge) element);
 			}
 		}
-		
-		return operation;
+		return new SimpleOperation(
+				()-> 
+				{
+					/* We need to re-connect the edges to set the correct value for the
+					 * reference to the diagram, to cover the cases where elements might 
+					 * be added by being copied from one diagram and pasted into another.
+					 */
+					for( Edge edge : edges )
+					{
+						edge.connect(edge.getStart(), edge.getEnd(), aDiagram);
+					}
+					aDiagram.addElements(nodes, edges);
+				},
+				()-> aDiagram.removeElements(nodes, edges), weight + edges.size());
+	}
+	
+	/*
+	 * The number of nodes in the tree rooted at pNode, which are all
+	 * retained by an operation that adds or removes pNode.
+	 */
+	private static int weightOf(Node pNode)
+	{
+		int weight = 1;
+		if( pNode instanceof ParentNode )
+		{
+			for( Node child : ((ParentNode) pNode).getChildren() )
+			{
+				weight += weightOf(child);
+			}
+		}
+		return weight;
 	}
 	
 	/**
@@ -379,13 +399,13 @@ public abstract class DiagramBuilder
 				{
 					result.add(new SimpleOperation(
 						createDetachOperation((ChildNode)element),
-						createReinsertOperation((ChildNode)element)));
+						createReinsertOperation((ChildNode)element), weightOf((Node)element)));
 				}
 				else
 				{
 					result.add(new SimpleOperation(
 						()-> aDiagram.removeRootNode((Node)element),
-						()-> aDiagram.addRootNode((Node)element)));
+						()-> aDiagram.addRootNode((Node)element), weightOf((Node)element)));
 				}
 			}
 		}
@@ -403,9 +423,7 @@ public abstract class DiagramBuilder
 	 */
 	public final DiagramOperation createMoveNodeOperation(Node pNode, int pX, int pY)
 	{
-		return new SimpleOperation(
-				()-> pNode.translate(pX, pY),
-				()-> pNode.translate(-pX, -pY));
+		return new MoveNodeOperation(pNode, pX, pY);
 	}
 	
 	/**
@@ -20,6 +20,8 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.diagram.builder;
 
+import java.util.Optional;
+
 /**
  * Represents an operation to change a diagram, that
  * can be undone. Operations are only required to be valid
@@ -36,4 +38,28 @@ public interface DiagramOperation
 	 * Undoes the operation.
 	 */
 	void undo();
+	
+	/**
+	 * @return An approximation of the memory retained by this operation, 
+	 *     expressed as the number of diagram elements it references.
+	 */
+	default int getWeight()
+	{
+		return 1;
+	}
+	
+	/**
+	 * Combines this operation with pNext, an operation performed
+	 * right after it, into a single operation with the effect of 
+	 * executing both in sequence. Operations are not mergeable by default.
+	 * 
+	 * @param pNext The operation that follows this one.
+	 * @return The merged operation, or empty if the two operations cannot be merged.
+	 * @pre pNext != null
+	 */
+	default Optional<DiagramOperation> mergeWith(DiagramOperation pNext)
+	{
+		assert pNext != null;
+		return Optional.empty();
+	}
 }
@@ -21,20 +21,97 @@
 
 package ca.mcgill.cs.jetuml.diagram.builder;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Optional;
 
 /**
  * Responsible for executing and undoing operations, and managing the collection 
  * of previously executed and undone operations. Can also compute whether a 
  * diagram has unsaved modifications.
+ * 
+ * The history of operations is bounded both by a maximum number of operations 
+ * and by a maximum total weight, an approximation of the memory retained by the 
+ * operations (see DiagramOperation.getWeight()). When either limit is exceeded, 
+ * the oldest executed operations are discarded first, then the undone operations 
+ * furthest from the current state. The last executed operation is never discarded.
+ * 
+ * To keep the history compact, an operation stored within a short time window after 
+ * the previous one is merged with it when possible (see DiagramOperation.mergeWith), 
+ * for example when the same nodes are moved repeatedly. Operations are never merged 
+ * across an undo, a redo, or a save.
  */
 public class DiagramOperationProcessor
 {
-	private final List<DiagramOperation> aExecutedOperations = new ArrayList<>();
-	private final List<DiagramOperation> aUndoneOperations = new ArrayList<>();
+	/**
+	 * The maximum number of executed or undone operations kept by default.
+	 */
+	public static final int DEFAULT_MAXIMUM_DEPTH = 1000;
+	
+	/**
+	 * The maximum total weight of the operations kept by default.
+	 */
+	public static final int DEFAULT_MAXIMUM_WEIGHT = 100000;
+	
+	/**
+	 * The default time window, in milliseconds, within which consecutive operations are merged.
+	 */
+	public static final int DEFAULT_MERGE_WINDOW = 1000;
+	
+	private final Deque<DiagramOperation> aExecutedOperations = new ArrayDeque<>();
+	private final Deque<DiagramOperation> aUndoneOperations = new ArrayDeque<>();
 	private Optional<DiagramOperation> aLastSavedOperation = Optional.empty();
+	// True if the saved state can no longer be reached by undoing or redoing operations
+	private boolean aSavedStateDiscarded = false;
+	private final int aMaximumDepth;
+	private final int aMaximumWeight;
+	private final int aMergeWindow;
+	private long aWeight = 0;
+	// The last operation stored, if it is still on top of the executed operations and can be merged
+	private Optional<DiagramOperation> aLastStoredOperation = Optional.empty();
+	private long aLastStoredTime = 0;
+	
+	/**
+	 * Creates a processor with the default limits.
+	 */
+	public DiagramOperationProcessor()
+	{
+		this(DEFAULT_MAXIMUM_DEPTH, DEFAULT_MAXIMUM_WEIGHT);
+	}
+	
+	/**
+	 * Creates a processor that keeps at most pMaximumDepth executed 
+	 * operations and pMaximumDepth undone operations, with a total 
+	 * weight of at most pMaximumWeight.
+	 * 
+	 * @param pMaximumDepth The maximum number of executed or undone operations to keep.
+	 * @param pMaximumWeight The maximum total weight of the operations to keep.
+	 * @pre pMaximumDepth > 0 && pMaximumWeight > 0
+	 */
+	public DiagramOperationProcessor(int pMaximumDepth, int pMaximumWeight)
+	{
+		this(pMaximumDepth, pMaximumWeight, DEFAULT_MERGE_WINDOW);
+	}
+	
+	/**
+	 * Creates a processor that keeps at most pMaximumDepth executed 
+	 * operations and pMaximumDepth undone operations, with a total 
+	 * weight of at most pMaximumWeight, and that merges operations 
+	 * stored less than pMergeWindow milliseconds apart.
+	 * 
+	 * @param pMaximumDepth The maximum number of executed or undone operations to keep.
+	 * @param pMaximumWeight The maximum total weight of the operations to keep.
+	 * @param pMergeWindow The time window for merging operations, in milliseconds. 
+	 *     Operations are never merged if this is 0.
+	 * @pre pMaximumDepth > 0 && pMaximumWeight > 0 && pMergeWindow >= 0
+	 */
+	public DiagramOperationProcessor(int pMaximumDepth, int pMaximumWeight, int pMergeWindow)
+	{
+		assert pMaximumDepth > 0 && pMaximumWeight > 0 && pMergeWindow >= 0;
+		aMaximumDepth = pMaximumDepth;
+		aMaximumWeight = pMaximumWeight;
+		aMergeWindow = pMergeWindow;
+	}
 	
 	/**
 	 * Executes pOperation and adds it to the list of executed
@@ -47,7 +124,8 @@ public class DiagramOperationProcessor
 	{
 		assert pOperation != null;
 		pOperation.execute();
-		aExecutedOperations.add(pOperation);
+		pushExecuted(pOperation);
+		trim();
 	}
 	
 	/**
@@ -55,6 +133,10 @@ public class DiagramOperationProcessor
 	 */
 	public boolean hasUnsavedOperations()
 	{
+		if( aSavedStateDiscarded )
+		{
+			return true;
+		}
 		if( aLastSavedOperation.isPresent() )
 		{
 			if( aExecutedOperations.isEmpty() )
@@ -63,7 +145,7 @@ public class DiagramOperationProcessor
 			}
 			else
 			{
-				return aLastSavedOperation.get() != peek();
+				return aLastSavedOperation.get() != aExecutedOperations.peekLast();
 			}
 		}
 		else
@@ -72,21 +154,14 @@ public class DiagramOperationProcessor
 		}
 	}
 	
-	private DiagramOperation peek()
-	{
-		return aExecutedOperations.get(aExecutedOperations.size()-1);
-	}
-	
 	/**
 	 * Indicates that the diagram managed by this processor has been saved.
 	 */
 	public void diagramSaved()
 	{
-		aLastSavedOperation = Optional.empty();
-		if( aExecutedOperations.size() > 0 )
-		{
-			aLastSavedOperation = Optional.of(peek());
-		}
+		aLastSavedOperation = Optional.ofNullable(aExecutedOperations.peekLast());
+		aSavedStateDiscarded = false;
+		aLastStoredOperation = Optional.empty();
 	}
 	
 	/**
@@ -99,7 +174,8 @@ public class DiagramOperationProcessor
 	public void storeAlreadyExecutedOperation(DiagramOperation pOperation)
 	{
 		assert pOperation != null;
-		aExecutedOperations.add(pOperation);
+		pushExecuted(pOperation);
+		trim();
 	}
 	
 	/**
@@ -110,9 +186,11 @@ public class DiagramOperationProcessor
 	public void undoLastExecutedOperation()
 	{
 		assert canUndo();
-		DiagramOperation operation = aExecutedOperations.remove(aExecutedOperations.size() - 1);
+		DiagramOperation operation = aExecutedOperations.removeLast();
 		operation.undo();
-		aUndoneOperations.add(operation);
+		aUndoneOperations.addLast(operation);
+		aLastStoredOperation = Optional.empty();
+		trim();
 	}
 	
 	/**
@@ -123,9 +201,10 @@ public class DiagramOperationProcessor
 	public void redoLastUndoneOperation()
 	{
 		assert canRedo();
-		DiagramOperation operation = aUndoneOperations.remove(aUndoneOperations.size() - 1);
+		DiagramOperation operation = aUndoneOperations.removeLast();
 		operation.execute();
-		aExecutedOperations.add(operation);
+		aExecutedOperations.addLast(operation);
+		aLastStoredOperation = Optional.empty();
 	}
 
 	/**
@@ -143,4 +222,84 @@ public class DiagramOperationProcessor
 	{
 		return !aUndoneOperations.isEmpty();
 	}
+	
+	/**
+	 * @return The number of operations that can be undone or redone.
+	 */
+	public int getNumberOfOperations()
+	{
+		return aExecutedOperations.size() + aUndoneOperations.size();
+	}
+	
+	/**
+	 * @return The total weight of the operations that can be undone or redone, 
+	 *     as an approximation of the memory they retain.
+	 */
+	public long getWeight()
+	{
+		return aWeight;
+	}
+	
+	/*
+	 * Adds pOperation on top of the executed operations, merging it with the 
+	 * previous operation if that operation was stored within the merge window.
+	 */
+	private void pushExecuted(DiagramOperation pOperation)
+	{
+		long now = System.currentTimeMillis();
+		DiagramOperation operation = pOperation;
+		if( aLastStoredOperation.isPresent() && now - aLastStoredTime < aMergeWindow )
+		{
+			Optional<DiagramOperation> merged = aLastStoredOperation.get().mergeWith(pOperation);
+			if( merged.isPresent() )
+			{
+				aWeight -= aExecutedOperations.removeLast().getWeight();
+				operation = merged.get();
+			}
+		}
+		aExecutedOperations.addLast(operation);
+		aWeight += operation.getWeight();
+		aLastStoredOperation = Optional.of(operation);
+		aLastStoredTime = now;
+	}
+	
+	/*
+	 * Discards the oldest operations until the history is within its limits.
+	 */
+	private void trim()
+	{
+		while( aExecutedOperations.size() > 1 && 
+				(aExecutedOperations.size() > aMaximumDepth || aWeight > aMaximumWeight))
+		{
+			discardOldestExecutedOperation();
+		}
+		while( !aUndoneOperations.isEmpty() && 
+				(aUndoneOperations.size() > aMaximumDepth || aWeight > aMaximumWeight))
+		{
+			DiagramOperation operation = aUndoneOperations.removeFirst();
+			aWeight -= operation.getWeight();
+			if( aLastSavedOperation.isPresent() && aLastSavedOperation.get() == operation )
+			{
+				aSavedStateDiscarded = true;
+			}
+		}
+	}
+	
+	/*
+	 * Once the oldest operation is discarded, the state that precedes it can no longer 
+	 * be reached, and the state that follows it becomes the oldest reachable state.
+	 */
+	private void discardOldestExecutedOperation()
+	{
+		DiagramOperation operation = aExecutedOperations.removeFirst();
+		aWeight -= operation.getWeight();
+		if( !aLastSavedOperation.isPresent() )
+		{
+			aSavedStateDiscarded = true;
+		}
+		else if( aLastSavedOperation.get() == operation )
+		{
+			aLastSavedOperation = Optional.empty();
+		}
+	}
 }
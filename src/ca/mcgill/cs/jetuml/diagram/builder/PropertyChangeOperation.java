@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram.builder;
+
+import java.util.Optional;
+
+import ca.mcgill.cs.jetuml.diagram.Property;
+
+/**
+ * An operation that changes the value of a property. Consecutive 
+ * changes to the same property can be merged into a single change
+ * from the original value to the final value.
+ */
+public final class PropertyChangeOperation implements DiagramOperation
+{
+	private final Property aProperty;
+	private final Object aOldValue;
+	private final Object aNewValue;
+	
+	/**
+	 * Creates an operation to change the value of pProperty.
+	 * 
+	 * @param pProperty The property to change.
+	 * @param pOldValue The value of the property when the operation is undone.
+	 * @param pNewValue The value of the property when the operation is executed.
+	 * @pre pProperty != null
+	 */
+	public PropertyChangeOperation(Property pProperty, Object pOldValue, Object pNewValue)
+	{
+		assert pProperty != null;
+		aProperty = pProperty;
+		aOldValue = pOldValue;
+		aNewValue = pNewValue;
+	}
+
+	@Override
+	public void execute()
+	{
+		aProperty.set(aNewValue);
+	}
+
+	@Override
+	public void undo()
+	{
+		aProperty.set(aOldValue);
+	}
+	
+	@Override
+	public Optional<DiagramOperation> mergeWith(DiagramOperation pNext)
+	{
+		assert pNext != null;
+		if( pNext instanceof PropertyChangeOperation && ((PropertyChangeOperation)pNext).aProperty == aProperty )
+		{
+			return Optional.of(new PropertyChangeOperation(aProperty, aOldValue, ((PropertyChangeOperation)pNext).aNewValue));
+		}
+		return Optional.empty();
+	}
+}
@@ -30,6 +30,7 @@ public class SimpleOperation implements DiagramOperation
 {
 	private final Runnable aOperation;
 	private final Runnable aReverse;
+	private final int aWeight;
 	
 	/**
 	 * Creates an operation.
@@ -43,9 +44,27 @@ public class SimpleOperation implements DiagramOperation
 	 */
 	public SimpleOperation(Runnable pOperation, Runnable pReverse)
 	{
-		assert pOperation != null && pReverse != null;
+		this(pOperation, pReverse, 1);
+	}
+	
+	/**
+	 * Creates an operation that references pWeight diagram elements.
+	 * 
+	 * @param pOperation The code to run when the operation is
+	 * executed.
+	 * @param pReverse The code to run when the operation is
+	 * undone.
+	 * @param pWeight The number of diagram elements referenced by the operation.
+	 * @pre pOperation != null
+	 * @pre pReverse != null
+	 * @pre pWeight >= 0
+	 */
+	public SimpleOperation(Runnable pOperation, Runnable pReverse, int pWeight)
+	{
+		assert pOperation != null && pReverse != null && pWeight >= 0;
 		aOperation = pOperation;
 		aReverse = pReverse;
+		aWeight = pWeight;
 	}
 
 	@Override
@@ -59,4 +78,10 @@ public class SimpleOperation implements DiagramOperation
 	{
 		aReverse.run();
 	}
+	
+	@Override
+	public int getWeight()
+	{
+		return aWeight;
+	}
 }
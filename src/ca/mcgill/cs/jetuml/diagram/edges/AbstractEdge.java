@@ -41,6 +41,21 @@ public abstract class AbstractEdge extends AbstractDiagramElement implements Edg
 		aStart = pStart;
 		aEnd = pEnd;
 		aDiagram = pDiagram;
+		notifyChanged();
+	}
+
+	/*
+	 * Edges are connected in a diagram before being added to it, and 
+	 * detached copies of an edge keep the diagram of the original, so 
+	 * only changes to an edge that is in its diagram are reported.
+	 */
+	@Override
+	protected void notifyChanged()
+	{
+		if( aDiagram != null && aDiagram.contains(this) )
+		{
+			aDiagram.elementChanged(this);
+		}
 	}
 
 	@Override
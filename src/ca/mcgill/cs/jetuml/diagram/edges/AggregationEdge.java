@@ -69,6 +69,7 @@ public final class AggregationEdge extends ThreeLabelEdge
 	public void setType(Type pType)
 	{
 		aType = pType;
+		notifyChanged();
 	}
 	
 	@Override
@@ -45,6 +45,7 @@ public final class AssociationEdge extends ThreeLabelEdge
 	public void setDirectionality( Directionality pDirectionality )
 	{
 		aDirectionality = pDirectionality;
+		notifyChanged();
 	}
 	
 	/**
@@ -59,6 +59,7 @@ public final class CallEdge extends SingleLabelEdge
 	public void setSignal(boolean pNewValue) 
 	{ 
 		aSignal = pNewValue; 
+		notifyChanged();
 	}
 	
 	/**
@@ -70,6 +70,7 @@ public final class GeneralizationEdge extends ThreeLabelEdge
 	public void setType(Type pType)
 	{
 		aType = pType;
+		notifyChanged();
 	}
 	
 	@Override
@@ -21,6 +21,7 @@
 package ca.mcgill.cs.jetuml.diagram.nodes;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import ca.mcgill.cs.jetuml.diagram.AbstractDiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
@@ -32,13 +33,24 @@ import ca.mcgill.cs.jetuml.geom.Point;
  */
 public abstract class AbstractNode extends AbstractDiagramElement implements Node
 {
+	// Change stamps are drawn from a single sequence shared by all nodes.
+	private static final AtomicLong CHANGE_STAMPS = new AtomicLong();
+	
+	/*
+	 * The position is owned by the node and updated in place, so that moving
+	 * a node does not allocate. It is never shared with another node or with 
+	 * the caller of moveTo.
+	 */
 	private Point aPosition = new Point(0, 0);
 	private Optional<Diagram> aDiagram = Optional.empty();
+	private long aChangeStamp = CHANGE_STAMPS.incrementAndGet();
 	
 	@Override
 	public void translate(int pDeltaX, int pDeltaY)
 	{
-		aPosition = new Point( aPosition.getX() + pDeltaX, aPosition.getY() + pDeltaY );
+		aPosition.setX(aPosition.getX() + pDeltaX);
+		aPosition.setY(aPosition.getY() + pDeltaY);
+		notifyChanged();
 	}
 	
 	@Override
@@ -50,13 +62,16 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	@Override
 	public final void moveTo(Point pPoint)
 	{
-		aPosition = pPoint;
+		aPosition = pPoint.clone();
+		notifyChanged();
 	}
 
 	@Override
 	public AbstractNode clone()
 	{
 		AbstractNode clone = (AbstractNode) super.clone();
+		clone.aPosition = aPosition.clone();
+		clone.aChangeStamp = CHANGE_STAMPS.incrementAndGet();
 		return clone;
 	}
 	
@@ -74,6 +89,37 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 		properties().addInvisible("y", () -> aPosition.getY(), pY -> aPosition.setY((int)pY));
 	}
 	
+	/*
+	 * A change to a child node can affect the geometry of its parent, so 
+	 * it also changes the stamp of all the ancestors of the node. Nodes that 
+	 * are not attached to a diagram report their changes to the diagram of 
+	 * their closest attached ancestor.
+	 */
+	@Override
+	protected void notifyChanged()
+	{
+		long stamp = CHANGE_STAMPS.incrementAndGet();
+		aChangeStamp = stamp;
+		Optional<Diagram> diagram = aDiagram;
+		Node node = this;
+		while( node instanceof ChildNode && ((ChildNode)node).getParent() != null )
+		{
+			node = ((ChildNode)node).getParent();
+			((AbstractNode)node).aChangeStamp = stamp;
+			if( !diagram.isPresent() )
+			{
+				diagram = node.getDiagram();
+			}
+		}
+		diagram.ifPresent(target -> target.elementChanged(this));
+	}
+	
+	@Override
+	public final long getChangeStamp()
+	{
+		return aChangeStamp;
+	}
+	
 	@Override
 	public final void attach(Diagram pDiagram)
 	{
@@ -52,6 +52,7 @@ public class CallNode extends AbstractNode implements ChildNode
 	public void setOpenBottom(boolean pNewValue)
 	{ 
 		aOpenBottom = pNewValue; 
+		notifyChanged();
 	}
 
 	@Override
@@ -101,6 +102,7 @@ public class CallNode extends AbstractNode implements ChildNode
 	{
 		assert pNode instanceof ImplicitParameterNode || pNode == null;
 		aImplicitParameter = (ImplicitParameterNode) pNode;
+		notifyChanged();
 	}
 
 	@Override
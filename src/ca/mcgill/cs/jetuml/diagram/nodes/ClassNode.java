@@ -46,6 +46,7 @@ public final class ClassNode extends TypeNode
 	{
 		assert pNewValue != null;
 		aAttributes = pNewValue;
+		notifyChanged();
 	}
 
 	/**
@@ -36,6 +36,7 @@ public final class FieldNode extends NamedNode implements ChildNode
 	public void setValue(String pNewValue)
 	{
 		aValue = pNewValue;
+		notifyChanged();
 	}
 
 	/**
@@ -58,6 +59,7 @@ public final class FieldNode extends NamedNode implements ChildNode
 	{
 		assert pNode == null || pNode instanceof ObjectNode;
 		aObject = (ObjectNode) pNode;		
+		notifyChanged();
 	}
 	
 	@Override
@@ -73,6 +73,7 @@ public final class ImplicitParameterNode extends NamedNode implements ParentNode
 		}
 		aCallNodes.add(pNode);
 		pNode.setParent(this);
+		notifyChanged();
 	}
 
 	@Override
@@ -84,5 +85,6 @@ public final class ImplicitParameterNode extends NamedNode implements ParentNode
 		}
 		aCallNodes.remove(pNode);
 		pNode.setParent(null);
+		notifyChanged();
 	}
 }
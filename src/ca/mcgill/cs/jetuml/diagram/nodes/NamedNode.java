@@ -35,6 +35,7 @@ public abstract class NamedNode extends AbstractNode
 	public void setName(String pName)
 	{
 		aName = pName;
+		notifyChanged();
 	}
 
 	/**
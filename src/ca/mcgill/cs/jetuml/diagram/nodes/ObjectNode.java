@@ -80,6 +80,7 @@ public final class ObjectNode extends NamedNode implements ParentNode
 		}
 		aFields.add(pIndex, pNode);
 		pNode.setParent(this);
+		notifyChanged();
 	}
 
 	@Override
@@ -98,5 +99,6 @@ public final class ObjectNode extends NamedNode implements ParentNode
 		}
 		aFields.remove(pNode);
 		pNode.setParent(null);
+		notifyChanged();
 	}
 }
@@ -43,6 +43,7 @@ public final class PackageNode extends AbstractNode implements ParentNode, Child
 	public void setName(String pName)
 	{
 		aName = pName;
+		notifyChanged();
 	}
 
 	/**
@@ -61,6 +62,7 @@ public final class PackageNode extends AbstractNode implements ParentNode, Child
 	public void setContents(String pContents)
 	{
 		aContents = pContents;
+		notifyChanged();
 	}
 	
 	@Override
@@ -109,6 +111,7 @@ public final class PackageNode extends AbstractNode implements ParentNode, Child
 	{
 		assert pNode instanceof PackageNode || pNode == null;
 		aContainer = pNode;
+		notifyChanged();
 	}
 
 	@Override
@@ -129,6 +132,7 @@ public final class PackageNode extends AbstractNode implements ParentNode, Child
 		}
 		aContainedNodes.add(pIndex, pNode);
 		pNode.setParent(this);
+		notifyChanged();
 	}
 
 	@Override
@@ -143,6 +147,7 @@ public final class PackageNode extends AbstractNode implements ParentNode, Child
 	{
 		aContainedNodes.remove(pNode);
 		pNode.setParent(null);
+		notifyChanged();
 	}
 	
 	@Override
@@ -39,6 +39,7 @@ public abstract class TypeNode extends NamedNode implements ChildNode
 	{
 		assert pMethods != null;
 		aMethods = pMethods;
+		notifyChanged();
 	}
 	
 	/**
@@ -71,6 +72,7 @@ public abstract class TypeNode extends NamedNode implements ChildNode
 	{
 		assert pNode instanceof PackageNode || pNode == null;
 		aContainer = pNode;
+		notifyChanged();
 	}
 	
 	@Override
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+/**
+ * An immutable circular arc in the real space. Angles are in degrees 
+ * and measured counter-clockwise from the positive x axis, with the y
+ * axis pointing down, following the convention of JavaFX. The area of 
+ * an arc is the region enclosed by the arc and the chord between its 
+ * end points.
+ */
+public final class Arc
+{
+	private static final int DEGREES_90 = 90;
+	private static final int DEGREES_360 = 360;
+	private static final int SEGMENTS = 32;
+	
+	private final double aCenterX;
+	private final double aCenterY;
+	private final double aRadius;
+	private final double aStartAngle;
+	private final double aLength;
+	
+	/**
+	 * Creates a new arc.
+	 * 
+	 * @param pCenterX The x coordinate of the center of the circle.
+	 * @param pCenterY The y coordinate of the center of the circle.
+	 * @param pRadius The radius of the circle.
+	 * @param pStartAngle The angle where the arc starts, in degrees.
+	 * @param pLength The angular extent of the arc, in degrees.
+	 * @pre pRadius >= 0 && pLength >= 0 && pLength <= 360
+	 */
+	public Arc(double pCenterX, double pCenterY, double pRadius, double pStartAngle, double pLength)
+	{
+		assert pRadius >= 0 && pLength >= 0 && pLength <= DEGREES_360;
+		aCenterX = pCenterX;
+		aCenterY = pCenterY;
+		aRadius = pRadius;
+		aStartAngle = pStartAngle;
+		aLength = pLength;
+	}
+	
+	/**
+	 * @return The x coordinate of the center of the circle.
+	 */
+	public double getCenterX()
+	{
+		return aCenterX;
+	}
+	
+	/**
+	 * @return The y coordinate of the center of the circle.
+	 */
+	public double getCenterY()
+	{
+		return aCenterY;
+	}
+	
+	/**
+	 * @return The radius of the circle.
+	 */
+	public double getRadius()
+	{
+		return aRadius;
+	}
+	
+	/**
+	 * @return The angle where the arc starts, in degrees.
+	 */
+	public double getStartAngle()
+	{
+		return aStartAngle;
+	}
+	
+	/**
+	 * @return The angular extent of the arc, in degrees.
+	 */
+	public double getLength()
+	{
+		return aLength;
+	}
+	
+	/**
+	 * @param pRadius The new radius.
+	 * @return An arc identical to this one, but with radius pRadius.
+	 * @pre pRadius >= 0
+	 */
+	public Arc withRadius(double pRadius)
+	{
+		return new Arc(aCenterX, aCenterY, pRadius, aStartAngle, aLength);
+	}
+	
+	/**
+	 * @param pPoint The point to test.
+	 * @return True if pPoint is in the region enclosed by the arc and its chord.
+	 * @pre pPoint != null
+	 */
+	public boolean contains(Point pPoint)
+	{
+		assert pPoint != null;
+		double dx = pPoint.getX() - aCenterX;
+		double dy = pPoint.getY() - aCenterY;
+		if( dx * dx + dy * dy > aRadius * aRadius )
+		{
+			return false;
+		}
+		if( aLength >= DEGREES_360 )
+		{
+			return true;
+		}
+		double startX = xAt(aStartAngle);
+		double startY = yAt(aStartAngle);
+		double chordX = xAt(aStartAngle + aLength) - startX;
+		double chordY = yAt(aStartAngle + aLength) - startY;
+		double middleAngle = aStartAngle + aLength / 2;
+		double side = chordX * (pPoint.getY() - startY) - chordY * (pPoint.getX() - startX);
+		double arcSide = chordX * (yAt(middleAngle) - startY) - chordY * (xAt(middleAngle) - startX);
+		return side * arcSide >= 0;
+	}
+	
+	/**
+	 * @return The smallest rectangle that contains the arc.
+	 */
+	public Rectangle getBounds()
+	{
+		double endAngle = aStartAngle + aLength;
+		double minX = Math.min(xAt(aStartAngle), xAt(endAngle));
+		double maxX = Math.max(xAt(aStartAngle), xAt(endAngle));
+		double minY = Math.min(yAt(aStartAngle), yAt(endAngle));
+		double maxY = Math.max(yAt(aStartAngle), yAt(endAngle));
+		// Add the extreme points of the circle that are on the arc
+		double angle = Math.ceil(aStartAngle / DEGREES_90) * DEGREES_90;
+		for( ; angle <= endAngle; angle += DEGREES_90 )
+		{
+			minX = Math.min(minX, xAt(angle));
+			maxX = Math.max(maxX, xAt(angle));
+			minY = Math.min(minY, yAt(angle));
+			maxY = Math.max(maxY, yAt(angle));
+		}
+		return new Rectangle((int) minX, (int) minY, (int)(maxX - minX), (int)(maxY - minY));
+	}
+	
+	/**
+	 * @return A polyline that follows the arc, from its start angle.
+	 */
+	public Polyline toPolyline()
+	{
+		Polyline.Builder builder = new Polyline.Builder(xAt(aStartAngle), yAt(aStartAngle));
+		for( int i = 1; i <= SEGMENTS; i++ )
+		{
+			double angle = aStartAngle + aLength * i / SEGMENTS;
+			builder.lineTo(xAt(angle), yAt(angle));
+		}
+		return builder.build();
+	}
+	
+	private double xAt(double pAngle)
+	{
+		return aCenterX + aRadius * Math.cos(Math.toRadians(pAngle));
+	}
+	
+	private double yAt(double pAngle)
+	{
+		return aCenterY - aRadius * Math.sin(Math.toRadians(pAngle));
+	}
+	
+	@Override
+	public String toString()
+	{
+		return String.format("[Arc center=(%.1f,%.1f), radius=%.1f, start=%.1f, length=%.1f]", 
+				aCenterX, aCenterY, aRadius, aStartAngle, aLength);
+	}
+}
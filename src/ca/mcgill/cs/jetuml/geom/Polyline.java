@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sequence of connected line segments in the real space,
+ * used to compute the geometry of a drawn line without creating 
+ * JavaFX shapes. Curves are represented by flattening them into 
+ * short segments.
+ * 
+ * The bounds of a polyline are those of the line as it is stroked 
+ * with a width of one pixel, square caps and mitered joins, which 
+ * is how lines are drawn in diagrams.
+ */
+public final class Polyline
+{
+	private static final double HALF_WIDTH = 0.5;
+	private static final double MITER_LIMIT = 10;
+	// Padding added to the bounds to account for anti-aliasing
+	private static final double PADDING = 0.5;
+	private static final int CURVE_SEGMENTS = 16;
+	private static final double EPSILON = 1e-9;
+	
+	private final double[] aCoordinates;
+	
+	/*
+	 * pCoordinates are the x and y coordinates of each point, in sequence.
+	 */
+	private Polyline(double[] pCoordinates)
+	{
+		aCoordinates = pCoordinates;
+	}
+	
+	/**
+	 * Creates a polyline that goes through each point in pPoints, in order.
+	 * 
+	 * @param pPoints The points of the polyline.
+	 * @return A new polyline.
+	 * @pre pPoints != null && pPoints.length > 0
+	 */
+	public static Polyline of(Point... pPoints)
+	{
+		assert pPoints != null && pPoints.length > 0;
+		double[] coordinates = new double[pPoints.length * 2];
+		for( int i = 0; i < pPoints.length; i++ )
+		{
+			coordinates[2 * i] = pPoints[i].getX();
+			coordinates[2 * i + 1] = pPoints[i].getY();
+		}
+		return new Polyline(coordinates);
+	}
+	
+	/**
+	 * @return The number of points in this polyline.
+	 */
+	public int size()
+	{
+		return aCoordinates.length / 2;
+	}
+	
+	/**
+	 * @param pIndex The index of the point.
+	 * @return The x coordinate of the point at pIndex.
+	 * @pre pIndex >= 0 && pIndex < size()
+	 */
+	public double getX(int pIndex)
+	{
+		assert pIndex >= 0 && pIndex < size();
+		return aCoordinates[2 * pIndex];
+	}
+	
+	/**
+	 * @param pIndex The index of the point.
+	 * @return The y coordinate of the point at pIndex.
+	 * @pre pIndex >= 0 && pIndex < size()
+	 */
+	public double getY(int pIndex)
+	{
+		assert pIndex >= 0 && pIndex < size();
+		return aCoordinates[2 * pIndex + 1];
+	}
+	
+	/**
+	 * @param pPoint The point to test.
+	 * @return The shortest distance between pPoint and any of the 
+	 *     segments of this polyline.
+	 * @pre pPoint != null
+	 */
+	public double distance(Point pPoint)
+	{
+		assert pPoint != null;
+		double x = pPoint.getX();
+		double y = pPoint.getY();
+		double result = Math.hypot(x - aCoordinates[0], y - aCoordinates[1]);
+		for( int i = 2; i < aCoordinates.length; i += 2 )
+		{
+			result = Math.min(result, segmentDistance(x, y, aCoordinates[i - 2], aCoordinates[i - 1], 
+					aCoordinates[i], aCoordinates[i + 1]));
+		}
+		return result;
+	}
+	
+	private static double segmentDistance(double pX, double pY, double pX1, double pY1, double pX2, double pY2)
+	{
+		double dx = pX2 - pX1;
+		double dy = pY2 - pY1;
+		double lengthSquared = dx * dx + dy * dy;
+		double ratio = 0;
+		if( lengthSquared > 0 )
+		{
+			ratio = Math.max(0, Math.min(1, ((pX - pX1) * dx + (pY - pY1) * dy) / lengthSquared));
+		}
+		return Math.hypot(pX - (pX1 + ratio * dx), pY - (pY1 + ratio * dy));
+	}
+	
+	/**
+	 * @return The bounds of this polyline, as drawn.
+	 */
+	public Rectangle getBounds()
+	{
+		return getBounds(Arrays.asList(this));
+	}
+	
+	/**
+	 * @param pPolylines The polylines to compute the bounds of.
+	 * @return The smallest rectangle that contains all the polylines in pPolylines, as drawn.
+	 * @pre pPolylines != null && pPolylines contains at least one element.
+	 */
+	public static Rectangle getBounds(Iterable<Polyline> pPolylines)
+	{
+		assert pPolylines != null && pPolylines.iterator().hasNext();
+		double[] extent = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+		for( Polyline polyline : pPolylines )
+		{
+			polyline.addStrokeExtent(extent);
+		}
+		double minX = extent[0] - PADDING;
+		double minY = extent[1] - PADDING;
+		return new Rectangle((int) minX, (int) minY, 
+				(int)(extent[2] + PADDING - minX), (int)(extent[3] + PADDING - minY));
+	}
+	
+	/*
+	 * Extends pExtent, as {minX, minY, maxX, maxY}, with the outline of the 
+	 * stroke of this polyline.
+	 */
+	private void addStrokeExtent(double[] pExtent)
+	{
+		double[] directions = directions();
+		if( directions.length == 0 )
+		{
+			// A single point is drawn as a square cap
+			include(pExtent, aCoordinates[0] - HALF_WIDTH, aCoordinates[1] - HALF_WIDTH);
+			include(pExtent, aCoordinates[0] + HALF_WIDTH, aCoordinates[1] + HALF_WIDTH);
+			return;
+		}
+		int segment = 0;
+		for( int i = 2; i < aCoordinates.length; i += 2 )
+		{
+			double x1 = aCoordinates[i - 2];
+			double y1 = aCoordinates[i - 1];
+			double x2 = aCoordinates[i];
+			double y2 = aCoordinates[i + 1];
+			if( x1 == x2 && y1 == y2 )
+			{
+				continue;
+			}
+			double tx = directions[2 * segment];
+			double ty = directions[2 * segment + 1];
+			// Sides of the segment
+			include(pExtent, x1 - ty * HALF_WIDTH, y1 + tx * HALF_WIDTH);
+			include(pExtent, x1 + ty * HALF_WIDTH, y1 - tx * HALF_WIDTH);
+			include(pExtent, x2 - ty * HALF_WIDTH, y2 + tx * HALF_WIDTH);
+			include(pExtent, x2 + ty * HALF_WIDTH, y2 - tx * HALF_WIDTH);
+			if( segment > 0 )
+			{
+				addMiter(pExtent, x1, y1, directions[2 * segment - 2], directions[2 * segment - 1], tx, ty);
+			}
+			segment++;
+		}
+		addCap(pExtent, aCoordinates[0], aCoordinates[1], -directions[0], -directions[1]);
+		addCap(pExtent, aCoordinates[aCoordinates.length - 2], aCoordinates[aCoordinates.length - 1], 
+				directions[directions.length - 2], directions[directions.length - 1]);
+	}
+	
+	/*
+	 * The unit direction vectors of the segments of non-zero length.
+	 */
+	private double[] directions()
+	{
+		double[] result = new double[aCoordinates.length - 2];
+		int size = 0;
+		for( int i = 2; i < aCoordinates.length; i += 2 )
+		{
+			double dx = aCoordinates[i] - aCoordinates[i - 2];
+			double dy = aCoordinates[i + 1] - aCoordinates[i - 1];
+			double length = Math.hypot(dx, dy);
+			if( length > 0 )
+			{
+				result[size++] = dx / length;
+				result[size++] = dy / length;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+	
+	/*
+	 * Square cap at (pX, pY) for a line that ends in direction (pTX, pTY).
+	 */
+	private static void addCap(double[] pExtent, double pX, double pY, double pTX, double pTY)
+	{
+		double x = pX + pTX * HALF_WIDTH;
+		double y = pY + pTY * HALF_WIDTH;
+		include(pExtent, x - pTY * HALF_WIDTH, y + pTX * HALF_WIDTH);
+		include(pExtent, x + pTY * HALF_WIDTH, y - pTX * HALF_WIDTH);
+	}
+	
+	/*
+	 * Tip of the miter join at (pX, pY) between a segment in direction (pTX1, pTY1)
+	 * and a segment in direction (pTX2, pTY2), if it is within the miter limit.
+	 */
+	private static void addMiter(double[] pExtent, double pX, double pY, double pTX1, double pTY1, double pTX2, double pTY2)
+	{
+		double bisectorX = pTX1 - pTX2;
+		double bisectorY = pTY1 - pTY2;
+		double bisectorLength = Math.hypot(bisectorX, bisectorY);
+		// Cosine of half the angle by which the line turns
+		double cosine = Math.sqrt(Math.max(0, (1 + pTX1 * pTX2 + pTY1 * pTY2) / 2));
+		// 1/sin of half the inner angle is the ratio of the miter length to the line width
+		if( bisectorLength < EPSILON || cosine < EPSILON || 1 / cosine > MITER_LIMIT )
+		{
+			return;
+		}
+		double length = HALF_WIDTH / cosine;
+		include(pExtent, pX + bisectorX / bisectorLength * length, pY + bisectorY / bisectorLength * length);
+	}
+	
+	private static void include(double[] pExtent, double pX, double pY)
+	{
+		pExtent[0] = Math.min(pExtent[0], pX);
+		pExtent[1] = Math.min(pExtent[1], pY);
+		pExtent[2] = Math.max(pExtent[2], pX);
+		pExtent[3] = Math.max(pExtent[3], pY);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "Polyline" + Arrays.toString(aCoordinates);
+	}
+	
+	/**
+	 * Incrementally creates a polyline from a starting point, 
+	 * following lines and curves.
+	 */
+	public static final class Builder
+	{
+		private double[] aCoordinates = new double[2 * CURVE_SEGMENTS];
+		private int aSize = 0;
+		
+		/**
+		 * Starts a polyline at (pX, pY).
+		 * 
+		 * @param pX The x coordinate of the starting point.
+		 * @param pY The y coordinate of the starting point.
+		 */
+		public Builder(double pX, double pY)
+		{
+			add(pX, pY);
+		}
+		
+		/**
+		 * Extends the polyline with a segment to (pX, pY).
+		 * 
+		 * @param pX The x coordinate of the end of the segment.
+		 * @param pY The y coordinate of the end of the segment.
+		 * @return This builder.
+		 */
+		public Builder lineTo(double pX, double pY)
+		{
+			add(pX, pY);
+			return this;
+		}
+		
+		/**
+		 * Extends the polyline with a quadratic Bezier curve to (pX, pY), 
+		 * flattened into short segments.
+		 * 
+		 * @param pControlX The x coordinate of the control point of the curve.
+		 * @param pControlY The y coordinate of the control point of the curve.
+		 * @param pX The x coordinate of the end of the curve.
+		 * @param pY The y coordinate of the end of the curve.
+		 * @return This builder.
+		 */
+		public Builder quadTo(double pControlX, double pControlY, double pX, double pY)
+		{
+			double startX = aCoordinates[aSize - 2];
+			double startY = aCoordinates[aSize - 1];
+			for( int i = 1; i <= CURVE_SEGMENTS; i++ )
+			{
+				double t = (double) i / CURVE_SEGMENTS;
+				double u = 1 - t;
+				add(u * u * startX + 2 * u * t * pControlX + t * t * pX, 
+						u * u * startY + 2 * u * t * pControlY + t * t * pY);
+			}
+			return this;
+		}
+		
+		/**
+		 * @return A polyline with all the points added so far.
+		 */
+		public Polyline build()
+		{
+			return new Polyline(Arrays.copyOf(aCoordinates, aSize));
+		}
+		
+		private void add(double pX, double pY)
+		{
+			if( aSize + 2 > aCoordinates.length )
+			{
+				aCoordinates = Arrays.copyOf(aCoordinates, aCoordinates.length * 2);
+			}
+			aCoordinates[aSize++] = pX;
+			aCoordinates[aSize++] = pY;
+		}
+	}
+}
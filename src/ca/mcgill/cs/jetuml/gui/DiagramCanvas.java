@@ -22,14 +22,19 @@ package ca.mcgill.cs.jetuml.gui;
 
 import static ca.mcgill.cs.jetuml.diagram.DiagramType.viewerFor;
 
+import java.util.Optional;
+
 import ca.mcgill.cs.jetuml.application.UserPreferences;
 import ca.mcgill.cs.jetuml.application.UserPreferences.BooleanPreference;
 import ca.mcgill.cs.jetuml.application.UserPreferences.BooleanPreferenceChangeHandler;
 import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.Grid;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import ca.mcgill.cs.jetuml.views.ViewerUtilities;
@@ -47,9 +52,18 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	 * is automatically increased to accommodate a diagram larger than the 
 	 * preferred size. */
 	private static final int DIMENSION_BUFFER = 20;
+	/* The number of pixels painted around the visible area of the canvas, 
+	 * to absorb the approximation of the visible area and the border around
+	 * the canvas. */
+	private static final int VIEWPORT_MARGIN = 50;
+	/* The number of pixels repainted around a dirty area, to cover 
+	 * selection handles and shadows that extend past the bounds of elements. */
+	private static final int DIRTY_AREA_MARGIN = 20;
 	
 	private final Diagram aDiagram;
+	private final DrawingContext aDrawingContext;
 	private DiagramCanvasController aController;
+	private Optional<Rectangle> aViewport = Optional.empty();
 	
 	/**
 	 * Constructs the canvas, assigns the diagram to it.
@@ -65,6 +79,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		setHeight(dimension.getHeight());
 		getGraphicsContext2D().setLineWidth(LINE_WIDTH);
 		getGraphicsContext2D().setFill(Color.WHITE);
+		aDrawingContext = new CanvasDrawingContext(getGraphicsContext2D());
 		aDiagram = pDiagram;
 	}
 	
@@ -92,24 +107,114 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		return aDiagram;
 	}
 	
+	/**
+	 * Restricts painting to the area of the canvas that is visible 
+	 * through a viewport. When a viewport is set, the elements that 
+	 * lie outside of it are not painted, and the canvas must be 
+	 * repainted whenever the viewport changes.
+	 * 
+	 * @param pViewport The visible area of the canvas, or empty to 
+	 *     always paint the entire canvas.
+	 * @pre pViewport != null
+	 */
+	public void setViewport(Optional<Rectangle> pViewport)
+	{
+		assert pViewport != null;
+		aViewport = pViewport;
+	}
+	
 	/**
 	 * Paints the panel and all the graph elements in aDiagramView.
 	 * Called after the panel is resized.
 	 */
 	public void paintPanel()
+	{
+		paint(getPaintedArea(), !aViewport.isPresent());
+	}
+	
+	/**
+	 * Repaints only the part of the canvas within pDirtyArea, 
+	 * plus a small margin. The rest of the canvas is left untouched, 
+	 * so pDirtyArea must include everything that looked different
+	 * before the change that made it dirty.
+	 * 
+	 * @param pDirtyArea The area to repaint.
+	 * @pre pDirtyArea != null
+	 */
+	public void paintPanel(Rectangle pDirtyArea)
+	{
+		assert pDirtyArea != null;
+		Rectangle paintedArea = getPaintedArea();
+		int x = Math.max(paintedArea.getX(), Grid.toMultiple(Math.max(0, pDirtyArea.getX() - DIRTY_AREA_MARGIN)));
+		int y = Math.max(paintedArea.getY(), Grid.toMultiple(Math.max(0, pDirtyArea.getY() - DIRTY_AREA_MARGIN)));
+		int maxX = Math.min(paintedArea.getMaxX(), pDirtyArea.getMaxX() + DIRTY_AREA_MARGIN);
+		int maxY = Math.min(paintedArea.getMaxY(), pDirtyArea.getMaxY() + DIRTY_AREA_MARGIN);
+		if( maxX <= x || maxY <= y )
+		{
+			return;
+		}
+		GraphicsContext context = getGraphicsContext2D();
+		context.save();
+		context.beginPath();
+		context.rect(x, y, maxX - x, maxY - y);
+		context.clip();
+		paint(new Rectangle(x, y, maxX - x, maxY - y), false);
+		context.restore();
+	}
+	
+	/*
+	 * Paints pArea. If pEntireDiagram is true, all the elements are drawn,
+	 * otherwise only the elements that intersect pArea are drawn.
+	 */
+	private void paint(Rectangle pArea, boolean pEntireDiagram)
 	{
 		GraphicsContext context = getGraphicsContext2D();
 		context.setFill(Color.WHITE); 
-		context.fillRect(0, 0, getWidth(), getHeight());
+		context.fillRect(pArea.getX(), pArea.getY(), pArea.getWidth(), pArea.getHeight());
 		if(UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
 		{
-			Grid.draw(context, new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
+			Grid.draw(aDrawingContext, pArea);
+		}
+		if( pEntireDiagram )
+		{
+			DiagramType.viewerFor(aDiagram).draw(aDiagram, aDrawingContext);
+		}
+		else
+		{
+			DiagramType.viewerFor(aDiagram).draw(aDiagram, aDrawingContext, pArea);
 		}
-		DiagramType.viewerFor(aDiagram).draw(aDiagram, context);
 		aController.synchronizeSelectionModel();
-		aController.getSelectionModel().forEach( selected -> ViewerUtilities.drawSelectionHandles(selected, context));
-		aController.getSelectionModel().getRubberband().ifPresent( rubberband -> ToolGraphics.drawRubberband(context, rubberband));
-		aController.getSelectionModel().getLasso().ifPresent( lasso -> ToolGraphics.drawLasso(context, lasso));
+		Rectangle handleArea = new Rectangle(pArea.getX() - DIRTY_AREA_MARGIN, pArea.getY() - DIRTY_AREA_MARGIN, 
+				pArea.getWidth() + 2 * DIRTY_AREA_MARGIN, pArea.getHeight() + 2 * DIRTY_AREA_MARGIN);
+		for( DiagramElement selected : aController.getSelectionModel() )
+		{
+			if( pEntireDiagram || handleArea.intersects(ViewerUtilities.getBounds(selected)))
+			{
+				ViewerUtilities.drawSelectionHandles(selected, aDrawingContext);
+			}
+		}
+		aController.getSelectionModel().getRubberband().ifPresent( rubberband -> ToolGraphics.drawRubberband(aDrawingContext, rubberband));
+		aController.getSelectionModel().getLasso().ifPresent( lasso -> ToolGraphics.drawLasso(aDrawingContext, lasso));
+	}
+	
+	/*
+	 * The viewport widened by a margin, aligned on the grid so that grid 
+	 * lines are drawn at the same place whatever the position of the viewport, 
+	 * and restricted to the canvas.
+	 */
+	private Rectangle getPaintedArea()
+	{
+		Rectangle canvas = new Rectangle(0, 0, (int) getWidth(), (int) getHeight());
+		if( !aViewport.isPresent() )
+		{
+			return canvas;
+		}
+		Rectangle viewport = aViewport.get();
+		int x = Grid.toMultiple(Math.max(0, viewport.getX() - VIEWPORT_MARGIN));
+		int y = Grid.toMultiple(Math.max(0, viewport.getY() - VIEWPORT_MARGIN));
+		int maxX = Math.min(canvas.getMaxX(), viewport.getMaxX() + VIEWPORT_MARGIN);
+		int maxY = Math.min(canvas.getMaxY(), viewport.getMaxY() + VIEWPORT_MARGIN);
+		return new Rectangle(x, y, Math.max(0, maxX - x), Math.max(0, maxY - y));
 	}
 	
 	@Override
@@ -117,6 +222,12 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	{
 		paintPanel();		
 	}
+	
+	@Override
+	public void selectionModelChanged(Rectangle pArea)
+	{
+		paintPanel(pArea);
+	}
 
 	@Override
 	public void preferenceChanged(BooleanPreference pPreference)
@@ -25,6 +25,7 @@ import static ca.mcgill.cs.jetuml.diagram.DiagramType.viewerFor;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -33,6 +34,7 @@ import ca.mcgill.cs.jetuml.application.Clipboard;
 import ca.mcgill.cs.jetuml.application.MoveTracker;
 import ca.mcgill.cs.jetuml.application.UserPreferences;
 import ca.mcgill.cs.jetuml.application.UserPreferences.BooleanPreference;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -64,13 +66,19 @@ public class DiagramCanvasController
 	
 	private final SelectionModel aSelectionModel;
 	private final MoveTracker aMoveTracker = new MoveTracker();
+	private Optional<DragMoveSession> aDragMoveSession = Optional.empty();
 	private final DiagramCanvas aCanvas;
 	private final DiagramBuilder aDiagramBuilder;
 	private final DiagramTabToolBar aToolBar;
 	private DragMode aDragMode;
 	private Point aLastMousePoint;
 	private Point aMouseDownPoint;  
-	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor();
+	// True if the last lasso update kept the elements selected before the lasso
+	private boolean aLassoAdditive = false;
+	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor(
+			Math.max(1, UserPreferences.instance().getInteger(IntegerPreference.undoDepth)),
+			Math.max(1, UserPreferences.instance().getInteger(IntegerPreference.undoWeight)),
+			Math.max(0, UserPreferences.instance().getInteger(IntegerPreference.undoMergeWindow)));
 	private MouseDraggedGestureHandler aHandler;
 
 	
@@ -170,6 +178,7 @@ public class DiagramCanvasController
 				viewerFor(aDiagramBuilder.getDiagram()).isOverlapping(aSelectionModel.getSelectionBounds(), newElements)) 
 		{
 			shiftElements(newElements, GRID_SIZE);
+			Clipboard.instance().shift(GRID_SIZE, GRID_SIZE);
 		}
 		
 		aProcessor.executeNewOperation(aDiagramBuilder.createAddElementsOperation(newElements));
@@ -179,8 +188,6 @@ public class DiagramCanvasController
 			newElementList.add(element);
 		}
 		aSelectionModel.setSelectionTo(newElementList);
-		Clipboard.instance().copy(newElements);
-		aCanvas.paintPanel();
 	}
 	
 	/**
@@ -235,13 +242,13 @@ public class DiagramCanvasController
 	}
 	
 	/**
-	 * Removes the selected graph elements.
+	 * Removes the selected graph elements. Clearing the selection
+	 * repaints the canvas.
 	 */
 	public void removeSelected()
 	{
 		aProcessor.executeNewOperation(aDiagramBuilder.createRemoveElementsOperation(aSelectionModel));
 		aSelectionModel.clearSelection();
-		aCanvas.paintPanel();
 	}
 	
 	/**
@@ -254,6 +261,29 @@ public class DiagramCanvasController
 		removeSelected();
 	}
 	
+	private Optional<Rectangle> getAffectedBounds(Iterable<? extends DiagramElement> pElements)
+	{
+		return viewerFor(aDiagramBuilder.getDiagram()).getAffectedBounds(aDiagramBuilder.getDiagram(), pElements);
+	}
+	
+	/*
+	 * Repaints the area affected by pElements after they changed, together 
+	 * with pDirtyArea, the area they affected before the change, if any. If 
+	 * the affected area cannot be determined, the entire canvas is repainted. 
+	 */
+	private void repaint(Optional<Rectangle> pDirtyArea, Iterable<? extends DiagramElement> pElements)
+	{
+		Optional<Rectangle> affectedArea = getAffectedBounds(pElements);
+		if( affectedArea.isPresent() )
+		{
+			aCanvas.paintPanel(pDirtyArea.map(affectedArea.get()::add).orElse(affectedArea.get()));
+		}
+		else
+		{
+			aCanvas.paintPanel();
+		}
+	}
+	
 	private Line computeRubberband()
 	{
 		return new Line(new Point(aMouseDownPoint.getX(), aMouseDownPoint.getY()), 
@@ -268,6 +298,67 @@ public class DiagramCanvasController
 						     Math.abs(aMouseDownPoint.getY() - aLastMousePoint.getY()));
 	}
 	
+	/*
+	 * Once a lasso is active, only the elements near the area between the previous 
+	 * and the new lasso can change selection state. The selection is recomputed from 
+	 * scratch when a lasso starts, or when it stops being additive, because
+	 * elements selected before the lasso must then be deselected.
+	 */
+	private void dragLasso(Rectangle pLasso, boolean pAdditive)
+	{
+		Optional<Rectangle> previous = aSelectionModel.getLasso();
+		if( previous.isPresent() && (pAdditive || !aLassoAdditive) )
+		{
+			Set<DiagramElement> candidates = new LinkedHashSet<>();
+			List<Rectangle> changedAreas = difference(previous.get(), pLasso);
+			changedAreas.addAll(difference(pLasso, previous.get()));
+			for( Rectangle area : changedAreas )
+			{
+				candidates.addAll(viewerFor(aCanvas.getDiagram()).getElementsNear(aCanvas.getDiagram(), area));
+			}
+			aSelectionModel.moveLasso(pLasso, candidates, pAdditive);
+		}
+		else
+		{
+			if( !pAdditive )
+			{
+				aSelectionModel.clearSelection();
+			}
+			aSelectionModel.activateLasso(pLasso, aCanvas.getDiagram());
+		}
+		aLassoAdditive = pAdditive;
+	}
+	
+	/*
+	 * Returns rectangles that together cover the points of pRectangle that are
+	 * not in pRemoved. The rectangles include the boundary of pRemoved.
+	 */
+	private static List<Rectangle> difference(Rectangle pRectangle, Rectangle pRemoved)
+	{
+		List<Rectangle> result = new ArrayList<>();
+		if( pRectangle.getX() < pRemoved.getX() )
+		{
+			int maxX = Math.min(pRemoved.getX(), pRectangle.getMaxX());
+			result.add(new Rectangle(pRectangle.getX(), pRectangle.getY(), maxX - pRectangle.getX(), pRectangle.getHeight()));
+		}
+		if( pRectangle.getMaxX() > pRemoved.getMaxX() )
+		{
+			int x = Math.max(pRemoved.getMaxX(), pRectangle.getX());
+			result.add(new Rectangle(x, pRectangle.getY(), pRectangle.getMaxX() - x, pRectangle.getHeight()));
+		}
+		if( pRectangle.getY() < pRemoved.getY() )
+		{
+			int maxY = Math.min(pRemoved.getY(), pRectangle.getMaxY());
+			result.add(new Rectangle(pRectangle.getX(), pRectangle.getY(), pRectangle.getWidth(), maxY - pRectangle.getY()));
+		}
+		if( pRectangle.getMaxY() > pRemoved.getMaxY() )
+		{
+			int y = Math.max(pRemoved.getMaxY(), pRectangle.getY());
+			result.add(new Rectangle(pRectangle.getX(), y, pRectangle.getWidth(), pRectangle.getMaxY() - y));
+		}
+		return result;
+	}
+	
 	private Point getMousePoint(MouseEvent pEvent)
 	{
 		return new Point((int)pEvent.getX(), (int)pEvent.getY());
@@ -309,6 +400,12 @@ public class DiagramCanvasController
 			}
 			aDragMode = DragMode.DRAG_MOVE;
 			aMoveTracker.startTrackingMove(aSelectionModel);
+			aDragMoveSession = Optional.empty();
+			// Dragging a selection without nodes does not move anything
+			if( aSelectionModel.getSelectedNodes().iterator().hasNext() )
+			{
+				aDragMoveSession = Optional.of(new DragMoveSession(aSelectionModel));
+			}
 		}
 		else // Nothing is selected
 		{
@@ -346,7 +443,6 @@ public class DiagramCanvasController
 		{
 			aProcessor.executeNewOperation(aDiagramBuilder.createAddNodeOperation(newNode, new Point(point.getX(), point.getY())));
 			aSelectionModel.set(newNode);
-			aCanvas.paintPanel();
 			if( UserPreferences.instance().getBoolean(BooleanPreference.autoEditNode))
 			{
 				editSelected();
@@ -420,7 +516,6 @@ public class DiagramCanvasController
 		Point point = getMousePoint(pEvent);
 		aLastMousePoint = new Point(point.getX(), point.getY()); 
 		aMouseDownPoint = aLastMousePoint;
-		aCanvas.paintPanel();
 	}
 
 	private void mouseReleased(MouseEvent pEvent)
@@ -433,6 +528,7 @@ public class DiagramCanvasController
 		{
 			alignMoveToGrid();
 			releaseMove();
+			aDragMoveSession = Optional.empty();
 		}
 		else if( aDragMode == DragMode.DRAG_LASSO )
 		{
@@ -455,11 +551,13 @@ public class DiagramCanvasController
 			Point snappedPosition = Grid.snapped(position);
 			final int dx = snappedPosition.getX() - position.getX();
 			final int dy = snappedPosition.getY() - position.getY();
-			for(Node selected : aSelectionModel.getSelectedNodes())
+			Iterable<Node> nodes = aSelectionModel.getSelectedNodes();
+			Optional<Rectangle> dirtyArea = getAffectedBounds(nodes);
+			for(Node selected : nodes)
 			{
 				selected.translate(dx, dy);
 			}
-			aCanvas.paintPanel();
+			repaint(dirtyArea, nodes);
 		}
 	}
 	
@@ -474,7 +572,6 @@ public class DiagramCanvasController
 				aProcessor.executeNewOperation(aDiagramBuilder.createAddEdgeOperation(newEdge, 
 						aMouseDownPoint, pMousePoint));
 				aSelectionModel.set(newEdge);
-				aCanvas.paintPanel();
 			}
 		}
 		aSelectionModel.deactivateRubberband();
@@ -487,28 +584,23 @@ public class DiagramCanvasController
 		{
 			aProcessor.storeAlreadyExecutedOperation(operation);
 		}
-		aCanvas.paintPanel();
 	}
 
 	private void mouseDragged(MouseEvent pEvent)
 	{
 		Point mousePoint = getMousePoint(pEvent);
 		Point pointToReveal = mousePoint;
-		if(aDragMode == DragMode.DRAG_MOVE && !aSelectionModel.isEmpty() ) 
+		if(aDragMode == DragMode.DRAG_MOVE && aDragMoveSession.isPresent() ) 
 		{
 			// The second condition in the if is necessary in the case where a single 
 			// element is selected with the Ctrl button is down, which immediately deselects it.
-			pointToReveal = computePointToReveal(mousePoint);
-			moveSelection(mousePoint);
+			pointToReveal = computePointToReveal(aDragMoveSession.get(), mousePoint);
+			moveSelection(aDragMoveSession.get(), mousePoint);
 		}
 		else if(aDragMode == DragMode.DRAG_LASSO)
 		{
 			aLastMousePoint = mousePoint;
-			if( !pEvent.isControlDown() )
-			{
-				aSelectionModel.clearSelection();
-			}
-			aSelectionModel.activateLasso(computeLasso(), aCanvas.getDiagram());
+			dragLasso(computeLasso(), pEvent.isControlDown());
 		}
 		else if(aDragMode == DragMode.DRAG_RUBBERBAND)
 		{
@@ -519,44 +611,27 @@ public class DiagramCanvasController
 	}
 	
 	// finds the point to reveal based on the entire selection
-	private Point computePointToReveal(Point pMousePoint)
+	private Point computePointToReveal(DragMoveSession pSession, Point pMousePoint)
 	{
-		Rectangle bounds = aSelectionModel.getSelectionBounds();
-		int x = bounds.getMaxX();
-		int y = bounds.getMaxY();
-		
-		if( pMousePoint.getX() < aLastMousePoint.getX()) 	 // Going left, reverse coordinate
-		{
-			x = bounds.getX(); 
-		}
-		if( pMousePoint.getY() < aLastMousePoint.getY())	// Going up, reverse coordinate
-		{
-			y = bounds.getY(); 
-		}
-		return new Point(x, y);
+		return pSession.getLeadingCorner(pMousePoint.getX() < aLastMousePoint.getX(), 
+				pMousePoint.getY() < aLastMousePoint.getY());
 	}
 	
 	// TODO, include edges between selected nodes in the bounds check.
 	// This will be doable by collecting all edges connected to a transitively selected node.
-	private void moveSelection(Point pMousePoint)
+	private void moveSelection(DragMoveSession pSession, Point pMousePoint)
 	{
-		assert !aSelectionModel.isEmpty();
-		
 		int dx = pMousePoint.getX() - aLastMousePoint.getX();
 		int dy = pMousePoint.getY() - aLastMousePoint.getY();
+		aLastMousePoint = pMousePoint; 
 
-		// Ensure the selection does not exceed the canvas bounds
-		Rectangle bounds = aSelectionModel.getSelectionBounds();
-		dx = Math.max(dx, -bounds.getX());
-		dy = Math.max(dy, -bounds.getY());
-		dx = Math.min(dx, (int) aCanvas.getWidth() - bounds.getMaxX());
-		dy = Math.min(dy, (int) aCanvas.getHeight() - bounds.getMaxY());
-
-		for(Node selected : aSelectionModel.getSelectedNodes())
+		// Only the area covered by the moved nodes and the elements that depend on them,
+		// before and after the move, needs to be repainted.
+		Optional<Rectangle> dirtyArea = getAffectedBounds(pSession.getNodes());
+		// The session ensures the selection does not exceed the canvas bounds
+		if( pSession.move(dx, dy, (int) aCanvas.getWidth(), (int) aCanvas.getHeight()) )
 		{
-			selected.translate(dx, dy);
+			repaint(dirtyArea, pSession.getNodes());
 		}
-		aLastMousePoint = pMousePoint; 
-		aCanvas.paintPanel();
 	}
 }
\ No newline at end of file
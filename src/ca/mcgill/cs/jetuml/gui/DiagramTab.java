@@ -86,6 +86,12 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler
 		scroll.setFitToHeight(true);
 		layout.setCenter(scroll);
 		
+		// Only the visible part of the canvas is painted, so the canvas
+		// must be repainted every time the viewport changes.
+		scroll.hvalueProperty().addListener(pObservable -> viewportChanged());
+		scroll.vvalueProperty().addListener(pObservable -> viewportChanged());
+		scroll.viewportBoundsProperty().addListener(pObservable -> viewportChanged());
+		
 		setTitle();
 		setContent(layout);
 
@@ -241,6 +247,12 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler
 		((ScrollPane)((BorderPane)getContent()).getCenter()).setVvalue(projection.getAdjustedVValueToRevealY(pTo.getY()));
 	}
 	
+	private void viewportChanged()
+	{
+		aDiagramCanvas.setViewport(Optional.of(getViewportProjection().getVisibleBounds()));
+		aDiagramCanvas.paintPanel();
+	}
+	
 	private ViewportProjection getViewportProjection()
 	{
 		ScrollPane scrollPane = (ScrollPane)((BorderPane)getContent()).getCenter();
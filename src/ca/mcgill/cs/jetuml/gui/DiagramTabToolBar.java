@@ -35,12 +35,13 @@ import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
 import ca.mcgill.cs.jetuml.viewers.nodes.AbstractNodeViewer;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonBase;
 import javafx.scene.control.ContextMenu;
@@ -93,7 +94,7 @@ public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChang
 	{
 		int offset = AbstractNodeViewer.OFFSET + 3;
 		Canvas canvas = new Canvas(AbstractNodeViewer.BUTTON_SIZE, AbstractNodeViewer.BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
 		ToolGraphics.drawHandles(graphics, new Rectangle(offset, offset, 
 				AbstractNodeViewer.BUTTON_SIZE - (offset*2), AbstractNodeViewer.BUTTON_SIZE-(offset*2) ));
 		return canvas;
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import ca.mcgill.cs.jetuml.diagram.DiagramElement;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.nodes.ChildNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.ViewerUtilities;
+
+/**
+ * The state of a gesture that moves the selected nodes by dragging the mouse.
+ * The session captures the selected nodes and the bounds of the moved part of the 
+ * selection when the gesture starts: the selected nodes and the selected edges 
+ * between two moved nodes. Because all of these elements move by the same amount, 
+ * the bounds are then updated arithmetically instead of being recomputed from the 
+ * geometry of every selected element on each mouse event. Moving the nodes does not
+ * allocate any object.
+ */
+final class DragMoveSession
+{
+	private final List<Node> aNodes;
+	private int aX;
+	private int aY;
+	private int aMaxX;
+	private int aMaxY;
+	
+	/**
+	 * Starts a session that moves the nodes selected in pSelection.
+	 * 
+	 * @param pSelection The selection to move.
+	 * @pre pSelection != null && pSelection.getSelectedNodes().iterator().hasNext()
+	 */
+	DragMoveSession(SelectionModel pSelection)
+	{
+		assert pSelection != null && pSelection.getSelectedNodes().iterator().hasNext();
+		List<Node> nodes = new ArrayList<>();
+		pSelection.getSelectedNodes().forEach(nodes::add);
+		aNodes = Collections.unmodifiableList(nodes);
+		Set<Node> selectedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		selectedNodes.addAll(aNodes);
+		Rectangle bounds = null;
+		for( DiagramElement element : pSelection )
+		{
+			if( element instanceof Node || isMoved(((Edge) element).getStart(), selectedNodes) && 
+					isMoved(((Edge) element).getEnd(), selectedNodes) )
+			{
+				Rectangle elementBounds = ViewerUtilities.getBounds(element);
+				bounds = bounds == null ? elementBounds : bounds.add(elementBounds);
+			}
+		}
+		assert bounds != null;
+		aX = bounds.getX();
+		aY = bounds.getY();
+		aMaxX = bounds.getMaxX();
+		aMaxY = bounds.getMaxY();
+	}
+	
+	/*
+	 * A node is moved if it or one of its ancestors is selected.
+	 */
+	private static boolean isMoved(Node pNode, Set<Node> pSelectedNodes)
+	{
+		Node node = pNode;
+		while( node != null )
+		{
+			if( pSelectedNodes.contains(node) )
+			{
+				return true;
+			}
+			node = node instanceof ChildNode ? ((ChildNode) node).getParent() : null;
+		}
+		return false;
+	}
+	
+	/**
+	 * @return The nodes moved by this session.
+	 */
+	Iterable<Node> getNodes()
+	{
+		return aNodes;
+	}
+	
+	/**
+	 * @return The bounds of the moved nodes and of the selected edges between 
+	 *     them, as moved by this session.
+	 */
+	Rectangle getBounds()
+	{
+		return new Rectangle(aX, aY, aMaxX - aX, aMaxY - aY);
+	}
+	
+	/**
+	 * Returns the corner of the selection that leads in the direction of a move. 
+	 * 
+	 * @param pLeft True if the selection moves to the left.
+	 * @param pUp True if the selection moves up.
+	 * @return The corner of the selection bounds that should be kept visible.
+	 */
+	Point getLeadingCorner(boolean pLeft, boolean pUp)
+	{
+		return new Point(pLeft ? aX : aMaxX, pUp ? aY : aMaxY);
+	}
+	
+	/**
+	 * Moves the nodes by pDeltaX and pDeltaY, reduced if necessary so that 
+	 * the selection does not leave the area between (0,0) and (pWidth, pHeight).
+	 * 
+	 * @param pDeltaX The requested horizontal move.
+	 * @param pDeltaY The requested vertical move.
+	 * @param pWidth The width of the area the selection must stay in.
+	 * @param pHeight The height of the area the selection must stay in.
+	 * @return True if the nodes moved.
+	 */
+	boolean move(int pDeltaX, int pDeltaY, int pWidth, int pHeight)
+	{
+		int dx = Math.min(Math.max(pDeltaX, -aX), pWidth - aMaxX);
+		int dy = Math.min(Math.max(pDeltaY, -aY), pHeight - aMaxY);
+		if( dx == 0 && dy == 0 )
+		{
+			return false;
+		}
+		for( int i = 0; i < aNodes.size(); i++ )
+		{
+			aNodes.get(i).translate(dx, dy);
+		}
+		aX += dx;
+		aMaxX += dx;
+		aY += dy;
+		aMaxY += dy;
+		return true;
+	}
+}
@@ -23,13 +23,8 @@ package ca.mcgill.cs.jetuml.gui;
 
 import static ca.mcgill.cs.jetuml.application.ApplicationResources.RESOURCES;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -51,7 +46,6 @@ import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.persistence.DeserializationException;
 import ca.mcgill.cs.jetuml.persistence.PersistenceService;
 import ca.mcgill.cs.jetuml.views.ImageCreator;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
@@ -59,6 +53,7 @@ import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
@@ -68,6 +63,7 @@ import javafx.scene.input.ClipboardContent;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 /**
@@ -79,7 +75,7 @@ public class EditorFrame extends BorderPane
 	private static final String KEY_LAST_SAVEAS_DIR = "lastSaveAsDir";
 	private static final String KEY_LAST_IMAGE_FORMAT = "lastImageFormat";
 	
-	private static final String[] IMAGE_FORMATS = validFormats("png", "jpg", "gif", "bmp");
+	private static final String[] IMAGE_FORMATS = validFormats("png", "jpg", "gif", "bmp", ImageCreator.SVG_FORMAT);
 	
 	private Stage aMainStage;
 	private RecentFilesQueue aRecentFiles = new RecentFilesQueue();
@@ -115,14 +111,15 @@ public class EditorFrame extends BorderPane
 	}
 	
 	/* Returns the subset of pDesiredFormats for which a registered image writer 
-	 * claims to recognized the format */
+	 * claims to recognized the format, plus the SVG format, which is written 
+	 * without an image writer. */
 	private static String[] validFormats(String... pDesiredFormats)
 	{
 		List<String> recognizedWriters = Arrays.asList(ImageIO.getWriterFormatNames());
 		List<String> validFormats = new ArrayList<>();
 		for( String format : pDesiredFormats )
 		{
-			if( recognizedWriters.contains(format))
+			if( recognizedWriters.contains(format) || format.equals(ImageCreator.SVG_FORMAT))
 			{
 				validFormats.add(format);
 			}
@@ -556,36 +553,34 @@ public class EditorFrame extends BorderPane
 			setLastDir(KEY_LAST_EXPORT_DIR, dir);
 		}
 		DiagramTab frame = getSelectedDiagramTab();
-		try (OutputStream out = new FileOutputStream(file)) 
-		{
-			BufferedImage image = getBufferedImage(frame.getDiagram()); 
-			if(format.equals("jpg"))	// to correct the display of JPEG/JPG images (removes red hue)
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.OPAQUE);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0,  0, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else if(format.equals("bmp"))	// to correct the BufferedImage type
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0, 0, Color.WHITE, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else
-			{
-				ImageIO.write(image, format, out);
-			}
-		} 
-		catch(IOException exception) 
+		// The copy lets the diagram be edited while the image is written
+		ImageExportTask task = new ImageExportTask(frame.getDiagram().duplicate(), file, format);
+		
+		ProgressBar progressBar = new ProgressBar();
+		progressBar.progressProperty().bind(task.progressProperty());
+		Alert progress = new Alert(AlertType.NONE, "", ButtonType.CANCEL);
+		progress.initOwner(aMainStage);
+		progress.initModality(Modality.NONE);
+		progress.setTitle(RESOURCES.getString("dialog.export_image.title"));
+		progress.setHeaderText(RESOURCES.getString("dialog.export_image.message"));
+		progress.getDialogPane().setContent(progressBar);
+		// Closing the dialog before the export completes cancels it
+		progress.setOnHidden(pEvent -> task.cancel());
+		
+		task.setOnSucceeded(pEvent -> progress.close());
+		task.setOnCancelled(pEvent -> progress.close());
+		task.setOnFailed(pEvent -> 
 		{
+			progress.close();
 			Alert alert = new Alert(AlertType.ERROR, RESOURCES.getString("error.save_file"), ButtonType.OK);
 			alert.initOwner(aMainStage);
-			alert.showAndWait();
-		}
+			alert.show();
+		});
+		
+		Thread thread = new Thread(task, "Image export");
+		thread.setDaemon(true);
+		thread.start();
+		progress.show();
 	}
 	
 	private FileChooser getImageFileChooser(File pInitialDirectory, String pInitialFormat) 
@@ -617,19 +612,6 @@ public class EditorFrame extends BorderPane
 		return fileChooser;
 	}
 
-	/*
-	 * Return the image corresponding to the graph.
-	 * 
-	 * @param pDiagram The graph to convert to an image.
-	 * 
-	 * @return bufferedImage. To convert it into an image, use the syntax :
-	 * Toolkit.getDefaultToolkit().createImage(bufferedImage.getSource());
-	 */
-	private static BufferedImage getBufferedImage(Diagram pDiagram) 
-	{
-		return SwingFXUtils.fromFXImage(ImageCreator.createImage(pDiagram), null);
-	}
-	
 	private int getNumberOfUsavedDiagrams()
 	{
 		return (int) tabs().stream()
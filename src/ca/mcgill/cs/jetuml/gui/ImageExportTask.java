@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+
+import javax.imageio.ImageIO;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.views.ImageCreator;
+import ca.mcgill.cs.jetuml.views.TiledDiagramImage;
+import javafx.concurrent.Task;
+
+/**
+ * A task that writes an image of a diagram to a file, to be run 
+ * on a background thread.
+ * 
+ * The task must be given a diagram that is not edited while the 
+ * image is written, typically a copy made with Diagram.duplicate(). The tiles of the 
+ * image are rendered on the JavaFX application thread, one short 
+ * step at a time, while the encoding and writing happen in the 
+ * background. The progress of the task is the fraction of tiles 
+ * rendered. SVG images are instead drawn entirely in the background, 
+ * each element being written to the file as it is drawn, so their 
+ * progress is indeterminate. If the task is cancelled or fails, the 
+ * partially written file is deleted.
+ */
+final class ImageExportTask extends Task<Void>
+{
+	private final Diagram aDiagram;
+	private final Optional<TiledDiagramImage> aImage;
+	private final File aFile;
+	private final String aFormat;
+	
+	/**
+	 * Creates a task to export an image of pDiagram. Must be called 
+	 * on the JavaFX application thread.
+	 * 
+	 * @param pDiagram The diagram to export. It must not be changed 
+	 *     until the task is done.
+	 * @param pFile The file to write to.
+	 * @param pFormat The name of the image format, as understood by ImageIO, 
+	 *     or ImageCreator.SVG_FORMAT.
+	 * @pre pDiagram != null && pFile != null && pFormat != null
+	 */
+	ImageExportTask(Diagram pDiagram, File pFile, String pFormat)
+	{
+		assert pDiagram != null && pFile != null && pFormat != null;
+		aDiagram = pDiagram;
+		aFile = pFile;
+		aFormat = pFormat;
+		if( pFormat.equals(ImageCreator.SVG_FORMAT) )
+		{
+			aImage = Optional.empty();
+			return;
+		}
+		TiledDiagramImage image = ImageCreator.createTiledImage(aDiagram);
+		int tiles = image.getNumXTiles() * image.getNumYTiles();
+		image.setRenderListener(() -> 
+		{
+			if( isCancelled() )
+			{
+				throw new CancellationException();
+			}
+			updateProgress(image.getNumberOfRenderedTiles(), tiles);
+		});
+		aImage = Optional.of(image);
+	}
+	
+	@Override
+	protected Void call() throws IOException
+	{
+		boolean written = false;
+		try( OutputStream out = new FileOutputStream(aFile) )
+		{
+			if( aImage.isPresent() )
+			{
+				if( !ImageIO.write(aImage.get(), aFormat, out) )
+				{
+					throw new IOException("No image writer for format " + aFormat);
+				}
+			}
+			else
+			{
+				BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+				ImageCreator.writeSvg(aDiagram, writer);
+			}
+			written = true;
+		}
+		finally
+		{
+			if( !written || isCancelled() )
+			{
+				aFile.delete();
+			}
+		}
+		return null;
+	}
+}
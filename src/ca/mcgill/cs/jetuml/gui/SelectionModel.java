@@ -21,9 +21,12 @@
 package ca.mcgill.cs.jetuml.gui;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import ca.mcgill.cs.jetuml.diagram.DiagramData;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
@@ -41,17 +44,29 @@ import ca.mcgill.cs.jetuml.views.ViewerUtilities;
  * Encapsulates all state related to the selection feature of a diagram canvas.
  * Conceptually, a selection model comprises three components:
  * 
- * 1. A list of selected elements.
+ * 1. A list of selected elements, in the order in which they were selected.
  * 2. Optionally, a rubberband tool used to select two nodes for drawing an edge
  * 3. Optionally, a lasso tool used to select any element within a region on a canvas.
+ * 
+ * Changes to the lasso and rubberband, as well as clearing a selection 
+ * made entirely with the lasso, are reported to the observer with the area 
+ * they affect, so that only this area needs to be repainted.
+ * 
+ * The selected elements are stored in an insertion-ordered set. Diagram elements
+ * do not redefine equals, so membership is based on identity and takes constant
+ * time. The selection never contains both a node and one of its descendants.
  */
 public class SelectionModel implements Iterable<DiagramElement>
 {
 	private final SelectionObserver aObserver;
 	
-	private List<DiagramElement> aSelected = new ArrayList<>();
+	private Set<DiagramElement> aSelected = new LinkedHashSet<>();
+	// The last element of aSelected, or empty if it must be recomputed
+	private Optional<DiagramElement> aLastSelected = Optional.empty();
 	private Optional<Line> aRubberband = Optional.empty();
 	private Optional<Rectangle> aLasso = Optional.empty();
+	// True if all selected elements were selected with the active lasso
+	private boolean aSelectedWithLasso = true;
 	
 	/**
 	 * Creates a new selection model with a single observer.
@@ -75,6 +90,7 @@ public class SelectionModel implements Iterable<DiagramElement>
 		assert pDiagramData != null;
 		clearSelection();
 		pDiagramData.allElements().forEach(this::internalAddToSelection);
+		aSelectedWithLasso = false;
 		aObserver.selectionModelChanged();
 	}
 	
@@ -124,10 +140,71 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void activateLasso(Rectangle pLasso, DiagramData pDiagramData)
 	{
 		assert pLasso != null;
+		Rectangle area = aLasso.map(lasso -> lasso.add(pLasso)).orElse(pLasso);
 		aLasso = Optional.of(pLasso);
 		pDiagramData.rootNodes().forEach( node -> selectNode(node, pLasso));
 		pDiagramData.edges().forEach( edge -> selectEdge(edge, pLasso));
-		aObserver.selectionModelChanged();
+		aObserver.selectionModelChanged(area);
+	}
+	
+	/**
+	 * Moves the active lasso to pLasso and updates the selection by testing only pCandidates. 
+	 * Elements that the new lasso contains are added to the selection. If pAdditive is false, the 
+	 * selected elements that it does not contain are removed from the selection. This method 
+	 * triggers a single notification, for the area covered by the old and new lassos.
+	 * 
+	 * When the selection was made with the active lasso, the result is the same as
+	 * activating the new lasso from an empty selection, or from the current selection if
+	 * pAdditive is true, except for the order of the selected elements.
+	 * 
+	 * @param pLasso The bounds of the new lasso.
+	 * @param pCandidates The root nodes and edges that must be tested against the new lasso. These 
+	 *     must include every root node or edge that has, or whose descendants have, bounds contained
+	 *     in one lasso but not in the other.
+	 * @param pAdditive True if elements should only be added to the selection.
+	 * @pre pLasso != null && pCandidates != null && getLasso().isPresent()
+	 */
+	public void moveLasso(Rectangle pLasso, Iterable<? extends DiagramElement> pCandidates, boolean pAdditive)
+	{
+		assert pLasso != null && pCandidates != null && aLasso.isPresent();
+		Rectangle area = aLasso.get().add(pLasso);
+		aLasso = Optional.of(pLasso);
+		for( DiagramElement element : pCandidates )
+		{
+			if( element instanceof Node )
+			{
+				updateNode((Node) element, pLasso, pAdditive);
+			}
+			else
+			{
+				updateElement(element, pLasso.contains(EdgeViewerRegistry.getBounds((Edge) element)), pAdditive);
+			}
+		}
+		aObserver.selectionModelChanged(area);
+	}
+	
+	private void updateNode(Node pNode, Rectangle pLasso, boolean pAdditive)
+	{
+		updateElement(pNode, pLasso.contains(NodeViewerRegistry.getBounds(pNode)), pAdditive);
+		if(pNode instanceof ParentNode)
+		{
+			for(ChildNode child : ((ParentNode) pNode).getChildren())
+			{
+				updateNode(child, pLasso, pAdditive);
+			}
+		}
+	}
+	
+	private void updateElement(DiagramElement pElement, boolean pInLasso, boolean pAdditive)
+	{
+		if( pInLasso && !aSelected.contains(pElement) )
+		{
+			internalAddToSelection(pElement);
+		}
+		else if( !pInLasso && !pAdditive )
+		{
+			internalRemoveFromSelection(pElement);
+		}
 	}
 	
 	private void selectNode(Node pNode, Rectangle pLasso)
@@ -166,8 +243,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 */
 	public void deactivateLasso()
 	{
+		Optional<Rectangle> lasso = aLasso;
 		aLasso = Optional.empty();
-		aObserver.selectionModelChanged();
+		notifyObserver(lasso);
 	}
 	
 	/**
@@ -178,8 +256,10 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void activateRubberband(Line pLine)
 	{
 		assert pLine != null;
+		Rectangle area = aRubberband.map(rubberband -> rubberband.spanning().add(pLine.spanning()))
+				.orElse(pLine.spanning());
 		aRubberband = Optional.of(pLine);
-		aObserver.selectionModelChanged();
+		aObserver.selectionModelChanged(area);
 	}
 	
 	
@@ -196,8 +276,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 */
 	public void deactivateRubberband()
 	{
+		Optional<Rectangle> area = aRubberband.map(Line::spanning);
 		aRubberband = Optional.empty();
-		aObserver.selectionModelChanged();
+		notifyObserver(area);
 	}
 	
 	/**
@@ -212,6 +293,7 @@ public class SelectionModel implements Iterable<DiagramElement>
 		assert pNewSelection != null;
 		clearSelection();
 		pNewSelection.forEach(this::internalAddToSelection);
+		aSelectedWithLasso = false;
 		aObserver.selectionModelChanged();
 	}
 	
@@ -229,6 +311,7 @@ public class SelectionModel implements Iterable<DiagramElement>
 	{
 		assert pElement != null;
 		internalAddToSelection(pElement);
+		aSelectedWithLasso = false;
 		aObserver.selectionModelChanged();
 	}
 	
@@ -238,20 +321,26 @@ public class SelectionModel implements Iterable<DiagramElement>
 		{
 			aSelected.remove(pElement);
 			aSelected.add(pElement);
+			aLastSelected = Optional.of(pElement);
 			
-			// Remove children in case a parent was added.
-			ArrayList<DiagramElement> toRemove = new ArrayList<>();
-			for( DiagramElement element : aSelected )
+			// Remove children in case a parent was added. Since no selected element
+			// had a selected ancestor before, only the descendants of pElement can have one.
+			if( pElement instanceof ParentNode )
 			{
-				if( containsParent(element) )
-				{
-					toRemove.add(element);
-				}
+				removeDescendants((ParentNode) pElement);
 			}
-			for( DiagramElement element : toRemove )
+		}
+	}
+	
+	private void removeDescendants(ParentNode pParent)
+	{
+		for( ChildNode child : pParent.getChildren() )
+		{
+			// Do no use removeFromSelection because it notifies the observer
+			aSelected.remove(child);
+			if( child instanceof ParentNode )
 			{
-				// Do no use removeFromSelection because it notifies the observer
-				aSelected.remove(element); 
+				removeDescendants((ParentNode) child);
 			}
 		}
 	}
@@ -292,23 +381,48 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 */
 	public void clearSelection()
 	{
+		Optional<Rectangle> area = Optional.empty();
+		if( aSelectedWithLasso )
+		{
+			area = aLasso;
+		}
 		aSelected.clear();
-		aObserver.selectionModelChanged();
+		aLastSelected = Optional.empty();
+		aSelectedWithLasso = true;
+		notifyObserver(area);
 	}
 	
-	/**
-	 * @return The last element that was selected, if present.
+	/*
+	 * Notifies the observer of a change that only affects pArea, 
+	 * or of a general change if pArea is empty.
 	 */
-	public Optional<DiagramElement> getLastSelected()
+	private void notifyObserver(Optional<Rectangle> pArea)
 	{
-		if( aSelected.isEmpty() )
+		if( pArea.isPresent() )
 		{
-			return Optional.empty();
+			aObserver.selectionModelChanged(pArea.get());
 		}
 		else
 		{
-			return Optional.of(aSelected.get(aSelected.size()-1));
+			aObserver.selectionModelChanged();
+		}
+	}
+	
+	/**
+	 * @return The last element that was selected, if present.
+	 */
+	public Optional<DiagramElement> getLastSelected()
+	{
+		if( !aLastSelected.isPresent() && !aSelected.isEmpty() )
+		{
+			DiagramElement last = null;
+			for( DiagramElement element : aSelected )
+			{
+				last = element;
+			}
+			aLastSelected = Optional.of(last);
 		}
+		return aLastSelected;
 	}
 	
 	/**
@@ -330,10 +444,19 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void removeFromSelection(DiagramElement pElement)
 	{
 		assert pElement != null;
-		aSelected.remove(pElement);
+		internalRemoveFromSelection(pElement);
 		aObserver.selectionModelChanged();
 	}
 	
+	private void internalRemoveFromSelection(DiagramElement pElement)
+	{
+		aSelected.remove(pElement);
+		if( aLastSelected.isPresent() && aLastSelected.get() == pElement )
+		{
+			aLastSelected = Optional.empty();
+		}
+	}
+	
 	/**
 	 * Sets pElement as the single selected element.
 	 * Triggers a notification.
@@ -345,13 +468,15 @@ public class SelectionModel implements Iterable<DiagramElement>
 		assert pElement != null;
 		aSelected.clear();
 		aSelected.add(pElement);
+		aLastSelected = Optional.of(pElement);
+		aSelectedWithLasso = false;
 		aObserver.selectionModelChanged();
 	}
 
 	@Override
 	public Iterator<DiagramElement> iterator()
 	{
-		return aSelected.iterator();
+		return Collections.unmodifiableSet(aSelected).iterator();
 	}
 	
 	/**
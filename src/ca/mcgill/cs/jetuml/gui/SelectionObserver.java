@@ -20,6 +20,8 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.gui;
 
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
 /**
  * Objects interested in changes to the state of a SelectionModel.
  */
@@ -29,4 +31,17 @@ public interface SelectionObserver
 	 * Called whenever the state of pModel changes.
 	 */
 	void selectionModelChanged();
+	
+	/**
+	 * Called whenever the state of pModel changes in a way that 
+	 * only affects how the diagram looks within pArea. By default,
+	 * this is handled like any other change.
+	 * 
+	 * @param pArea The area affected by the change.
+	 * @pre pArea != null
+	 */
+	default void selectionModelChanged(Rectangle pArea)
+	{
+		selectionModelChanged();
+	}
 }
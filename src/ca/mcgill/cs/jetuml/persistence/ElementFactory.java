@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.edges.AggregationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.AssociationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.CallEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.GeneralizationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.NoteEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.ObjectCollaborationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.ObjectReferenceEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.ReturnEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.StateTransitionEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.UseCaseAssociationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.UseCaseDependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.UseCaseGeneralizationEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ActorNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.FinalStateNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.InitialStateNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.InterfaceNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.NoteNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ObjectNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PointNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.StateNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.UseCaseNode;
+
+/**
+ * Creates the diagrams and diagram elements that correspond to
+ * the type names found in serialized diagrams. The type name of
+ * an object is the simple name of its class, as written by JsonEncoder.
+ * Each type name is bound to a constructor when this class is loaded, 
+ * so creating an element is a map lookup followed by a direct constructor call.
+ * Diagrams are created by their DiagramType.
+ */
+final class ElementFactory
+{
+	private static final Map<String, Supplier<Diagram>> DIAGRAMS = new HashMap<>();
+	private static final Map<String, Supplier<Node>> NODES = new HashMap<>();
+	private static final Map<String, Supplier<Edge>> EDGES = new HashMap<>();
+	
+	static
+	{
+		for( DiagramType type : DiagramType.values() )
+		{
+			register(DIAGRAMS, type.newInstance().getClass(), type::newInstance);
+		}
+		
+		register(NODES, ActorNode.class, ActorNode::new);
+		register(NODES, CallNode.class, CallNode::new);
+		register(NODES, ClassNode.class, ClassNode::new);
+		register(NODES, FieldNode.class, FieldNode::new);
+		register(NODES, FinalStateNode.class, FinalStateNode::new);
+		register(NODES, ImplicitParameterNode.class, ImplicitParameterNode::new);
+		register(NODES, InitialStateNode.class, InitialStateNode::new);
+		register(NODES, InterfaceNode.class, InterfaceNode::new);
+		register(NODES, NoteNode.class, NoteNode::new);
+		register(NODES, ObjectNode.class, ObjectNode::new);
+		register(NODES, PackageNode.class, PackageNode::new);
+		register(NODES, PointNode.class, PointNode::new);
+		register(NODES, StateNode.class, StateNode::new);
+		register(NODES, UseCaseNode.class, UseCaseNode::new);
+		
+		register(EDGES, AggregationEdge.class, AggregationEdge::new);
+		register(EDGES, AssociationEdge.class, AssociationEdge::new);
+		register(EDGES, CallEdge.class, CallEdge::new);
+		register(EDGES, DependencyEdge.class, DependencyEdge::new);
+		register(EDGES, GeneralizationEdge.class, GeneralizationEdge::new);
+		register(EDGES, NoteEdge.class, NoteEdge::new);
+		register(EDGES, ObjectCollaborationEdge.class, ObjectCollaborationEdge::new);
+		register(EDGES, ObjectReferenceEdge.class, ObjectReferenceEdge::new);
+		register(EDGES, ReturnEdge.class, ReturnEdge::new);
+		register(EDGES, StateTransitionEdge.class, StateTransitionEdge::new);
+		register(EDGES, UseCaseAssociationEdge.class, UseCaseAssociationEdge::new);
+		register(EDGES, UseCaseDependencyEdge.class, UseCaseDependencyEdge::new);
+		register(EDGES, UseCaseGeneralizationEdge.class, UseCaseGeneralizationEdge::new);
+	}
+	
+	private ElementFactory() {}
+	
+	private static <T> void register(Map<String, Supplier<T>> pRegistry, Class<? extends T> pClass, Supplier<T> pConstructor)
+	{
+		pRegistry.put(pClass.getSimpleName(), pConstructor);
+	}
+	
+	private static <T> T create(Map<String, Supplier<T>> pRegistry, String pType, String pKind)
+	{
+		Supplier<T> constructor = pRegistry.get(pType);
+		if( constructor == null )
+		{
+			throw new DeserializationException(String.format("Unknown %s type: %s", pKind, pType));
+		}
+		return constructor.get();
+	}
+	
+	/**
+	 * @param pType The type name of a diagram.
+	 * @return A new, empty diagram of type pType.
+	 * @throws DeserializationException If pType is not the name of a diagram type.
+	 * @pre pType != null
+	 */
+	static Diagram createDiagram(String pType)
+	{
+		assert pType != null;
+		return create(DIAGRAMS, pType, "diagram");
+	}
+	
+	/**
+	 * @param pType The type name of a node.
+	 * @return A new node of type pType.
+	 * @throws DeserializationException If pType is not the name of a node type.
+	 * @pre pType != null
+	 */
+	static Node createNode(String pType)
+	{
+		assert pType != null;
+		return create(NODES, pType, "node");
+	}
+	
+	/**
+	 * @param pType The type name of an edge.
+	 * @return A new edge of type pType.
+	 * @throws DeserializationException If pType is not the name of an edge type.
+	 * @pre pType != null
+	 */
+	static Edge createEdge(String pType)
+	{
+		assert pType != null;
+		return create(EDGES, pType, "edge");
+	}
+}
@@ -17,12 +17,19 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- *******************************************************************************/
+ *******************************************************************************/
 package ca.mcgill.cs.jetuml.persistence;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -32,14 +39,12 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ChildNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.ParentNode;
 
 /**
- * Converts a JSONObject to a graph.
+ * Converts a JSONObject to a graph. The graph can also be decoded directly 
+ * from its serialized form, in which case the nodes and edges are created
+ * as they are read, without building a JSONObject for the entire graph.
  */
 public final class JsonDecoder
 {
-	private static final String PREFIX_DIAGRAMS = "ca.mcgill.cs.jetuml.diagram.";
-	private static final String PREFIX_NODES = "ca.mcgill.cs.jetuml.diagram.nodes.";
-	private static final String PREFIX_EDGES = "ca.mcgill.cs.jetuml.diagram.edges.";
-	
 	private JsonDecoder() {}
 	
 	/**
@@ -52,47 +57,77 @@ public final class JsonDecoder
 		assert pDiagram != null;
 		try
 		{
-			Class<?> diagramClass = Class.forName(PREFIX_DIAGRAMS + pDiagram.getString("diagram"));
-			Diagram diagram = (Diagram) diagramClass.getDeclaredConstructor().newInstance();
-			DeserializationContext context = new DeserializationContext(diagram);
-			decodeNodes(context, pDiagram);
-			restoreChildren(context, pDiagram);
+			DeserializationContext context = new DeserializationContext(ElementFactory.createDiagram(pDiagram.getString("diagram")));
+			Map<Node, JSONArray> children = new LinkedHashMap<>();
+			JSONArray nodes = pDiagram.getJSONArray("nodes");
+			for( int i = 0; i < nodes.length(); i++ )
+			{
+				decodeNode(context, nodes.getJSONObject(i), children);
+			}
+			restoreChildren(context, children);
 			restoreRootNodes(context);
-			decodeEdges(context, pDiagram);
+			JSONArray edges = pDiagram.getJSONArray("edges");
+			for( int i = 0; i < edges.length(); i++ )
+			{
+				decodeEdge(context, edges.getJSONObject(i));
+			}
 			context.attachNodes();
-			return diagram;
+			return context.pDiagram();
 		}
-		catch( JSONException | ReflectiveOperationException exception )
+		catch( JSONException exception )
 		{
 			throw new DeserializationException("Cannot decode serialized object", exception);
 		}
 	}
 	
-	/* 
-	 * Extracts information about nodes from pObject and creates new objects
-	 * to represent them in pGraph.
-	 * throws Deserialization Exception
+	/**
+	 * Decodes a diagram from its JSON encoding, creating nodes and edges as they are read. 
+	 * Only the encoding of one node or edge at a time is held in memory. The encoding
+	 * is expected to list the diagram type before the nodes, and the nodes before the
+	 * edges, as done by JsonEncoder. Encodings in a different order are still
+	 * decoded, but the parts that appear too early are buffered.
+	 * 
+	 * @param pInput The source of the encoding.
+	 * @return The decoded diagram.
+	 * @throws IOException If there is a problem reading from pInput.
+	 * @throws DeserializationException If it's not possible to decode the input into a valid diagram.
+	 * @pre pInput != null
 	 */
-	private static void decodeNodes(DeserializationContext pContext, JSONObject pObject)
+	public static Diagram decode(Reader pInput) throws IOException
 	{
-		JSONArray nodes = pObject.getJSONArray("nodes");
-		for( int i = 0; i < nodes.length(); i++ )
+		assert pInput != null;
+		try
 		{
-			try
-			{
-				JSONObject object = nodes.getJSONObject(i);
-				Class<?> nodeClass = Class.forName(PREFIX_NODES + object.getString("type"));
-				Node node = (Node) nodeClass.getDeclaredConstructor().newInstance();
-				for( Property property : node.properties() )
-				{
-					property.set(object.get(property.getName()));
-				}
-				pContext.addNode(node, object.getInt("id"));
-			}
-			catch( ReflectiveOperationException exception )
+			return new StreamingDecoder(new JSONTokener(pInput)).decode();
+		}
+		catch( JSONException exception )
+		{
+			// JSONTokener reports problems with the input as JSONExceptions
+			if( exception.getCause() instanceof IOException )
 			{
-				throw new DeserializationException("Cannot instantiate serialized object", exception);
+				throw (IOException) exception.getCause();
 			}
+			throw new DeserializationException("Cannot decode serialized object", exception);
+		}
+	}
+	
+	/* 
+	 * Creates the node encoded in pObject and adds it to pContext. The identifiers 
+	 * of the children of the node, if any, are stored in pChildren, since the children 
+	 * may not be decoded yet.
+	 * throws Deserialization Exception
+	 */
+	private static void decodeNode(DeserializationContext pContext, JSONObject pObject, Map<Node, JSONArray> pChildren)
+	{
+		Node node = ElementFactory.createNode(pObject.getString("type"));
+		for( Property property : node.properties() )
+		{
+			property.set(pObject.get(property.getName()));
+		}
+		pContext.addNode(node, pObject.getInt("id"));
+		if( pObject.has("children"))
+		{
+			pChildren.put(node, pObject.getJSONArray("children"));
 		}
 	}
 	
@@ -114,50 +149,200 @@ public final class JsonDecoder
 	 * Restores the parent-child hierarchy within the context's graph. Assumes
 	 * the context has been initialized with all the nodes.
 	 */
-	private static void restoreChildren(DeserializationContext pContext, JSONObject pObject)
+	private static void restoreChildren(DeserializationContext pContext, Map<Node, JSONArray> pChildren)
 	{
-		JSONArray nodes = pObject.getJSONArray("nodes");
-		for( int i = 0; i < nodes.length(); i++ )
+		for( Map.Entry<Node, JSONArray> entry : pChildren.entrySet() )
 		{
-			JSONObject object = nodes.getJSONObject(i);
-			if( object.has("children"))
+			JSONArray children = entry.getValue();
+			for( int j = 0; j < children.length(); j++ )
 			{
-				Node node = pContext.getNode( object.getInt("id"));
-				JSONArray children = object.getJSONArray("children");
-				for( int j = 0; j < children.length(); j++ )
-				{
-					((ParentNode)node).addChild((ChildNode)pContext.getNode(children.getInt(j)));
-				}
+				((ParentNode)entry.getKey()).addChild((ChildNode)pContext.getNode(children.getInt(j)));
 			}
 		}
 	}
 	
 	/* 
-	 * Extracts information about nodes from pObject and creates new objects
-	 * to represent them in pGraph.
+	 * Creates the edge encoded in pObject and adds it to the context's graph. 
+	 * Assumes the context has been initialized with all the nodes.
 	 * throws Deserialization Exception
 	 */
-	private static void decodeEdges(DeserializationContext pContext, JSONObject pObject)
+	private static void decodeEdge(DeserializationContext pContext, JSONObject pObject)
 	{
-		JSONArray edges = pObject.getJSONArray("edges");
-		for( int i = 0; i < edges.length(); i++ )
+		Edge edge = ElementFactory.createEdge(pObject.getString("type"));
+		for( Property property : edge.properties())
+		{
+			property.set(pObject.get(property.getName()));
+		}
+		edge.connect(pContext.getNode(pObject.getInt("start")), pContext.getNode(pObject.getInt("end")), pContext.pDiagram());
+		pContext.pDiagram().addEdge(edge);
+	}
+	
+	/*
+	 * Pulls the members of the encoding of a diagram from a tokener, and decodes 
+	 * the elements of the node and edge arrays one at a time.
+	 */
+	private static final class StreamingDecoder
+	{
+		private final JSONTokener aTokener;
+		private DeserializationContext aContext;
+		private boolean aNodesDecoded = false;
+		private boolean aEdgesDecoded = false;
+		private JSONArray aBufferedNodes;
+		private JSONArray aBufferedEdges;
+		
+		StreamingDecoder(JSONTokener pTokener)
+		{
+			aTokener = pTokener;
+		}
+		
+		Diagram decode()
+		{
+			expect('{');
+			char next = aTokener.nextClean();
+			while( next != '}' )
+			{
+				aTokener.back();
+				Object key = aTokener.nextValue();
+				if( !(key instanceof String) )
+				{
+					throw aTokener.syntaxError("Expected a key");
+				}
+				expect(':');
+				decodeMember((String) key);
+				next = aTokener.nextClean();
+				if( next == ',' )
+				{
+					next = aTokener.nextClean();
+				}
+				else if( next != '}' )
+				{
+					throw aTokener.syntaxError("Expected a ',' or '}'");
+				}
+			}
+			if( aContext == null )
+			{
+				throw new JSONException("JSONObject[\"diagram\"] not found.");
+			}
+			if( aBufferedNodes != null )
+			{
+				decodeNodes(aBufferedNodes);
+			}
+			if( aBufferedEdges != null )
+			{
+				decodeEdges(aBufferedEdges);
+			}
+			if( !aNodesDecoded || !aEdgesDecoded )
+			{
+				throw new JSONException("Missing nodes or edges.");
+			}
+			aContext.attachNodes();
+			return aContext.pDiagram();
+		}
+		
+		private void decodeMember(String pKey)
+		{
+			if( pKey.equals("diagram") )
+			{
+				aContext = new DeserializationContext(ElementFactory.createDiagram(aTokener.nextValue().toString()));
+			}
+			else if( pKey.equals("nodes") && aContext != null )
+			{
+				Map<Node, JSONArray> children = new LinkedHashMap<>();
+				pullArray(pObject -> decodeNode(aContext, pObject, children));
+				finishNodes(children);
+			}
+			else if( pKey.equals("edges") && aNodesDecoded )
+			{
+				pullArray(pObject -> decodeEdge(aContext, pObject));
+				aEdgesDecoded = true;
+			}
+			else if( pKey.equals("nodes") )
+			{
+				aBufferedNodes = nextArray();
+			}
+			else if( pKey.equals("edges") )
+			{
+				aBufferedEdges = nextArray();
+			}
+			else
+			{
+				aTokener.nextValue();
+			}
+		}
+		
+		private void decodeNodes(JSONArray pNodes)
+		{
+			Map<Node, JSONArray> children = new LinkedHashMap<>();
+			for( int i = 0; i < pNodes.length(); i++ )
+			{
+				decodeNode(aContext, pNodes.getJSONObject(i), children);
+			}
+			finishNodes(children);
+		}
+		
+		private void decodeEdges(JSONArray pEdges)
+		{
+			for( int i = 0; i < pEdges.length(); i++ )
+			{
+				decodeEdge(aContext, pEdges.getJSONObject(i));
+			}
+			aEdgesDecoded = true;
+		}
+		
+		private void finishNodes(Map<Node, JSONArray> pChildren)
 		{
-			try
+			restoreChildren(aContext, pChildren);
+			restoreRootNodes(aContext);
+			aNodesDecoded = true;
+		}
+		
+		/*
+		 * Reads an array of objects, handing each object to pDecoder as soon 
+		 * as it is read.
+		 */
+		private void pullArray(Consumer<JSONObject> pDecoder)
+		{
+			expect('[');
+			if( aTokener.nextClean() == ']' )
 			{
-				JSONObject object = edges.getJSONObject(i);
-				Class<?> edgeClass = Class.forName(PREFIX_EDGES + object.getString("type"));
-				Edge edge = (Edge) edgeClass.getDeclaredConstructor().newInstance();
-				
-				for( Property property : edge.properties())
+				return;
+			}
+			aTokener.back();
+			while( true )
+			{
+				Object element = aTokener.nextValue();
+				if( !(element instanceof JSONObject) )
+				{
+					throw aTokener.syntaxError("Expected an object");
+				}
+				pDecoder.accept((JSONObject) element);
+				char next = aTokener.nextClean();
+				if( next == ']' )
 				{
-					property.set(object.get(property.getName()));
+					return;
+				}
+				if( next != ',' )
+				{
+					throw aTokener.syntaxError("Expected a ',' or ']'");
 				}
-				edge.connect(pContext.getNode(object.getInt("start")), pContext.getNode(object.getInt("end")), pContext.pDiagram());
-				pContext.pDiagram().addEdge(edge);
 			}
-			catch( ReflectiveOperationException exception )
+		}
+		
+		private JSONArray nextArray()
+		{
+			Object value = aTokener.nextValue();
+			if( !(value instanceof JSONArray) )
+			{
+				throw aTokener.syntaxError("Expected an array");
+			}
+			return (JSONArray) value;
+		}
+		
+		private void expect(char pCharacter)
+		{
+			if( aTokener.nextClean() != pCharacter )
 			{
-				throw new DeserializationException("Cannot instantiate serialized object", exception);
+				throw aTokener.syntaxError("Expected '" + pCharacter + "'");
 			}
 		}
 	}
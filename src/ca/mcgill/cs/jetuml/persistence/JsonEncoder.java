@@ -22,8 +22,12 @@ package ca.mcgill.cs.jetuml.persistence;
 
 import static ca.mcgill.cs.jetuml.application.ApplicationResources.RESOURCES;
 
+import java.io.IOException;
+
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONWriter;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -39,6 +43,10 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ParentNode;
  * * The graph type
  * * An array of node encodings
  * * An array of edge encodings
+ * 
+ * The encoding can either be built as a JSONObject, or written directly
+ * to an output without building the intermediate object tree. Both forms
+ * represent the same document.
  */
 public final class JsonEncoder
 {
@@ -61,6 +69,100 @@ public final class JsonEncoder
 		return object;
 	}
 	
+	/**
+	 * Writes the JSON encoding of pGraph to pOutput as it is produced, without
+	 * building the JSON object that represents the entire graph. The memory required
+	 * is thus independent of the size of the graph.
+	 * 
+	 * @param pGraph The graph to serialize.
+	 * @param pOutput The destination of the encoding.
+	 * @throws IOException If there is a problem writing to pOutput.
+	 * @pre pGraph != null && pOutput != null
+	 */
+	public static void encode(Diagram pGraph, Appendable pOutput) throws IOException
+	{
+		assert pGraph != null && pOutput != null;
+		
+		JSONWriter writer = new JSONWriter(pOutput);
+		try
+		{
+			writer.object();
+			writer.key("version").value(RESOURCES.getString("application.version.number"));
+			writer.key("diagram").value(pGraph.getClass().getSimpleName());
+			SerializationContext context = new SerializationContext(pGraph);
+			writer.key("nodes").array();
+			for( Node node : context )
+			{
+				writeNode(writer, node, context);
+			}
+			writer.endArray();
+			writer.key("edges").array();
+			for( Edge edge : pGraph.edges() )
+			{
+				writeEdge(writer, edge, context);
+			}
+			writer.endArray();
+			writer.endObject();
+		}
+		catch( JSONException exception )
+		{
+			// JSONWriter reports problems with the output as JSONExceptions 
+			if( exception.getCause() instanceof IOException )
+			{
+				throw (IOException) exception.getCause();
+			}
+			throw exception;
+		}
+	}
+	
+	private static void writeNode(JSONWriter pWriter, Node pNode, SerializationContext pContext)
+	{
+		pWriter.object();
+		writeProperties(pWriter, pNode.properties());
+		pWriter.key("id").value(pContext.getId(pNode));
+		pWriter.key("type").value(pNode.getClass().getSimpleName());
+		if( pNode instanceof ParentNode )
+		{
+			pWriter.key("children").array();
+			for( ChildNode child : ((ParentNode)pNode).getChildren())
+			{
+				pWriter.value(pContext.getId(child));
+			}
+			pWriter.endArray();
+		}
+		pWriter.endObject();
+	}
+	
+	private static void writeEdge(JSONWriter pWriter, Edge pEdge, AbstractContext pContext)
+	{
+		pWriter.object();
+		writeProperties(pWriter, pEdge.properties());
+		pWriter.key("type").value(pEdge.getClass().getSimpleName());
+		pWriter.key("start").value(pContext.getId(pEdge.getStart()));
+		pWriter.key("end").value(pContext.getId(pEdge.getEnd()));
+		pWriter.endObject();
+	}
+	
+	private static void writeProperties(JSONWriter pWriter, Properties pProperties)
+	{
+		for( Property property : pProperties )
+		{
+			Object value = property.get();
+			if( value instanceof String || value instanceof Enum )
+			{
+				pWriter.key(property.getName()).value(value.toString());
+			}
+			else if( value instanceof Integer)
+			{
+				pWriter.key(property.getName()).value((int) value);
+			}
+			else if( value instanceof Boolean)
+			{
+				pWriter.key(property.getName()).value((boolean) value);
+			}
+		}
+	}
+	
 	private static JSONArray encodeNodes(SerializationContext pContext)
 	{
 		JSONArray nodes = new JSONArray();
@@ -21,14 +21,12 @@
 package ca.mcgill.cs.jetuml.persistence;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.io.Writer;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 
@@ -40,7 +38,8 @@ public final class PersistenceService
 	private PersistenceService() {}
 	
 	/**
-     * Saves the current graph in a file. 
+     * Saves the current graph in a file. The encoding is written
+     * to the file as it is produced.
      * 
      * @param pGraph The graph to save
      * @param pFile The file to save
@@ -51,14 +50,16 @@ public final class PersistenceService
 	public static void save(Diagram pGraph, File pFile) throws IOException
 	{
 		assert pGraph != null && pFile != null;
-		try( PrintWriter out = new PrintWriter(new FileWriter(pFile)))
+		try( Writer out = new BufferedWriter(new FileWriter(pFile)))
 		{
-			out.println(JsonEncoder.encode(pGraph).toString());
+			JsonEncoder.encode(pGraph, out);
+			out.write(System.lineSeparator());
 		}
 	}
 	
 	/**
-	 * Reads a graph from a file.
+	 * Reads a graph from a file. The nodes and edges are decoded
+	 * as they are read.
 	 * 
 	 * @param pFile The file to read the graph from.
 	 * @return The graph that is read in
@@ -71,12 +72,7 @@ public final class PersistenceService
 		assert pFile != null;
 		try( BufferedReader in = new BufferedReader(new FileReader(pFile)))
 		{
-			Diagram graph = JsonDecoder.decode(new JSONObject(in.readLine()));
-			return graph;
-		}
-		catch( JSONException e )
-		{
-			throw new DeserializationException("Cannot decode the file", e);
+			return JsonDecoder.decode(in);
 		}
 	}
 }
@@ -22,69 +22,139 @@ package ca.mcgill.cs.jetuml.viewers.edges;
 
 import static ca.mcgill.cs.jetuml.views.StringViewer.FONT;
 
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
+import ca.mcgill.cs.jetuml.views.StringViewer.Align;
+import ca.mcgill.cs.jetuml.views.TextMeasurer;
+import ca.mcgill.cs.jetuml.views.TextMetricsCache;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
-import javafx.geometry.Bounds;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
-import javafx.scene.text.Text;
 
 /**
  * Provides shared services for viewing an edge.
+ * 
+ * Lines are drawn, and hit testing and bounds are computed, from the 
+ * geometry of the edge, a list of polylines, rather than from JavaFX shapes. 
+ * The geometry of an edge attached to a diagram is cached as long as the 
+ * diagram has not been modified, which includes moving the nodes at its end points.
+ * The cached geometry is stored with the diagram, so that it does not
+ * keep the diagram alive.
  */
 public abstract class AbstractEdgeViewer implements EdgeViewer
 {
 	protected static final int MAX_DISTANCE = 3;
 	protected static final int BUTTON_SIZE = 25;
 	protected static final int OFFSET = 3;
-	private static final Text SIZE_TESTER = new Text();
-	
-	static
-	{
-		SIZE_TESTER.setFont(FONT);
-	}
+	private static final int METRICS_CACHE_CAPACITY = 512;
+	private static final TextMetricsCache METRICS_CACHE = new TextMetricsCache(METRICS_CACHE_CAPACITY);
 	
 	private static final int DEGREES_180 = 180;
 	
 	/**
-	 * The default behavior is to draw a straight line between
-	 * the connections points oriented in the direction of each 
-	 * other node.
+	 * The default behavior is to return a straight line between
+	 * the connection points. The geometry is used for drawing the 
+	 * lines of the edge, for hit testing and for bounds.
 	 * 
-	 * @param pEdge The edge whose shape we want
-	 * @return The shape. 
+	 * @param pEdge The edge whose geometry we want.
+	 * @return The lines that make up the shape of the edge. 
 	 * @pre pEdge != null
 	 */
-	protected Shape getShape(Edge pEdge)
+	protected List<Polyline> getGeometry(Edge pEdge)
 	{
 		assert pEdge != null;
 		Line endPoints = getConnectionPoints(pEdge);
-		Path path = new Path();
-		path.getElements().addAll(new MoveTo(endPoints.getX1(), endPoints.getY1()), 
-				new LineTo(endPoints.getX2(), endPoints.getY2()));
-		return path;
+		return Arrays.asList(Polyline.of(endPoints.getPoint1(), endPoints.getPoint2()));
 	}
 	
 	/**
+	 * @param pEdge The edge whose geometry we want.
+	 * @return The geometry of pEdge, reused from a previous call if 
+	 *     the diagram of the edge has not changed since.
+	 * @pre pEdge != null
+	 */
+	protected final List<Polyline> cachedGeometry(Edge pEdge)
+	{
+		assert pEdge != null;
+		Diagram diagram = pEdge.getDiagram();
+		if( diagram == null || !isAttached(pEdge.getStart(), diagram) || !isAttached(pEdge.getEnd(), diagram) )
+		{
+			return getGeometry(pEdge);
+		}
+		Map<Edge, CachedGeometry> cache = geometryCacheOf(diagram);
+		int version = diagram.getVersion();
+		CachedGeometry cached = cache.get(pEdge);
+		if( cached != null && cached.aVersion == version )
+		{
+			return cached.aGeometry;
+		}
+		List<Polyline> geometry = getGeometry(pEdge);
+		cache.put(pEdge, new CachedGeometry(geometry, version));
+		return geometry;
+	}
+	
+	/*
+	 * The geometry cached by this viewer for the edges of pDiagram. Edges do 
+	 * not redefine equals, so the weak map is keyed by edge identity. 
+	 * The map is synchronized so that edge viewers can be shared by threads 
+	 * viewing different diagrams.
+	 */
+	private Map<Edge, CachedGeometry> geometryCacheOf(Diagram pDiagram)
+	{
+		return pDiagram.getDerivedData(this, () -> Collections.synchronizedMap(new WeakHashMap<>()));
+	}
+	
+	/*
+	 * The version of a diagram only reflects changes to the nodes 
+	 * that are attached to it.
+	 */
+	private static boolean isAttached(Node pNode, Diagram pDiagram)
+	{
+		if( pNode == null )
+		{
+			return false;
+		}
+		Optional<Diagram> diagram = pNode.getDiagram();
+		return diagram.isPresent() && diagram.get() == pDiagram;
+	}
+	
+	/**
+	 * Labels are plain, left-aligned text, so measurements are cached
+	 * by string only.
+	 * 
 	 * @param pText Some text to test.
 	 * @return The width and height of the text.
 	 */
 	protected static Dimension textDimensions( String pText )
 	{
-		SIZE_TESTER.setText(pText);
-		Bounds bounds = SIZE_TESTER.getBoundsInLocal();
+		Rectangle2D bounds = METRICS_CACHE.getBounds(pText, false, false, Align.LEFT, 
+				() -> TextMeasurer.getLogicalBounds(pText, FONT));
 		return new Dimension((int)bounds.getWidth(), (int)bounds.getHeight());
 	}
 	
+	/**
+	 * @return The cache of label bounds shared by all edge viewers.
+	 */
+	public static TextMetricsCache getMetricsCache()
+	{
+		return METRICS_CACHE;
+	}
+	
 	@Override
 	public boolean contains(Edge pEdge, Point pPoint)
 	{
@@ -95,16 +165,20 @@ public abstract class AbstractEdgeViewer implements EdgeViewer
 			return false;
 		}
 
-		Shape fatPath = getShape(pEdge);
-		fatPath.setStrokeWidth(2 * MAX_DISTANCE);
-		return fatPath.contains(pPoint.getX(), pPoint.getY());
+		for( Polyline polyline : cachedGeometry(pEdge) )
+		{
+			if( polyline.distance(pPoint) <= MAX_DISTANCE )
+			{
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	@Override
 	public Rectangle getBounds(Edge pEdge)
 	{
-		Bounds bounds = getShape(pEdge).getBoundsInLocal();
-		return new Rectangle((int)bounds.getMinX(), (int)bounds.getMinY(), (int)bounds.getWidth(), (int)bounds.getHeight());
+		return Polyline.getBounds(cachedGeometry(pEdge));
 	}
 	
 	/*
@@ -127,8 +201,25 @@ public abstract class AbstractEdgeViewer implements EdgeViewer
 	}
 
 	@Override
-	public void drawSelectionHandles(Edge pEdge, GraphicsContext pGraphics)
+	public void drawSelectionHandles(Edge pEdge, DrawingContext pGraphics)
 	{
 		ToolGraphics.drawHandles(pGraphics, getConnectionPoints(pEdge));		
 	}
+	
+	/*
+	 * Geometry computed for an edge, with the version of the diagram 
+	 * that was used to compute it. The value must not refer to the edge 
+	 * or its diagram.
+	 */
+	private static final class CachedGeometry
+	{
+		private final List<Polyline> aGeometry;
+		private final int aVersion;
+		
+		CachedGeometry(List<Polyline> pGeometry, int pVersion)
+		{
+			aGeometry = pGeometry;
+			aVersion = pVersion;
+		}
+	}
 }
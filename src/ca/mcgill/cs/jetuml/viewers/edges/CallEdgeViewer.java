@@ -21,28 +21,27 @@
 package ca.mcgill.cs.jetuml.viewers.edges;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.edges.CallEdge;
 import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
-import ca.mcgill.cs.jetuml.geom.Conversions;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
 import ca.mcgill.cs.jetuml.views.ArrowHeadView;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
 
 /**
  * A viewer to show call edges in a sequence diagrams. These are labeled
@@ -57,20 +56,15 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 	private static final int SHIFT = -10;
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected List<Polyline> getGeometry(Edge pEdge)
 	{
 		Point[] points = getPoints(pEdge);
-		Path path = new Path();
-		Point point = points[points.length - 1];
-		MoveTo moveTo = new MoveTo(point.getX(), point.getY());
-		path.getElements().add(moveTo);
-		for(int i = points.length - 2; i >= 0; i--)
+		Point[] reversed = new Point[points.length];
+		for(int i = 0; i < points.length; i++)
 		{
-			point = points[i];
-			LineTo lineTo = new LineTo(point.getX(), point.getY());
-			path.getElements().add(lineTo);
+			reversed[i] = points[points.length - 1 - i];
 		}
-		return path;
+		return Arrays.asList(Polyline.of(reversed));
 	}
 	
 	@Override
@@ -98,8 +92,8 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 	{
 		Rectangle bounds = super.getBounds(pEdge);
 		Line connectionPoints = getConnectionPoints(pEdge);
-		bounds = bounds.add(Conversions.toRectangle(getArrowHeadView((CallEdge)pEdge).getPath(connectionPoints.getPoint1(), 
-					connectionPoints.getPoint2()).getBoundsInLocal()));
+		bounds = bounds.add(Polyline.getBounds(getArrowHeadView((CallEdge)pEdge).getPolylines(connectionPoints.getPoint1(), 
+					connectionPoints.getPoint2())));
 		final String label = ((CallEdge)pEdge).getMiddleLabel();
 		if( label.length() > 0 )
 		{
@@ -109,11 +103,11 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 	}
 
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, DrawingContext pGraphics)
 	{
-		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(pEdge), LineStyle.SOLID);
+		ToolGraphics.strokeSharpPolyline(pGraphics, cachedGeometry(pEdge).get(0), LineStyle.SOLID);
 		
-		Point[] points = getPoints(pEdge); // TODO already called by getShape(), find a way to avoid having to do 2 calls.
+		Point[] points = getPoints(pEdge);
 		getArrowHeadView((CallEdge)pEdge).draw(pGraphics, points[points.length - 2], points[points.length - 1]);
 		String label = ((CallEdge)pEdge).getMiddleLabel();
 		if( label.length() > 0 )
@@ -141,7 +135,7 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 		}
 	}
 
-	private void drawLabel(CallEdge pEdge, GraphicsContext pGraphics, String pLabel)
+	private void drawLabel(CallEdge pEdge, DrawingContext pGraphics, String pLabel)
 	{
 		if( pEdge.isSelfEdge() )
 		{
@@ -199,11 +193,10 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 		final float scale = 0.6f;
 		final int offset = 15;
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
-		canvas.getGraphicsContext2D().scale(scale, scale);
-		Path path = new Path();
-		path.getElements().addAll(new MoveTo(1, offset), new LineTo(BUTTON_SIZE*(1/scale)-1, offset));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
+		graphics.scale(scale, scale);
+		ToolGraphics.strokeSharpPolyline(graphics, 
+				Polyline.of(new Point(1, offset), new Point((int)(BUTTON_SIZE*(1/scale)-1), offset)), LineStyle.SOLID);
 		ArrowHead.V.view().draw(graphics, new Point(1, offset), new Point((int)(BUTTON_SIZE*(1/scale)-1), offset));
 		return canvas;
 	}
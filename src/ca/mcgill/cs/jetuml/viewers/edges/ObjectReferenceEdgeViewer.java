@@ -20,22 +20,22 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.viewers.edges;
 
+import java.util.Arrays;
+import java.util.List;
+
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.QuadCurveTo;
-import javafx.scene.shape.Shape;
 
 /**
  * A viewer for an S- or C-shaped edge with an arrowhead.
@@ -45,19 +45,20 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 	private static final int ENDSIZE = 10;
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected List<Polyline> getGeometry(Edge pEdge)
 	{
+		Line connectionPoints = getConnectionPoints(pEdge);
 		if(isSShaped(pEdge))
 		{
-			return getSShape(getConnectionPoints(pEdge));
+			return Arrays.asList(getSGeometry(connectionPoints));
 		}
 		else
 		{
-			return getCShape(getConnectionPoints(pEdge));
-		}			
+			return Arrays.asList(getCGeometry(connectionPoints));
+		}
 	}
 	
-	private Path getSShape(Line pConnectionPoints)
+	private static Polyline getSGeometry(Line pConnectionPoints)
 	{
 		final int x1 = pConnectionPoints.getX1() + ENDSIZE;
 		final int y1 = pConnectionPoints.getY1();
@@ -65,19 +66,16 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 		final int y2 = pConnectionPoints.getY2();
 		final int xmid = (pConnectionPoints.getX1() + pConnectionPoints.getX2()) / 2;
 		final int ymid = (pConnectionPoints.getY1() + pConnectionPoints.getY2()) / 2;
-     
-		MoveTo moveTo = new MoveTo(pConnectionPoints.getX1(), y1);
-		LineTo lineTo1 = new LineTo(x1, y1);
-		QuadCurveTo quadTo1 = new QuadCurveTo((x1 + xmid) / 2, y1, xmid, ymid);
-		QuadCurveTo quadTo2 = new QuadCurveTo((x2 + xmid) / 2, y2, x2, y2);
-		LineTo lineTo2 = new LineTo(pConnectionPoints.getX2(), y2);
 		
-		Path path = new Path();
-		path.getElements().addAll(moveTo, lineTo1, quadTo1, quadTo2, lineTo2);
-		return path;
+		return new Polyline.Builder(pConnectionPoints.getX1(), y1)
+				.lineTo(x1, y1)
+				.quadTo((x1 + xmid) / 2, y1, xmid, ymid)
+				.quadTo((x2 + xmid) / 2, y2, x2, y2)
+				.lineTo(pConnectionPoints.getX2(), y2)
+				.build();
 	}
 	
-	private Path getCShape(Line pConnectionPoints)
+	private static Polyline getCGeometry(Line pConnectionPoints)
 	{
 		final int x1 = Math.max(pConnectionPoints.getX1(), pConnectionPoints.getX2()) + ENDSIZE;
 		final int y1 = pConnectionPoints.getY1();
@@ -85,15 +83,12 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 		final int y2 = pConnectionPoints.getY2();
 		final int ymid = (pConnectionPoints.getY1() + pConnectionPoints.getY2()) / 2;
 		
-		MoveTo moveTo = new MoveTo(pConnectionPoints.getX1(), y1);
-		LineTo lineTo1 = new LineTo(x1, y1);
-		QuadCurveTo quadTo1 = new QuadCurveTo(x2, y1, x2, ymid);
-		QuadCurveTo quadTo2 = new QuadCurveTo(x2, y2, x1, y2);
-		LineTo lineTo2 = new LineTo(pConnectionPoints.getX2(), y2);
-		
-		Path path = new Path();
-		path.getElements().addAll(moveTo, lineTo1, quadTo1, quadTo2, lineTo2);
-		return path;
+		return new Polyline.Builder(pConnectionPoints.getX1(), y1)
+				.lineTo(x1, y1)
+				.quadTo(x2, y1, x2, ymid)
+				.quadTo(x2, y2, x1, y2)
+				.lineTo(pConnectionPoints.getX2(), y2)
+				.build();
 	}
 	
 	/**
@@ -108,9 +103,9 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 	}
 
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, DrawingContext pGraphics)
 	{
-		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(pEdge), LineStyle.SOLID);
+		ToolGraphics.strokeSharpPolyline(pGraphics, cachedGeometry(pEdge).get(0), LineStyle.SOLID);
 		Line connectionPoints = getConnectionPoints(pEdge);
 		
 		if(isSShaped(pEdge))
@@ -145,10 +140,9 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 	public Canvas createIcon(Edge pEdge)
 	{   //CSOFF: Magic numbers
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
 		graphics.scale(0.6, 0.6);
-		Path path = getCShape(new Line(new Point(5, 5), new Point(15,25)));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
+		ToolGraphics.strokeSharpPolyline(graphics, getCGeometry(new Line(new Point(5, 5), new Point(15,25))), LineStyle.SOLID);
 		ArrowHead.BLACK_TRIANGLE.view().draw(graphics, new Point(20,25), new Point(15, 25));
 		return canvas;
 	}
@@ -25,16 +25,15 @@ import ca.mcgill.cs.jetuml.diagram.edges.ReturnEdge;
 import ca.mcgill.cs.jetuml.diagram.nodes.PointNode;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
 
 /**
  * Viewer for a labeled, straight edge with customized code to
@@ -76,11 +75,10 @@ public final class ReturnEdgeViewer extends LabeledStraightEdgeViewer
 		final float scale = 0.6f;
 		final int offset = 25;
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
-		canvas.getGraphicsContext2D().scale(scale, scale);
-		Path path = new Path();
-		path.getElements().addAll(new MoveTo(1, offset), new LineTo(BUTTON_SIZE*(1/scale)-1, offset));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.DOTTED);
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
+		graphics.scale(scale, scale);
+		ToolGraphics.strokeSharpPolyline(graphics, 
+				Polyline.of(new Point(1, offset), new Point((int)(BUTTON_SIZE*(1/scale)-1), offset)), LineStyle.DOTTED);
 		ArrowHead.V.view().draw(graphics, new Point((int)(BUTTON_SIZE*(1/scale)-1), offset), new Point(1, offset));
 		return canvas;
 	}
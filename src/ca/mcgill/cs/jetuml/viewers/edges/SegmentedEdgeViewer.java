@@ -20,6 +20,8 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.viewers.edges;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -27,22 +29,18 @@ import ca.mcgill.cs.jetuml.geom.Conversions;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextAlign;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextBaseline;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
-import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
-import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
-import javafx.scene.text.TextAlignment;
 
 /**
  * Renders edges as a path consisting of straight line segments.
@@ -87,7 +85,7 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	 * @param pString the string to draw 
 	 * @param pCenter true if the string should be centered along the segment
 	 */
-	private static void drawString(GraphicsContext pGraphics, Point2D pEndPoint1, Point2D pEndPoint2, 
+	private static void drawString(DrawingContext pGraphics, Point2D pEndPoint1, Point2D pEndPoint2, 
 			ArrowHead pArrowHead, String pString, boolean pCenter)
 	{
 		if (pString == null || pString.length() == 0)
@@ -96,32 +94,33 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 		}
 		Rectangle bounds = getStringBounds(pEndPoint1, pEndPoint2, pArrowHead, pString, pCenter);
 		
-		Paint oldFill = pGraphics.getFill();
-		VPos oldVPos = pGraphics.getTextBaseline();
-		TextAlignment oldAlign = pGraphics.getTextAlign();
+		DrawingColor oldFill = pGraphics.getFill();
+		TextBaseline oldBaseline = pGraphics.getTextBaseline();
+		TextAlign oldAlign = pGraphics.getTextAlign();
 		pGraphics.translate(bounds.getX(), bounds.getY());
-		pGraphics.setFill(Color.BLACK);
+		pGraphics.setFill(DrawingColor.BLACK);
 		int textX = 0;
 		int textY = 0;
 		if(pCenter) 
 		{
 			textX = bounds.getWidth()/2;
 			textY = bounds.getHeight() - textDimensions(pString).getHeight()/2;
-			pGraphics.setTextBaseline(VPos.CENTER);
-			pGraphics.setTextAlign(TextAlignment.CENTER);
+			pGraphics.setTextBaseline(TextBaseline.CENTER);
+			pGraphics.setTextAlign(TextAlign.CENTER);
 		}
 		pGraphics.fillText(pString, textX, textY);
 		pGraphics.translate(-bounds.getX(), -bounds.getY()); 
 		pGraphics.setFill(oldFill);
-		pGraphics.setTextBaseline(oldVPos);
+		pGraphics.setTextBaseline(oldBaseline);
 		pGraphics.setTextAlign(oldAlign);
 	}
 	
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, DrawingContext pGraphics)
 	{
 		Point2D[] points = getPoints(pEdge);		
-		ToolGraphics.strokeSharpPath(pGraphics, getSegmentPath(pEdge), aLineStyleExtractor.apply(pEdge));
+		// The first polyline of the geometry follows the segments, the others are the arrow heads
+		ToolGraphics.strokeSharpPolyline(pGraphics, cachedGeometry(pEdge).get(0), aLineStyleExtractor.apply(pEdge));
 		aArrowStartExtractor.apply(pEdge).view().draw(pGraphics, 
 				Conversions.toPoint(points[1]), 
 				Conversions.toPoint(points[0]));
@@ -184,16 +183,16 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 			}
 			if(pArrow != null)
 			{
-				Bounds arrowBounds = pArrow.view().getPath(
+				double arrowWidth = pArrow.view().getWidth(
 						Conversions.toPoint(pEndPoint1), 
-						Conversions.toPoint(pEndPoint2)).getBoundsInLocal();
+						Conversions.toPoint(pEndPoint2));
 				if(pEndPoint1.getX() < pEndPoint2.getX())
 				{
-					xoff -= arrowBounds.getWidth();
+					xoff -= arrowWidth;
 				}
 				else
 				{
-					xoff += arrowBounds.getWidth();
+					xoff += arrowWidth;
 				}
 			}
 		}
@@ -214,35 +213,27 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	}
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected List<Polyline> getGeometry(Edge pEdge)
 	{
-		Path path = getSegmentPath(pEdge);
 		Point2D[] points = getPoints(pEdge);
-		path.getElements().addAll(aArrowStartExtractor.apply(pEdge).view().getPath(
-				Conversions.toPoint(points[1]),
-				Conversions.toPoint(points[0])).getElements());
-		path.getElements().addAll(aArrowEndExtractor.apply(pEdge).view().getPath(
-				Conversions.toPoint(points[points.length - 2]), 
-				Conversions.toPoint(points[points.length - 1])).getElements());
-		return path;
-	}
-
-	private Path getSegmentPath(Edge pEdge)
-	{
-		Point2D[] points = getPoints(pEdge);
-		Path path = new Path();
 		Point2D p = points[points.length - 1];
-		MoveTo moveTo = new MoveTo((float) p.getX(), (float) p.getY());
-		path.getElements().add(moveTo);
+		Polyline.Builder segments = new Polyline.Builder((float) p.getX(), (float) p.getY());
 		for(int i = points.length - 2; i >= 0; i--)
 		{
 			p = points[i];
-			LineTo lineTo = new LineTo((float) p.getX(), (float) p.getY());
-			path.getElements().add(lineTo);
+			segments.lineTo((float) p.getX(), (float) p.getY());
 		}
-		return path;
+		List<Polyline> geometry = new ArrayList<>();
+		geometry.add(segments.build());
+		geometry.addAll(aArrowStartExtractor.apply(pEdge).view().getPolylines(
+				Conversions.toPoint(points[1]),
+				Conversions.toPoint(points[0])));
+		geometry.addAll(aArrowEndExtractor.apply(pEdge).view().getPolylines(
+				Conversions.toPoint(points[points.length - 2]), 
+				Conversions.toPoint(points[points.length - 1])));
+		return geometry;
 	}
-	
+
 	/*
 	 * Computes the extent of a string that is drawn along a line segment.
 	 * @param p an endpoint of the segment along which to draw the string
@@ -285,12 +276,13 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	public Canvas createIcon(Edge pEdge) 
 	{
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		Path path = new Path();
-		path.getElements().addAll(new MoveTo(OFFSET, OFFSET), new LineTo(BUTTON_SIZE-OFFSET, BUTTON_SIZE-OFFSET));
-		ToolGraphics.strokeSharpPath(canvas.getGraphicsContext2D(), path, aLineStyleExtractor.apply(pEdge));
-		aArrowEndExtractor.apply(pEdge).view().draw(canvas.getGraphicsContext2D(), 
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
+		ToolGraphics.strokeSharpPolyline(graphics, 
+				Polyline.of(new Point(OFFSET, OFFSET), new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE-OFFSET)), 
+				aLineStyleExtractor.apply(pEdge));
+		aArrowEndExtractor.apply(pEdge).view().draw(graphics, 
 				new Point(OFFSET, OFFSET), new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET));
-		aArrowStartExtractor.apply(pEdge).view().draw(canvas.getGraphicsContext2D(), 
+		aArrowStartExtractor.apply(pEdge).view().draw(graphics, 
 				new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET), new Point(OFFSET, OFFSET));
 		return canvas;
 	}
@@ -22,32 +22,31 @@ package ca.mcgill.cs.jetuml.viewers.edges;
 
 import static ca.mcgill.cs.jetuml.views.StringViewer.FONT;
 
+import java.util.Arrays;
+import java.util.List;
+
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.edges.StateTransitionEdge;
+import ca.mcgill.cs.jetuml.geom.Arc;
 import ca.mcgill.cs.jetuml.geom.Conversions;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextAlign;
+import ca.mcgill.cs.jetuml.views.DrawingFont;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.shape.Arc;
-import javafx.scene.shape.ArcType;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.QuadCurveTo;
-import javafx.scene.shape.Shape;
-import javafx.scene.text.Font;
-import javafx.scene.text.TextAlignment;
 
 /**
  * An edge view specialized for state transitions.
@@ -59,7 +58,6 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	private static final int DEGREES_10 = 10;
 	private static final int DEGREES_20 = 20;
 	private static final int DEGREES_270 = 270;
-	private static final double LINE_WIDTH = 0.6;
 	
 	private static final int RADIANS_TO_PIXELS = 10;
 	private static final double HEIGHT_RATIO = 3.5;
@@ -69,26 +67,24 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	// The amount of vertical difference in connection points to tolerate
 	// before centering the edge label on one side instead of in the center.
 	private static final int VERTICAL_TOLERANCE = 20; 
-
-	private Font aFont = FONT;
 	
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, DrawingContext pGraphics)
 	{
 		if(isSelfEdge(pEdge))
 		{
-			pGraphics.setStroke(Color.BLACK);
+			pGraphics.setStroke(DrawingColor.BLACK);
 			drawSelfEdge(pEdge, pGraphics);
 		}
 		else 
 		{
-			ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(pEdge), LineStyle.SOLID);
+			ToolGraphics.strokeSharpPolyline(pGraphics, cachedGeometry(pEdge).get(0), LineStyle.SOLID);
 		}
 		drawLabel((StateTransitionEdge)pEdge, pGraphics);
 		drawArrowHead(pEdge, pGraphics);
 	}
 	
-	private void drawArrowHead(Edge pEdge, GraphicsContext pGraphics)
+	private void drawArrowHead(Edge pEdge, DrawingContext pGraphics)
 	{
 		if( isSelfEdge(pEdge) )
 		{
@@ -114,33 +110,36 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	 *  Draws the label.
 	 *  @param pGraphics2D the graphics context
 	 */
-	private void drawLabel(StateTransitionEdge pEdge, GraphicsContext pGraphics)
+	private void drawLabel(StateTransitionEdge pEdge, DrawingContext pGraphics)
 	{
-		adjustLabelFont(pEdge);
 		Rectangle2D labelBounds = getLabelBounds(pEdge);
 		double x = labelBounds.getMinX();
 		double y = labelBounds.getMinY();
 		
-		Paint oldFill = pGraphics.getFill();
-		Font oldFont = pGraphics.getFont();
+		DrawingColor oldFill = pGraphics.getFill();
+		DrawingFont oldFont = pGraphics.getFont();
 		pGraphics.translate(x, y);
-		pGraphics.setFill(Color.BLACK);
-		pGraphics.setFont(aFont);
-		pGraphics.setTextAlign(TextAlignment.CENTER);
+		pGraphics.setFill(DrawingColor.BLACK);
+		pGraphics.setFont(getLabelFont(pEdge));
+		pGraphics.setTextAlign(TextAlign.CENTER);
 		pGraphics.fillText(pEdge.getMiddleLabel(), labelBounds.getWidth()/2, 0);
 		pGraphics.setFill(oldFill);
 		pGraphics.setFont(oldFont);
 		pGraphics.translate(-x, -y);        
 	}
 	
-	private void drawSelfEdge(Edge pEdge, GraphicsContext pGraphics)
+	/*
+	 * The self edge is drawn on the circle inscribed in the square that has 
+	 * the center of its arc as top-left corner and the radius of its arc as 
+	 * side, so it is smaller than the arc used for hit testing and bounds.
+	 */
+	private void drawSelfEdge(Edge pEdge, DrawingContext pGraphics)
 	{
-		Arc arc = (Arc) getShape(pEdge);
-		double width = pGraphics.getLineWidth();
-		pGraphics.setLineWidth(LINE_WIDTH);
-		pGraphics.strokeArc(arc.getCenterX(), arc.getCenterY(), arc.getRadiusX(), arc.getRadiusY(), arc.getStartAngle(), 
-				arc.getLength(), arc.getType());
-		pGraphics.setLineWidth(width);
+		Arc arc = getSelfEdgeArc(pEdge);
+		double radius = arc.getRadius() / 2;
+		Arc drawn = new Arc(arc.getCenterX() + radius, arc.getCenterY() + radius, radius, 
+				arc.getStartAngle(), arc.getLength());
+		ToolGraphics.strokeSharpPolyline(pGraphics, drawn.toPolyline(), LineStyle.SOLID);
 	}
 	
 	private Rectangle2D getLabelBounds(StateTransitionEdge pEdge)
@@ -166,7 +165,6 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		double x = control.getX() / 2 + line.getX1() / 4 + line.getX2() / 4;
 		double y = control.getY() / 2 + line.getY1() / 4 + line.getY2() / 4;
 
-		adjustLabelFont(pEdge);
 		Dimension textDimensions = getLabelBounds(pEdge.getMiddleLabel());
 
 		int gap = 3;
@@ -219,7 +217,6 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	private Rectangle2D getSelfEdgeLabelBounds(StateTransitionEdge pEdge)
 	{
 		Line line = getConnectionPoints(pEdge);
-		adjustLabelFont(pEdge);
 		Dimension textDimensions = getLabelBounds(pEdge.getMiddleLabel());
 		if( getPosition(pEdge) == 1 )
 		{
@@ -247,31 +244,39 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		return textDimensions(pString);
 	}
 	
-	private void adjustLabelFont(StateTransitionEdge pEdge)
+	/*
+	 * Long labels are drawn in a smaller font. The font is computed for 
+	 * each label so that the viewer, which is shared, has no mutable state.
+	 */
+	private static DrawingFont getLabelFont(StateTransitionEdge pEdge)
 	{
 		if(pEdge.getMiddleLabel().length() > MAX_LENGTH_FOR_NORMAL_FONT)
 		{
 			float difference = pEdge.getMiddleLabel().length() - MAX_LENGTH_FOR_NORMAL_FONT;
 			difference = difference / (2*pEdge.getMiddleLabel().length()); // damping
 			double newFontSize = Math.max(MIN_FONT_SIZE, (1-difference) * FONT.getSize());
-			aFont = new Font(aFont.getName(), newFontSize);
+			return FONT.deriveSize(newFontSize);
 		}
 		else
 		{
-			aFont = FONT;
+			return FONT;
 		}
 	}
 
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected List<Polyline> getGeometry(Edge pEdge)
 	{
 		if( isSelfEdge(pEdge) )
 		{
-			return getSelfEdgeShape(pEdge);
+			return Arrays.asList(getSelfEdgeArc(pEdge).toPolyline());
 		}
 		else
 		{
-			return getNormalEdgeShape(pEdge);
+			Line line = getConnectionPoints(pEdge);
+			Point2D control = getControlPoint(pEdge);
+			return Arrays.asList(new Polyline.Builder(line.getX1(), line.getY1())
+					.quadTo(control.getX(), control.getY(), line.getX2(), line.getY2())
+					.build());
 		}
 	}
 	
@@ -280,41 +285,28 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		return pEdge.getStart() == pEdge.getEnd();
 	}
 	
-	private Shape getSelfEdgeShape(Edge pEdge)
+	private Arc getSelfEdgeArc(Edge pEdge)
 	{
 		Line line = getSelfEdgeConnectionPoints(pEdge);
-		Arc arc = new Arc();
-		arc.setRadiusX(SELF_EDGE_OFFSET*2);
-		arc.setRadiusY(SELF_EDGE_OFFSET*2);
-		arc.setLength(DEGREES_270);
-		arc.setType(ArcType.OPEN);
 		if( getPosition(pEdge) == 1 )
 		{
-			arc.setCenterX(line.getX1());
-			arc.setCenterY(line.getY1()-SELF_EDGE_OFFSET);
-			arc.setStartAngle(DEGREES_270);
+			return new Arc(line.getX1(), line.getY1()-SELF_EDGE_OFFSET, SELF_EDGE_OFFSET*2, DEGREES_270, DEGREES_270);
 		}
 		else
 		{		
-			arc.setCenterX(line.getX1()-SELF_EDGE_OFFSET);
-			arc.setCenterY(line.getY1()-SELF_EDGE_OFFSET*2);
-			arc.setStartAngle(1);
+			return new Arc(line.getX1()-SELF_EDGE_OFFSET, line.getY1()-SELF_EDGE_OFFSET*2, SELF_EDGE_OFFSET*2, 1, DEGREES_270);
 		}
-		return arc;
 	}
 	
 	@Override
 	public boolean contains(Edge pEdge, Point pPoint)
 	{
-		boolean result = super.contains(pEdge, pPoint);
-		if (getShape(pEdge) instanceof Arc)
+		if( isSelfEdge(pEdge) )
 		{
-			Arc arc = (Arc) getShape(pEdge);
-			arc.setRadiusX(arc.getRadiusX() + 2 * MAX_DISTANCE);
-			arc.setRadiusY(arc.getRadiusY() + 2 * MAX_DISTANCE);
-			result = arc.contains(pPoint.getX(), pPoint.getY());
+			Arc arc = getSelfEdgeArc(pEdge);
+			return arc.withRadius(arc.getRadius() + 2 * MAX_DISTANCE).contains(pPoint);
 		}
-		return result;
+		return super.contains(pEdge, pPoint);
 	}
 	
 	/** 
@@ -365,18 +357,6 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		}
 	}
 	
-	private Shape getNormalEdgeShape(Edge pEdge)
-	{
-		Line line = getConnectionPoints(pEdge);
-		Path path = new Path();
-		MoveTo moveTo = new MoveTo(line.getPoint1().getX(), line.getPoint1().getY());
-		QuadCurveTo curveTo = new QuadCurveTo(getControlPoint(pEdge).getX(), getControlPoint(pEdge).getY(), 
-				line.getPoint2().getX(), line.getPoint2().getY());
-		path.getElements().addAll(moveTo, curveTo);
-		return path;
-	}
-	
-	
 	/**
      *  Gets the control point for the quadratic spline.
      * @return the control point
@@ -397,7 +377,16 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	@Override
 	public Rectangle getBounds(Edge pEdge)
 	{
-		return super.getBounds(pEdge).add(Conversions.toRectangle(getLabelBounds((StateTransitionEdge)pEdge)));
+		Rectangle bounds;
+		if( isSelfEdge(pEdge) )
+		{
+			bounds = getSelfEdgeArc(pEdge).getBounds();
+		}
+		else
+		{
+			bounds = super.getBounds(pEdge);
+		}
+		return bounds.add(Conversions.toRectangle(getLabelBounds((StateTransitionEdge)pEdge)));
 	}
 	
 	@Override
@@ -438,7 +427,7 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	public Canvas createIcon(Edge pEdge)
 	{   //CSOFF: Magic numbers
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
 		graphics.scale(0.6, 0.6);
 		Line line = new Line(new Point(2,2), new Point(40,40));
 		final double tangent = Math.tan(Math.toRadians(DEGREES_10));
@@ -447,12 +436,10 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		Point control = new Point((int)((line.getX1() + line.getX2()) / 2 + tangent * dy), 
 				(int)((line.getY1() + line.getY2()) / 2 - tangent * dx));         
 		
-		Path path = new Path();
-		MoveTo moveTo = new MoveTo(line.getPoint1().getX(), line.getPoint1().getY());
-		QuadCurveTo curveTo = new QuadCurveTo(control.getX(), control.getY(), line.getPoint2().getX(), line.getPoint2().getY());
-		path.getElements().addAll(moveTo, curveTo);
-		
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
+		Polyline curve = new Polyline.Builder(line.getX1(), line.getY1())
+				.quadTo(control.getX(), control.getY(), line.getX2(), line.getY2())
+				.build();
+		ToolGraphics.strokeSharpPolyline(graphics, curve, LineStyle.SOLID);
 		ArrowHead.V.view().draw(graphics, control, new Point(40, 40));
 		return canvas;
 	}
@@ -24,6 +24,8 @@ import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.edges.UseCaseDependencyEdge;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import javafx.scene.canvas.Canvas;
@@ -49,7 +51,7 @@ public final class UseCaseDependencyEdgeViewer extends LabeledStraightEdgeViewer
 		final float scale = 0.75f;
 		canvas.getGraphicsContext2D().scale(scale, scale);
 		new StringViewer(StringViewer.Align.CENTER, false, false)
-		    .draw(getIconTag(pEdge), canvas.getGraphicsContext2D(), new Rectangle(1, BUTTON_SIZE, 1, 1));
+		    .draw(getIconTag(pEdge), new CanvasDrawingContext(canvas.getGraphicsContext2D()), new Rectangle(1, BUTTON_SIZE, 1, 1));
 		return canvas;
 	}
 
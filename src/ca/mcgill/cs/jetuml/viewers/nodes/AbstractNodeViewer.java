@@ -24,10 +24,11 @@ import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.CanvasDrawingContext;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
 
 /**
  * Basic services for drawing nodes.
@@ -95,7 +96,7 @@ public abstract class AbstractNodeViewer implements NodeViewer
 	}
 	
 	@Override
-	public void drawSelectionHandles(Node pNode, GraphicsContext pGraphics)
+	public void drawSelectionHandles(Node pNode, DrawingContext pGraphics)
 	{
 		ToolGraphics.drawHandles(pGraphics, getBounds(pNode));		
 	}
@@ -110,12 +111,12 @@ public abstract class AbstractNodeViewer implements NodeViewer
 		double scaleY = (BUTTON_SIZE - OFFSET)/ (double) height;
 		double scale = Math.min(scaleX, scaleY);
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
+		DrawingContext graphics = new CanvasDrawingContext(canvas.getGraphicsContext2D());
 		graphics.scale(scale, scale);
 		graphics.translate(Math.max((height - width) / 2, 0), Math.max((width - height) / 2, 0));
-		graphics.setFill(Color.WHITE);
-		graphics.setStroke(Color.BLACK);
-		draw(pNode, canvas.getGraphicsContext2D());
+		graphics.setFill(DrawingColor.WHITE);
+		graphics.setStroke(DrawingColor.BLACK);
+		draw(pNode, graphics);
 		return canvas;
 	}
 }
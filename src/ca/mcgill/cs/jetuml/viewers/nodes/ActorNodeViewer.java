@@ -24,14 +24,8 @@ import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.nodes.ActorNode;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
-import ca.mcgill.cs.jetuml.views.LineStyle;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.StringViewer;
-import ca.mcgill.cs.jetuml.views.ToolGraphics;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.QuadCurveTo;
 
 /**
  * An object to render an actor in a use case diagram.
@@ -47,6 +41,7 @@ public final class ActorNodeViewer extends AbstractNodeViewer
 	private static final int ARMS_SIZE = 24;
 	private static final int WIDTH = ARMS_SIZE * 2;
 	private static final int HEIGHT = HEAD_SIZE + BODY_SIZE + LEG_SIZE + PADDING * 2;
+	private static final double LINE_WIDTH = 0.6;
 	
 	@Override
 	public Rectangle getBounds(Node pNode)
@@ -57,41 +52,62 @@ public final class ActorNodeViewer extends AbstractNodeViewer
 	}
 
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, DrawingContext pGraphics)
 	{	
 		Rectangle bounds = getBounds(pNode);
 		Dimension nameBox = NAME_VIEWER.getDimension(((ActorNode)pNode).getName());
 		Rectangle namebox = new Rectangle(bounds.getX() + (int)((bounds.getWidth() - nameBox.getWidth()) / 2.0), 
 				bounds.getY() + HEIGHT, nameBox.getWidth(), nameBox.getHeight());
 		NAME_VIEWER.draw(((ActorNode)pNode).getName(), pGraphics, namebox);
-		ToolGraphics.strokeSharpPath(pGraphics, createStickManPath(pNode), LineStyle.SOLID);
+		drawStickMan(pNode, pGraphics);
 	}
 	
-	private Path createStickManPath(Node pNode)
+	/*
+	 * Strokes the stick man with points aligned to the center of the pixels, 
+	 * as ToolGraphics does for polylines. The head is made of curves, so the 
+	 * stick man is stroked as a path.
+	 */
+	private static void drawStickMan(Node pNode, DrawingContext pGraphics)
 	{
-		Path path = new Path();
-		
 		int neckX = pNode.position().getX() + WIDTH / 2;
 		int neckY = pNode.position().getY() + HEAD_SIZE + PADDING;
 		int hipX = neckX;
 		int hipY = neckY + BODY_SIZE;
-		float dx = (float) (LEG_SIZE / Math.sqrt(2));
-		float feetX1 = hipX - dx;
-		float feetX2 = hipX + dx + 1;
-		float feetY  = hipY + dx + 1;
+		int dx = (int) (LEG_SIZE / Math.sqrt(2));
+		int feetX1 = hipX - dx - 1;
+		int feetX2 = hipX + dx + 1;
+		int feetY  = hipY + dx + 1;
 		
-		path.getElements().addAll(
-				new MoveTo(neckX, neckY),
-				new QuadCurveTo(neckX + HEAD_SIZE / 2, neckY, neckX + HEAD_SIZE / 2, neckY - HEAD_SIZE / 2),
-				new QuadCurveTo(neckX + HEAD_SIZE / 2, neckY - HEAD_SIZE, neckX, neckY - HEAD_SIZE),
-				new QuadCurveTo(neckX - HEAD_SIZE / 2, neckY - HEAD_SIZE, neckX-HEAD_SIZE / 2, neckY - HEAD_SIZE / 2),
-				new QuadCurveTo(neckX - HEAD_SIZE / 2, neckY, neckX, neckY),
-				new LineTo(hipX, hipY),
-				new MoveTo(neckX - ARMS_SIZE / 2, neckY + BODY_SIZE / 3),
-				new LineTo(neckX + ARMS_SIZE / 2, neckY + BODY_SIZE / 3),
-				new MoveTo(feetX1, feetY),
-				new LineTo(hipX, hipY),
-				new LineTo(feetX2, feetY));	
-		return path;
+		double width = pGraphics.getLineWidth();
+		pGraphics.setLineWidth(LINE_WIDTH);
+		pGraphics.beginPath();
+		moveTo(pGraphics, neckX, neckY);
+		quadraticCurveTo(pGraphics, neckX + HEAD_SIZE / 2, neckY, neckX + HEAD_SIZE / 2, neckY - HEAD_SIZE / 2);
+		quadraticCurveTo(pGraphics, neckX + HEAD_SIZE / 2, neckY - HEAD_SIZE, neckX, neckY - HEAD_SIZE);
+		quadraticCurveTo(pGraphics, neckX - HEAD_SIZE / 2, neckY - HEAD_SIZE, neckX - HEAD_SIZE / 2, neckY - HEAD_SIZE / 2);
+		quadraticCurveTo(pGraphics, neckX - HEAD_SIZE / 2, neckY, neckX, neckY);
+		lineTo(pGraphics, hipX, hipY);
+		moveTo(pGraphics, neckX - ARMS_SIZE / 2, neckY + BODY_SIZE / 3);
+		lineTo(pGraphics, neckX + ARMS_SIZE / 2, neckY + BODY_SIZE / 3);
+		moveTo(pGraphics, feetX1, feetY);
+		lineTo(pGraphics, hipX, hipY);
+		lineTo(pGraphics, feetX2, feetY);
+		pGraphics.stroke();
+		pGraphics.setLineWidth(width);
+	}
+	
+	private static void moveTo(DrawingContext pGraphics, int pX, int pY)
+	{
+		pGraphics.moveTo(pX + 0.5, pY + 0.5);
+	}
+	
+	private static void lineTo(DrawingContext pGraphics, int pX, int pY)
+	{
+		pGraphics.lineTo(pX + 0.5, pY + 0.5);
+	}
+	
+	private static void quadraticCurveTo(DrawingContext pGraphics, int pControlX, int pControlY, int pX, int pY)
+	{
+		pGraphics.quadraticCurveTo(pControlX + 0.5, pControlY + 0.5, pX + 0.5, pY + 0.5);
 	}
 }
@@ -32,10 +32,10 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.ViewUtils;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
 
 /**
  * An object to render a call node in a Sequence diagram.
@@ -49,13 +49,13 @@ public final class CallNodeViewer extends AbstractNodeViewer
 	private static final ImplicitParameterNodeViewer IMPLICIT_PARAMETER_NODE_VIEWER = new ImplicitParameterNodeViewer();
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, DrawingContext pGraphics)
 	{
 		if(((CallNode)pNode).isOpenBottom())
 		{
-			pGraphics.setStroke(Color.WHITE);
+			pGraphics.setStroke(DrawingColor.WHITE);
 			ViewUtils.drawRectangle(pGraphics, getBounds(pNode));
-			pGraphics.setStroke(Color.BLACK);
+			pGraphics.setStroke(DrawingColor.BLACK);
 			final Rectangle bounds = getBounds(pNode);
 			int x1 = bounds.getX();
 			int x2 = bounds.getMaxX();
@@ -24,9 +24,9 @@ import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.ViewUtils;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
 
 /**
  * An object to render a initial or final node.
@@ -45,19 +45,19 @@ public final class CircularStateNodeViewer extends AbstractNodeViewer
 	}
 
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, DrawingContext pGraphics)
 	{
 		final Rectangle bounds = getBounds(pNode);
 		if( aFinal )
 		{
-			ViewUtils.drawCircle(pGraphics, bounds.getX(), bounds.getY(), DIAMETER, Color.WHITE, true);
+			ViewUtils.drawCircle(pGraphics, bounds.getX(), bounds.getY(), DIAMETER, DrawingColor.WHITE, true);
 			int innerDiameter = DIAMETER/2;
 			ViewUtils.drawCircle(pGraphics, bounds.getX() + innerDiameter/2, 
-					bounds.getY() + innerDiameter/2, innerDiameter, Color.BLACK, false);
+					bounds.getY() + innerDiameter/2, innerDiameter, DrawingColor.BLACK, false);
 		}
 		else
 		{
-			ViewUtils.drawCircle(pGraphics, bounds.getX(), bounds.getY(), DIAMETER, Color.BLACK, true);
+			ViewUtils.drawCircle(pGraphics, bounds.getX(), bounds.getY(), DIAMETER, DrawingColor.BLACK, true);
 		}
 	}
 	
@@ -26,8 +26,8 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ObjectNode;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.StringViewer;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * An object to render a FieldNode.
@@ -45,7 +45,7 @@ public final class FieldNodeViewer extends AbstractNodeViewer
 	private static final ObjectNodeViewer OBJECT_NODE_VIEWER = new ObjectNodeViewer();
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, DrawingContext pGraphics)
 	{
 		final Rectangle bounds = getBounds(pNode);
 		final int split = getSplitPosition(pNode);
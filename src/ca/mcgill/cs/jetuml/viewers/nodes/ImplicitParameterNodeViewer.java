@@ -28,10 +28,10 @@ import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.LineStyle;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.ViewUtils;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * An object to render an implicit parameter in a Sequence diagram.
@@ -46,7 +46,7 @@ public final class ImplicitParameterNodeViewer extends AbstractNodeViewer
 	private static final StringViewer NAME_VIEWER = new StringViewer(StringViewer.Align.CENTER, false, true);
 
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, DrawingContext pGraphics)
 	{
 		Rectangle top = getTopRectangle(pNode);
 		ViewUtils.drawRectangle(pGraphics, top);
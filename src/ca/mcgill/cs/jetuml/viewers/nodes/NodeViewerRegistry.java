@@ -11,11 +11,19 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.viewers.nodes;
 
+import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.SequenceDiagram;
 import ca.mcgill.cs.jetuml.diagram.nodes.ActorNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ChildNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.FinalStateNode;
@@ -31,12 +39,22 @@ import ca.mcgill.cs.jetuml.diagram.nodes.UseCaseNode;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * Keeps track of the association between a node type and the viewer
  * that needs to be used to view it.
+ * 
+ * The registry also caches the bounds of nodes that are attached to 
+ * a diagram. The bounds of a node can depend on its parent and on the 
+ * other children of its parent, so a cached value is reused as long as 
+ * the change stamp of the root of the node's containment tree is unchanged.
+ * In sequence diagrams, the bounds of call nodes depend on other elements 
+ * of the diagram, so values are only reused as long as the diagram 
+ * has not been modified since they were computed. The cached bounds are stored with the diagram, so that they do not keep
+ * it alive. The cache can be used from several threads at once, as long 
+ * as each diagram is only used by one thread at a time.
  */
 public final class NodeViewerRegistry
 {	
@@ -45,6 +63,11 @@ public final class NodeViewerRegistry
 	private IdentityHashMap<Class<? extends Node>, NodeViewer> aRegistry = 
 			new IdentityHashMap<>();
 	
+	// Incremented to invalidate the bounds cached in all diagrams at once.
+	private final AtomicInteger aBoundsCacheGeneration = new AtomicInteger();
+	private final AtomicInteger aBoundsCacheHits = new AtomicInteger();
+	private final AtomicInteger aBoundsCacheMisses = new AtomicInteger();
+	
 	private NodeViewerRegistry() 
 	{
 		aRegistry.put(ActorNode.class, new ActorNodeViewer());
@@ -102,7 +125,7 @@ public final class NodeViewerRegistry
      * @param pGraphics the graphics context
      * @pre pNode != null
 	 */
-   	public static void draw(Node pNode, GraphicsContext pGraphics)
+   	public static void draw(Node pNode, DrawingContext pGraphics)
    	{
    		INSTANCE.viewerFor(pNode).draw(pNode, pGraphics);
    	}
@@ -113,7 +136,7 @@ public final class NodeViewerRegistry
      * @param pGraphics the graphics context
      * @pre pNode != null && pGraphics != null
 	 */
-   	public static void drawSelectionHandles(Node pNode, GraphicsContext pGraphics)
+   	public static void drawSelectionHandles(Node pNode, DrawingContext pGraphics)
    	{
    		INSTANCE.viewerFor(pNode).drawSelectionHandles(pNode, pGraphics);
    	}
@@ -127,7 +150,81 @@ public final class NodeViewerRegistry
    	 */
 	public static Rectangle getBounds(Node pNode)
 	{
-		return INSTANCE.viewerFor(pNode).getBounds(pNode);
+		return INSTANCE.cachedBounds(pNode);
+	}
+	
+	private Rectangle cachedBounds(Node pNode)
+	{
+		Optional<Diagram> diagram = pNode.getDiagram();
+		if( !diagram.isPresent() )
+		{
+			return viewerFor(pNode).getBounds(pNode);
+		}
+		Map<Node, CachedBounds> cache = boundsCacheOf(diagram.get());
+		long version = versionOf(pNode, diagram.get());
+		int generation = aBoundsCacheGeneration.get();
+		CachedBounds cached = cache.get(pNode);
+		if( cached != null && cached.aVersion == version && cached.aGeneration == generation )
+		{
+			aBoundsCacheHits.incrementAndGet();
+			return cached.aBounds;
+		}
+		aBoundsCacheMisses.incrementAndGet();
+		Rectangle bounds = viewerFor(pNode).getBounds(pNode);
+		cache.put(pNode, new CachedBounds(bounds, version, generation));
+		return bounds;
+	}
+	
+	private static long versionOf(Node pNode, Diagram pDiagram)
+	{
+		if( pDiagram instanceof SequenceDiagram )
+		{
+			return pDiagram.getVersion();
+		}
+		Node root = pNode;
+		while( root instanceof ChildNode && ((ChildNode)root).getParent() != null )
+		{
+			root = ((ChildNode)root).getParent();
+		}
+		return root.getChangeStamp();
+	}
+	
+	/*
+	 * The bounds cached for the nodes of pDiagram. Nodes do not redefine 
+	 * equals, so the weak map is keyed by node identity. Entries for nodes 
+	 * removed from the diagram are discarded once the nodes are no longer used.
+	 */
+	private Map<Node, CachedBounds> boundsCacheOf(Diagram pDiagram)
+	{
+		return pDiagram.getDerivedData(this, () -> Collections.synchronizedMap(new WeakHashMap<>()));
+	}
+	
+	/**
+	 * @return The number of calls to getBounds that were answered 
+	 * with a cached value.
+	 */
+	public static int getBoundsCacheHits()
+	{
+		return INSTANCE.aBoundsCacheHits.get();
+	}
+	
+	/**
+	 * @return The number of calls to getBounds for attached nodes 
+	 * that required computing the bounds.
+	 */
+	public static int getBoundsCacheMisses()
+	{
+		return INSTANCE.aBoundsCacheMisses.get();
+	}
+	
+	/**
+	 * Invalidates all cached bounds and resets the cache counters.
+	 */
+	public static void clearBoundsCache()
+	{
+		INSTANCE.aBoundsCacheGeneration.incrementAndGet();
+		INSTANCE.aBoundsCacheHits.set(0);
+		INSTANCE.aBoundsCacheMisses.set(0);
 	}
 	
   	/**
@@ -143,4 +240,23 @@ public final class NodeViewerRegistry
    	{
 		return INSTANCE.viewerFor(pNode).getConnectionPoint(pNode, pDirection);
    	}
+	
+	/*
+	 * Bounds computed for a node, with the version of the node or of 
+	 * its diagram that was used to compute them and the generation of the cache.
+	 * The value must not refer to the node or its diagram.
+	 */
+	private static final class CachedBounds
+	{
+		private final Rectangle aBounds;
+		private final long aVersion;
+		private final int aGeneration;
+		
+		CachedBounds(Rectangle pBounds, long pVersion, int pGeneration)
+		{
+			aBounds = pBounds;
+			aVersion = pVersion;
+			aGeneration = pGeneration;
+		}
+	}
 }
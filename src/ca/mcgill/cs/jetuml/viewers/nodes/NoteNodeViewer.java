@@ -23,14 +23,13 @@ package ca.mcgill.cs.jetuml.viewers.nodes;
 import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.nodes.NoteNode;
 import ca.mcgill.cs.jetuml.geom.Dimension;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
 
 /**
  * An object to render a NoteNode.
@@ -40,47 +39,41 @@ public final class NoteNodeViewer extends AbstractNodeViewer
 	private static final int DEFAULT_WIDTH = 60;
 	private static final int DEFAULT_HEIGHT = 40;
 	private static final int FOLD_LENGTH = 8;
-	private static final Color NOTE_COLOR = Color.color(0.9f, 0.9f, 0.6f); // Pale yellow
+	private static final DrawingColor NOTE_COLOR = DrawingColor.rgb(230, 230, 153); // Pale yellow
 	private static final StringViewer NOTE_VIEWER = new StringViewer(StringViewer.Align.LEFT, false, false);
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, DrawingContext pGraphics)
 	{
-		ToolGraphics.strokeAndFillSharpPath(pGraphics, createNotePath(pNode), NOTE_COLOR, true);
-		ToolGraphics.strokeAndFillSharpPath(pGraphics, createFoldPath(pNode), Color.WHITE, false);
+		ToolGraphics.strokeAndFillSharpPolyline(pGraphics, createNoteOutline(pNode), NOTE_COLOR, true);
+		ToolGraphics.strokeAndFillSharpPolyline(pGraphics, createFoldOutline(pNode), DrawingColor.WHITE, false);
 		NOTE_VIEWER.draw(((NoteNode)pNode).getName(), pGraphics, 
 				new Rectangle(pNode.position().getX(), pNode.position().getY(), DEFAULT_WIDTH, DEFAULT_HEIGHT));
 	}
 	
-	private Path createNotePath(Node pNode)
+	private Polyline createNoteOutline(Node pNode)
 	{
-		Path path = new Path();
 		Rectangle bounds = getBounds(pNode);		
-		path.getElements().addAll(
-				new MoveTo(bounds.getX(), bounds.getY()),
-				new LineTo(bounds.getMaxX() - FOLD_LENGTH, bounds.getY()),
-				new LineTo(bounds.getMaxX(), bounds.getY() + FOLD_LENGTH),
-				new LineTo(bounds.getMaxX(), bounds.getMaxY()),
-				new LineTo(bounds.getX(), bounds.getMaxY()),
-				new LineTo(bounds.getX(), bounds.getY()));
-		return path;
+		return Polyline.of(
+				new Point(bounds.getX(), bounds.getY()),
+				new Point(bounds.getMaxX() - FOLD_LENGTH, bounds.getY()),
+				new Point(bounds.getMaxX(), bounds.getY() + FOLD_LENGTH),
+				new Point(bounds.getMaxX(), bounds.getMaxY()),
+				new Point(bounds.getX(), bounds.getMaxY()),
+				new Point(bounds.getX(), bounds.getY()));
 	}
 	
-	/**
-	 * Fills in note fold.
-	 * @param pGraphics GraphicsContext in which to fill the fold
+	/*
+	 * The outline of the note fold.
 	 */
-	private Path createFoldPath(Node pNode)
+	private Polyline createFoldOutline(Node pNode)
 	{
 		Rectangle bounds = getBounds(pNode);
-		Path path = new Path();
-		path.getElements().addAll(
-				new MoveTo(bounds.getMaxX() - FOLD_LENGTH, bounds.getY()),
-				new LineTo(bounds.getMaxX() - FOLD_LENGTH, bounds.getY() + FOLD_LENGTH),
-				new LineTo(bounds.getMaxX(), bounds.getY() + FOLD_LENGTH),
-				new LineTo(bounds.getMaxX() - FOLD_LENGTH, bounds.getY())
-		);
-		return path;
+		return Polyline.of(
+				new Point(bounds.getMaxX() - FOLD_LENGTH, bounds.getY()),
+				new Point(bounds.getMaxX() - FOLD_LENGTH, bounds.getY() + FOLD_LENGTH),
+				new Point(bounds.getMaxX(), bounds.getY() + FOLD_LENGTH),
+				new Point(bounds.getMaxX() - FOLD_LENGTH, bounds.getY()));
 	}
 	
 	@Override
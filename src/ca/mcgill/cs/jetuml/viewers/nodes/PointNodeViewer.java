@@ -24,7 +24,7 @@ import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
-import javafx.scene.canvas.GraphicsContext;
+import ca.mcgill.cs.jetuml.views.DrawingContext;
 
 /**
  * An object to render a PointNode.
@@ -48,11 +48,11 @@ public final class PointNodeViewer extends AbstractNodeViewer
 	@Override
 	public Point getConnectionPoint(Node pNode, Direction pDirection)
 	{
-		return pNode.position();
+		return pNode.position().clone();
 	}
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics) 
+	public void draw(Node pNode, DrawingContext pGraphics) 
 	{
 		// Do nothing, a point is invisible.
 	}
@@ -28,12 +28,14 @@ import static ca.mcgill.cs.jetuml.views.ArrowHead.NONE;
 import static ca.mcgill.cs.jetuml.views.ArrowHead.TRIANGLE;
 import static ca.mcgill.cs.jetuml.views.ArrowHead.V;
 
+import java.awt.BasicStroke;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import ca.mcgill.cs.jetuml.geom.Point;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 
 /**
  * Defines how to draw arrow heads.
@@ -42,6 +44,8 @@ public final class ArrowHeadView
 {
 	private static final double ARROW_ANGLE = Math.PI / 6; 
 	private static final double ARROW_LENGTH = 10;
+	// The outline of the lines of an arrowhead, as measured for laying out the labels of edges
+	private static final BasicStroke OUTLINE = new BasicStroke(1, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 10);
 	
 	private final ArrowHead aArrowHead;
 	
@@ -61,29 +65,58 @@ public final class ArrowHeadView
 	 * @param pPoint1 a point on the axis of the arrow head
 	 * @param pEnd the end point of the arrow head
 	 */
-	public void draw(GraphicsContext pGraphics, Point pPoint1, Point pEnd)
+	public void draw(DrawingContext pGraphics, Point pPoint1, Point pEnd)
 	{
+		DrawingColor fill = DrawingColor.WHITE;
 		if(aArrowHead == ArrowHead.BLACK_DIAMOND || aArrowHead == BLACK_TRIANGLE) 
 		{
-			ToolGraphics.strokeAndFillSharpPath(pGraphics, getPath(pPoint1, pEnd), Color.BLACK, false);
+			fill = DrawingColor.BLACK;
 		}
-		else 
+		for( Polyline polyline : getPolylines(pPoint1, pEnd) )
 		{
-			ToolGraphics.strokeAndFillSharpPath(pGraphics, getPath(pPoint1, pEnd), Color.WHITE, false);
+			ToolGraphics.strokeAndFillSharpPolyline(pGraphics, polyline, fill, false);
 		}
 	}
 	
    	/**
-     * Gets the path of the arrowhead.
+     * Gets the width of the arrowhead, including its outline and a margin
+     * of half a unit on each side. Without arrowhead, the width is -1, as 
+     * for empty bounds, which keeps the labels of edges where they have 
+     * always been laid out.
+     * @param pPoint1 a point on the axis of the arrow head
+     * @param pEnd the end point of the arrow head
+     * @return the width of the arrowhead
+     */
+   	public double getWidth(Point pPoint1, Point pEnd)
+   	{
+   		List<Polyline> polylines = getPolylines(pPoint1, pEnd);
+   		if( polylines.isEmpty() )
+   		{
+   			return -1;
+   		}
+   		Path2D path = new Path2D.Double();
+   		for( Polyline polyline : polylines )
+   		{
+   			path.moveTo(polyline.getX(0), polyline.getY(0));
+   			for( int i = 1; i < polyline.size(); i++ )
+   			{
+   				path.lineTo(polyline.getX(i), polyline.getY(i));
+   			}
+   		}
+   		return OUTLINE.createStrokedShape(path).getBounds2D().getWidth() + 1;
+   	}
+   	
+   	/**
+     * Gets the lines that make up the arrowhead.
      * @param pPoint1 a point on the axis of the arrow head
      * @param pEnd the end point of the arrow head
-     * @return the path
+     * @return the polylines of the arrowhead, in the order in which they are drawn
      */
-   	public Path getPath(Point pPoint1, Point pEnd)
+   	public List<Polyline> getPolylines(Point pPoint1, Point pEnd)
    	{
    		if(aArrowHead == NONE) 
    		{
-   			return new Path();
+   			return Collections.emptyList();
    		}
    		
    		int dx = pEnd.getX() - pPoint1.getX();
@@ -94,31 +127,22 @@ public final class ArrowHeadView
    		int x2 = (int) Math.round(pEnd.getX() - ARROW_LENGTH * Math.cos(angle - ARROW_ANGLE));
    		int y2 = (int) Math.round(pEnd.getY() - ARROW_LENGTH * Math.sin(angle - ARROW_ANGLE));
 
-   		MoveTo moveToOrigin = new MoveTo(pEnd.getX(), pEnd.getY());
-   		LineTo lineTo1 = new LineTo(x1, y1);
-   		Path path = new Path();
-   		path.getElements().addAll(moveToOrigin, lineTo1);
+   		Point point1 = new Point(x1, y1);
+   		Point point2 = new Point(x2, y2);
    		if(aArrowHead == V)
    		{
-   			MoveTo moveTo2 = new MoveTo(x2, y2);
-   			LineTo lineTo2 = new LineTo(pEnd.getX(), pEnd.getY());
-   			path.getElements().addAll(moveTo2, lineTo2);
+   			return Arrays.asList(Polyline.of(pEnd, point1), Polyline.of(point2, pEnd));
    		}
    		else if(aArrowHead == TRIANGLE || aArrowHead == BLACK_TRIANGLE)
    		{
-   			LineTo lineTo3 = new LineTo(x2, y2); 
-   			LineTo lineTo4 = new LineTo(moveToOrigin.getX(), moveToOrigin.getY());
-   			path.getElements().addAll(lineTo3, lineTo4);
+   			return Arrays.asList(Polyline.of(pEnd, point1, point2, pEnd));
    		}
    		else if(aArrowHead == DIAMOND || aArrowHead == BLACK_DIAMOND)
    		{
    			final int x3 = (int) Math.round( x2 - ARROW_LENGTH * Math.cos(angle + ARROW_ANGLE));
    			final int y3 = (int) Math.round( y2 - ARROW_LENGTH * Math.sin(angle + ARROW_ANGLE));
-   			LineTo lineTo5 = new LineTo(x3, y3);
-   			LineTo lineTo6 = new LineTo(x2, y2);
-   			LineTo lineTo7 = new LineTo(moveToOrigin.getX(), moveToOrigin.getY());
-   			path.getElements().addAll(lineTo5, lineTo6, lineTo7);
+   			return Arrays.asList(Polyline.of(pEnd, point1, new Point(x3, y3), point2, pEnd));
    		}      
-   		return path;
+   		return Arrays.asList(Polyline.of(pEnd, point1));
    	}
 }
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * A drawing context that draws on a JavaFX canvas by delegating
+ * each operation to the graphics context of the canvas. This is 
+ * where the drawing attributes are converted to their JavaFX 
+ * equivalent, and back, so the attributes are kept by the graphics 
+ * context itself and saved and restored along with its own state.
+ */
+public final class CanvasDrawingContext implements DrawingContext
+{
+	private static final DropShadow DROP_SHADOW = new DropShadow(3, 3, 3, Color.LIGHTGRAY);
+	private static final double MAX_COMPONENT = 255;
+	private static final Map<DrawingFont, Font> FONTS = new ConcurrentHashMap<>();
+	
+	private final GraphicsContext aGraphics;
+	
+	/**
+	 * Creates a drawing context that draws through pGraphics.
+	 * 
+	 * @param pGraphics The graphics context of the canvas to draw on.
+	 * @pre pGraphics != null
+	 */
+	public CanvasDrawingContext(GraphicsContext pGraphics)
+	{
+		assert pGraphics != null;
+		aGraphics = pGraphics;
+	}
+	
+	/**
+	 * @param pFont A font.
+	 * @return The JavaFX font that corresponds to pFont.
+	 * @pre pFont != null
+	 */
+	static Font toFont(DrawingFont pFont)
+	{
+		assert pFont != null;
+		return FONTS.computeIfAbsent(pFont, font -> 
+			Font.font(font.getFamily(), font.isBold() ? FontWeight.BOLD : FontWeight.NORMAL, font.getSize()));
+	}
+	
+	private static Color toColor(DrawingColor pColor)
+	{
+		return Color.rgb(pColor.getRed(), pColor.getGreen(), pColor.getBlue(), pColor.getOpacity());
+	}
+	
+	/*
+	 * Paints other than colors, which are never set through a drawing context, 
+	 * are read as black.
+	 */
+	private static DrawingColor toDrawingColor(Paint pPaint)
+	{
+		if( !(pPaint instanceof Color) )
+		{
+			return DrawingColor.BLACK;
+		}
+		Color color = (Color) pPaint;
+		return DrawingColor.rgb((int) Math.round(color.getRed() * MAX_COMPONENT), 
+				(int) Math.round(color.getGreen() * MAX_COMPONENT), 
+				(int) Math.round(color.getBlue() * MAX_COMPONENT), color.getOpacity());
+	}
+	
+	@Override
+	public DrawingColor getFill()
+	{
+		return toDrawingColor(aGraphics.getFill());
+	}
+
+	@Override
+	public void setFill(DrawingColor pFill)
+	{
+		aGraphics.setFill(toColor(pFill));
+	}
+
+	@Override
+	public DrawingColor getStroke()
+	{
+		return toDrawingColor(aGraphics.getStroke());
+	}
+
+	@Override
+	public void setStroke(DrawingColor pStroke)
+	{
+		aGraphics.setStroke(toColor(pStroke));
+	}
+
+	@Override
+	public double getLineWidth()
+	{
+		return aGraphics.getLineWidth();
+	}
+
+	@Override
+	public void setLineWidth(double pWidth)
+	{
+		aGraphics.setLineWidth(pWidth);
+	}
+
+	@Override
+	public LineStyle getLineStyle()
+	{
+		double[] dashes = aGraphics.getLineDashes();
+		if( dashes != null && Arrays.equals(dashes, LineStyle.DOTTED.getLineDashes()) )
+		{
+			return LineStyle.DOTTED;
+		}
+		return LineStyle.SOLID;
+	}
+
+	@Override
+	public void setLineStyle(LineStyle pStyle)
+	{
+		aGraphics.setLineDashes(pStyle.getLineDashes());
+	}
+
+	@Override
+	public DrawingFont getFont()
+	{
+		Font font = aGraphics.getFont();
+		return new DrawingFont(font.getFamily(), font.getSize(), font.getStyle().toLowerCase().contains("bold"));
+	}
+
+	@Override
+	public void setFont(DrawingFont pFont)
+	{
+		aGraphics.setFont(toFont(pFont));
+	}
+
+	@Override
+	public TextAlign getTextAlign()
+	{
+		TextAlignment alignment = aGraphics.getTextAlign();
+		if( alignment == TextAlignment.CENTER )
+		{
+			return TextAlign.CENTER;
+		}
+		else if( alignment == TextAlignment.RIGHT )
+		{
+			return TextAlign.RIGHT;
+		}
+		return TextAlign.LEFT;
+	}
+
+	@Override
+	public void setTextAlign(TextAlign pAlignment)
+	{
+		if( pAlignment == TextAlign.CENTER )
+		{
+			aGraphics.setTextAlign(TextAlignment.CENTER);
+		}
+		else if( pAlignment == TextAlign.RIGHT )
+		{
+			aGraphics.setTextAlign(TextAlignment.RIGHT);
+		}
+		else
+		{
+			aGraphics.setTextAlign(TextAlignment.LEFT);
+		}
+	}
+
+	@Override
+	public TextBaseline getTextBaseline()
+	{
+		VPos baseline = aGraphics.getTextBaseline();
+		if( baseline == VPos.TOP )
+		{
+			return TextBaseline.TOP;
+		}
+		else if( baseline == VPos.CENTER )
+		{
+			return TextBaseline.CENTER;
+		}
+		return TextBaseline.BASELINE;
+	}
+
+	@Override
+	public void setTextBaseline(TextBaseline pBaseline)
+	{
+		if( pBaseline == TextBaseline.TOP )
+		{
+			aGraphics.setTextBaseline(VPos.TOP);
+		}
+		else if( pBaseline == TextBaseline.CENTER )
+		{
+			aGraphics.setTextBaseline(VPos.CENTER);
+		}
+		else
+		{
+			aGraphics.setTextBaseline(VPos.BASELINE);
+		}
+	}
+
+	@Override
+	public void setDropShadow(boolean pShadow)
+	{
+		aGraphics.setEffect(pShadow ? DROP_SHADOW : null);
+	}
+
+	@Override
+	public void save()
+	{
+		aGraphics.save();
+	}
+
+	@Override
+	public void restore()
+	{
+		aGraphics.restore();
+	}
+
+	@Override
+	public void translate(double pX, double pY)
+	{
+		aGraphics.translate(pX, pY);
+	}
+
+	@Override
+	public void scale(double pX, double pY)
+	{
+		aGraphics.scale(pX, pY);
+	}
+
+	@Override
+	public void fillRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		aGraphics.fillRect(pX, pY, pWidth, pHeight);
+	}
+
+	@Override
+	public void strokeRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		aGraphics.strokeRect(pX, pY, pWidth, pHeight);
+	}
+
+	@Override
+	public void clearRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		aGraphics.clearRect(pX, pY, pWidth, pHeight);
+	}
+
+	@Override
+	public void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		aGraphics.fillRoundRect(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight);
+	}
+
+	@Override
+	public void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		aGraphics.strokeRoundRect(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight);
+	}
+
+	@Override
+	public void fillOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		aGraphics.fillOval(pX, pY, pWidth, pHeight);
+	}
+
+	@Override
+	public void strokeOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		aGraphics.strokeOval(pX, pY, pWidth, pHeight);
+	}
+
+	@Override
+	public void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent)
+	{
+		aGraphics.strokeArc(pX, pY, pWidth, pHeight, pStartAngle, pArcExtent, ArcType.OPEN);
+	}
+
+	@Override
+	public void strokeLine(double pX1, double pY1, double pX2, double pY2)
+	{
+		aGraphics.strokeLine(pX1, pY1, pX2, pY2);
+	}
+
+	@Override
+	public void fillText(String pText, double pX, double pY)
+	{
+		aGraphics.fillText(pText, pX, pY);
+	}
+
+	@Override
+	public void beginPath()
+	{
+		aGraphics.beginPath();
+	}
+
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		aGraphics.moveTo(pX, pY);
+	}
+
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		aGraphics.lineTo(pX, pY);
+	}
+
+	@Override
+	public void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		aGraphics.quadraticCurveTo(pControlX, pControlY, pX, pY);
+	}
+
+	@Override
+	public void fill()
+	{
+		aGraphics.fill();
+	}
+
+	@Override
+	public void stroke()
+	{
+		aGraphics.stroke();
+	}
+}
@@ -21,26 +21,45 @@
 
 package ca.mcgill.cs.jetuml.views;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.nodes.ChildNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.ParentNode;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * A strategy for drawing a diagram and computing geometric properties of a 
  * diagram. This class can be inherited if certain diagram types require specialized 
- * services. This class is stateless.
+ * services. 
+ * 
+ * The only state kept by a viewer is, for each diagram it was queried about, 
+ * a spatial index of the elements of the diagram used to find the elements
+ * under a point or within an area. An index is brought up to date on the first query 
+ * that follows a modification of its diagram: only the elements affected by the 
+ * modification are reindexed when this is possible, otherwise the index is rebuilt.
+ * The bounds of the diagram are maintained in the same way. The indices are stored 
+ * with their diagram, so that they do not keep it alive.
  */
 public class DiagramViewer
 {
+	/* Margin added around the bounds of elements to account for hit tests that
+	 * extend slightly beyond the bounds of the element, for example for edges 
+	 * or point nodes. */
+	private static final int HIT_TOLERANCE = 10;
+	
 	/**
 	 * Draws pDiagram onto pGraphics.
 	 * 
@@ -49,14 +68,57 @@ public class DiagramViewer
 	 * @param pDiagram the diagram to draw.
 	 * @pre pDiagram != null && pGraphics != null.
 	 */
-	public final void draw(Diagram pDiagram, GraphicsContext pGraphics)
+	public final void draw(Diagram pDiagram, DrawingContext pGraphics)
 	{
 		assert pDiagram != null && pGraphics != null;
 		pDiagram.rootNodes().forEach(node -> drawNode(node, pGraphics));
 		pDiagram.edges().forEach(edge -> EdgeViewerRegistry.draw(edge, pGraphics));
 	}
 	
-	private void drawNode(Node pNode, GraphicsContext pGraphics)
+	/**
+	 * Draws the elements of pDiagram that can be visible in pArea onto pGraphics. 
+	 * Elements that lie entirely outside of pArea are skipped, so the cost
+	 * of drawing depends on the number of elements in the area rather than 
+	 * on the size of the diagram. Pixels outside of pArea may or may not
+	 * be drawn.
+	 * 
+	 * @param pDiagram the diagram to draw.
+	 * @param pGraphics the graphics context where the
+	 * diagram should be drawn.
+	 * @param pArea the area of the diagram to draw.
+	 * @pre pDiagram != null && pGraphics != null && pArea != null.
+	 */
+	public final void draw(Diagram pDiagram, DrawingContext pGraphics, Rectangle pArea)
+	{
+		assert pDiagram != null && pGraphics != null && pArea != null;
+		DiagramIndex index = indexFor(pDiagram);
+		index.rootNodes(pDiagram).candidates(pArea).forEach(node -> drawNode(node, pGraphics));
+		index.edges(pDiagram).candidates(pArea).forEach(edge -> EdgeViewerRegistry.draw(edge, pGraphics));
+	}
+	
+	/**
+	 * Returns the root nodes and edges of pDiagram that may have bounds, or
+	 * descendants with bounds, that intersect pArea. The result can include
+	 * elements that do not intersect pArea, but the cost of the query 
+	 * depends on the number of elements near pArea rather than on the size
+	 * of the diagram.
+	 * 
+	 * @param pDiagram The diagram to query.
+	 * @param pArea The area of interest.
+	 * @return The root nodes that may intersect pArea, followed by 
+	 *     the edges that may intersect pArea, in the order of the diagram.
+	 * @pre pDiagram != null && pArea != null
+	 */
+	public final List<DiagramElement> getElementsNear(Diagram pDiagram, Rectangle pArea)
+	{
+		assert pDiagram != null && pArea != null;
+		DiagramIndex index = indexFor(pDiagram);
+		List<DiagramElement> result = new ArrayList<>(index.rootNodes(pDiagram).candidates(pArea));
+		result.addAll(index.edges(pDiagram).candidates(pArea));
+		return result;
+	}
+	
+	private void drawNode(Node pNode, DrawingContext pGraphics)
 	{
 		NodeViewerRegistry.draw(pNode, pGraphics);
 		if(pNode instanceof ParentNode)
@@ -77,7 +139,7 @@ public class DiagramViewer
 	public final Optional<Edge> findEdge(Diagram pDiagram, Point pPoint)
 	{
 		assert pDiagram != null && pPoint != null;
-		for(Edge edge : pDiagram.edges())
+		for(Edge edge : indexFor(pDiagram).edges(pDiagram).candidates(pPoint))
 		{
 			if(EdgeViewerRegistry.contains(edge, pPoint))
 			{
@@ -99,7 +161,7 @@ public class DiagramViewer
 	{
 		assert pDiagram != null && pPoint != null;
 		Node result = null;
-		for(Node node : pDiagram.rootNodes())
+		for(Node node : indexFor(pDiagram).rootNodes(pDiagram).candidates(pPoint))
 		{
 			Node temp = deepFindNode(pDiagram, node, pPoint);
 			if (temp != null)
@@ -110,6 +172,197 @@ public class DiagramViewer
 		return Optional.ofNullable(result);
 	}
 	
+	private DiagramIndex indexFor(Diagram pDiagram)
+	{
+		DiagramIndex index = pDiagram.getDerivedData(this, () -> new DiagramIndex(pDiagram.getVersion()));
+		if( index.aVersion != pDiagram.getVersion() && !index.update(pDiagram) )
+		{
+			index.reset(pDiagram.getVersion());
+		}
+		return index;
+	}
+	
+	/**
+	 * Returns a region outside of which a search for a node with 
+	 * deepFindNode starting at pRootNode can never succeed. This region is
+	 * used to skip root nodes when looking for the node under a point. 
+	 * By default, this is the union of the bounds of pRootNode and of 
+	 * all its descendants.
+	 * 
+	 * @param pDiagram The diagram that contains pRootNode.
+	 * @param pRootNode The root node to search from.
+	 * @return The region that contains all the points for which a search 
+	 *     from pRootNode can succeed, or empty if this region cannot be determined.
+	 * @pre pDiagram != null && pRootNode != null
+	 */
+	protected Optional<Rectangle> getSearchBounds(Diagram pDiagram, Node pRootNode)
+	{
+		assert pDiagram != null && pRootNode != null;
+		Rectangle bounds = NodeViewerRegistry.getBounds(pRootNode);
+		if( pRootNode instanceof ParentNode )
+		{
+			for( Node child : ((ParentNode) pRootNode).getChildren())
+			{
+				Optional<Rectangle> childBounds = getSearchBounds(pDiagram, child);
+				if( !childBounds.isPresent() )
+				{
+					return Optional.empty();
+				}
+				bounds = bounds.add(childBounds.get());
+			}
+		}
+		return Optional.of(bounds);
+	}
+	
+	/**
+	 * Indicates whether a change to an element can only affect the geometry 
+	 * of its root node, of the descendants of this root node, and of the edges 
+	 * connected to them.
+	 * 
+	 * @return True if changes to the geometry of the elements of a diagram 
+	 *     are local, which is the default.
+	 */
+	protected boolean hasLocalGeometry()
+	{
+		return true;
+	}
+	
+	/**
+	 * Computes an area that contains everything drawn for pElements and 
+	 * for the elements whose drawing depends on them. For a node, this includes 
+	 * its root node and all the descendants of the root, the edges connected 
+	 * to any of these nodes, and the edges connected to the nodes at the other 
+	 * end of these edges, because edges are attached to the side of a node in 
+	 * the order of the nodes at their other end. For an edge, this includes the 
+	 * edge and the other edges connected to its end nodes. Comparing this area before 
+	 * and after a change to pElements gives the area that needs to be repainted.
+	 * 
+	 * @param pDiagram The diagram that contains pElements.
+	 * @param pElements The elements to compute the affected area for.
+	 * @return The affected area, or empty if it cannot be determined, for example
+	 *     because an element is not in pDiagram, because pElements is empty, or
+	 *     because the geometry of the diagram is not local.
+	 * @pre pDiagram != null && pElements != null
+	 */
+	public final Optional<Rectangle> getAffectedBounds(Diagram pDiagram, Iterable<? extends DiagramElement> pElements)
+	{
+		assert pDiagram != null && pElements != null;
+		Set<Node> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+		if( !collectAffected(pDiagram, pElements, roots, edges) )
+		{
+			return Optional.empty();
+		}
+		Rectangle bounds = null;
+		for( Node root : roots )
+		{
+			Optional<Rectangle> rootBounds = getSearchBounds(pDiagram, root);
+			if( !rootBounds.isPresent() )
+			{
+				return Optional.empty();
+			}
+			bounds = add(bounds, rootBounds.get());
+		}
+		for( Edge edge : edges )
+		{
+			bounds = add(bounds, EdgeViewerRegistry.getBounds(edge));
+		}
+		return Optional.ofNullable(bounds);
+	}
+	
+	/*
+	 * Collects in pRoots and pEdges the root nodes and the edges whose geometry
+	 * can be affected by a change to pElements. Returns false if they cannot be 
+	 * determined.
+	 */
+	private boolean collectAffected(Diagram pDiagram, Iterable<? extends DiagramElement> pElements, 
+			Set<Node> pRoots, Set<Edge> pEdges)
+	{
+		if( !hasLocalGeometry() )
+		{
+			return false;
+		}
+		for( DiagramElement element : pElements )
+		{
+			if( element instanceof Node )
+			{
+				if( !isRootAttached(pDiagram, (Node) element) )
+				{
+					return false;
+				}
+				pRoots.add(rootOf((Node) element));
+			}
+			else
+			{
+				Edge edge = (Edge) element;
+				if( edge.getDiagram() != pDiagram || !isRootAttached(pDiagram, edge.getStart()) || 
+						!isRootAttached(pDiagram, edge.getEnd()))
+				{
+					return false;
+				}
+				// Edges between the same nodes can be laid out together
+				pEdges.add(edge);
+				pDiagram.edgesConnectedTo(edge.getStart()).forEach(pEdges::add);
+				pDiagram.edgesConnectedTo(edge.getEnd()).forEach(pEdges::add);
+			}
+		}
+		Set<Edge> nodeEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( Node root : pRoots )
+		{
+			addConnectedEdges(pDiagram, root, nodeEdges);
+		}
+		// Moving a node can reorder the edges attached to the nodes it is connected to
+		for( Edge edge : nodeEdges )
+		{
+			pEdges.add(edge);
+			pDiagram.edgesConnectedTo(edge.getStart()).forEach(pEdges::add);
+			pDiagram.edgesConnectedTo(edge.getEnd()).forEach(pEdges::add);
+		}
+		return true;
+	}
+	
+	private static Rectangle add(Rectangle pBounds, Rectangle pToAdd)
+	{
+		if( pBounds == null )
+		{
+			return pToAdd;
+		}
+		return pBounds.add(pToAdd);
+	}
+	
+	private static Node rootOf(Node pNode)
+	{
+		Node node = pNode;
+		while( node instanceof ChildNode && ((ChildNode) node).getParent() != null )
+		{
+			node = ((ChildNode) node).getParent();
+		}
+		return node;
+	}
+	
+	private static boolean isRootAttached(Diagram pDiagram, Node pNode)
+	{
+		return rootOf(pNode).getDiagram().orElse(null) == pDiagram;
+	}
+	
+	private static void addConnectedEdges(Diagram pDiagram, Node pNode, Set<Edge> pEdges)
+	{
+		pDiagram.edgesConnectedTo(pNode).forEach(pEdges::add);
+		if( pNode instanceof ParentNode )
+		{
+			for( Node child : ((ParentNode) pNode).getChildren() )
+			{
+				addConnectedEdges(pDiagram, child, pEdges);
+			}
+		}
+	}
+	
+	private static Rectangle expand(Rectangle pBounds)
+	{
+		return new Rectangle(pBounds.getX() - HIT_TOLERANCE, pBounds.getY() - HIT_TOLERANCE, 
+				pBounds.getWidth() + 2 * HIT_TOLERANCE, pBounds.getHeight() + 2 * HIT_TOLERANCE);
+	}
+	
 	/**
 	 * Find the "deepest" child that contains pPoint,
 	 * where depth is measured in terms of distance from
@@ -157,22 +410,7 @@ public class DiagramViewer
 	public final Rectangle getBounds(Diagram pDiagram)
 	{
 		assert pDiagram != null;
-		Rectangle bounds = null;
-		for(Node node : pDiagram.rootNodes() )
-		{
-			if(bounds == null)
-			{
-				bounds = NodeViewerRegistry.getBounds(node);
-			}
-			else
-			{
-				bounds = bounds.add(NodeViewerRegistry.getBounds(node));
-			}
-		}
-		for(Edge edge : pDiagram.edges())
-		{
-			bounds = bounds.add(EdgeViewerRegistry.getBounds(edge));
-		}
+		Rectangle bounds = indexFor(pDiagram).bounds(pDiagram);
 		if(bounds == null )
 		{
 			return new Rectangle(0, 0, 0, 0);
@@ -206,4 +444,167 @@ public class DiagramViewer
 		}
 		return false;
 	}
+
+	/*
+	 * The spatial indices of the elements of a diagram at a given version,
+	 * and the bounds of the diagram at this version. Each index, and the 
+	 * bounds, are only computed the first time they are needed.
+	 */
+	private final class DiagramIndex
+	{
+		private int aVersion;
+		private SpatialIndex<Node> aRootNodes;
+		private SpatialIndex<Edge> aEdges;
+		// The bounds of each root node and edge, used to maintain aBounds
+		private Map<DiagramElement, Rectangle> aElementBounds;
+		private Rectangle aBounds;
+		
+		DiagramIndex(int pVersion)
+		{
+			aVersion = pVersion;
+		}
+		
+		/*
+		 * Discards the indices and bounds, which will be recomputed 
+		 * for pVersion the next time they are needed.
+		 */
+		void reset(int pVersion)
+		{
+			aVersion = pVersion;
+			aRootNodes = null;
+			aEdges = null;
+			aElementBounds = null;
+			aBounds = null;
+		}
+		
+		/*
+		 * Reindexes the elements affected by the changes to pDiagram since
+		 * this index was last brought up to date. Returns false if this is not 
+		 * possible, in which case the index must be discarded.
+		 */
+		boolean update(Diagram pDiagram)
+		{
+			Optional<List<DiagramElement>> changes = pDiagram.getChangesSince(aVersion);
+			Set<Node> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+			Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+			if( !changes.isPresent() || !collectAffected(pDiagram, changes.get(), roots, edges))
+			{
+				return false;
+			}
+			for( Node root : roots )
+			{
+				if( aRootNodes != null && !aRootNodes.update(root, getSearchBounds(pDiagram, root).map(DiagramViewer::expand)))
+				{
+					return false;
+				}
+			}
+			for( Edge edge : edges )
+			{
+				if( aEdges != null && !aEdges.update(edge, Optional.of(expand(EdgeViewerRegistry.getBounds(edge)))))
+				{
+					return false;
+				}
+			}
+			if( aElementBounds != null && !updateBounds(roots, edges) )
+			{
+				return false;
+			}
+			aVersion = pDiagram.getVersion();
+			return true;
+		}
+		
+		/*
+		 * Returns the union of the bounds of the root nodes and edges
+		 * of pDiagram, or null if the diagram is empty.
+		 */
+		Rectangle bounds(Diagram pDiagram)
+		{
+			if( aElementBounds == null )
+			{
+				aElementBounds = new IdentityHashMap<>();
+				for( Node node : pDiagram.rootNodes() )
+				{
+					aElementBounds.put(node, NodeViewerRegistry.getBounds(node));
+				}
+				for( Edge edge : pDiagram.edges() )
+				{
+					aElementBounds.put(edge, EdgeViewerRegistry.getBounds(edge));
+				}
+				aBounds = union(aElementBounds.values());
+			}
+			return aBounds;
+		}
+		
+		/*
+		 * Replaces the bounds of pRoots and pEdges. The bounds of the diagram 
+		 * grow to include the new bounds, and are only recomputed from the bounds 
+		 * of all the elements when an element on the edge of the diagram shrinks.
+		 * Returns false if one of the elements was not known.
+		 */
+		private boolean updateBounds(Set<Node> pRoots, Set<Edge> pEdges)
+		{
+			boolean shrunk = false;
+			List<DiagramElement> elements = new ArrayList<>(pRoots);
+			elements.addAll(pEdges);
+			for( DiagramElement element : elements )
+			{
+				Rectangle bounds = element instanceof Node ? 
+						NodeViewerRegistry.getBounds((Node) element) : EdgeViewerRegistry.getBounds((Edge) element);
+				Rectangle oldBounds = aElementBounds.put(element, bounds);
+				if( oldBounds == null )
+				{
+					return false;
+				}
+				shrunk = shrunk || touchesBorder(oldBounds) && !bounds.contains(oldBounds);
+				aBounds = aBounds.add(bounds);
+			}
+			if( shrunk )
+			{
+				aBounds = union(aElementBounds.values());
+			}
+			return true;
+		}
+		
+		private boolean touchesBorder(Rectangle pBounds)
+		{
+			return pBounds.getX() == aBounds.getX() || pBounds.getY() == aBounds.getY() || 
+					pBounds.getMaxX() == aBounds.getMaxX() || pBounds.getMaxY() == aBounds.getMaxY();
+		}
+		
+		private Rectangle union(Iterable<Rectangle> pBounds)
+		{
+			Rectangle result = null;
+			for( Rectangle bounds : pBounds )
+			{
+				result = add(result, bounds);
+			}
+			return result;
+		}
+		
+		SpatialIndex<Node> rootNodes(Diagram pDiagram)
+		{
+			if( aRootNodes == null )
+			{
+				aRootNodes = new SpatialIndex<>();
+				for( Node node : pDiagram.rootNodes() )
+				{
+					aRootNodes.add(node, getSearchBounds(pDiagram, node).map(DiagramViewer::expand));
+				}
+			}
+			return aRootNodes;
+		}
+		
+		SpatialIndex<Edge> edges(Diagram pDiagram)
+		{
+			if( aEdges == null )
+			{
+				aEdges = new SpatialIndex<>();
+				for( Edge edge : pDiagram.edges() )
+				{
+					aEdges.add(edge, Optional.of(expand(EdgeViewerRegistry.getBounds(edge))));
+				}
+			}
+			return aEdges;
+		}
+	}
 }
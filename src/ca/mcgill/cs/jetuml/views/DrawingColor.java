@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+/**
+ * An immutable color, with red, green, and blue components 
+ * between 0 and 255 and an opacity between 0 and 1, in which 
+ * drawing contexts fill and stroke shapes. Each drawing context 
+ * converts it to the color type of the technology it draws with.
+ */
+public final class DrawingColor
+{
+	public static final DrawingColor BLACK = rgb(0, 0, 0);
+	public static final DrawingColor WHITE = rgb(255, 255, 255);
+	public static final DrawingColor LIGHT_GRAY = rgb(211, 211, 211);
+	public static final DrawingColor TRANSPARENT = rgb(0, 0, 0, 0);
+	
+	private static final int MAX_COMPONENT = 255;
+	
+	private final int aRed;
+	private final int aGreen;
+	private final int aBlue;
+	private final double aOpacity;
+	
+	private DrawingColor(int pRed, int pGreen, int pBlue, double pOpacity)
+	{
+		aRed = pRed;
+		aGreen = pGreen;
+		aBlue = pBlue;
+		aOpacity = pOpacity;
+	}
+	
+	/**
+	 * @param pRed The red component.
+	 * @param pGreen The green component.
+	 * @param pBlue The blue component.
+	 * @return The opaque color with these components.
+	 * @pre Each component is between 0 and 255.
+	 */
+	public static DrawingColor rgb(int pRed, int pGreen, int pBlue)
+	{
+		return rgb(pRed, pGreen, pBlue, 1);
+	}
+	
+	/**
+	 * @param pRed The red component.
+	 * @param pGreen The green component.
+	 * @param pBlue The blue component.
+	 * @param pOpacity The opacity, from 0 for transparent to 1 for opaque.
+	 * @return The color with these components and opacity.
+	 * @pre Each component is between 0 and 255 && pOpacity >= 0 && pOpacity <= 1.
+	 */
+	public static DrawingColor rgb(int pRed, int pGreen, int pBlue, double pOpacity)
+	{
+		assert isComponent(pRed) && isComponent(pGreen) && isComponent(pBlue);
+		assert pOpacity >= 0 && pOpacity <= 1;
+		return new DrawingColor(pRed, pGreen, pBlue, pOpacity);
+	}
+	
+	private static boolean isComponent(int pValue)
+	{
+		return pValue >= 0 && pValue <= MAX_COMPONENT;
+	}
+	
+	/**
+	 * @return The red component, between 0 and 255.
+	 */
+	public int getRed()
+	{
+		return aRed;
+	}
+	
+	/**
+	 * @return The green component, between 0 and 255.
+	 */
+	public int getGreen()
+	{
+		return aGreen;
+	}
+	
+	/**
+	 * @return The blue component, between 0 and 255.
+	 */
+	public int getBlue()
+	{
+		return aBlue;
+	}
+	
+	/**
+	 * @return The opacity, from 0 for transparent to 1 for opaque.
+	 */
+	public double getOpacity()
+	{
+		return aOpacity;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return String.format("[DrawingColor: r=%d g=%d b=%d opacity=%s]", aRed, aGreen, aBlue, aOpacity);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + aRed;
+		result = prime * result + aGreen;
+		result = prime * result + aBlue;
+		result = prime * result + Double.hashCode(aOpacity);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object pObject)
+	{
+		if(this == pObject)
+		{
+			return true;
+		}
+		if(pObject == null)
+		{
+			return false;
+		}
+		if(getClass() != pObject.getClass())
+		{
+			return false;
+		}
+		DrawingColor other = (DrawingColor) pObject;
+		return aRed == other.aRed && aGreen == other.aGreen && aBlue == other.aBlue && 
+				Double.compare(aOpacity, other.aOpacity) == 0;
+	}
+}
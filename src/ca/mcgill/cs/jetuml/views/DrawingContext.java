@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+/**
+ * The drawing operations through which viewers render diagram elements. 
+ * The operations have the same meaning as the operations of the same name 
+ * in javafx.scene.canvas.GraphicsContext, so that a diagram can be drawn
+ * either on a canvas, through CanvasDrawingContext, with Java2D, through
+ * Java2DDrawingContext, or to a vector format such as SVG, through 
+ * SvgDrawingContext. The attributes are expressed with JetUML types, such
+ * as DrawingColor, DrawingFont, and LineStyle, which each context converts
+ * to the types of the technology it draws with.
+ * 
+ * Like a graphics context, a drawing context holds the current drawing 
+ * attributes and transform, which save() and restore() push and pop, and
+ * the current path, which beginPath() resets.
+ */
+public interface DrawingContext
+{
+	/**
+	 * The horizontal alignment of text relative to the point where it is drawn.
+	 */
+	enum TextAlign
+	{ LEFT, CENTER, RIGHT }
+	
+	/**
+	 * The vertical alignment of text relative to the point where it is drawn:
+	 * on the top of the text, on its center, or on the baseline of its first line.
+	 */
+	enum TextBaseline
+	{ TOP, CENTER, BASELINE }
+	
+	/**
+	 * @return The color used to fill shapes and text.
+	 */
+	DrawingColor getFill();
+	
+	/**
+	 * @param pFill The color to use to fill shapes and text.
+	 * @pre pFill != null
+	 */
+	void setFill(DrawingColor pFill);
+	
+	/**
+	 * @return The color used to stroke shapes and lines.
+	 */
+	DrawingColor getStroke();
+	
+	/**
+	 * @param pStroke The color to use to stroke shapes and lines.
+	 * @pre pStroke != null
+	 */
+	void setStroke(DrawingColor pStroke);
+	
+	/**
+	 * @return The width of stroked lines.
+	 */
+	double getLineWidth();
+	
+	/**
+	 * @param pWidth The width of stroked lines.
+	 */
+	void setLineWidth(double pWidth);
+	
+	/**
+	 * @return The style of stroked lines.
+	 */
+	LineStyle getLineStyle();
+	
+	/**
+	 * @param pStyle The style of stroked lines.
+	 * @pre pStyle != null
+	 */
+	void setLineStyle(LineStyle pStyle);
+	
+	/**
+	 * @return The font used to draw text.
+	 */
+	DrawingFont getFont();
+	
+	/**
+	 * @param pFont The font to use to draw text.
+	 * @pre pFont != null
+	 */
+	void setFont(DrawingFont pFont);
+	
+	/**
+	 * @return The horizontal alignment of text relative to the point where it is drawn.
+	 */
+	TextAlign getTextAlign();
+	
+	/**
+	 * @param pAlignment The horizontal alignment of text relative to the point where it is drawn.
+	 * @pre pAlignment != null
+	 */
+	void setTextAlign(TextAlign pAlignment);
+	
+	/**
+	 * @return The vertical alignment of text relative to the point where it is drawn.
+	 */
+	TextBaseline getTextBaseline();
+	
+	/**
+	 * @param pBaseline The vertical alignment of text relative to the point where it is drawn.
+	 * @pre pBaseline != null
+	 */
+	void setTextBaseline(TextBaseline pBaseline);
+	
+	/**
+	 * @param pShadow True to draw the shapes with a light gray drop shadow, 
+	 *     offset by 3 units down and right, false to draw them without shadow.
+	 */
+	void setDropShadow(boolean pShadow);
+	
+	/**
+	 * Saves the drawing attributes and the transform.
+	 */
+	void save();
+	
+	/**
+	 * Restores the drawing attributes and the transform last saved.
+	 */
+	void restore();
+	
+	/**
+	 * Translates the coordinates of subsequent drawing operations.
+	 * 
+	 * @param pX The horizontal translation.
+	 * @param pY The vertical translation.
+	 */
+	void translate(double pX, double pY);
+	
+	/**
+	 * Scales the coordinates of subsequent drawing operations.
+	 * 
+	 * @param pX The horizontal scale factor.
+	 * @param pY The vertical scale factor.
+	 */
+	void scale(double pX, double pY);
+	
+	/**
+	 * Fills a rectangle.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void fillRect(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Strokes a rectangle.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void strokeRect(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Erases a rectangle to the background.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void clearRect(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Fills a rectangle with rounded corners.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 * @param pArcWidth The horizontal diameter of the corners.
+	 * @param pArcHeight The vertical diameter of the corners.
+	 */
+	void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight);
+	
+	/**
+	 * Strokes a rectangle with rounded corners.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 * @param pArcWidth The horizontal diameter of the corners.
+	 * @param pArcHeight The vertical diameter of the corners.
+	 */
+	void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight);
+	
+	/**
+	 * Fills an oval.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pY The y-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pWidth The width of the oval.
+	 * @param pHeight The height of the oval.
+	 */
+	void fillOval(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Strokes an oval.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pY The y-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pWidth The width of the oval.
+	 * @param pHeight The height of the oval.
+	 */
+	void strokeOval(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Strokes an open arc of an oval. Angles are in degrees, counterclockwise
+	 * from the positive x axis.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pY The y-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pWidth The width of the oval.
+	 * @param pHeight The height of the oval.
+	 * @param pStartAngle The angle at which the arc starts.
+	 * @param pArcExtent The angular extent of the arc.
+	 */
+	void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent);
+	
+	/**
+	 * Strokes a line.
+	 * 
+	 * @param pX1 The x-coordinate of the first point.
+	 * @param pY1 The y-coordinate of the first point.
+	 * @param pX2 The x-coordinate of the second point.
+	 * @param pY2 The y-coordinate of the second point.
+	 */
+	void strokeLine(double pX1, double pY1, double pX2, double pY2);
+	
+	/**
+	 * Fills text, which can span multiple lines, aligned on a point 
+	 * according to the current text alignment and baseline.
+	 * 
+	 * @param pText The text to draw.
+	 * @param pX The x-coordinate of the point.
+	 * @param pY The y-coordinate of the point.
+	 */
+	void fillText(String pText, double pX, double pY);
+	
+	/**
+	 * Starts a new, empty, current path.
+	 */
+	void beginPath();
+	
+	/**
+	 * Starts a new subpath of the current path at a point.
+	 * 
+	 * @param pX The x-coordinate of the point.
+	 * @param pY The y-coordinate of the point.
+	 */
+	void moveTo(double pX, double pY);
+	
+	/**
+	 * Adds a straight segment to the current path.
+	 * 
+	 * @param pX The x-coordinate of the end of the segment.
+	 * @param pY The y-coordinate of the end of the segment.
+	 */
+	void lineTo(double pX, double pY);
+	
+	/**
+	 * Adds a quadratic curve to the current path.
+	 * 
+	 * @param pControlX The x-coordinate of the control point.
+	 * @param pControlY The y-coordinate of the control point.
+	 * @param pX The x-coordinate of the end of the curve.
+	 * @param pY The y-coordinate of the end of the curve.
+	 */
+	void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY);
+	
+	/**
+	 * Fills the current path.
+	 */
+	void fill();
+	
+	/**
+	 * Strokes the current path.
+	 */
+	void stroke();
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+/**
+ * An immutable font in which drawing contexts draw text. Each drawing
+ * context converts it to the font type of the technology it draws with.
+ */
+public final class DrawingFont
+{
+	private final String aFamily;
+	private final double aSize;
+	private final boolean aBold;
+	
+	/**
+	 * @param pFamily The name of the font family.
+	 * @param pSize The size of the font, in points.
+	 * @param pBold True if the font is bold.
+	 * @pre pFamily != null && pSize > 0
+	 */
+	public DrawingFont(String pFamily, double pSize, boolean pBold)
+	{
+		assert pFamily != null && pSize > 0;
+		aFamily = pFamily;
+		aSize = pSize;
+		aBold = pBold;
+	}
+	
+	/**
+	 * @param pSize The size of the font, in points.
+	 * @return A font of the same family and weight as this font, of size pSize.
+	 * @pre pSize > 0
+	 */
+	public DrawingFont deriveSize(double pSize)
+	{
+		return new DrawingFont(aFamily, pSize, aBold);
+	}
+	
+	/**
+	 * @return The name of the font family.
+	 */
+	public String getFamily()
+	{
+		return aFamily;
+	}
+	
+	/**
+	 * @return The size of the font, in points.
+	 */
+	public double getSize()
+	{
+		return aSize;
+	}
+	
+	/**
+	 * @return True if the font is bold.
+	 */
+	public boolean isBold()
+	{
+		return aBold;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return String.format("[DrawingFont: %s %s%s]", aFamily, aSize, aBold ? " bold" : "");
+	}
+
+	@Override
+	public int hashCode()
+	{
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + aFamily.hashCode();
+		result = prime * result + Double.hashCode(aSize);
+		result = prime * result + Boolean.hashCode(aBold);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object pObject)
+	{
+		if(this == pObject)
+		{
+			return true;
+		}
+		if(pObject == null)
+		{
+			return false;
+		}
+		if(getClass() != pObject.getClass())
+		{
+			return false;
+		}
+		DrawingFont other = (DrawingFont) pObject;
+		return aBold == other.aBold && Double.compare(aSize, other.aSize) == 0 && aFamily.equals(other.aFamily);
+	}
+}
@@ -24,9 +24,6 @@ package ca.mcgill.cs.jetuml.views;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
 
 /**
  * A grid to which points and rectangles can be "snapped". The
@@ -34,7 +31,7 @@ import javafx.scene.paint.Paint;
  */
 public final class Grid
 {
-	private static final Color GRID_COLOR = Color.rgb(220, 220, 220);
+	private static final DrawingColor GRID_COLOR = DrawingColor.rgb(220, 220, 220);
 	private static final double GRID_SIZE = 10;
 	
 	private Grid() {}
@@ -44,9 +41,9 @@ public final class Grid
      * @param pGraphics the graphics context
      * @param pBounds the bounding rectangle
      */
-	public static void draw(GraphicsContext pGraphics, Rectangle pBounds)
+	public static void draw(DrawingContext pGraphics, Rectangle pBounds)
 	{
-		Paint oldStroke = pGraphics.getStroke();
+		DrawingColor oldStroke = pGraphics.getStroke();
 		pGraphics.setStroke(GRID_COLOR);
 		int x1 = pBounds.getX();
 		int y1 = pBounds.getY();
@@ -20,14 +20,18 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.views;
 
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
 
 /**
  * Utility class to create icons that are drawn
@@ -35,8 +39,14 @@ import javafx.scene.paint.Color;
  */
 public final class ImageCreator 
 {
-	private static final double LINE_WIDTH = 0.6;
+	/**
+	 * The name of the vector image format written by writeSvg.
+	 */
+	public static final String SVG_FORMAT = "svg";
+	
+	static final double LINE_WIDTH = 0.6;
 	private static final int DIAGRAM_PADDING = 4;
+	private static final int TILE_SIZE = 512;
 	
 	private ImageCreator() {}
 	
@@ -53,9 +63,9 @@ public final class ImageCreator
 		Rectangle bounds = viewer.getBounds(pDiagram);
 		Canvas canvas = new Canvas(bounds.getWidth() + DIAGRAM_PADDING * 2, 
 				bounds.getHeight() + DIAGRAM_PADDING *2);
-		GraphicsContext context = canvas.getGraphicsContext2D();
+		DrawingContext context = new CanvasDrawingContext(canvas.getGraphicsContext2D());
 		context.setLineWidth(LINE_WIDTH);
-		context.setFill(Color.WHITE);
+		context.setFill(DrawingColor.WHITE);
 		context.translate(-bounds.getX()+DIAGRAM_PADDING, -bounds.getY()+DIAGRAM_PADDING);
 		viewer.draw(pDiagram, context);
 		WritableImage image = new WritableImage(bounds.getWidth() + DIAGRAM_PADDING * 2, 
@@ -63,4 +73,108 @@ public final class ImageCreator
 		canvas.snapshot(null, image);
 		return image;
 	}
+	
+	/**
+	 * Creates an image of an entire diagram, with a white border around,
+	 * drawn with Java2D. Unlike createImage, this method can be called 
+	 * on any thread, including for different diagrams in parallel, but 
+	 * the diagram must not be modified while it is drawn.
+	 * 
+	 * @param pDiagram The diagram to create an image off.
+	 * @return An image of the diagram.
+	 * @pre pDiagram != null.
+	 */
+	public static BufferedImage createBufferedImage(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		DiagramViewer viewer = DiagramType.viewerFor(pDiagram);
+		Rectangle bounds = viewer.getBounds(pDiagram);
+		int width = bounds.getWidth() + DIAGRAM_PADDING * 2;
+		int height = bounds.getHeight() + DIAGRAM_PADDING * 2;
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try
+		{
+			Java2DDrawingContext context = new Java2DDrawingContext(graphics);
+			context.setFill(DrawingColor.WHITE);
+			context.fillRect(0, 0, width, height);
+			context.setLineWidth(LINE_WIDTH);
+			context.translate(-bounds.getX()+DIAGRAM_PADDING, -bounds.getY()+DIAGRAM_PADDING);
+			viewer.draw(pDiagram, context);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+		return image;
+	}
+	
+	/**
+	 * Creates an image of an entire diagram, with a white border around,
+	 * that is rendered in tiles as its pixels are requested. Use this 
+	 * image to write large diagrams to a file without allocating the 
+	 * memory required by createImage.
+	 * 
+	 * @param pDiagram The diagram to create an image off.
+	 * @return An image of the diagram.
+	 * @pre pDiagram != null.
+	 */
+	public static TiledDiagramImage createTiledImage(Diagram pDiagram)
+	{
+		return createTiledImage(pDiagram, TiledDiagramImage.Renderer.JAVAFX);
+	}
+	
+	/**
+	 * Creates an image of an entire diagram, with a white border around,
+	 * that is rendered in tiles by pRenderer as its pixels are requested.
+	 * With Java2D, the tiles are rendered on the thread that requests them,
+	 * so images of different diagrams can be written in parallel.
+	 * 
+	 * @param pDiagram The diagram to create an image off.
+	 * @param pRenderer The library that renders the tiles.
+	 * @return An image of the diagram.
+	 * @pre pDiagram != null && pRenderer != null.
+	 */
+	public static TiledDiagramImage createTiledImage(Diagram pDiagram, TiledDiagramImage.Renderer pRenderer)
+	{
+		assert pDiagram != null && pRenderer != null;
+		return new TiledDiagramImage(pDiagram, DIAGRAM_PADDING, TILE_SIZE, pRenderer);
+	}
+	
+	/**
+	 * Writes an SVG image of an entire diagram, with a white border around.
+	 * The elements of the diagram are written one by one as they are drawn,
+	 * so the size of the image does not depend on the area of the diagram.
+	 * The image is declared to be encoded in UTF-8, so pWriter should use 
+	 * this encoding. The writer is flushed but not closed. This method 
+	 * can be called on any thread, but the diagram must not be modified 
+	 * while it is written.
+	 * 
+	 * @param pDiagram The diagram to write an image of.
+	 * @param pWriter The writer to write the image to.
+	 * @throws IOException If the image cannot be written.
+	 * @pre pDiagram != null && pWriter != null.
+	 */
+	public static void writeSvg(Diagram pDiagram, Writer pWriter) throws IOException
+	{
+		assert pDiagram != null && pWriter != null;
+		DiagramViewer viewer = DiagramType.viewerFor(pDiagram);
+		Rectangle bounds = viewer.getBounds(pDiagram);
+		int width = bounds.getWidth() + DIAGRAM_PADDING * 2;
+		int height = bounds.getHeight() + DIAGRAM_PADDING * 2;
+		try
+		{
+			SvgDrawingContext context = new SvgDrawingContext(pWriter, width, height);
+			context.setFill(DrawingColor.WHITE);
+			context.fillRect(0, 0, width, height);
+			context.setLineWidth(LINE_WIDTH);
+			context.translate(-bounds.getX()+DIAGRAM_PADDING, -bounds.getY()+DIAGRAM_PADDING);
+			viewer.draw(pDiagram, context);
+			context.finish();
+		}
+		catch( UncheckedIOException exception )
+		{
+			throw exception.getCause();
+		}
+	}
 }
\ No newline at end of file
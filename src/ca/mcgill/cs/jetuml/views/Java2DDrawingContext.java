@@ -0,0 +1,448 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Composite;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A drawing context that draws with Java2D, for example on a 
+ * java.awt.image.BufferedImage. Unlike a JavaFX canvas, which can 
+ * only be rendered on the JavaFX application thread, a Java2D 
+ * graphics object can be used on any thread, so diagrams can be 
+ * rendered in the background, or by several threads in parallel.
+ * 
+ * Drop shadows are drawn as an offset copy of the shape, without 
+ * blurring. Fonts are mapped to the Java2D font of the same family, 
+ * except for the JavaFX "System" font, which is mapped to the logical
+ * sans serif font, so text can be laid out slightly differently than 
+ * on a JavaFX canvas. Paths are drawn with the transform in effect when 
+ * they are filled or stroked.
+ */
+public final class Java2DDrawingContext implements DrawingContext
+{
+	private static final String SYSTEM_FONT = "System";
+	private static final float MITER_LIMIT = 10;
+	private static final int SHADOW_OFFSET = 3;
+	private static final int MAX_ALPHA = 255;
+	
+	private final Graphics2D aGraphics;
+	private final Deque<State> aSavedStates = new ArrayDeque<>();
+	private final Map<DrawingFont, java.awt.Font> aFonts = new HashMap<>();
+	private final Path2D.Double aPath = new Path2D.Double();
+	private State aState = new State();
+	
+	/**
+	 * Creates a drawing context that draws with pGraphics. Antialiasing
+	 * is turned on, as it is for a JavaFX canvas. The transform of 
+	 * pGraphics is the initial transform of the context.
+	 * 
+	 * @param pGraphics The graphics object to draw with.
+	 * @pre pGraphics != null
+	 */
+	public Java2DDrawingContext(Graphics2D pGraphics)
+	{
+		assert pGraphics != null;
+		aGraphics = pGraphics;
+		aGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		aGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		aGraphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+	}
+
+	@Override
+	public DrawingColor getFill()
+	{
+		return aState.aFill;
+	}
+
+	@Override
+	public void setFill(DrawingColor pFill)
+	{
+		assert pFill != null;
+		aState.aFill = pFill;
+	}
+
+	@Override
+	public DrawingColor getStroke()
+	{
+		return aState.aStroke;
+	}
+
+	@Override
+	public void setStroke(DrawingColor pStroke)
+	{
+		assert pStroke != null;
+		aState.aStroke = pStroke;
+	}
+
+	@Override
+	public double getLineWidth()
+	{
+		return aState.aLineWidth;
+	}
+
+	@Override
+	public void setLineWidth(double pWidth)
+	{
+		aState.aLineWidth = pWidth;
+	}
+
+	@Override
+	public LineStyle getLineStyle()
+	{
+		return aState.aLineStyle;
+	}
+
+	@Override
+	public void setLineStyle(LineStyle pStyle)
+	{
+		assert pStyle != null;
+		aState.aLineStyle = pStyle;
+	}
+
+	@Override
+	public DrawingFont getFont()
+	{
+		return aState.aFont;
+	}
+
+	@Override
+	public void setFont(DrawingFont pFont)
+	{
+		assert pFont != null;
+		aState.aFont = pFont;
+	}
+
+	@Override
+	public TextAlign getTextAlign()
+	{
+		return aState.aTextAlign;
+	}
+
+	@Override
+	public void setTextAlign(TextAlign pAlignment)
+	{
+		assert pAlignment != null;
+		aState.aTextAlign = pAlignment;
+	}
+
+	@Override
+	public TextBaseline getTextBaseline()
+	{
+		return aState.aTextBaseline;
+	}
+
+	@Override
+	public void setTextBaseline(TextBaseline pBaseline)
+	{
+		assert pBaseline != null;
+		aState.aTextBaseline = pBaseline;
+	}
+
+	@Override
+	public void setDropShadow(boolean pShadow)
+	{
+		aState.aDropShadow = pShadow;
+	}
+
+	@Override
+	public void save()
+	{
+		State saved = aState.copy();
+		saved.aTransform = aGraphics.getTransform();
+		aSavedStates.push(saved);
+	}
+
+	@Override
+	public void restore()
+	{
+		if( !aSavedStates.isEmpty() )
+		{
+			aState = aSavedStates.pop();
+			aGraphics.setTransform(aState.aTransform);
+		}
+	}
+
+	@Override
+	public void translate(double pX, double pY)
+	{
+		aGraphics.translate(pX, pY);
+	}
+
+	@Override
+	public void scale(double pX, double pY)
+	{
+		aGraphics.scale(pX, pY);
+	}
+
+	@Override
+	public void fillRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		fill(new Rectangle2D.Double(pX, pY, pWidth, pHeight));
+	}
+
+	@Override
+	public void strokeRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		stroke(new Rectangle2D.Double(pX, pY, pWidth, pHeight));
+	}
+
+	@Override
+	public void clearRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		Composite composite = aGraphics.getComposite();
+		aGraphics.setComposite(AlphaComposite.Clear);
+		aGraphics.fill(new Rectangle2D.Double(pX, pY, pWidth, pHeight));
+		aGraphics.setComposite(composite);
+	}
+
+	@Override
+	public void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		fill(new RoundRectangle2D.Double(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight));
+	}
+
+	@Override
+	public void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		stroke(new RoundRectangle2D.Double(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight));
+	}
+
+	@Override
+	public void fillOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		fill(new Ellipse2D.Double(pX, pY, pWidth, pHeight));
+	}
+
+	@Override
+	public void strokeOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		stroke(new Ellipse2D.Double(pX, pY, pWidth, pHeight));
+	}
+
+	@Override
+	public void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent)
+	{
+		// Java2D and JavaFX both measure angles counterclockwise on the screen
+		stroke(new Arc2D.Double(pX, pY, pWidth, pHeight, pStartAngle, pArcExtent, Arc2D.OPEN));
+	}
+
+	@Override
+	public void strokeLine(double pX1, double pY1, double pX2, double pY2)
+	{
+		stroke(new Line2D.Double(pX1, pY1, pX2, pY2));
+	}
+
+	@Override
+	public void fillText(String pText, double pX, double pY)
+	{
+		java.awt.Font font = aFonts.computeIfAbsent(aState.aFont, Java2DDrawingContext::toAwtFont);
+		FontMetrics metrics = aGraphics.getFontMetrics(font);
+		String[] lines = pText.split("\n", -1);
+		double baseline = pY + metrics.getAscent();
+		if( aState.aTextBaseline == TextBaseline.CENTER )
+		{
+			baseline -= lines.length * metrics.getHeight() / 2.0;
+		}
+		else if( aState.aTextBaseline == TextBaseline.BASELINE )
+		{
+			baseline = pY;
+		}
+		aGraphics.setFont(font);
+		aGraphics.setPaint(toAwtColor(aState.aFill));
+		for( int i = 0; i < lines.length; i++ )
+		{
+			double x = pX;
+			if( aState.aTextAlign == TextAlign.CENTER )
+			{
+				x -= metrics.stringWidth(lines[i]) / 2.0;
+			}
+			else if( aState.aTextAlign == TextAlign.RIGHT )
+			{
+				x -= metrics.stringWidth(lines[i]);
+			}
+			if( !lines[i].isEmpty() )
+			{
+				aGraphics.drawString(lines[i], (float) x, (float) (baseline + i * metrics.getHeight()));
+			}
+		}
+	}
+
+	@Override
+	public void beginPath()
+	{
+		aPath.reset();
+	}
+
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		aPath.moveTo(pX, pY);
+	}
+
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		aPath.lineTo(pX, pY);
+	}
+
+	@Override
+	public void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		aPath.quadTo(pControlX, pControlY, pX, pY);
+	}
+
+	@Override
+	public void fill()
+	{
+		fill(aPath);
+	}
+
+	@Override
+	public void stroke()
+	{
+		stroke(aPath);
+	}
+	
+	private void fill(Shape pShape)
+	{
+		drawShadow(pShape, true);
+		aGraphics.setPaint(toAwtColor(aState.aFill));
+		aGraphics.fill(pShape);
+	}
+	
+	private void stroke(Shape pShape)
+	{
+		drawShadow(pShape, false);
+		aGraphics.setPaint(toAwtColor(aState.aStroke));
+		aGraphics.setStroke(createStroke());
+		aGraphics.draw(pShape);
+	}
+	
+	private void drawShadow(Shape pShape, boolean pFill)
+	{
+		if( !aState.aDropShadow )
+		{
+			return;
+		}
+		AffineTransform transform = aGraphics.getTransform();
+		aGraphics.translate(SHADOW_OFFSET, SHADOW_OFFSET);
+		aGraphics.setPaint(toAwtColor(DrawingColor.LIGHT_GRAY));
+		if( pFill )
+		{
+			aGraphics.fill(pShape);
+		}
+		else
+		{
+			aGraphics.setStroke(createStroke());
+			aGraphics.draw(pShape);
+		}
+		aGraphics.setTransform(transform);
+	}
+	
+	/*
+	 * Lines have the square caps and miter joins of a JavaFX canvas.
+	 */
+	private BasicStroke createStroke()
+	{
+		float[] dashes = null;
+		double[] lineDashes = aState.aLineStyle.getLineDashes();
+		if( lineDashes.length > 0 )
+		{
+			dashes = new float[lineDashes.length];
+			for( int i = 0; i < dashes.length; i++ )
+			{
+				dashes[i] = (float) lineDashes[i];
+			}
+		}
+		return new BasicStroke((float) aState.aLineWidth, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 
+				MITER_LIMIT, dashes, 0);
+	}
+	
+	private static java.awt.Color toAwtColor(DrawingColor pColor)
+	{
+		return new java.awt.Color(pColor.getRed(), pColor.getGreen(), pColor.getBlue(), 
+				(int) Math.round(pColor.getOpacity() * MAX_ALPHA));
+	}
+	
+	private static java.awt.Font toAwtFont(DrawingFont pFont)
+	{
+		String family = pFont.getFamily();
+		if( family.equals(SYSTEM_FONT) )
+		{
+			family = java.awt.Font.SANS_SERIF;
+		}
+		int style = java.awt.Font.PLAIN;
+		if( pFont.isBold() )
+		{
+			style = java.awt.Font.BOLD;
+		}
+		return new java.awt.Font(family, style, 1).deriveFont((float) pFont.getSize());
+	}
+	
+	/*
+	 * The attributes saved and restored by save() and restore(), 
+	 * initialized with the defaults of a JavaFX canvas, except for 
+	 * the font, which is the font of diagram text.
+	 */
+	private static final class State
+	{
+		private DrawingColor aFill = DrawingColor.BLACK;
+		private DrawingColor aStroke = DrawingColor.BLACK;
+		private double aLineWidth = 1;
+		private LineStyle aLineStyle = LineStyle.SOLID;
+		private DrawingFont aFont = StringViewer.FONT;
+		private TextAlign aTextAlign = TextAlign.LEFT;
+		private TextBaseline aTextBaseline = TextBaseline.BASELINE;
+		private boolean aDropShadow;
+		private AffineTransform aTransform;
+		
+		private State copy()
+		{
+			State copy = new State();
+			copy.aFill = aFill;
+			copy.aStroke = aStroke;
+			copy.aLineWidth = aLineWidth;
+			copy.aLineStyle = aLineStyle;
+			copy.aFont = aFont;
+			copy.aTextAlign = aTextAlign;
+			copy.aTextBaseline = aTextBaseline;
+			copy.aDropShadow = aDropShadow;
+			return copy;
+		}
+	}
+}
@@ -21,6 +21,8 @@
 
 package ca.mcgill.cs.jetuml.views;
 
+import java.util.Optional;
+
 import ca.mcgill.cs.jetuml.diagram.ControlFlow;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
@@ -56,6 +58,27 @@ public class SequenceDiagramViewer extends DiagramViewer
 		return super.deepFindNode(pDiagram, pNode, pPoint);
 	}
 	
+	/*
+	 * The search from a node follows calls to other lifelines, and 
+	 * implicit parameter nodes contain all points in their vertical span, 
+	 * so the search region of a node cannot be bounded.
+	 */
+	@Override
+	protected Optional<Rectangle> getSearchBounds(Diagram pDiagram, Node pRootNode)
+	{
+		return Optional.empty();
+	}
+	
+	/*
+	 * The layout of call nodes depends on the entire control flow, so a change
+	 * to any element can move elements anywhere in the diagram.
+	 */
+	@Override
+	protected boolean hasLocalGeometry()
+	{
+		return false;
+	}
+	
 	/*
 	 * Used during pasting to determine whether the current selection bounds completely overlaps the new elements.
 	 * For sequence diagrams the height between the selection bounds and the bounds of the new elements may vary, but 
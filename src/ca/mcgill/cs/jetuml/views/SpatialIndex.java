@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
+/**
+ * A uniform grid that indexes elements by their bounds, so that the
+ * elements whose bounds contain a point or intersect an area can be 
+ * found without testing every element. Elements are ranked in the order in which they are added,
+ * and queries return candidates in that order.
+ *
+ * Elements that span too many cells, or whose extent is unknown, are kept
+ * in a separate list and returned as candidates for every query. The bounds
+ * of an element can be updated without changing its rank.
+ *
+ * @param <T> The type of the elements indexed.
+ */
+final class SpatialIndex<T>
+{
+	private static final int CELL_SIZE = 128;
+	private static final int MAX_CELLS_PER_ELEMENT = 64;
+
+	private final Map<Long, List<Entry<T>>> aCells = new HashMap<>();
+	private final List<Entry<T>> aUnbounded = new ArrayList<>();
+	private final List<Entry<T>> aEntries = new ArrayList<>();
+	private final Map<T, Entry<T>> aEntriesByElement = new IdentityHashMap<>();
+
+	/**
+	 * Adds an element to the index. The element will be ranked after all
+	 * elements previously added.
+	 *
+	 * @param pElement The element to add.
+	 * @param pBounds The region outside of which the element can never be hit,
+	 *     or empty if this region is unknown.
+	 * @pre pElement != null && pBounds != null
+	 */
+	void add(T pElement, Optional<Rectangle> pBounds)
+	{
+		assert pElement != null && pBounds != null && !aEntriesByElement.containsKey(pElement);
+		Entry<T> entry = new Entry<>(aEntries.size(), pElement, pBounds.orElse(null));
+		aEntries.add(entry);
+		aEntriesByElement.put(pElement, entry);
+		place(entry);
+	}
+	
+	/**
+	 * Changes the bounds of an element already in the index. 
+	 * The rank of the element does not change.
+	 *
+	 * @param pElement The element to update.
+	 * @param pBounds The new region outside of which the element can never be hit,
+	 *     or empty if this region is unknown.
+	 * @return True if the element was updated, false if it is not in the index.
+	 * @pre pElement != null && pBounds != null
+	 */
+	boolean update(T pElement, Optional<Rectangle> pBounds)
+	{
+		assert pElement != null && pBounds != null;
+		Entry<T> entry = aEntriesByElement.get(pElement);
+		if( entry == null )
+		{
+			return false;
+		}
+		if( entry.aBounds != null && pBounds.isPresent() && entry.aBounds.equals(pBounds.get()))
+		{
+			return true;
+		}
+		displace(entry);
+		entry.aBounds = pBounds.orElse(null);
+		place(entry);
+		return true;
+	}
+	
+	/*
+	 * Inserts pEntry in all the cells its bounds overlap, or in the list of
+	 * unbounded entries, preserving the order of the ranks.
+	 */
+	private void place(Entry<T> pEntry)
+	{
+		if( isUnbounded(pEntry) )
+		{
+			insert(aUnbounded, pEntry);
+			return;
+		}
+		for( int column = cell(pEntry.aBounds.getX()); column <= cell(pEntry.aBounds.getMaxX()); column++ )
+		{
+			for( int row = cell(pEntry.aBounds.getY()); row <= cell(pEntry.aBounds.getMaxY()); row++ )
+			{
+				insert(aCells.computeIfAbsent(key(column, row), key -> new ArrayList<>()), pEntry);
+			}
+		}
+	}
+	
+	private void displace(Entry<T> pEntry)
+	{
+		if( isUnbounded(pEntry) )
+		{
+			aUnbounded.remove(pEntry);
+			return;
+		}
+		for( int column = cell(pEntry.aBounds.getX()); column <= cell(pEntry.aBounds.getMaxX()); column++ )
+		{
+			for( int row = cell(pEntry.aBounds.getY()); row <= cell(pEntry.aBounds.getMaxY()); row++ )
+			{
+				List<Entry<T>> entries = aCells.get(key(column, row));
+				entries.remove(pEntry);
+				if( entries.isEmpty() )
+				{
+					aCells.remove(key(column, row));
+				}
+			}
+		}
+	}
+	
+	private static <T> boolean isUnbounded(Entry<T> pEntry)
+	{
+		if( pEntry.aBounds == null )
+		{
+			return true;
+		}
+		long columns = cell(pEntry.aBounds.getMaxX()) - cell(pEntry.aBounds.getX()) + 1;
+		long rows = cell(pEntry.aBounds.getMaxY()) - cell(pEntry.aBounds.getY()) + 1;
+		return columns * rows > MAX_CELLS_PER_ELEMENT;
+	}
+	
+	/*
+	 * Entries are almost always added in increasing rank, so the 
+	 * insertion point is searched from the end of the list.
+	 */
+	private static <T> void insert(List<Entry<T>> pEntries, Entry<T> pEntry)
+	{
+		int index = pEntries.size();
+		while( index > 0 && pEntries.get(index - 1).aRank > pEntry.aRank )
+		{
+			index--;
+		}
+		pEntries.add(index, pEntry);
+	}
+
+	/**
+	 * @return The number of elements in the index.
+	 */
+	int size()
+	{
+		return aEntries.size();
+	}
+
+	/**
+	 * Returns the elements that could be hit by pPoint, in the
+	 * order in which they were added.
+	 *
+	 * @param pPoint The point to test.
+	 * @return The elements whose bounds contain pPoint, and the elements with no bounds.
+	 * @pre pPoint != null
+	 */
+	List<T> candidates(Point pPoint)
+	{
+		assert pPoint != null;
+		List<Entry<T>> cell = aCells.getOrDefault(key(cell(pPoint.getX()), cell(pPoint.getY())),
+				Collections.emptyList());
+		List<Entry<T>> matches = new ArrayList<>();
+		for( Entry<T> entry : cell )
+		{
+			if( entry.aBounds.contains(pPoint) )
+			{
+				matches.add(entry);
+			}
+		}
+		for( Entry<T> entry : aUnbounded )
+		{
+			if( entry.aBounds == null || entry.aBounds.contains(pPoint) )
+			{
+				matches.add(entry);
+			}
+		}
+		if( !aUnbounded.isEmpty() && !cell.isEmpty() )
+		{
+			matches.sort((pEntry1, pEntry2) -> Integer.compare(pEntry1.aRank, pEntry2.aRank));
+		}
+		List<T> result = new ArrayList<>(matches.size());
+		for( Entry<T> entry : matches )
+		{
+			result.add(entry.aElement);
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the elements that could be visible in pArea, in the
+	 * order in which they were added.
+	 *
+	 * @param pArea The area to test.
+	 * @return The elements whose bounds intersect pArea, and the elements with no bounds.
+	 * @pre pArea != null
+	 */
+	List<T> candidates(Rectangle pArea)
+	{
+		assert pArea != null;
+		int minColumn = cell(pArea.getX());
+		int maxColumn = cell(pArea.getMaxX());
+		int minRow = cell(pArea.getY());
+		int maxRow = cell(pArea.getMaxY());
+		List<T> result = new ArrayList<>();
+		if( (long)(maxColumn - minColumn + 1) * (maxRow - minRow + 1) > aEntries.size() )
+		{
+			// Scanning all the elements is cheaper than visiting the cells
+			for( Entry<T> entry : aEntries )
+			{
+				if( entry.aBounds == null || entry.aBounds.intersects(pArea) )
+				{
+					result.add(entry.aElement);
+				}
+			}
+			return result;
+		}
+		List<Entry<T>> matches = new ArrayList<>();
+		for( int column = minColumn; column <= maxColumn; column++ )
+		{
+			for( int row = minRow; row <= maxRow; row++ )
+			{
+				for( Entry<T> entry : aCells.getOrDefault(key(column, row), Collections.emptyList()) )
+				{
+					if( entry.aBounds.intersects(pArea) )
+					{
+						matches.add(entry);
+					}
+				}
+			}
+		}
+		for( Entry<T> entry : aUnbounded )
+		{
+			if( entry.aBounds == null || entry.aBounds.intersects(pArea) )
+			{
+				matches.add(entry);
+			}
+		}
+		// Elements that span several cells are found once per cell
+		matches.sort((pEntry1, pEntry2) -> Integer.compare(pEntry1.aRank, pEntry2.aRank));
+		Entry<T> previous = null;
+		for( Entry<T> entry : matches )
+		{
+			if( entry != previous )
+			{
+				result.add(entry.aElement);
+			}
+			previous = entry;
+		}
+		return result;
+	}
+
+	private static int cell(int pCoordinate)
+	{
+		return Math.floorDiv(pCoordinate, CELL_SIZE);
+	}
+
+	private static long key(int pColumn, int pRow)
+	{
+		return ((long) pColumn << Integer.SIZE) | (pRow & 0xFFFFFFFFL);
+	}
+
+	private static final class Entry<T>
+	{
+		private final int aRank;
+		private final T aElement;
+		private Rectangle aBounds;
+
+		Entry(int pRank, T pElement, Rectangle pBounds)
+		{
+			aRank = pRank;
+			aElement = pElement;
+			aBounds = pBounds;
+		}
+	}
+}
@@ -20,16 +20,12 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.views;
 
+import java.awt.geom.Rectangle2D;
+
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
-import javafx.geometry.Bounds;
-import javafx.geometry.VPos;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
-import javafx.scene.text.TextBoundsType;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextAlign;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextBaseline;
 
 /**
  * A utility class to view strings with various decorations:
@@ -39,12 +35,14 @@ import javafx.scene.text.TextBoundsType;
  */
 public final class StringViewer
 {
-	public static final Font FONT = Font.font("System", 12);
-	private static final Font FONT_BOLD = Font.font(FONT.getFamily(), FontWeight.BOLD, FONT.getSize());
+	public static final DrawingFont FONT = new DrawingFont("System", 12, false);
+	private static final DrawingFont FONT_BOLD = new DrawingFont(FONT.getFamily(), FONT.getSize(), true);
 	
 	private static final Dimension EMPTY = new Dimension(0, 0);
 	private static final int HORIZONTAL_TEXT_PADDING = 3;
 	private static final int VERTICAL_TEXT_PADDING = 7;
+	private static final int METRICS_CACHE_CAPACITY = 1024;
+	private static final TextMetricsCache METRICS_CACHE = new TextMetricsCache(METRICS_CACHE_CAPACITY);
 	
 	/**
 	 * How to align the text in this string.
@@ -72,7 +70,15 @@ public final class StringViewer
 		aUnderlined = pUnderlined;
 	}
 	
-	private Font getFont()
+	/**
+	 * @return The cache of text bounds shared by all string viewers.
+	 */
+	public static TextMetricsCache getMetricsCache()
+	{
+		return METRICS_CACHE;
+	}
+	
+	private DrawingFont getFont()
 	{
 		if( aBold )
 		{
@@ -98,35 +104,35 @@ public final class StringViewer
 		{
 			return EMPTY;
 		}
-		Bounds bounds = getLabel(pString).getLayoutBounds(); 
+		Rectangle2D bounds = getLayoutBounds(pString); 
 		return new Dimension((int) Math.round(bounds.getWidth() + HORIZONTAL_TEXT_PADDING*2), 
 				(int) Math.round(bounds.getHeight() + VERTICAL_TEXT_PADDING*2));
 	}
 	
-	private Text getLabel(String pString)
+	/*
+	 * Laying out the text is expensive, so the bounds are obtained through
+	 * a cache shared by all viewers.
+	 */
+	private Rectangle2D getLayoutBounds(String pString)
+	{
+		return METRICS_CACHE.getBounds(pString, aBold, aUnderlined, aAlignment, 
+				() -> TextMeasurer.getVisualBounds(pString, getFont(), aUnderlined, getTextAlignment()));
+	}
+	
+	private TextAlign getTextAlignment()
 	{
-		Text label = new Text();
-		if (aUnderlined)
-		{
-			label.setUnderline(true);
-		}
-		label.setFont(getFont());
-		label.setBoundsType(TextBoundsType.VISUAL);
-		label.setText(pString);
-		
 		if(aAlignment == Align.LEFT)
 		{
-			label.setTextAlignment(TextAlignment.LEFT);
+			return TextAlign.LEFT;
 		}
-		else if(aAlignment == Align.CENTER)
+		else if(aAlignment == Align.RIGHT) 
 		{
-			label.setTextAlignment(TextAlignment.CENTER);
+			return TextAlign.RIGHT;
 		}
-		else if(aAlignment == Align.RIGHT) 
+		else
 		{
-			label.setTextAlignment(TextAlignment.RIGHT);
+			return TextAlign.CENTER;
 		}
-		return label;
 	}
 	
 	/**
@@ -135,11 +141,9 @@ public final class StringViewer
      * @param pGraphics the graphics context
      * @param pRectangle the rectangle into which to place the string
 	 */
-	public void draw(String pString, GraphicsContext pGraphics, Rectangle pRectangle)
+	public void draw(String pString, DrawingContext pGraphics, Rectangle pRectangle)
 	{
-		Text label = getLabel(pString);
-		
-		pGraphics.setTextAlign(label.getTextAlignment());
+		pGraphics.setTextAlign(getTextAlignment());
 		
 		int textX = 0;
 		int textY = 0;
@@ -147,11 +151,11 @@ public final class StringViewer
 		{
 			textX = pRectangle.getWidth()/2;
 			textY = pRectangle.getHeight()/2;
-			pGraphics.setTextBaseline(VPos.CENTER);
+			pGraphics.setTextBaseline(TextBaseline.CENTER);
 		}
 		else
 		{
-			pGraphics.setTextBaseline(VPos.TOP);
+			pGraphics.setTextBaseline(TextBaseline.TOP);
 			textX = HORIZONTAL_TEXT_PADDING;
 		}
 		
@@ -162,7 +166,7 @@ public final class StringViewer
 		{
 			int xOffset = 0;
 			int yOffset = 0;
-			Bounds bounds = label.getLayoutBounds();
+			Rectangle2D bounds = getLayoutBounds(pString);
 			if(aAlignment == Align.CENTER)
 			{
 				xOffset = (int) (bounds.getWidth()/2);
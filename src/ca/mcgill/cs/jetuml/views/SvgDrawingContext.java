@@ -0,0 +1,578 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A drawing context that writes each drawing operation as an SVG 
+ * element as soon as it is performed, so that the size of the document
+ * and the time to produce it are proportional to the number of 
+ * operations, not to the area drawn.
+ * 
+ * The transform is applied to the coordinates before they are written,
+ * so the elements of the document are not nested. Only scaling and 
+ * translation are supported. Since an SVG document cannot be erased, 
+ * clearRect fills the rectangle with white. Text is positioned with 
+ * the line metrics of its JavaFX layout.
+ * 
+ * Errors writing the document are reported as UncheckedIOException by 
+ * the drawing operations.
+ */
+public final class SvgDrawingContext implements DrawingContext
+{
+	private static final int PRECISION = 100;
+	private static final double FULL_CIRCLE = 360;
+	private static final double HALF_CIRCLE = 180;
+	private static final double MITER_LIMIT = 10;
+	private static final double SHADOW_OFFSET = 3;
+	/* The SVG filter that approximates a JavaFX drop shadow, of radius 3, 
+	 * blurs with a standard deviation of about a third of the radius of the shadow. */
+	private static final double SHADOW_BLUR = 1;
+	
+	private final Writer aWriter;
+	private final Deque<State> aSavedStates = new ArrayDeque<>();
+	private final Map<String, String> aFilters = new HashMap<>();
+	private final StringBuilder aPath = new StringBuilder();
+	private State aState = new State();
+	
+	/**
+	 * Creates a drawing context that writes an SVG document of 
+	 * dimension pWidth by pHeight to pWriter. The start of the document 
+	 * is written immediately.
+	 * 
+	 * @param pWriter The writer to write the document to.
+	 * @param pWidth The width of the document.
+	 * @param pHeight The height of the document.
+	 * @pre pWriter != null && pWidth >= 0 && pHeight >= 0
+	 */
+	public SvgDrawingContext(Writer pWriter, int pWidth, int pHeight)
+	{
+		assert pWriter != null && pWidth >= 0 && pHeight >= 0;
+		aWriter = pWriter;
+		write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		// The defaults for line caps and joins are those of a JavaFX canvas
+		write(String.format("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" " + 
+				"viewBox=\"0 0 %d %d\" stroke-linecap=\"square\" stroke-miterlimit=\"%s\">\n", 
+				pWidth, pHeight, pWidth, pHeight, format(MITER_LIMIT)));
+	}
+	
+	/**
+	 * Writes the end of the document and flushes the writer, 
+	 * without closing it. No drawing operation can be performed afterwards.
+	 */
+	public void finish()
+	{
+		write("</svg>\n");
+		try
+		{
+			aWriter.flush();
+		}
+		catch( IOException exception )
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	@Override
+	public DrawingColor getFill()
+	{
+		return aState.aFill;
+	}
+
+	@Override
+	public void setFill(DrawingColor pFill)
+	{
+		assert pFill != null;
+		aState.aFill = pFill;
+	}
+
+	@Override
+	public DrawingColor getStroke()
+	{
+		return aState.aStroke;
+	}
+
+	@Override
+	public void setStroke(DrawingColor pStroke)
+	{
+		assert pStroke != null;
+		aState.aStroke = pStroke;
+	}
+
+	@Override
+	public double getLineWidth()
+	{
+		return aState.aLineWidth;
+	}
+
+	@Override
+	public void setLineWidth(double pWidth)
+	{
+		aState.aLineWidth = pWidth;
+	}
+
+	@Override
+	public LineStyle getLineStyle()
+	{
+		return aState.aLineStyle;
+	}
+
+	@Override
+	public void setLineStyle(LineStyle pStyle)
+	{
+		assert pStyle != null;
+		aState.aLineStyle = pStyle;
+	}
+
+	@Override
+	public DrawingFont getFont()
+	{
+		return aState.aFont;
+	}
+
+	@Override
+	public void setFont(DrawingFont pFont)
+	{
+		assert pFont != null;
+		aState.aFont = pFont;
+	}
+
+	@Override
+	public TextAlign getTextAlign()
+	{
+		return aState.aTextAlign;
+	}
+
+	@Override
+	public void setTextAlign(TextAlign pAlignment)
+	{
+		assert pAlignment != null;
+		aState.aTextAlign = pAlignment;
+	}
+
+	@Override
+	public TextBaseline getTextBaseline()
+	{
+		return aState.aTextBaseline;
+	}
+
+	@Override
+	public void setTextBaseline(TextBaseline pBaseline)
+	{
+		assert pBaseline != null;
+		aState.aTextBaseline = pBaseline;
+	}
+
+	@Override
+	public void setDropShadow(boolean pShadow)
+	{
+		aState.aDropShadow = pShadow;
+	}
+
+	@Override
+	public void save()
+	{
+		aSavedStates.push(aState.copy());
+	}
+
+	@Override
+	public void restore()
+	{
+		if( !aSavedStates.isEmpty() )
+		{
+			aState = aSavedStates.pop();
+		}
+	}
+
+	@Override
+	public void translate(double pX, double pY)
+	{
+		aState.aTranslateX += aState.aScaleX * pX;
+		aState.aTranslateY += aState.aScaleY * pY;
+	}
+
+	@Override
+	public void scale(double pX, double pY)
+	{
+		aState.aScaleX *= pX;
+		aState.aScaleY *= pY;
+	}
+
+	@Override
+	public void fillRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeRectangle(pX, pY, pWidth, pHeight, 0, 0, fillAttributes(aState.aFill));
+	}
+
+	@Override
+	public void strokeRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeRectangle(pX, pY, pWidth, pHeight, 0, 0, strokeAttributes());
+	}
+
+	@Override
+	public void clearRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		boolean shadow = aState.aDropShadow;
+		aState.aDropShadow = false;
+		writeRectangle(pX, pY, pWidth, pHeight, 0, 0, fillAttributes(DrawingColor.WHITE));
+		aState.aDropShadow = shadow;
+	}
+
+	@Override
+	public void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		writeRectangle(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight, fillAttributes(aState.aFill));
+	}
+
+	@Override
+	public void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		writeRectangle(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight, strokeAttributes());
+	}
+
+	@Override
+	public void fillOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeOval(pX, pY, pWidth, pHeight, fillAttributes(aState.aFill));
+	}
+
+	@Override
+	public void strokeOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeOval(pX, pY, pWidth, pHeight, strokeAttributes());
+	}
+
+	@Override
+	public void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent)
+	{
+		if( Math.abs(pArcExtent) >= FULL_CIRCLE )
+		{
+			strokeOval(pX, pY, pWidth, pHeight);
+			return;
+		}
+		double radiusX = pWidth / 2;
+		double radiusY = pHeight / 2;
+		double centerX = pX + radiusX;
+		double centerY = pY + radiusY;
+		double start = Math.toRadians(pStartAngle);
+		double end = Math.toRadians(pStartAngle + pArcExtent);
+		StringBuilder data = new StringBuilder("M");
+		// Angles are counterclockwise in a y-down coordinate system
+		data.append(x(centerX + radiusX * Math.cos(start))).append(' ').append(y(centerY - radiusY * Math.sin(start)));
+		data.append(" A").append(format(Math.abs(radiusX * aState.aScaleX))).append(' ')
+			.append(format(Math.abs(radiusY * aState.aScaleY))).append(" 0 ")
+			.append(Math.abs(pArcExtent) > HALF_CIRCLE ? 1 : 0).append(' ')
+			.append(pArcExtent * aState.aScaleX * aState.aScaleY > 0 ? 0 : 1).append(' ')
+			.append(x(centerX + radiusX * Math.cos(end))).append(' ').append(y(centerY - radiusY * Math.sin(end)));
+		write("<path d=\"" + data + "\"" + strokeAttributes() + "/>\n");
+	}
+
+	@Override
+	public void strokeLine(double pX1, double pY1, double pX2, double pY2)
+	{
+		write("<line x1=\"" + x(pX1) + "\" y1=\"" + y(pY1) + "\" x2=\"" + x(pX2) + "\" y2=\"" + y(pY2) + "\"" + 
+				strokeAttributes() + "/>\n");
+	}
+
+	@Override
+	public void fillText(String pText, double pX, double pY)
+	{
+		if( pText.isEmpty() )
+		{
+			return;
+		}
+		DrawingFont font = aState.aFont;
+		double lineHeight = TextMeasurer.getLineHeight(font);
+		String[] lines = pText.split("\n", -1);
+		double baseline = pY + TextMeasurer.getBaselineOffset(font);
+		if( aState.aTextBaseline == TextBaseline.CENTER )
+		{
+			baseline -= lines.length * lineHeight / 2;
+		}
+		else if( aState.aTextBaseline == TextBaseline.BASELINE )
+		{
+			baseline = pY;
+		}
+		
+		StringBuilder element = new StringBuilder("<text xml:space=\"preserve\"");
+		element.append(" font-family=\"'").append(escape(font.getFamily())).append("', sans-serif\"");
+		element.append(" font-size=\"").append(format(font.getSize() * Math.abs(aState.aScaleY))).append('"');
+		if( font.isBold() )
+		{
+			element.append(" font-weight=\"bold\"");
+		}
+		if( aState.aTextAlign == TextAlign.CENTER )
+		{
+			element.append(" text-anchor=\"middle\"");
+		}
+		else if( aState.aTextAlign == TextAlign.RIGHT )
+		{
+			element.append(" text-anchor=\"end\"");
+		}
+		element.append(fillAttributes(aState.aFill)).append('>');
+		for( int i = 0; i < lines.length; i++ )
+		{
+			element.append("<tspan x=\"").append(x(pX)).append("\" y=\"").append(y(baseline + i * lineHeight))
+				.append("\">").append(escape(lines[i])).append("</tspan>");
+		}
+		element.append("</text>\n");
+		write(element.toString());
+	}
+
+	@Override
+	public void beginPath()
+	{
+		aPath.setLength(0);
+	}
+
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		aPath.append('M').append(x(pX)).append(' ').append(y(pY)).append(' ');
+	}
+
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		aPath.append('L').append(x(pX)).append(' ').append(y(pY)).append(' ');
+	}
+
+	@Override
+	public void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		aPath.append('Q').append(x(pControlX)).append(' ').append(y(pControlY)).append(' ')
+			.append(x(pX)).append(' ').append(y(pY)).append(' ');
+	}
+
+	@Override
+	public void fill()
+	{
+		if( aPath.length() > 0 )
+		{
+			write("<path d=\"" + aPath.toString().trim() + "\"" + fillAttributes(aState.aFill) + "/>\n");
+		}
+	}
+
+	@Override
+	public void stroke()
+	{
+		if( aPath.length() > 0 )
+		{
+			write("<path d=\"" + aPath.toString().trim() + "\"" + strokeAttributes() + "/>\n");
+		}
+	}
+	
+	private void writeRectangle(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight,
+			String pAttributes)
+	{
+		StringBuilder element = new StringBuilder("<rect");
+		element.append(" x=\"").append(x(Math.min(pX, pX + pWidth))).append('"');
+		element.append(" y=\"").append(y(Math.min(pY, pY + pHeight))).append('"');
+		element.append(" width=\"").append(format(Math.abs(pWidth * aState.aScaleX))).append('"');
+		element.append(" height=\"").append(format(Math.abs(pHeight * aState.aScaleY))).append('"');
+		if( pArcWidth > 0 && pArcHeight > 0 )
+		{
+			element.append(" rx=\"").append(format(Math.abs(pArcWidth * aState.aScaleX) / 2)).append('"');
+			element.append(" ry=\"").append(format(Math.abs(pArcHeight * aState.aScaleY) / 2)).append('"');
+		}
+		write(element.append(pAttributes).append("/>\n").toString());
+	}
+	
+	private void writeOval(double pX, double pY, double pWidth, double pHeight, String pAttributes)
+	{
+		write("<ellipse cx=\"" + x(pX + pWidth / 2) + "\" cy=\"" + y(pY + pHeight / 2) + 
+				"\" rx=\"" + format(Math.abs(pWidth * aState.aScaleX) / 2) + 
+				"\" ry=\"" + format(Math.abs(pHeight * aState.aScaleY) / 2) + "\"" + pAttributes + "/>\n");
+	}
+	
+	private String fillAttributes(DrawingColor pColor)
+	{
+		return colorAttributes("fill", "fill-opacity", pColor) + " stroke=\"none\"" + filterAttribute();
+	}
+	
+	private String strokeAttributes()
+	{
+		StringBuilder attributes = new StringBuilder(" fill=\"none\"");
+		attributes.append(colorAttributes("stroke", "stroke-opacity", aState.aStroke));
+		attributes.append(" stroke-width=\"").append(format(aState.aLineWidth * Math.abs(aState.aScaleX))).append('"');
+		double[] dashes = aState.aLineStyle.getLineDashes();
+		if( dashes.length > 0 )
+		{
+			attributes.append(" stroke-dasharray=\"");
+			for( int i = 0; i < dashes.length; i++ )
+			{
+				if( i > 0 )
+				{
+					attributes.append(' ');
+				}
+				attributes.append(format(dashes[i] * Math.abs(aState.aScaleX)));
+			}
+			attributes.append('"');
+		}
+		return attributes.append(filterAttribute()).toString();
+	}
+	
+	/*
+	 * Returns the attributes that set pColorAttribute and pOpacityAttribute 
+	 * to the color and opacity of pColor.
+	 */
+	private static String colorAttributes(String pColorAttribute, String pOpacityAttribute, DrawingColor pColor)
+	{
+		if( pColor.getOpacity() == 0 )
+		{
+			return " " + pColorAttribute + "=\"none\"";
+		}
+		String attributes = String.format(" %s=\"#%02x%02x%02x\"", pColorAttribute, 
+				pColor.getRed(), pColor.getGreen(), pColor.getBlue());
+		if( pColor.getOpacity() < 1 )
+		{
+			attributes += " " + pOpacityAttribute + "=\"" + format(pColor.getOpacity()) + "\"";
+		}
+		return attributes;
+	}
+	
+	/*
+	 * Writes the definition of the filter for the drop shadow at the current 
+	 * scale the first time it is used, and returns the attribute that refers to it.
+	 */
+	private String filterAttribute()
+	{
+		if( !aState.aDropShadow )
+		{
+			return "";
+		}
+		String definition = String.format("<feDropShadow dx=\"%s\" dy=\"%s\" stdDeviation=\"%s\"%s/>", 
+				format(SHADOW_OFFSET * Math.abs(aState.aScaleX)), format(SHADOW_OFFSET * Math.abs(aState.aScaleY)), 
+				format(SHADOW_BLUR * Math.abs(aState.aScaleX)), 
+				colorAttributes("flood-color", "flood-opacity", DrawingColor.LIGHT_GRAY));
+		String id = aFilters.get(definition);
+		if( id == null )
+		{
+			id = "shadow" + aFilters.size();
+			aFilters.put(definition, id);
+			write("<filter id=\"" + id + "\" x=\"-50%\" y=\"-50%\" width=\"200%\" height=\"200%\">" + 
+					definition + "</filter>\n");
+		}
+		return " filter=\"url(#" + id + ")\"";
+	}
+	
+	private String x(double pX)
+	{
+		return format(aState.aTranslateX + aState.aScaleX * pX);
+	}
+	
+	private String y(double pY)
+	{
+		return format(aState.aTranslateY + aState.aScaleY * pY);
+	}
+	
+	/*
+	 * Formats pValue with at most two decimals, in the same way 
+	 * whatever the default locale.
+	 */
+	private static String format(double pValue)
+	{
+		long hundredths = Math.round(pValue * PRECISION);
+		if( hundredths % PRECISION == 0 )
+		{
+			return Long.toString(hundredths / PRECISION);
+		}
+		return BigDecimal.valueOf(hundredths, 2).stripTrailingZeros().toPlainString();
+	}
+	
+	private static String escape(String pText)
+	{
+		StringBuilder result = new StringBuilder(pText.length());
+		for( char character : pText.toCharArray() )
+		{
+			switch( character )
+			{
+			case '<': result.append("&lt;"); break;
+			case '>': result.append("&gt;"); break;
+			case '&': result.append("&amp;"); break;
+			case '"': result.append("&quot;"); break;
+			case '\'': result.append("&apos;"); break;
+			default: result.append(character);
+			}
+		}
+		return result.toString();
+	}
+	
+	private void write(String pText)
+	{
+		try
+		{
+			aWriter.write(pText);
+		}
+		catch( IOException exception )
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	/*
+	 * The attributes saved and restored by save() and restore(), 
+	 * initialized with the defaults of a JavaFX canvas, except for 
+	 * the font, which is the font of diagram text.
+	 */
+	private static final class State
+	{
+		private DrawingColor aFill = DrawingColor.BLACK;
+		private DrawingColor aStroke = DrawingColor.BLACK;
+		private double aLineWidth = 1;
+		private LineStyle aLineStyle = LineStyle.SOLID;
+		private DrawingFont aFont = StringViewer.FONT;
+		private TextAlign aTextAlign = TextAlign.LEFT;
+		private TextBaseline aTextBaseline = TextBaseline.BASELINE;
+		private boolean aDropShadow;
+		private double aTranslateX = 0;
+		private double aTranslateY = 0;
+		private double aScaleX = 1;
+		private double aScaleY = 1;
+		
+		private State copy()
+		{
+			State copy = new State();
+			copy.aFill = aFill;
+			copy.aStroke = aStroke;
+			copy.aLineWidth = aLineWidth;
+			copy.aLineStyle = aLineStyle;
+			copy.aFont = aFont;
+			copy.aTextAlign = aTextAlign;
+			copy.aTextBaseline = aTextBaseline;
+			copy.aDropShadow = aDropShadow;
+			copy.aTranslateX = aTranslateX;
+			copy.aTranslateY = aTranslateY;
+			copy.aScaleX = aScaleX;
+			copy.aScaleY = aScaleY;
+			return copy;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.Map;
+
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextAlign;
+import javafx.geometry.Bounds;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.text.TextBoundsType;
+
+/**
+ * Measures text as it is laid out by JavaFX, which is the layout the 
+ * dimensions of diagram elements are computed from, whatever the drawing 
+ * context the diagram is then drawn with. This is the only class that 
+ * lays out text. Each measurement uses its own text node, so text can 
+ * be measured by several threads at the same time.
+ */
+public final class TextMeasurer
+{
+	private static final Map<DrawingFont, Text> LINE_METRICS = new HashMap<>();
+	
+	private TextMeasurer() {}
+	
+	/**
+	 * Measures the visual bounds of pText, that is, the bounds 
+	 * of the glyphs actually drawn.
+	 * 
+	 * @param pText The text to measure, which can span multiple lines.
+	 * @param pFont The font of the text.
+	 * @param pUnderlined True if the text is underlined.
+	 * @param pAlignment The alignment of the lines of the text.
+	 * @return The visual bounds of the text.
+	 * @pre pText != null && pFont != null && pAlignment != null
+	 */
+	public static Rectangle2D getVisualBounds(String pText, DrawingFont pFont, boolean pUnderlined, TextAlign pAlignment)
+	{
+		assert pText != null && pFont != null && pAlignment != null;
+		Text text = createText(pText, pFont);
+		text.setUnderline(pUnderlined);
+		text.setBoundsType(TextBoundsType.VISUAL);
+		text.setTextAlignment(toTextAlignment(pAlignment));
+		return toRectangle(text.getLayoutBounds());
+	}
+	
+	/**
+	 * Measures the logical bounds of pText, that is, bounds that 
+	 * include the full line height of the font.
+	 * 
+	 * @param pText The text to measure, which can span multiple lines.
+	 * @param pFont The font of the text.
+	 * @return The logical bounds of the text.
+	 * @pre pText != null && pFont != null
+	 */
+	public static Rectangle2D getLogicalBounds(String pText, DrawingFont pFont)
+	{
+		assert pText != null && pFont != null;
+		return toRectangle(createText(pText, pFont).getBoundsInLocal());
+	}
+	
+	/**
+	 * @param pFont A font.
+	 * @return The height of a line of text in pFont.
+	 * @pre pFont != null
+	 */
+	public static synchronized double getLineHeight(DrawingFont pFont)
+	{
+		assert pFont != null;
+		return getLineMetrics(pFont).getLayoutBounds().getHeight();
+	}
+	
+	/**
+	 * @param pFont A font.
+	 * @return The distance between the top of a line of text in pFont and its baseline.
+	 * @pre pFont != null
+	 */
+	public static synchronized double getBaselineOffset(DrawingFont pFont)
+	{
+		assert pFont != null;
+		return getLineMetrics(pFont).getBaselineOffset();
+	}
+	
+	private static Text getLineMetrics(DrawingFont pFont)
+	{
+		return LINE_METRICS.computeIfAbsent(pFont, font -> createText("X", font));
+	}
+	
+	private static Text createText(String pText, DrawingFont pFont)
+	{
+		Text text = new Text(pText);
+		text.setFont(CanvasDrawingContext.toFont(pFont));
+		return text;
+	}
+	
+	private static TextAlignment toTextAlignment(TextAlign pAlignment)
+	{
+		if( pAlignment == TextAlign.LEFT )
+		{
+			return TextAlignment.LEFT;
+		}
+		else if( pAlignment == TextAlign.RIGHT )
+		{
+			return TextAlignment.RIGHT;
+		}
+		return TextAlignment.CENTER;
+	}
+	
+	private static Rectangle2D toRectangle(Bounds pBounds)
+	{
+		return new Rectangle2D.Double(pBounds.getMinX(), pBounds.getMinY(), pBounds.getWidth(), pBounds.getHeight());
+	}
+}
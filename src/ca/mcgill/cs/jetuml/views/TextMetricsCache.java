@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import ca.mcgill.cs.jetuml.views.StringViewer.Align;
+
+/**
+ * A bounded, least-recently-used cache of the bounds of laid out text.
+ * Measuring text requires a full text layout, which is costly
+ * when done for every label of every element each time a diagram is
+ * painted. Entries are keyed by the string and the decorations that
+ * can influence its layout. The cache counts hits and misses so that
+ * its effectiveness can be monitored.
+ *
+ * Each client is responsible for always measuring a given key in the same
+ * way, so clients that measure text differently should use different
+ * instances of this cache.
+ */
+public final class TextMetricsCache
+{
+	private final int aCapacity;
+	private final Map<Key, Rectangle2D> aEntries;
+	private long aHits = 0;
+	private long aMisses = 0;
+
+	/**
+	 * Creates an empty cache that holds at most pCapacity entries.
+	 *
+	 * @param pCapacity The maximum number of entries to retain.
+	 * @pre pCapacity > 0
+	 */
+	public TextMetricsCache(int pCapacity)
+	{
+		assert pCapacity > 0;
+		aCapacity = pCapacity;
+		aEntries = new LinkedHashMap<Key, Rectangle2D>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Rectangle2D> pEldest)
+			{
+				return size() > aCapacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the bounds of pString laid out with the given decorations,
+	 * measuring them with pMeasurer if they are not already in the cache.
+	 *
+	 * @param pString The string to measure.
+	 * @param pBold Whether the string is rendered bold.
+	 * @param pUnderlined Whether the string is rendered underlined.
+	 * @param pAlignment The alignment of the string.
+	 * @param pMeasurer Computes the bounds of the string in case of a miss.
+	 * @return The bounds of the laid out string.
+	 * @pre pString != null && pAlignment != null && pMeasurer != null
+	 */
+	public synchronized Rectangle2D getBounds(String pString, boolean pBold, boolean pUnderlined, Align pAlignment,
+			Supplier<Rectangle2D> pMeasurer)
+	{
+		assert pString != null && pAlignment != null && pMeasurer != null;
+		Key key = new Key(pString, pBold, pUnderlined, pAlignment);
+		Rectangle2D bounds = aEntries.get(key);
+		if( bounds == null )
+		{
+			aMisses++;
+			bounds = pMeasurer.get();
+			aEntries.put(key, bounds);
+		}
+		else
+		{
+			aHits++;
+		}
+		return bounds;
+	}
+
+	/**
+	 * @return The number of entries currently in the cache.
+	 */
+	public synchronized int size()
+	{
+		return aEntries.size();
+	}
+
+	/**
+	 * @return The number of lookups served from the cache.
+	 */
+	public synchronized long getHits()
+	{
+		return aHits;
+	}
+
+	/**
+	 * @return The number of lookups that required measuring the text.
+	 */
+	public synchronized long getMisses()
+	{
+		return aMisses;
+	}
+
+	/**
+	 * @return The proportion of lookups served from the cache,
+	 *     or 0 if there was no lookup.
+	 */
+	public synchronized double getHitRate()
+	{
+		long total = aHits + aMisses;
+		if( total == 0 )
+		{
+			return 0;
+		}
+		return (double) aHits / total;
+	}
+
+	/**
+	 * Removes all entries and resets the counters.
+	 */
+	public synchronized void clear()
+	{
+		aEntries.clear();
+		aHits = 0;
+		aMisses = 0;
+	}
+
+	private static final class Key
+	{
+		private final String aString;
+		private final boolean aBold;
+		private final boolean aUnderlined;
+		private final Align aAlignment;
+
+		Key(String pString, boolean pBold, boolean pUnderlined, Align pAlignment)
+		{
+			aString = pString;
+			aBold = pBold;
+			aUnderlined = pUnderlined;
+			aAlignment = pAlignment;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(aString, aBold, aUnderlined, aAlignment);
+		}
+
+		@Override
+		public boolean equals(Object pObject)
+		{
+			if( this == pObject )
+			{
+				return true;
+			}
+			if( pObject == null || pObject.getClass() != getClass() )
+			{
+				return false;
+			}
+			Key other = (Key) pObject;
+			return aBold == other.aBold && aUnderlined == other.aUnderlined &&
+					aAlignment == other.aAlignment && aString.equals(other.aString);
+		}
+	}
+}
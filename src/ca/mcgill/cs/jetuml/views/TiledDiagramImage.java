@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * An image of an entire diagram that is rendered on demand, one square 
+ * tile at a time, so that it can be written by an image encoder without 
+ * ever holding the pixels of the entire diagram in memory. 
+ * 
+ * Encoders that read the image one row of pixels at a time, such as the 
+ * PNG and BMP encoders, cause each tile to be rendered once. Only the 
+ * tiles of the current row of tiles are retained, so the memory used is 
+ * proportional to the width of the diagram times the size of a tile. 
+ * Encoders that request all the pixels at once defeat this purpose. 
+ * 
+ * The pixels are opaque RGB values. Tiles are rendered either with JavaFX 
+ * or with Java2D. JavaFX can only render on the JavaFX application thread: 
+ * when pixels are requested from another thread, each tile is rendered in 
+ * a separate short task on the JavaFX application thread while the requesting 
+ * thread waits, so that the image can be encoded in the background. Java2D 
+ * renders the tiles on the requesting thread, so several images can be 
+ * encoded in parallel. When the image is encoded in the background, the 
+ * diagram must not be modified while it is being encoded.
+ */
+public final class TiledDiagramImage implements RenderedImage
+{
+	private static final int RED_MASK = 0xFF0000;
+	private static final int GREEN_MASK = 0xFF00;
+	private static final int BLUE_MASK = 0xFF;
+	private static final int BITS_PER_PIXEL = 24;
+	private static final ColorModel COLOR_MODEL = new DirectColorModel(BITS_PER_PIXEL, RED_MASK, GREEN_MASK, BLUE_MASK);
+	
+	/**
+	 * The graphics libraries that can render the tiles.
+	 */
+	public enum Renderer 
+	{ JAVAFX, JAVA2D }
+	
+	private final Diagram aDiagram;
+	private final DiagramViewer aViewer;
+	private final Rectangle aDiagramBounds;
+	private final int aPadding;
+	private final int aTileSize;
+	private final Renderer aRenderer;
+	private final SampleModel aSampleModel;
+	
+	// Rendering resources, allocated for the first tile and reused
+	private Canvas aCanvas;
+	private WritableImage aSnapshot;
+	
+	// The tiles of the row aCachedRow, by column
+	private final Map<Integer, Raster> aCachedTiles = new HashMap<>();
+	private int aCachedRow = -1;
+	private int aRenderedTiles = 0;
+	private Runnable aRenderListener = () -> {};
+	
+	/**
+	 * Creates an image of pDiagram with pPadding pixels of white 
+	 * space around the diagram, rendered with JavaFX. No tile is 
+	 * rendered until requested.
+	 * 
+	 * @param pDiagram The diagram to create an image of.
+	 * @param pPadding The number of pixels to add around the diagram.
+	 * @param pTileSize The width and height of a tile, in pixels.
+	 * @pre pDiagram != null && pPadding >= 0 && pTileSize > 0
+	 */
+	public TiledDiagramImage(Diagram pDiagram, int pPadding, int pTileSize)
+	{
+		this(pDiagram, pPadding, pTileSize, Renderer.JAVAFX);
+	}
+	
+	/**
+	 * Creates an image of pDiagram with pPadding pixels of white 
+	 * space around the diagram. No tile is rendered until requested.
+	 * 
+	 * @param pDiagram The diagram to create an image of.
+	 * @param pPadding The number of pixels to add around the diagram.
+	 * @param pTileSize The width and height of a tile, in pixels.
+	 * @param pRenderer The library that renders the tiles.
+	 * @pre pDiagram != null && pPadding >= 0 && pTileSize > 0 && pRenderer != null
+	 */
+	public TiledDiagramImage(Diagram pDiagram, int pPadding, int pTileSize, Renderer pRenderer)
+	{
+		assert pDiagram != null && pPadding >= 0 && pTileSize > 0 && pRenderer != null;
+		aDiagram = pDiagram;
+		aViewer = DiagramType.viewerFor(pDiagram);
+		aDiagramBounds = aViewer.getBounds(pDiagram);
+		aPadding = pPadding;
+		aTileSize = pTileSize;
+		aRenderer = pRenderer;
+		aSampleModel = new SinglePixelPackedSampleModel(DataBufferInt.TYPE_INT, pTileSize, pTileSize, 
+				new int[] {RED_MASK, GREEN_MASK, BLUE_MASK});
+	}
+	
+	/**
+	 * @return The number of tiles that were rendered so far. A tile 
+	 *     that is evicted and requested again is rendered again.
+	 */
+	public int getNumberOfRenderedTiles()
+	{
+		return aRenderedTiles;
+	}
+	
+	/**
+	 * Sets a listener that is called on the thread that requested the 
+	 * pixels each time a tile is rendered, for example to report progress. 
+	 * The listener can abort the request by throwing an unchecked exception.
+	 * 
+	 * @param pListener The listener to notify.
+	 * @pre pListener != null
+	 */
+	public void setRenderListener(Runnable pListener)
+	{
+		assert pListener != null;
+		aRenderListener = pListener;
+	}
+	
+	@Override
+	public Vector<RenderedImage> getSources()
+	{
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String pName)
+	{
+		return java.awt.Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames()
+	{
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel()
+	{
+		return COLOR_MODEL;
+	}
+
+	@Override
+	public SampleModel getSampleModel()
+	{
+		return aSampleModel;
+	}
+
+	@Override
+	public int getWidth()
+	{
+		return aDiagramBounds.getWidth() + aPadding * 2;
+	}
+
+	@Override
+	public int getHeight()
+	{
+		return aDiagramBounds.getHeight() + aPadding * 2;
+	}
+
+	@Override
+	public int getMinX()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getMinY()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles()
+	{
+		return (getWidth() + aTileSize - 1) / aTileSize;
+	}
+
+	@Override
+	public int getNumYTiles()
+	{
+		return (getHeight() + aTileSize - 1) / aTileSize;
+	}
+
+	@Override
+	public int getMinTileX()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth()
+	{
+		return aTileSize;
+	}
+
+	@Override
+	public int getTileHeight()
+	{
+		return aTileSize;
+	}
+
+	@Override
+	public int getTileGridXOffset()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset()
+	{
+		return 0;
+	}
+
+	@Override
+	public Raster getTile(int pTileX, int pTileY)
+	{
+		assert pTileX >= 0 && pTileX < getNumXTiles() && pTileY >= 0 && pTileY < getNumYTiles();
+		if( pTileY != aCachedRow )
+		{
+			aCachedTiles.clear();
+			aCachedRow = pTileY;
+		}
+		return aCachedTiles.computeIfAbsent(pTileX, column -> renderTile(column, pTileY));
+	}
+
+	@Override
+	public Raster getData()
+	{
+		return getData(new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+	}
+
+	@Override
+	public Raster getData(java.awt.Rectangle pArea)
+	{
+		WritableRaster raster = Raster.createWritableRaster(
+				aSampleModel.createCompatibleSampleModel(pArea.width, pArea.height), new Point(pArea.x, pArea.y));
+		copyData(raster);
+		return raster;
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster pRaster)
+	{
+		WritableRaster raster = pRaster;
+		if( raster == null )
+		{
+			raster = Raster.createWritableRaster(aSampleModel.createCompatibleSampleModel(getWidth(), getHeight()), null);
+		}
+		java.awt.Rectangle area = raster.getBounds().intersection(new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+		if( area.isEmpty() )
+		{
+			return raster;
+		}
+		for( int row = area.y / aTileSize; row <= (area.y + area.height - 1) / aTileSize; row++ )
+		{
+			for( int column = area.x / aTileSize; column <= (area.x + area.width - 1) / aTileSize; column++ )
+			{
+				raster.setRect(getTile(column, row));
+			}
+		}
+		return raster;
+	}
+	
+	private Raster renderTile(int pColumn, int pRow)
+	{
+		int[] pixels;
+		if( aRenderer == Renderer.JAVA2D )
+		{
+			pixels = renderPixelsWithJava2D(pColumn, pRow);
+		}
+		else if( Platform.isFxApplicationThread() )
+		{
+			pixels = renderPixels(pColumn, pRow);
+		}
+		else
+		{
+			FutureTask<int[]> task = new FutureTask<>(() -> renderPixels(pColumn, pRow));
+			Platform.runLater(task);
+			try
+			{
+				pixels = task.get();
+			}
+			catch( InterruptedException exception )
+			{
+				Thread.currentThread().interrupt();
+				throw new CancellationException();
+			}
+			catch( ExecutionException exception )
+			{
+				throw new IllegalStateException(exception.getCause());
+			}
+		}
+		aRenderedTiles++;
+		Raster tile = Raster.createWritableRaster(aSampleModel, new DataBufferInt(pixels, pixels.length), 
+				new Point(pColumn * aTileSize, pRow * aTileSize));
+		aRenderListener.run();
+		return tile;
+	}
+	
+	/*
+	 * Draws the part of the diagram covered by a tile and copies its pixels. 
+	 */
+	private int[] renderPixels(int pColumn, int pRow)
+	{
+		if( aCanvas == null )
+		{
+			aCanvas = new Canvas(aTileSize, aTileSize);
+			aSnapshot = new WritableImage(aTileSize, aTileSize);
+		}
+		int x = aDiagramBounds.getX() - aPadding + pColumn * aTileSize;
+		int y = aDiagramBounds.getY() - aPadding + pRow * aTileSize;
+		DrawingContext context = new CanvasDrawingContext(aCanvas.getGraphicsContext2D());
+		context.save();
+		// The snapshot fills the transparent background with white
+		context.clearRect(0, 0, aTileSize, aTileSize);
+		context.setFill(DrawingColor.WHITE);
+		context.setLineWidth(ImageCreator.LINE_WIDTH);
+		context.translate(-x, -y);
+		aViewer.draw(aDiagram, context, new Rectangle(x, y, aTileSize, aTileSize));
+		context.restore();
+		aCanvas.snapshot(null, aSnapshot);
+		
+		int[] pixels = new int[aTileSize * aTileSize];
+		aSnapshot.getPixelReader().getPixels(0, 0, aTileSize, aTileSize, 
+				PixelFormat.getIntArgbInstance(), pixels, 0, aTileSize);
+		return pixels;
+	}
+	
+	/*
+	 * Draws the part of the diagram covered by a tile with Java2D, on the 
+	 * calling thread. The pixels of an RGB buffered image use the color 
+	 * model of this image, so they are used as they are.
+	 */
+	private int[] renderPixelsWithJava2D(int pColumn, int pRow)
+	{
+		int x = aDiagramBounds.getX() - aPadding + pColumn * aTileSize;
+		int y = aDiagramBounds.getY() - aPadding + pRow * aTileSize;
+		BufferedImage image = new BufferedImage(aTileSize, aTileSize, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		try
+		{
+			Java2DDrawingContext context = new Java2DDrawingContext(graphics);
+			context.setFill(DrawingColor.WHITE);
+			context.fillRect(0, 0, aTileSize, aTileSize);
+			context.setLineWidth(ImageCreator.LINE_WIDTH);
+			context.translate(-x, -y);
+			aViewer.draw(aDiagram, context, new Rectangle(x, y, aTileSize, aTileSize));
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+		return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+}
@@ -22,16 +22,8 @@
 package ca.mcgill.cs.jetuml.views;
 
 import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.Polyline;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.effect.DropShadow;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
-import javafx.scene.shape.PathElement;
-import javafx.scene.shape.QuadCurveTo;
 
 /**
  * A utility class to draw various graphics for diagram handling tools.
@@ -39,11 +31,10 @@ import javafx.scene.shape.QuadCurveTo;
 public final class ToolGraphics
 {
 	private static final int HANDLE_SIZE = 6; // The length in pixel of one side of the handle.
-	private static final Color SELECTION_COLOR = Color.rgb(77, 115, 153);
-	private static final Color SELECTION_FILL_COLOR = Color.rgb(173, 193, 214);
-	private static final Color SELECTION_FILL_TRANSPARENT = Color.rgb(173, 193, 214, 0.75);
+	private static final DrawingColor SELECTION_COLOR = DrawingColor.rgb(77, 115, 153);
+	private static final DrawingColor SELECTION_FILL_COLOR = DrawingColor.rgb(173, 193, 214);
+	private static final DrawingColor SELECTION_FILL_TRANSPARENT = DrawingColor.rgb(173, 193, 214, 0.75);
 	private static final double LINE_WIDTH = 0.6;
-	private static final DropShadow DROP_SHADOW = new DropShadow(3, 3, 3, Color.LIGHTGRAY);
 	
 	private ToolGraphics() {}
 	
@@ -55,10 +46,10 @@ public final class ToolGraphics
 	 * @param pX The x-coordinate of the center of the handle.
 	 * @param pY The y-coordinate of the center of the handle.
 	 */
-	private static void drawHandle(GraphicsContext pGraphics, int pX, int pY)
+	private static void drawHandle(DrawingContext pGraphics, int pX, int pY)
 	{
-		Paint oldStroke = pGraphics.getStroke();
-		Paint oldFill = pGraphics.getFill();
+		DrawingColor oldStroke = pGraphics.getStroke();
+		DrawingColor oldFill = pGraphics.getFill();
 		pGraphics.setStroke(SELECTION_COLOR);
 		pGraphics.strokeRect((int)(pX - HANDLE_SIZE / 2.0) + 0.5, (int)(pY - HANDLE_SIZE / 2.0)+ 0.5, HANDLE_SIZE, HANDLE_SIZE);
 		pGraphics.setFill(SELECTION_FILL_COLOR);
@@ -74,7 +65,7 @@ public final class ToolGraphics
 	 * @param pGraphics The graphics context on which to draw the handles.
 	 * @param pBounds Defines the four points where to draw the handles
 	 */
-	public static void drawHandles(GraphicsContext pGraphics, Rectangle pBounds)
+	public static void drawHandles(DrawingContext pGraphics, Rectangle pBounds)
 	{
 		drawHandle(pGraphics, pBounds.getX(), pBounds.getY());
 		drawHandle(pGraphics, pBounds.getX(), pBounds.getMaxY());
@@ -89,7 +80,7 @@ public final class ToolGraphics
 	 * @param pGraphics The graphics context on which to draw the handles.
 	 * @param pBounds Defines the two points where to draw the handles
 	 */
-	public static void drawHandles(GraphicsContext pGraphics, Line pBounds)
+	public static void drawHandles(DrawingContext pGraphics, Line pBounds)
 	{
 		drawHandle(pGraphics, pBounds.getX1(), pBounds.getY1());
 		drawHandle(pGraphics, pBounds.getX2(), pBounds.getY2());
@@ -102,9 +93,9 @@ public final class ToolGraphics
 	 * @param pGraphics The graphics context on which to draw the line.
 	 * @param pLine The line that represents the rubberband.
 	 */
-	public static void drawRubberband(GraphicsContext pGraphics, Line pLine)
+	public static void drawRubberband(DrawingContext pGraphics, Line pLine)
 	{
-		Paint oldStroke = pGraphics.getStroke();
+		DrawingColor oldStroke = pGraphics.getStroke();
 		pGraphics.setStroke(SELECTION_FILL_COLOR);
 		strokeSharpLine(pGraphics, pLine.getX1(), pLine.getY1(), pLine.getX2(), pLine.getY2());
 		pGraphics.setStroke(oldStroke);
@@ -117,7 +108,7 @@ public final class ToolGraphics
 	 * @param pGraphics The graphics context on which to draw the lasso.
 	 * @param pRectangle The rectangle that defines the lasso.
 	 */
-	public static void drawLasso(GraphicsContext pGraphics, Rectangle pRectangle)
+	public static void drawLasso(DrawingContext pGraphics, Rectangle pRectangle)
 	{
 		ViewUtils.drawRectangle(pGraphics, SELECTION_COLOR, SELECTION_FILL_TRANSPARENT, 
 				pRectangle.getX(), pRectangle.getY(), pRectangle.getWidth(), pRectangle.getHeight());
@@ -134,81 +125,65 @@ public final class ToolGraphics
 	 * @param pX2 The x-coordinate of the second point.
 	 * @param pY2 The y-coordinate of the second point.
 	 */
-	public static void strokeSharpLine(GraphicsContext pGraphics, int pX1, int pY1, int pX2, int pY2)
+	public static void strokeSharpLine(DrawingContext pGraphics, int pX1, int pY1, int pX2, int pY2)
 	{
 		pGraphics.strokeLine(pX1 + 0.5, pY1 + 0.5, pX2 + 0.5, pY2 + 0.5);
 	}
 	
 	/**
-	 * Strokes a path, by converting the elements to integer coordinates and then
-	 * aligning them to the center of the pixels, so that it aligns precisely
-	 * with the JavaFX coordinate system. See the documentation for 
-	 * javafx.scene.shape.Shape for details.
+	 * Strokes a polyline, by aligning its points to the center of the pixels, 
+	 * so that lines between integer coordinates align precisely with the JavaFX 
+	 * coordinate system. See the documentation for javafx.scene.shape.Shape for details.
 	 * 
 	 * @param pGraphics The graphics context.
-	 * @param pPath The path to stroke
-	 * @param pStyle The line style for the path.
+	 * @param pPolyline The polyline to stroke.
+	 * @param pStyle The line style for the polyline.
 	 */
-	public static void strokeSharpPath(GraphicsContext pGraphics, Path pPath, LineStyle pStyle)
+	public static void strokeSharpPolyline(DrawingContext pGraphics, Polyline pPolyline, LineStyle pStyle)
 	{
-		double[] oldDash = pGraphics.getLineDashes();
-		pGraphics.setLineDashes(pStyle.getLineDashes());
+		LineStyle oldStyle = pGraphics.getLineStyle();
+		pGraphics.setLineStyle(pStyle);
 		double width = pGraphics.getLineWidth();
 		pGraphics.setLineWidth(LINE_WIDTH);
-		applyPath(pGraphics, pPath);
+		applyPolyline(pGraphics, pPolyline);
 		pGraphics.stroke();
-		pGraphics.setLineDashes(oldDash);
+		pGraphics.setLineStyle(oldStyle);
 		pGraphics.setLineWidth(width);
 	}
 	
-	private static void applyPath(GraphicsContext pGraphics, Path pPath)
-	{
-		pGraphics.beginPath();
-		for(PathElement element : pPath.getElements())
-		{
-			if(element instanceof MoveTo)
-			{
-				pGraphics.moveTo(((int)((MoveTo) element).getX()) + 0.5, ((int)((MoveTo) element).getY()) + 0.5);
-			}
-			else if(element instanceof LineTo)
-			{
-				pGraphics.lineTo(((int)((LineTo) element).getX()) + 0.5, ((int)((LineTo) element).getY()) + 0.5);
-			}
-			else if (element instanceof QuadCurveTo)
-			{
-				QuadCurveTo curve = (QuadCurveTo) element;
-				pGraphics.quadraticCurveTo(((int)curve.getControlX())+0.5, ((int)curve.getControlY()) + 0.5, 
-						((int) curve.getX()) + 0.5, ((int) curve.getY()) + 0.5);
-			}
-		}
-	}
 	/**
-	 * Strokes and fills a path, by converting the elements to integer coordinates and then
-	 * aligning them to the center of the pixels, so that it aligns precisely
-	 * with the JavaFX coordinate system. See the documentation for 
-	 * javafx.scene.shape.Shape for details.
+	 * Strokes and fills a polyline, by aligning its points to the center of the pixels, 
+	 * so that lines between integer coordinates align precisely with the JavaFX 
+	 * coordinate system. See the documentation for javafx.scene.shape.Shape for details.
 	 * 
 	 * @param pGraphics The graphics context.
-	 * @param pPath The path to stroke
-	 * @param pFill The fill color for the path.
+	 * @param pPolyline The polyline to stroke and fill.
+	 * @param pFill The fill color for the polyline.
 	 * @param pShadow True to include a drop shadow.
 	 */
-	public static void strokeAndFillSharpPath(GraphicsContext pGraphics, Path pPath, Paint pFill, boolean pShadow)
+	public static void strokeAndFillSharpPolyline(DrawingContext pGraphics, Polyline pPolyline, DrawingColor pFill, 
+			boolean pShadow)
 	{
 		double width = pGraphics.getLineWidth();
-		Paint fill = pGraphics.getFill();
+		DrawingColor fill = pGraphics.getFill();
 		pGraphics.setLineWidth(LINE_WIDTH);
 		pGraphics.setFill(pFill);
-		applyPath(pGraphics, pPath);
-		
-		if( pShadow )
-		{
-			pGraphics.setEffect(DROP_SHADOW);
-		}
+		applyPolyline(pGraphics, pPolyline);
+		pGraphics.setDropShadow(pShadow);
 		pGraphics.fill();
 		pGraphics.stroke();
 		pGraphics.setLineWidth(width);
 		pGraphics.setFill(fill);
-		pGraphics.setEffect(null);
+		pGraphics.setDropShadow(false);
+	}
+	
+	private static void applyPolyline(DrawingContext pGraphics, Polyline pPolyline)
+	{
+		pGraphics.beginPath();
+		pGraphics.moveTo(pPolyline.getX(0) + 0.5, pPolyline.getY(0) + 0.5);
+		for( int i = 1; i < pPolyline.size(); i++ )
+		{
+			pGraphics.lineTo(pPolyline.getX(i) + 0.5, pPolyline.getY(i) + 0.5);
+		}
 	}
 }
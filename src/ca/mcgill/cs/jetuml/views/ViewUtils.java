@@ -21,11 +21,6 @@
 package ca.mcgill.cs.jetuml.views;
 
 import ca.mcgill.cs.jetuml.geom.Rectangle;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.effect.DropShadow;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.text.Font;
 
 /**
  * A collection of utility methods to draw shapes on the canvas.
@@ -38,7 +33,6 @@ import javafx.scene.text.Font;
  */
 public final class ViewUtils
 {
-	private static final DropShadow DROP_SHADOW = new DropShadow(3, 3, 3, Color.LIGHTGRAY);
 	private static final int ARC_SIZE = 20;
 	
 	private ViewUtils()
@@ -54,7 +48,7 @@ public final class ViewUtils
 	 * @param pDiameter The diameter of the circle.
 	 * @param pShadow True to include a drop shadow.
 	 */
-	public static void drawCircle(GraphicsContext pGraphics, int pX, int pY, int pDiameter, Paint pFill, boolean pShadow)
+	public static void drawCircle(DrawingContext pGraphics, int pX, int pY, int pDiameter, DrawingColor pFill, boolean pShadow)
 	{
 		drawOval( pGraphics, pX, pY, pDiameter, pDiameter, pFill, pShadow);
 	}
@@ -70,19 +64,17 @@ public final class ViewUtils
 	 * @param pHeight The height of the oval to draw.
 	 * @param pShadow True to include a drop shadow.
 	 */
-	public static void drawOval(GraphicsContext pGraphics, int pX, int pY, int pWidth, int pHeight, Paint pFill, boolean pShadow)
+	public static void drawOval(DrawingContext pGraphics, int pX, int pY, int pWidth, int pHeight, DrawingColor pFill, 
+			boolean pShadow)
 	{
 		assert pWidth > 0 && pHeight > 0 && pFill != null && pGraphics != null;
-		Paint oldFill = pGraphics.getFill();
+		DrawingColor oldFill = pGraphics.getFill();
 		pGraphics.setFill(pFill);
-		if( pShadow )
-		{
-			pGraphics.setEffect(DROP_SHADOW);
-		}
+		pGraphics.setDropShadow(pShadow);
 		pGraphics.fillOval(pX + 0.5, pY + 0.5, pWidth, pHeight);
 		pGraphics.strokeOval(pX + 0.5, pY + 0.5, pWidth, pHeight);
 		pGraphics.setFill(oldFill);
-		pGraphics.setEffect(null);
+		pGraphics.setDropShadow(false);
 	}
 	
 	/**
@@ -91,13 +83,13 @@ public final class ViewUtils
 	 * @param pGraphics The graphics context.
 	 * @param pRectangle The rectangle to draw.
 	 */
-	public static void drawRoundedRectangle(GraphicsContext pGraphics, Rectangle pRectangle)
+	public static void drawRoundedRectangle(DrawingContext pGraphics, Rectangle pRectangle)
 	{
 		assert pGraphics != null && pRectangle != null;
-		pGraphics.setEffect(DROP_SHADOW);
+		pGraphics.setDropShadow(true);
 		pGraphics.fillRoundRect(pRectangle.getX() + 0.5, pRectangle.getY() + 0.5, 
 				pRectangle.getWidth(), pRectangle.getHeight(), ARC_SIZE, ARC_SIZE );
-		pGraphics.setEffect(null);
+		pGraphics.setDropShadow(false);
 		pGraphics.strokeRoundRect(pRectangle.getX() + 0.5, pRectangle.getY() + 0.5, 
 				pRectangle.getWidth(), pRectangle.getHeight(), ARC_SIZE, ARC_SIZE);
 	}
@@ -115,11 +107,11 @@ public final class ViewUtils
 	 * @param pWidth The width.
 	 * @param pHeight The height.
 	 */
-	public static void drawRectangle(GraphicsContext pGraphics, Paint pStroke, Paint pFill, 
+	public static void drawRectangle(DrawingContext pGraphics, DrawingColor pStroke, DrawingColor pFill, 
 			int pX, int pY, int pWidth, int pHeight)
 	{
-		Paint oldFill = pGraphics.getFill();
-		Paint oldStroke = pGraphics.getStroke();
+		DrawingColor oldFill = pGraphics.getFill();
+		DrawingColor oldStroke = pGraphics.getStroke();
 		pGraphics.setFill(pFill);
 		pGraphics.setStroke(pStroke);
 		pGraphics.fillRect(pX + 0.5, pY + 0.5, pWidth, pHeight);
@@ -134,12 +126,12 @@ public final class ViewUtils
 	 * @param pGraphics The graphics context on which to draw the rectangle.
 	 * @param pRectangle The rectangle to draw.
 	 */
-	public static void drawRectangle( GraphicsContext pGraphics, Rectangle pRectangle)
+	public static void drawRectangle( DrawingContext pGraphics, Rectangle pRectangle)
 	{
 		assert pGraphics != null && pRectangle != null;
-		pGraphics.setEffect(DROP_SHADOW);
+		pGraphics.setDropShadow(true);
 		pGraphics.fillRect(pRectangle.getX() + 0.5, pRectangle.getY() + 0.5, pRectangle.getWidth(), pRectangle.getHeight());
-		pGraphics.setEffect(null);
+		pGraphics.setDropShadow(false);
 		pGraphics.strokeRect(pRectangle.getX() + 0.5, pRectangle.getY() + 0.5, pRectangle.getWidth(), pRectangle.getHeight());
 	}
 	
@@ -153,12 +145,12 @@ public final class ViewUtils
 	 * @param pY2 The y-coordinate of the second point
 	 * @param pStyle The line style for the path.
 	 */
-	public static void drawLine(GraphicsContext pGraphics, int pX1, int pY1, int pX2, int pY2, LineStyle pStyle)
+	public static void drawLine(DrawingContext pGraphics, int pX1, int pY1, int pX2, int pY2, LineStyle pStyle)
 	{
-		double[] oldDash = pGraphics.getLineDashes();
-		pGraphics.setLineDashes(pStyle.getLineDashes());
+		LineStyle oldStyle = pGraphics.getLineStyle();
+		pGraphics.setLineStyle(pStyle);
 		pGraphics.strokeLine(pX1 + 0.5, pY1 + 0.5, pX2 + 0.5, pY2 + 0.5);
-		pGraphics.setLineDashes(oldDash);
+		pGraphics.setLineStyle(oldStyle);
 	}
 	
 	/**
@@ -170,13 +162,13 @@ public final class ViewUtils
 	 * @param pText The text to draw.
 	 * @param pFont The font to use.
 	 */
-	public static void drawText(GraphicsContext pGraphics, int pX, int pY, String pText, Font pFont)
+	public static void drawText(DrawingContext pGraphics, int pX, int pY, String pText, DrawingFont pFont)
 	{
-		Font font = pGraphics.getFont();
+		DrawingFont font = pGraphics.getFont();
 		pGraphics.setFont(pFont);
-		pGraphics.setFill(Color.BLACK);
+		pGraphics.setFill(DrawingColor.BLACK);
 		pGraphics.fillText(pText, pX + 0.5, pY + 0.5);
 		pGraphics.setFont(font);
-		pGraphics.setFill(Color.WHITE);
+		pGraphics.setFill(DrawingColor.WHITE);
 	}
 }
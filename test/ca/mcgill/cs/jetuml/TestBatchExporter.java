@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.BatchExporter.Outcome;
+import ca.mcgill.cs.jetuml.BatchExporter.Result;
+import javafx.application.Platform;
+
+public class TestBatchExporter
+{
+	private static final File CLASS_DIAGRAM = new File("testdata/testPersistenceService.class.jet");
+	private static final File STATE_DIAGRAM = new File("testdata/testPersistenceService.state.jet");
+	private static final File LEGACY_DIAGRAM = new File("testdata/test1.class.jet");
+	
+	private File aDirectory;
+	private BatchExporter aExporter;
+	private final List<Result> aNotified = new ArrayList<>();
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup() throws IOException
+	{
+		aDirectory = Files.createTempDirectory("jetuml").toFile();
+		aExporter = new BatchExporter(Optional.of(aDirectory), 2);
+	}
+	
+	@AfterEach
+	public void tearDown()
+	{
+		delete(aDirectory);
+	}
+	
+	private static void delete(File pFile)
+	{
+		File[] children = pFile.listFiles();
+		if( children != null )
+		{
+			for( File child : children )
+			{
+				delete(child);
+			}
+		}
+		pFile.delete();
+	}
+	
+	/*
+	 * Creates a directory with a copy of CLASS_DIAGRAM in two subdirectories. 
+	 */
+	private File createNestedInput() throws IOException
+	{
+		File input = new File(aDirectory, "input");
+		for( String name : new String[] {"a", "b"} )
+		{
+			File directory = new File(input, name);
+			assertTrue(directory.mkdirs());
+			Files.copy(CLASS_DIAGRAM.toPath(), new File(directory, "x.jet").toPath());
+		}
+		return input;
+	}
+	
+	@Test
+	public void testOutputFileFor()
+	{
+		assertEquals(new File(aDirectory, "testPersistenceService.class.png"), aExporter.outputFileFor(CLASS_DIAGRAM));
+		assertEquals(new File(aDirectory, "foo.png"), aExporter.outputFileFor(new File("foo")));
+		assertEquals(new File("testdata/testPersistenceService.class.png").getAbsoluteFile(), 
+				new BatchExporter(Optional.empty(), 1).outputFileFor(CLASS_DIAGRAM));
+	}
+	
+	@Test
+	public void testExport() throws IOException
+	{
+		List<Result> results = aExporter.export(Arrays.asList(CLASS_DIAGRAM, STATE_DIAGRAM), aNotified::add);
+		assertEquals(2, results.size());
+		assertEquals(2, aNotified.size());
+		assertEquals(CLASS_DIAGRAM, results.get(0).getInput());
+		assertEquals(STATE_DIAGRAM, results.get(1).getInput());
+		for( Result result : results )
+		{
+			assertEquals(Outcome.EXPORTED, result.getOutcome());
+			assertTrue(ImageIO.read(result.getOutput()).getWidth() > 0);
+		}
+	}
+	
+	/*
+	 * The images are rendered on the exporting threads, so the export 
+	 * completes while the JavaFX application thread is busy.
+	 */
+	@Test
+	public void testExport_WithoutJavaFXThread()
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		Platform.runLater(() -> 
+		{
+			try
+			{
+				release.await();
+			}
+			catch( InterruptedException exception )
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		try
+		{
+			List<Result> results = aExporter.export(Arrays.asList(CLASS_DIAGRAM, STATE_DIAGRAM), aNotified::add);
+			assertTrue(results.stream().allMatch(result -> result.getOutcome() == Outcome.EXPORTED));
+		}
+		finally
+		{
+			release.countDown();
+		}
+	}
+	
+	@Test
+	public void testExport_UpToDate()
+	{
+		aExporter.export(Arrays.asList(CLASS_DIAGRAM), aNotified::add);
+		File output = aExporter.outputFileFor(CLASS_DIAGRAM);
+		assertEquals(Outcome.UP_TO_DATE, aExporter.export(Arrays.asList(CLASS_DIAGRAM), aNotified::add).get(0).getOutcome());
+		assertTrue(output.setLastModified(CLASS_DIAGRAM.lastModified() - 1000));
+		assertEquals(Outcome.EXPORTED, aExporter.export(Arrays.asList(CLASS_DIAGRAM), aNotified::add).get(0).getOutcome());
+	}
+	
+	@Test
+	public void testExport_Directory()
+	{
+		List<Result> results = aExporter.export(Arrays.asList(new File("testdata")), aNotified::add);
+		assertEquals(new File("testdata").list((pDirectory, pName) -> pName.endsWith(".jet")).length, results.size());
+		for( Result result : results )
+		{
+			// Files in the legacy format cannot be read
+			assertEquals(result.getOutcome() == Outcome.EXPORTED, result.getOutput().exists());
+		}
+		assertTrue(results.stream().anyMatch(result -> result.getOutcome() == Outcome.EXPORTED));
+	}
+	
+	@Test
+	public void testExport_DirectoryStructureMirrored() throws IOException
+	{
+		File input = createNestedInput();
+		File output = new File(aDirectory, "output");
+		List<Result> results = new BatchExporter(Optional.of(output), 2).export(Arrays.asList(input), aNotified::add);
+		assertEquals(2, results.size());
+		assertEquals(new File(output, "a/x.png"), results.get(0).getOutput());
+		assertEquals(new File(output, "b/x.png"), results.get(1).getOutput());
+		for( Result result : results )
+		{
+			assertEquals(Outcome.EXPORTED, result.getOutcome());
+			assertTrue(result.getOutput().exists());
+		}
+	}
+	
+	@Test
+	public void testExport_SameOutput() throws IOException
+	{
+		File input = createNestedInput();
+		File first = new File(input, "a/x.jet");
+		File second = new File(input, "b/x.jet");
+		List<Result> results = aExporter.export(Arrays.asList(first, second), aNotified::add);
+		assertEquals(2, aNotified.size());
+		assertEquals(Outcome.EXPORTED, results.get(0).getOutcome());
+		assertEquals(Outcome.FAILED, results.get(1).getOutcome());
+		assertEquals(results.get(0).getOutput(), results.get(1).getOutput());
+	}
+	
+	@Test
+	public void testExport_Failure()
+	{
+		Result result = aExporter.export(Arrays.asList(LEGACY_DIAGRAM), aNotified::add).get(0);
+		assertEquals(Outcome.FAILED, result.getOutcome());
+		assertFalse(result.getOutput().exists());
+	}
+}
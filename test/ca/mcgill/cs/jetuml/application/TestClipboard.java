@@ -27,12 +27,16 @@ import static ca.mcgill.cs.jetuml.testutils.CollectionAssertions.hasElementsEqua
 import static ca.mcgill.cs.jetuml.testutils.CollectionAssertions.hasElementsSameAs;
 import static ca.mcgill.cs.jetuml.testutils.CollectionAssertions.hasSize;
 import static ca.mcgill.cs.jetuml.testutils.CollectionAssertions.isEmpty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -42,6 +46,7 @@ import org.junit.jupiter.api.Test;
 
 import ca.mcgill.cs.jetuml.JavaFXLoader;
 import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.SequenceDiagram;
@@ -232,4 +237,98 @@ public class TestClipboard
 		assertTrue(aClipboard.validPaste(new ClassDiagram()));
 		assertFalse(aClipboard.validPaste(new SequenceDiagram()));
 	}
+
+	@Test
+	public void testGetElementsNodeWithChildrenAndEdge()
+	{
+		PackageNode pn = new PackageNode();
+		pn.addChild(aNode1);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2, aDiagram);
+		aClipboard.copy(Arrays.asList(pn, aNode2, edge));
+		
+		List<DiagramElement> elements = new ArrayList<>();
+		aClipboard.getElements().forEach(elements::add);
+		assertThat(elements, hasSize, 3);
+		Edge pastedEdge = (Edge) elements.get(0);
+		PackageNode pastedPackage = (PackageNode) elements.get(1);
+		Node pastedNode2 = (Node) elements.get(2);
+		assertNotSame(getClipboardEdges().get(0), pastedEdge);
+		assertNotSame(getClipboardNodes().get(0), pastedPackage);
+		assertSame(pastedPackage.getChildren().get(0), pastedEdge.getStart());
+		assertSame(pastedNode2, pastedEdge.getEnd());
+		assertSame(getClipboardNodes().get(1), getClipboardEdges().get(0).getEnd());
+	}
+	
+	@Test
+	public void testShift()
+	{
+		aNode1.translate(10, 10);
+		aClipboard.copy(Arrays.asList(aNode1));
+		aClipboard.shift(20, 20);
+		aClipboard.shift(20, 20);
+		Node pasted = (Node) aClipboard.getElements().iterator().next();
+		assertEquals(new Point(50, 50), pasted.position());
+		assertThat(extract(getClipboardNodes(), Node::position), hasElementsEqualTo, new Point(10,10));
+		
+		aClipboard.copy(Arrays.asList(aNode1));
+		pasted = (Node) aClipboard.getElements().iterator().next();
+		assertEquals(new Point(10, 10), pasted.position());
+	}
+	
+	@Test
+	public void testGetElementsDetachedFromSourceDiagram()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addEdge(edge);
+		int version = aDiagram.getVersion();
+		aClipboard.copy(Arrays.asList(aNode1, aNode2, edge));
+		aClipboard.shift(20, 20);
+		for( DiagramElement element : aClipboard.getElements() )
+		{
+			if( element instanceof Node )
+			{
+				assertFalse(((Node) element).getDiagram().isPresent());
+				((Node) element).translate(20, 20);
+			}
+		}
+		assertEquals(version, aDiagram.getVersion());
+	}
+	
+	@Test
+	public void testCopyAndGetElementsManyElements()
+	{
+		List<DiagramElement> selection = new ArrayList<>();
+		ClassNode previous = null;
+		for( int i = 0; i < 5000; i++ )
+		{
+			ClassNode node = new ClassNode();
+			node.translate(i, i);
+			selection.add(node);
+			if( previous != null )
+			{
+				DependencyEdge edge = new DependencyEdge();
+				edge.connect(previous, node, aDiagram);
+				selection.add(edge);
+			}
+			previous = node;
+		}
+		aClipboard.copy(selection);
+		assertThat(getClipboardNodes(), hasSize, 5000);
+		assertThat(getClipboardEdges(), hasSize, 4999);
+		Edge edge = getClipboardEdges().get(4998);
+		assertSame(getClipboardNodes().get(4998), edge.getStart());
+		assertSame(getClipboardNodes().get(4999), edge.getEnd());
+		
+		List<DiagramElement> elements = new ArrayList<>();
+		aClipboard.getElements().forEach(elements::add);
+		assertThat(elements, hasSize, 9999);
+		Edge pastedEdge = (Edge) elements.get(4998);
+		assertSame(elements.get(9997), pastedEdge.getStart());
+		assertSame(elements.get(9998), pastedEdge.getEnd());
+		assertEquals(new Point(4999, 4999), ((Node) elements.get(9998)).position());
+	}
 }
@@ -65,6 +65,11 @@ public class DiagramAccessor
 		return result;
 	}
 	
+	public boolean hasConsistentEdgeIndex()
+	{
+		return aDiagram.hasConsistentEdgeIndex();
+	}
+	
 	public void connectAndAdd(Edge pEdge, Node pStart, Node pEnd)
 	{
 		pEdge.connect(pStart, pEnd, aDiagram);
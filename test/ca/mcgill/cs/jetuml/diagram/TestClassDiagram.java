@@ -22,6 +22,7 @@ package ca.mcgill.cs.jetuml.diagram;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -36,6 +37,7 @@ import ca.mcgill.cs.jetuml.JavaFXLoader;
 import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
 import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.geom.Point;
 
 /*
  * This class is used to test the methods of the abstract
@@ -334,4 +336,169 @@ public class TestClassDiagram
 		assertTrue(result.contains(aEdge2));
 		assertTrue(result.contains(aEdge3));
 	}
+	
+	@Test
+	public void testEdgesConnectedToPreservesEdgeOrder()
+	{
+		aDiagram.addRootNode(aClassNode1);
+		aDiagram.addRootNode(aClassNode2);
+		aDiagram.addRootNode(aClassNode3);
+		aEdge1.connect(aClassNode1, aClassNode2, aDiagram);
+		aEdge2.connect(aClassNode2, aClassNode3, aDiagram);
+		aEdge3.connect(aClassNode3, aClassNode2, aDiagram);
+		aDiagram.addEdge(aEdge1);
+		aDiagram.addEdge(aEdge3);
+		aDiagram.addEdge(1, aEdge2);
+		assertTrue(aDiagramAccessor.hasConsistentEdgeIndex());
+		List<Edge> result = aDiagramAccessor.getEdgesConnectedTo(aClassNode2);
+		assertEquals(3, result.size());
+		assertSame(aEdge1, result.get(0));
+		assertSame(aEdge2, result.get(1));
+		assertSame(aEdge3, result.get(2));
+		result = aDiagramAccessor.getEdgesConnectedTo(aClassNode3);
+		assertSame(aEdge2, result.get(0));
+		assertSame(aEdge3, result.get(1));
+	}
+	
+	@Test
+	public void testEdgesConnectedToAfterRemovals()
+	{
+		aDiagram.addRootNode(aClassNode1);
+		aDiagram.addRootNode(aClassNode2);
+		aEdge1.connect(aClassNode1, aClassNode1, aDiagram);
+		aEdge2.connect(aClassNode1, aClassNode2, aDiagram);
+		aDiagram.addEdge(aEdge1);
+		aDiagram.addEdge(aEdge2);
+		aDiagram.removeRootNode(aClassNode2);
+		assertTrue(aDiagramAccessor.hasConsistentEdgeIndex());
+		aDiagram.removeEdge(aEdge2);
+		assertTrue(aDiagramAccessor.hasConsistentEdgeIndex());
+		List<Edge> result = aDiagramAccessor.getEdgesConnectedTo(aClassNode1);
+		assertEquals(1, result.size());
+		assertSame(aEdge1, result.get(0));
+		aDiagram.removeEdge(aEdge1);
+		assertTrue(aDiagramAccessor.getEdgesConnectedTo(aClassNode1).isEmpty());
+		assertTrue(aDiagramAccessor.hasConsistentEdgeIndex());
+	}
+	
+	@Test
+	public void testContains()
+	{
+		PackageNode inner = new PackageNode();
+		inner.addChild(aClassNode1);
+		aPackageNode1.addChild(inner);
+		assertFalse(aDiagram.contains(aClassNode1));
+		aDiagram.addRootNode(aPackageNode1);
+		aDiagram.addRootNode(aClassNode2);
+		assertTrue(aDiagram.contains(aPackageNode1));
+		assertTrue(aDiagram.contains(inner));
+		assertTrue(aDiagram.contains(aClassNode1));
+		assertTrue(aDiagram.contains(aClassNode2));
+		assertFalse(aDiagram.contains(aClassNode3));
+		
+		aEdge1.connect(aClassNode1, aClassNode2, aDiagram);
+		assertFalse(aDiagram.contains(aEdge1));
+		aDiagram.addEdge(aEdge1);
+		assertTrue(aDiagram.contains(aEdge1));
+		aDiagram.removeEdge(aEdge1);
+		assertFalse(aDiagram.contains(aEdge1));
+		
+		inner.removeChild(aClassNode1);
+		assertFalse(aDiagram.contains(aClassNode1));
+		aPackageNode1.addChild(aClassNode1);
+		assertTrue(aDiagram.contains(aClassNode1));
+		aDiagram.removeRootNode(aPackageNode1);
+		assertFalse(aDiagram.contains(inner));
+		assertFalse(aDiagram.contains(aClassNode1));
+		assertTrue(aDiagram.contains(aClassNode2));
+	}
+
+	@Test
+	public void testAddRemoveElements()
+	{
+		aDiagram.addRootNode(aClassNode3);
+		aEdge3.connect(aClassNode3, aClassNode3, aDiagram);
+		aDiagram.addEdge(aEdge3);
+		aPackageNode1.addChild(aClassNode2);
+		aEdge1.connect(aClassNode1, aClassNode2, aDiagram);
+		aEdge2.connect(aClassNode2, aClassNode3, aDiagram);
+		int version = aDiagram.getVersion();
+		aDiagram.addElements(List.of(aClassNode1, aPackageNode1), List.of(aEdge1, aEdge2));
+		assertEquals(version + 1, aDiagram.getVersion());
+		assertEquals(List.of(aClassNode3, aClassNode1, aPackageNode1), aDiagram.rootNodes());
+		assertEquals(List.of(aEdge3, aEdge1, aEdge2), aDiagram.edges());
+		assertTrue(aDiagram.contains(aClassNode2));
+		assertSame(aDiagram, aClassNode2.getDiagram().get());
+		assertTrue(aDiagramAccessor.hasConsistentEdgeIndex());
+		
+		version = aDiagram.getVersion();
+		aDiagram.removeElements(List.of(aClassNode1, aPackageNode1), List.of(aEdge1, aEdge2));
+		assertEquals(version + 1, aDiagram.getVersion());
+		assertEquals(List.of(aClassNode3), aDiagram.rootNodes());
+		assertEquals(List.of(aEdge3), aDiagram.edges());
+		assertFalse(aDiagram.contains(aClassNode2));
+		assertFalse(aClassNode2.getDiagram().isPresent());
+		assertTrue(aDiagramAccessor.hasConsistentEdgeIndex());
+	}
+	
+	@Test
+	public void testVersion_DetachedEdgeChanges()
+	{
+		aDiagram.addRootNode(aClassNode1);
+		aDiagram.addRootNode(aClassNode2);
+		int version = aDiagram.getVersion();
+		aEdge1.connect(aClassNode1, aClassNode2, aDiagram);
+		aEdge1.properties().get("middleLabel").set("label");
+		DependencyEdge copy = (DependencyEdge) aEdge1.clone();
+		copy.connect(aClassNode1, aClassNode2, aDiagram);
+		assertEquals(version, aDiagram.getVersion());
+		
+		aDiagram.addEdge(aEdge1);
+		version = aDiagram.getVersion();
+		aEdge1.properties().get("middleLabel").set("other");
+		assertEquals(version + 1, aDiagram.getVersion());
+		assertEquals(List.of(aEdge1), aDiagram.getChangesSince(version).get());
+	}
+	
+	@Test
+	public void testDuplicate()
+	{
+		aClassNode1.translate(10, 20);
+		aPackageNode1.addChild(aClassNode3);
+		aDiagram.addRootNode(aClassNode1);
+		aDiagram.addRootNode(aPackageNode1);
+		aDiagramAccessor.connectAndAdd(aEdge1, aClassNode3, aClassNode1);
+		aDiagramAccessor.connectAndAdd(aEdge2, aClassNode1, aClassNode1);
+		
+		Diagram copy = aDiagram.duplicate();
+		int version = aDiagram.getVersion();
+		DiagramAccessor copyAccessor = new DiagramAccessor(copy);
+		assertSame(ClassDiagram.class, copy.getClass());
+		assertEquals(2, copyAccessor.getRootNodes().size());
+		assertEquals(2, copyAccessor.getEdges().size());
+		ClassNode node1 = (ClassNode) copyAccessor.getRootNodes().get(0);
+		PackageNode package1 = (PackageNode) copyAccessor.getRootNodes().get(1);
+		ClassNode node3 = (ClassNode) package1.getChildren().get(0);
+		assertNotSame(aClassNode1, node1);
+		assertNotSame(aPackageNode1, package1);
+		assertNotSame(aClassNode3, node3);
+		assertEquals(aClassNode1.position(), node1.position());
+		assertSame(package1, node3.getParent());
+		Edge edge1 = copyAccessor.getEdges().get(0);
+		Edge edge2 = copyAccessor.getEdges().get(1);
+		assertSame(node3, edge1.getStart());
+		assertSame(node1, edge1.getEnd());
+		assertSame(node1, edge2.getStart());
+		assertSame(copy, edge1.getDiagram());
+		assertSame(copy, node3.getDiagram().get());
+		assertTrue(copyAccessor.hasConsistentEdgeIndex());
+		
+		// Changing the copy does not change the original
+		node1.translate(5, 5);
+		node3.translate(5, 5);
+		edge1.properties().get("middleLabel").set("label");
+		assertEquals(version, aDiagram.getVersion());
+		assertEquals(new Point(10, 20), aClassNode1.position());
+		assertFalse(aDiagram.contains(node3));
+	}
 }
@@ -214,4 +214,34 @@ public class TestControlFlow
 		assertSame(aCall3, aFlow.getPreviousCallee(aCall2));
 		assertSame(aCall2, aFlow.getPreviousCallee(aCall6));
 	}
+	
+	@Test
+	public void testGetNestingDepth()
+	{
+		assertEquals(0, aFlow.getNestingDepth(aCall1));
+		assertEquals(1, aFlow.getNestingDepth(aCall2));
+		assertEquals(0, aFlow.getNestingDepth(aCall3));
+		assertEquals(0, aFlow.getNestingDepth(aCall4));
+		assertEquals(0, aFlow.getNestingDepth(aCall5));
+		assertEquals(0, aFlow.getNestingDepth(aCall6));
+	}
+	
+	@Test
+	public void testQueriesAfterEdgeRemovalAndInsertion()
+	{
+		int index = aDiagram.indexOf(aCallEdge2);
+		aDiagram.removeEdge(aCallEdge2);
+		assertFalse(aFlow.getCaller(aCall2).isPresent());
+		assertEquals(0, aFlow.getNestingDepth(aCall2));
+		List<Node> callees = aFlow.getCallees(aCall1);
+		assertEquals(2, callees.size());
+		assertSame(aCall3, callees.get(0));
+		assertSame(aCall6, callees.get(1));
+		assertSame(aCall3, aFlow.getPreviousCallee(aCall6));
+		
+		aDiagram.addEdge(index, aCallEdge2);
+		assertSame(aCall1, aFlow.getCaller(aCall2).get());
+		assertEquals(1, aFlow.getNestingDepth(aCall2));
+		assertSame(aCall2, aFlow.getPreviousCallee(aCall6));
+	}
 }
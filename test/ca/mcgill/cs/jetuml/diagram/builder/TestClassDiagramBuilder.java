@@ -392,6 +392,30 @@ public class TestClassDiagramBuilder
 		assertEquals(0, numberOfEdges());
 	}
 	
+	@Test
+	public void testCreateAddElementsOperationFromOtherDiagram()
+	{
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(node1, node2, new ClassDiagram());
+		
+		DiagramOperation operation = aBuilder.createAddElementsOperation(Arrays.asList(node1, node2, edge));
+		operation.execute();
+		assertSame(aDiagram, edge.getDiagram());
+		assertTrue(aDiagram.contains(edge));
+		assertSame(edge, aDiagram.edgesConnectedTo(node1).iterator().next());
+		
+		operation.undo();
+		assertFalse(aDiagram.contains(node1));
+		assertFalse(aDiagram.contains(edge));
+		operation.execute();
+		assertEquals(2, numberOfRootNodes());
+		assertEquals(1, numberOfEdges());
+		assertSame(node1, getRootNode(0));
+		assertSame(node2, getRootNode(1));
+	}
+	
 	@Test
 	public void testCreateRemoveElementsOperationEmpty()
 	{
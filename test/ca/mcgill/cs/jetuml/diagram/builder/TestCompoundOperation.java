@@ -136,4 +136,13 @@ public class TestCompoundOperation
 		aOperation.add(new SimpleOperation(()-> aBuilder.append("A"), ()->aBuilder.append("1")));
 		assertFalse(aOperation.isEmpty());
 	}
+
+	@Test
+	public void testGetWeight()
+	{
+		assertEquals(0, aOperation.getWeight());
+		aOperation.add(new SimpleOperation(()-> {}, ()-> {}));
+		aOperation.add(new SimpleOperation(()-> {}, ()-> {}, 5));
+		assertEquals(6, aOperation.getWeight());
+	}
 }
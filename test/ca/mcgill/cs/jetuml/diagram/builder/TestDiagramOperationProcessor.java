@@ -25,14 +25,27 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.Property;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+
 public class TestDiagramOperationProcessor
 {
 	private StringBuilder aBuilder;
 	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor();
 	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
 	@BeforeEach
 	public void setUp()
 	{
@@ -280,4 +293,165 @@ public class TestDiagramOperationProcessor
 		aProcessor.redoLastUndoneOperation();
 		assertFalse(aProcessor.hasUnsavedOperations());
 	}
+
+	@Test
+	public void testDepthLimit()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(2, 100);
+		processor.executeNewOperation(createOperation('A'));
+		processor.executeNewOperation(createOperation('B'));
+		processor.executeNewOperation(createOperation('C'));
+		assertEquals(2, processor.getNumberOfOperations());
+		assertEquals(2, processor.getWeight());
+		processor.undoLastExecutedOperation();
+		processor.undoLastExecutedOperation();
+		assertFalse(processor.canUndo());
+		assertEquals("A", aBuilder.toString());
+	}
+	
+	@Test
+	public void testWeightLimit()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(100, 5);
+		processor.executeNewOperation(createOperation('A'));
+		processor.executeNewOperation(new SimpleOperation(()-> aBuilder.append("BB"), 
+				()-> aBuilder.setLength(aBuilder.length()-2), 3));
+		assertEquals(4, processor.getWeight());
+		processor.executeNewOperation(createOperation('C'));
+		processor.executeNewOperation(createOperation('D'));
+		assertEquals(3, processor.getNumberOfOperations());
+		assertEquals(5, processor.getWeight());
+		
+		// The last operation is kept even if it exceeds the budget
+		processor.executeNewOperation(new SimpleOperation(()-> {}, ()-> {}, 10));
+		assertEquals(1, processor.getNumberOfOperations());
+		assertEquals(10, processor.getWeight());
+		assertTrue(processor.canUndo());
+	}
+	
+	@Test
+	public void testUnsavedAfterEvictingInitialSavedState()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(2, 100);
+		processor.diagramSaved();
+		processor.executeNewOperation(createOperation('A'));
+		processor.executeNewOperation(createOperation('B'));
+		processor.executeNewOperation(createOperation('C'));
+		processor.undoLastExecutedOperation();
+		processor.undoLastExecutedOperation();
+		assertFalse(processor.canUndo());
+		assertTrue(processor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testUnsavedAfterEvictingSavedOperation()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(2, 100);
+		processor.executeNewOperation(createOperation('A'));
+		processor.diagramSaved();
+		processor.executeNewOperation(createOperation('B'));
+		processor.executeNewOperation(createOperation('C'));
+		assertTrue(processor.hasUnsavedOperations());
+		processor.undoLastExecutedOperation();
+		processor.undoLastExecutedOperation();
+		assertEquals("A", aBuilder.toString());
+		assertFalse(processor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testUnsavedAfterEvictingUndoneSavedOperation()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(1, 100);
+		processor.executeNewOperation(createOperation('A'));
+		processor.executeNewOperation(createOperation('B'));
+		processor.diagramSaved();
+		processor.undoLastExecutedOperation();
+		assertFalse(processor.canUndo());
+		assertTrue(processor.canRedo());
+		processor.executeNewOperation(createOperation('C'));
+		processor.undoLastExecutedOperation();
+		assertEquals(1, processor.getNumberOfOperations());
+		assertTrue(processor.hasUnsavedOperations());
+		processor.redoLastUndoneOperation();
+		assertTrue(processor.hasUnsavedOperations());
+	}
+
+	/*
+	 * Moves pNode and returns the corresponding operation, as done by the MoveTracker.
+	 */
+	private CompoundOperation move(Node pNode, int pX, int pY)
+	{
+		pNode.translate(pX, pY);
+		CompoundOperation operation = new CompoundOperation();
+		operation.add(new MoveNodeOperation(pNode, pX, pY));
+		return operation;
+	}
+	
+	@Test
+	public void testMergeMoves()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(100, 100, 60000);
+		ClassNode node = new ClassNode();
+		processor.storeAlreadyExecutedOperation(move(node, 10, 0));
+		processor.storeAlreadyExecutedOperation(move(node, 0, 20));
+		processor.storeAlreadyExecutedOperation(move(node, 5, 5));
+		assertEquals(1, processor.getNumberOfOperations());
+		assertEquals(1, processor.getWeight());
+		processor.undoLastExecutedOperation();
+		assertEquals(new Point(0, 0), node.position());
+		processor.redoLastUndoneOperation();
+		assertEquals(new Point(15, 25), node.position());
+	}
+	
+	@Test
+	public void testMergeMovesDifferentNodes()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(100, 100, 60000);
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		processor.storeAlreadyExecutedOperation(move(node1, 10, 0));
+		processor.storeAlreadyExecutedOperation(move(node2, 10, 0));
+		assertEquals(2, processor.getNumberOfOperations());
+	}
+	
+	@Test
+	public void testMergePropertyChanges()
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(100, 100, 60000);
+		ClassNode node = new ClassNode();
+		Property property = node.properties().get("name");
+		for( String name : new String[] {"A", "AB", "ABC"} )
+		{
+			CompoundOperation operation = new CompoundOperation();
+			operation.add(new PropertyChangeOperation(property, property.get(), name));
+			property.set(name);
+			processor.storeAlreadyExecutedOperation(operation);
+		}
+		assertEquals(1, processor.getNumberOfOperations());
+		processor.undoLastExecutedOperation();
+		assertEquals("", property.get());
+		processor.redoLastUndoneOperation();
+		assertEquals("ABC", property.get());
+	}
+	
+	@Test
+	public void testNoMerge()
+	{
+		ClassNode node = new ClassNode();
+		DiagramOperationProcessor processor = new DiagramOperationProcessor(100, 100, 0);
+		processor.storeAlreadyExecutedOperation(move(node, 10, 0));
+		processor.storeAlreadyExecutedOperation(move(node, 10, 0));
+		assertEquals(2, processor.getNumberOfOperations());
+		
+		processor = new DiagramOperationProcessor(100, 100, 60000);
+		processor.storeAlreadyExecutedOperation(move(node, 10, 0));
+		processor.diagramSaved();
+		processor.storeAlreadyExecutedOperation(move(node, 10, 0));
+		assertEquals(2, processor.getNumberOfOperations());
+		assertTrue(processor.hasUnsavedOperations());
+		processor.undoLastExecutedOperation();
+		assertFalse(processor.hasUnsavedOperations());
+		processor.storeAlreadyExecutedOperation(move(node, 10, 0));
+		assertEquals(3, processor.getNumberOfOperations());
+	}
 }
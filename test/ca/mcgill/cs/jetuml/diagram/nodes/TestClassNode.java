@@ -28,6 +28,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import ca.mcgill.cs.jetuml.geom.Point;
+
 public class TestClassNode
 {
 	private ClassNode aNode1;
@@ -92,4 +94,24 @@ public class TestClassNode
 		assertEquals("Foo", ((PackageNode)clone.getParent()).getName());
 		assertSame(package1, clone.getParent());
 	}
+	
+	@Test
+	public void testClone_PositionNotShared()
+	{
+		aNode1.moveTo(new Point(10, 20));
+		ClassNode clone = (ClassNode) aNode1.clone();
+		clone.translate(5, 5);
+		assertEquals(new Point(10, 20), aNode1.position());
+		assertEquals(new Point(15, 25), clone.position());
+	}
+	
+	@Test
+	public void testMoveTo_PositionNotShared()
+	{
+		Point point = new Point(10, 20);
+		aNode1.moveTo(point);
+		aNode1.translate(5, 5);
+		assertEquals(new Point(10, 20), point);
+		assertEquals(new Point(15, 25), aNode1.position());
+	}
 }
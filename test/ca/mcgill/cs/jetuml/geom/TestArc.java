@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TestArc
+{
+	private static final Arc QUARTER = new Arc(100, 100, 30, 0, 90);
+	private static final Arc THREE_QUARTERS = new Arc(100, 100, 30, 270, 270);
+	
+	@Test
+	public void testWithRadius()
+	{
+		Arc arc = QUARTER.withRadius(40);
+		assertEquals(40, arc.getRadius(), 0);
+		assertEquals(100, arc.getCenterX(), 0);
+		assertEquals(100, arc.getCenterY(), 0);
+		assertEquals(0, arc.getStartAngle(), 0);
+		assertEquals(90, arc.getLength(), 0);
+		assertEquals(30, QUARTER.getRadius(), 0);
+	}
+	
+	@Test
+	public void testContains()
+	{
+		assertFalse(QUARTER.contains(new Point(100,100)));
+		assertTrue(QUARTER.contains(new Point(118,82)));
+		assertFalse(QUARTER.contains(new Point(85,115)));
+		assertFalse(QUARTER.contains(new Point(135,70)));
+		assertTrue(THREE_QUARTERS.contains(new Point(100,100)));
+		assertTrue(THREE_QUARTERS.contains(new Point(121,121)));
+		assertTrue(THREE_QUARTERS.contains(new Point(80,80)));
+		assertFalse(THREE_QUARTERS.contains(new Point(79,121)));
+		assertFalse(THREE_QUARTERS.contains(new Point(131,100)));
+	}
+	
+	@Test
+	public void testGetBounds()
+	{
+		assertEquals(new Rectangle(100,70,30,30), QUARTER.getBounds());
+		assertEquals(new Rectangle(70,70,60,60), THREE_QUARTERS.getBounds());
+		assertEquals(new Rectangle(70,70,60,60), new Arc(100, 100, 30, -90, 360).getBounds());
+	}
+	
+	@Test
+	public void testToPolyline()
+	{
+		Polyline polyline = QUARTER.toPolyline();
+		assertEquals(130, polyline.getX(0), 0.001);
+		assertEquals(100, polyline.getY(0), 0.001);
+		assertEquals(100, polyline.getX(polyline.size()-1), 0.001);
+		assertEquals(70, polyline.getY(polyline.size()-1), 0.001);
+		assertEquals(0, polyline.distance(new Point(121,79)), 0.5);
+	}
+}
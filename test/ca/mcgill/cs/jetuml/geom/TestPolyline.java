@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TestPolyline
+{
+	private static final Polyline HORIZONTAL = Polyline.of(new Point(60,20), new Point(100,20));
+	private static final Polyline ANGLE = Polyline.of(new Point(0,0), new Point(100,0), new Point(100,100));
+	
+	@Test
+	public void testSize()
+	{
+		assertEquals(2, HORIZONTAL.size());
+		assertEquals(3, ANGLE.size());
+		assertEquals(100, ANGLE.getX(1), 0);
+		assertEquals(100, ANGLE.getY(2), 0);
+	}
+	
+	@Test
+	public void testDistance()
+	{
+		assertEquals(0, HORIZONTAL.distance(new Point(80,20)), 0);
+		assertEquals(3, HORIZONTAL.distance(new Point(80,23)), 0);
+		assertEquals(5, HORIZONTAL.distance(new Point(104,23)), 0);
+		assertEquals(10, HORIZONTAL.distance(new Point(50,20)), 0);
+		assertEquals(0, ANGLE.distance(new Point(100,50)), 0);
+		assertEquals(5, ANGLE.distance(new Point(95,50)), 0);
+		assertEquals(5, Polyline.of(new Point(0,0)).distance(new Point(3,4)), 0);
+	}
+	
+	@Test
+	public void testBuilder()
+	{
+		Polyline polyline = new Polyline.Builder(0,0).lineTo(10,0).quadTo(20,0,20,10).build();
+		assertEquals(18, polyline.size());
+		assertEquals(20, polyline.getX(polyline.size()-1), 0);
+		assertEquals(10, polyline.getY(polyline.size()-1), 0);
+		assertEquals(0, polyline.distance(new Point(15,1)), 0.5);
+		assertEquals(new Rectangle(-1,-1,22,12), polyline.getBounds());
+	}
+	
+	@Test
+	public void testGetBounds()
+	{
+		assertEquals(new Rectangle(59,19,42,2), HORIZONTAL.getBounds());
+		assertEquals(new Rectangle(9,9,2,2), Polyline.of(new Point(10,10)).getBounds());
+		assertEquals(new Rectangle(9,9,2,2), Polyline.of(new Point(10,10), new Point(10,10)).getBounds());
+		assertEquals(new Rectangle(-1,-1,102,102), ANGLE.getBounds());
+	}
+	
+	@Test
+	public void testGetBounds_Miter()
+	{
+		// The sharp turn exceeds the miter limit, the join is beveled
+		assertEquals(new Rectangle(-1,-1,101,12), 
+				Polyline.of(new Point(0,0), new Point(100,0), new Point(0,10)).getBounds());
+	}
+	
+	@Test
+	public void testGetBounds_Multiple()
+	{
+		assertEquals(new Rectangle(-1,-1,102,102), Polyline.getBounds(Arrays.asList(HORIZONTAL, ANGLE)));
+		assertEquals(new Rectangle(59,19,42,42), Polyline.getBounds(Arrays.asList(HORIZONTAL, 
+				Polyline.of(new Point(60,60), new Point(60,60)))));
+	}
+}
@@ -114,4 +114,18 @@ public class TestRectangle
 		rectangle = rectangle.add( new Rectangle(0,0,20,20));
 		assertEquals( new Rectangle(0,0,20,20), rectangle);
 	}
+	
+	@Test
+	public void testIntersects()
+	{
+		Rectangle rectangle = new Rectangle(10,10,20,20);
+		assertTrue(rectangle.intersects(rectangle));
+		assertTrue(rectangle.intersects(new Rectangle(0,0,10,10)));
+		assertTrue(rectangle.intersects(new Rectangle(15,15,5,5)));
+		assertTrue(rectangle.intersects(new Rectangle(0,0,100,100)));
+		assertTrue(rectangle.intersects(new Rectangle(25,0,100,15)));
+		assertFalse(rectangle.intersects(new Rectangle(0,0,9,100)));
+		assertFalse(rectangle.intersects(new Rectangle(31,0,10,100)));
+		assertFalse(rectangle.intersects(new Rectangle(0,31,100,10)));
+	}
 }
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
+/*
+ * Tests the computation of the areas between two successive positions 
+ * of the lasso, in which the elements can change selection state while 
+ * the lasso is dragged.
+ */
+public class TestDiagramCanvasController
+{
+	private final Method aDifferenceMethod;
+	
+	public TestDiagramCanvasController() throws ReflectiveOperationException
+	{
+		aDifferenceMethod = DiagramCanvasController.class.getDeclaredMethod("difference", Rectangle.class, Rectangle.class);
+		aDifferenceMethod.setAccessible(true);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<Rectangle> difference(Rectangle pRectangle, Rectangle pRemoved)
+	{
+		try
+		{
+			return (List<Rectangle>) aDifferenceMethod.invoke(null, pRectangle, pRemoved);
+		}
+		catch( ReflectiveOperationException e )
+		{
+			fail("Reflection problem: " + e.getMessage());
+			return null;
+		}
+	}
+	
+	/*
+	 * Checks that the areas computed when the lasso moves from pPrevious to pNext
+	 * cover every point whose membership in the lasso changes.
+	 */
+	private void assertChangedAreasCover(Rectangle pPrevious, Rectangle pNext)
+	{
+		List<Rectangle> changedAreas = new ArrayList<>(difference(pPrevious, pNext));
+		changedAreas.addAll(difference(pNext, pPrevious));
+		Rectangle bounds = pPrevious.add(pNext);
+		for( int x = bounds.getX(); x <= bounds.getMaxX(); x++ )
+		{
+			for( int y = bounds.getY(); y <= bounds.getMaxY(); y++ )
+			{
+				Point point = new Point(x, y);
+				if( pPrevious.contains(point) != pNext.contains(point) )
+				{
+					assertTrue(changedAreas.stream().anyMatch(area -> area.contains(point)), point.toString());
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testDifference_Overlapping()
+	{
+		Rectangle previous = new Rectangle(0, 0, 100, 100);
+		Rectangle next = new Rectangle(50, 50, 100, 100);
+		assertEquals(List.of(new Rectangle(0, 0, 50, 100), new Rectangle(0, 0, 100, 50)), 
+				difference(previous, next));
+		assertEquals(List.of(new Rectangle(100, 50, 50, 100), new Rectangle(50, 100, 100, 50)), 
+				difference(next, previous));
+		assertChangedAreasCover(previous, next);
+	}
+	
+	@Test
+	public void testDifference_Nested()
+	{
+		Rectangle outer = new Rectangle(0, 0, 100, 100);
+		Rectangle inner = new Rectangle(25, 25, 50, 50);
+		assertEquals(List.of(new Rectangle(0, 0, 25, 100), new Rectangle(75, 0, 25, 100), 
+				new Rectangle(0, 0, 100, 25), new Rectangle(0, 75, 100, 25)), 
+				difference(outer, inner));
+		assertEquals(List.of(), difference(inner, outer));
+		assertChangedAreasCover(outer, inner);
+		assertChangedAreasCover(inner, outer);
+	}
+	
+	@Test
+	public void testDifference_NonOverlapping()
+	{
+		Rectangle previous = new Rectangle(0, 0, 50, 50);
+		Rectangle next = new Rectangle(100, 100, 50, 50);
+		assertEquals(List.of(previous, previous), difference(previous, next));
+		assertEquals(List.of(next, next), difference(next, previous));
+		assertChangedAreasCover(previous, next);
+	}
+	
+	@Test
+	public void testDifference_IdenticalEdges()
+	{
+		Rectangle previous = new Rectangle(0, 0, 100, 100);
+		Rectangle next = new Rectangle(0, 0, 100, 150);
+		assertEquals(List.of(), difference(previous, next));
+		assertEquals(List.of(new Rectangle(0, 100, 100, 50)), difference(next, previous));
+		assertChangedAreasCover(previous, next);
+		assertChangedAreasCover(next, previous);
+	}
+	
+	@Test
+	public void testDifference_Identical()
+	{
+		Rectangle lasso = new Rectangle(10, 20, 30, 40);
+		assertEquals(List.of(), difference(lasso, lasso));
+	}
+	
+	@Test
+	public void testDifference_Crossing()
+	{
+		Rectangle wide = new Rectangle(0, 40, 100, 20);
+		Rectangle tall = new Rectangle(40, 0, 20, 100);
+		assertEquals(List.of(new Rectangle(0, 40, 40, 20), new Rectangle(60, 40, 40, 20)), 
+				difference(wide, tall));
+		assertEquals(List.of(new Rectangle(40, 0, 20, 40), new Rectangle(40, 60, 20, 40)), 
+				difference(tall, wide));
+		assertChangedAreasCover(wide, tall);
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
+public class TestDragMoveSession
+{
+	private ClassDiagram aDiagram;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private DependencyEdge aEdge;
+	private SelectionModel aSelection;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		// aNode1: [x=10, y=10, w=100, h=60]
+		// aNode2: [x=200, y=10, w=100, h=60]
+		aDiagram = new ClassDiagram();
+		aNode1 = new ClassNode();
+		aNode1.moveTo(new Point(10, 10));
+		aNode2 = new ClassNode();
+		aNode2.moveTo(new Point(200, 10));
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aEdge = new DependencyEdge();
+		aEdge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addEdge(aEdge);
+		aSelection = new SelectionModel(() -> {});
+		aSelection.addToSelection(aNode1);
+		aSelection.addToSelection(aEdge);
+		aSelection.addToSelection(aNode2);
+	}
+	
+	@Test
+	public void testNodes()
+	{
+		Iterator<Node> nodes = new DragMoveSession(aSelection).getNodes().iterator();
+		assertEquals(aNode1, nodes.next());
+		assertEquals(aNode2, nodes.next());
+		assertFalse(nodes.hasNext());
+	}
+	
+	@Test
+	public void testMove()
+	{
+		DragMoveSession session = new DragMoveSession(aSelection);
+		assertEquals(new Rectangle(10, 10, 290, 60), session.getBounds());
+		assertTrue(session.move(15, 20, 1000, 1000));
+		assertEquals(new Point(25, 30), aNode1.position());
+		assertEquals(new Point(215, 30), aNode2.position());
+		assertEquals(new Rectangle(25, 30, 290, 60), session.getBounds());
+		assertEquals(aSelection.getSelectionBounds(), session.getBounds());
+	}
+	
+	@Test
+	public void testMoveClamped()
+	{
+		DragMoveSession session = new DragMoveSession(aSelection);
+		assertTrue(session.move(-50, -5, 1000, 1000));
+		assertEquals(new Rectangle(0, 5, 290, 60), session.getBounds());
+		assertTrue(session.move(5000, 5000, 400, 100));
+		assertEquals(new Rectangle(110, 40, 290, 60), session.getBounds());
+		assertFalse(session.move(5, 5, 400, 100));
+		assertEquals(new Point(110, 40), aNode1.position());
+		assertEquals(aSelection.getSelectionBounds(), session.getBounds());
+	}
+	
+	/*
+	 * The edge does not move with aNode2, so it is not part of the bounds
+	 * that must stay on the canvas.
+	 */
+	@Test
+	public void testMove_EdgeToUnselectedNode()
+	{
+		aSelection.clearSelection();
+		aSelection.addToSelection(aNode2);
+		aSelection.addToSelection(aEdge);
+		DragMoveSession session = new DragMoveSession(aSelection);
+		assertEquals(new Rectangle(200, 10, 100, 60), session.getBounds());
+		assertTrue(session.move(-150, 0, 1000, 1000));
+		assertEquals(new Point(50, 10), aNode2.position());
+		assertEquals(new Point(10, 10), aNode1.position());
+	}
+	
+	@Test
+	public void testLeadingCorner()
+	{
+		DragMoveSession session = new DragMoveSession(aSelection);
+		assertEquals(new Point(10, 10), session.getLeadingCorner(true, true));
+		assertEquals(new Point(300, 70), session.getLeadingCorner(false, false));
+		assertEquals(new Point(10, 70), session.getLeadingCorner(true, false));
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.DiagramViewer;
+
+public class TestImageExportTask
+{
+	private ClassDiagram aDiagram;
+	private File aFile;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup() throws IOException
+	{
+		aDiagram = new ClassDiagram();
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		node2.moveTo(new Point(1000, 600));
+		aDiagram.addRootNode(node1);
+		aDiagram.addRootNode(node2);
+		aFile = File.createTempFile("jetuml", ".png");
+	}
+	
+	@AfterEach
+	public void tearDown()
+	{
+		aFile.delete();
+	}
+	
+	@Test
+	public void testExport() throws Exception
+	{
+		ImageExportTask task = new ImageExportTask(aDiagram, aFile, "png");
+		// Runs the task on this thread, the tiles are rendered on the JavaFX thread
+		task.run();
+		task.get();
+		BufferedImage image = ImageIO.read(aFile);
+		Rectangle bounds = new DiagramViewer().getBounds(aDiagram);
+		assertEquals(bounds.getWidth() + 8, image.getWidth());
+		assertEquals(bounds.getHeight() + 8, image.getHeight());
+	}
+	
+	@Test
+	public void testExport_Svg() throws Exception
+	{
+		ImageExportTask task = new ImageExportTask(aDiagram, aFile, "svg");
+		task.run();
+		task.get();
+		String svg = new String(Files.readAllBytes(aFile.toPath()), StandardCharsets.UTF_8);
+		Rectangle bounds = new DiagramViewer().getBounds(aDiagram);
+		assertTrue(svg.contains(String.format("width=\"%d\" height=\"%d\"", bounds.getWidth() + 8, bounds.getHeight() + 8)));
+		assertTrue(svg.endsWith("</svg>\n"));
+		// The size depends on the number of elements, not on the area of the diagram
+		assertTrue(svg.length() < 4000);
+	}
+	
+	@Test
+	public void testExport_DiagramModified() throws Exception
+	{
+		Rectangle bounds = new DiagramViewer().getBounds(aDiagram);
+		ImageExportTask task = new ImageExportTask(aDiagram.duplicate(), aFile, "png");
+		// The task works on a copy of the diagram
+		aDiagram.rootNodes().iterator().next().translate(-500, -500);
+		task.run();
+		task.get();
+		BufferedImage image = ImageIO.read(aFile);
+		assertEquals(bounds.getWidth() + 8, image.getWidth());
+		assertEquals(bounds.getHeight() + 8, image.getHeight());
+	}
+	
+	@Test
+	public void testExport_Cancelled()
+	{
+		ImageExportTask task = new ImageExportTask(aDiagram, aFile, "png");
+		assertTrue(aFile.delete());
+		task.cancel();
+		task.run();
+		assertTrue(task.isCancelled());
+		assertFalse(aFile.exists());
+	}
+	
+	@Test
+	public void testExport_Failed()
+	{
+		ImageExportTask task = new ImageExportTask(aDiagram, aFile, "unknown");
+		task.run();
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> task.get());
+		assertTrue(exception.getCause() instanceof IOException);
+		assertFalse(aFile.exists());
+	}
+}
@@ -23,6 +23,7 @@ package ca.mcgill.cs.jetuml.gui;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -42,6 +43,7 @@ import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 
 public class TestSelectionModel
 {
@@ -549,4 +551,118 @@ public class TestSelectionModel
 		assertEquals(1, size());
 		assertEquals(aEdge1, aModel.getLastSelected().get());
 	}
+	
+	/*
+	 * Lasso selection over 5,000 nodes, repeated as during a mouse drag. 
+	 * Half of the nodes are children of selected packages, and must not
+	 * be selected. The bounds of each node are only computed once, since
+	 * the diagram does not change between activations.
+	 */
+	@Test
+	public void testActivateLassoManyNodes()
+	{
+		List<PackageNode> packages = new ArrayList<>();
+		for( int i = 0; i < 2500; i++ )
+		{
+			ClassNode node = new ClassNode();
+			node.translate((i % 50) * 120, (i / 50) * 80);
+			aClassDiagram.addRootNode(node);
+		}
+		for( int i = 0; i < 50; i++ )
+		{
+			PackageNode packageNode = new PackageNode();
+			for( int j = 0; j < 49; j++ )
+			{
+				ClassNode child = new ClassNode();
+				child.translate(j * 120, 5000 + i * 80);
+				packageNode.addChild(child);
+			}
+			aClassDiagram.addRootNode(packageNode);
+			packages.add(packageNode);
+		}
+		Rectangle lasso = new Rectangle(-1000, -1000, 20000, 20000);
+		NodeViewerRegistry.clearBoundsCache();
+		for( int i = 0; i < 20; i++ )
+		{
+			aModel.activateLasso(lasso, aClassDiagram);
+		}
+		assertEquals(5000, NodeViewerRegistry.getBoundsCacheMisses());
+		assertEquals(2550, size());
+		for( PackageNode packageNode : packages )
+		{
+			assertTrue(aModel.contains(packageNode));
+			assertFalse(aModel.contains(packageNode.getChildren().get(0)));
+		}
+		assertSame(packages.get(49), aModel.getLastSelected().get());
+	}
+	
+	private List<DiagramElement> allRootsAndEdges()
+	{
+		List<DiagramElement> result = new ArrayList<>();
+		aClassDiagram.rootNodes().forEach(result::add);
+		aClassDiagram.edges().forEach(result::add);
+		return result;
+	}
+	
+	@Test
+	public void testMoveLasso()
+	{
+		// aNode1: [x=0, y=0, w=100, h=60]
+		// aNode2: [x=200, y=0, w=100, h=60]
+		// aEdge1: [x=99, y=23, w=102, h=12]
+		aClassDiagram.addRootNode(aNode1);
+		aClassDiagram.addRootNode(aNode2);
+		aEdge1.connect(aNode1, aNode2, aClassDiagram);
+		aClassDiagram.addEdge(aEdge1);
+		aNode2.translate(200, 0);
+		List<Rectangle> observed = new ArrayList<>();
+		aModel = new SelectionModel(new SelectionObserver()
+		{
+			@Override
+			public void selectionModelChanged()
+			{
+				fail();
+			}
+			
+			@Override
+			public void selectionModelChanged(Rectangle pArea)
+			{
+				observed.add(pArea);
+			}
+		});
+		
+		aModel.activateLasso(new Rectangle(0,0,105,61), aClassDiagram);
+		assertContent(aNode1);
+		aModel.moveLasso(new Rectangle(0,0,330,70), allRootsAndEdges(), false);
+		assertContent(aNode1, aNode2, aEdge1);
+		assertEquals(new Rectangle(0,0,330,70), aModel.getLasso().get());
+		aModel.moveLasso(new Rectangle(5,0,330,70), allRootsAndEdges(), false);
+		assertContent(aNode2, aEdge1);
+		assertSame(aEdge1, aModel.getLastSelected().get());
+		aModel.moveLasso(new Rectangle(199,0,105,61), allRootsAndEdges(), true);
+		assertContent(aNode2, aEdge1);
+		aModel.moveLasso(new Rectangle(0,0,105,61), allRootsAndEdges(), true);
+		assertContent(aNode2, aEdge1, aNode1);
+		aModel.moveLasso(new Rectangle(0,0,105,61), Collections.emptyList(), false);
+		assertContent(aNode2, aEdge1, aNode1);
+		assertEquals(6, observed.size());
+		assertEquals(new Rectangle(0,0,335,70), observed.get(2));
+	}
+	
+	@Test
+	public void testMoveLassoParentAndChild()
+	{
+		aPackage1.addChild(aNode1);
+		aClassDiagram.addRootNode(aPackage1);
+		Rectangle packageBounds = NodeViewerRegistry.getBounds(aPackage1);
+		Rectangle nodeBounds = NodeViewerRegistry.getBounds(aNode1);
+		aModel.activateLasso(nodeBounds, aClassDiagram);
+		assertContent(aNode1);
+		aModel.moveLasso(packageBounds, allRootsAndEdges(), false);
+		assertContent(aPackage1);
+		aModel.moveLasso(nodeBounds, allRootsAndEdges(), false);
+		assertContent(aNode1);
+		aModel.moveLasso(new Rectangle(-1000, -1000, 10, 10), allRootsAndEdges(), false);
+		assertContent();
+	}
 }
@@ -26,6 +26,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
 public class TestViewportProjection
 {
 	@Test
@@ -52,6 +54,15 @@ public class TestViewportProjection
 		assertEquals(0.25, projection.getHeightRatio(), 0.0);
 	}
 	
+	@Test
+	public void testGetVisibleBounds()
+	{
+		ViewportProjection projection = new ViewportProjection(1000, 500, 1000, 500, 0, 0);
+		assertEquals(new Rectangle(0, 0, 1000, 500), projection.getVisibleBounds());
+		projection = new ViewportProjection(500, 200, 1000, 1000, 0.5, 1);
+		assertEquals(new Rectangle(250, 800, 500, 200), projection.getVisibleBounds());
+	}
+	
 	@Test
 	public void testGetHiddenLeft()
 	{
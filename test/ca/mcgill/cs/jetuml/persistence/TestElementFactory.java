@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PointNode;
+
+public class TestElementFactory
+{
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@Test
+	public void testCreateDiagram()
+	{
+		for( DiagramType type : DiagramType.values() )
+		{
+			Diagram diagram = type.newInstance();
+			assertEquals(diagram.getClass(), ElementFactory.createDiagram(diagram.getClass().getSimpleName()).getClass());
+		}
+	}
+	
+	@Test
+	public void testCreatePrototypes()
+	{
+		for( DiagramType type : DiagramType.values() )
+		{
+			Diagram diagram = type.newInstance();
+			for( Node prototype : diagram.getNodePrototypes() )
+			{
+				Node node = ElementFactory.createNode(prototype.getClass().getSimpleName());
+				assertEquals(prototype.getClass(), node.getClass());
+				assertNotSame(prototype, node);
+			}
+			for( Edge prototype : diagram.getEdgePrototypes() )
+			{
+				assertEquals(prototype.getClass(), ElementFactory.createEdge(prototype.getClass().getSimpleName()).getClass());
+			}
+		}
+	}
+	
+	@Test
+	public void testCreateNodesWithoutPrototype()
+	{
+		assertEquals(CallNode.class, ElementFactory.createNode("CallNode").getClass());
+		assertEquals(FieldNode.class, ElementFactory.createNode("FieldNode").getClass());
+		assertEquals(PointNode.class, ElementFactory.createNode("PointNode").getClass());
+	}
+	
+	@Test
+	public void testUnknownTypes()
+	{
+		assertThrows(DeserializationException.class, () -> ElementFactory.createDiagram("FooDiagram"));
+		assertThrows(DeserializationException.class, () -> ElementFactory.createNode("AbstractNode"));
+		assertThrows(DeserializationException.class, () -> ElementFactory.createNode("DependencyEdge"));
+		assertThrows(DeserializationException.class, () -> ElementFactory.createEdge("ClassNode"));
+	}
+}
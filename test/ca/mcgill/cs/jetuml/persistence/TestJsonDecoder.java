@@ -17,16 +17,28 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- *******************************************************************************/
+ *******************************************************************************/
 package ca.mcgill.cs.jetuml.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.ObjectDiagram;
+import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ObjectNode;
 
 public class TestJsonDecoder
 {
@@ -59,4 +71,56 @@ public class TestJsonDecoder
 		object.put("diagram", "StateDiagram");
 		assertThrows(DeserializationException.class, () -> JsonDecoder.decode(object));
 	}
+	
+	@Test
+	public void testStreaming_EmptyInput()
+	{
+		assertThrows(DeserializationException.class, () -> JsonDecoder.decode(new StringReader("{}")));
+		assertThrows(DeserializationException.class, () -> JsonDecoder.decode(new StringReader("")));
+		assertThrows(DeserializationException.class, () -> 
+			JsonDecoder.decode(new StringReader("{\"version\":\"1.2\",\"diagram\":\"StateDiagram\"}")));
+	}
+	
+	@Test
+	public void testStreaming_Malformed()
+	{
+		assertThrows(DeserializationException.class, () -> 
+			JsonDecoder.decode(new StringReader("{\"diagram\":\"StateDiagram\",\"nodes\":[{\"x\":0,\"y\":0,\"id\":0,\"type\":\"StateNode\"")));
+	}
+	
+	/*
+	 * The children of a node can be listed before the nodes, 
+	 * and the members of the diagram can be in any order.
+	 */
+	@Test
+	public void testStreaming_OutOfOrder() throws IOException
+	{
+		String[] encodings = {
+			"{\"diagram\":\"ObjectDiagram\",\"nodes\":[%s],\"edges\":[%s],\"version\":\"3.0\"}",
+			"{\"edges\":[%2$s],\"nodes\":[%1$s],\"diagram\":\"ObjectDiagram\"}",
+			"{\"nodes\":[%s],\"diagram\":\"ObjectDiagram\",\"edges\":[%s]}"};
+		String nodes = "{\"children\":[1],\"x\":10,\"name\":\"o1\",\"y\":20,\"id\":0,\"type\":\"ObjectNode\"}," +
+				"{\"x\":0,\"name\":\"f\",\"y\":0,\"id\":1,\"value\":\"\",\"type\":\"FieldNode\"}," + 
+				"{\"x\":200,\"name\":\"o2\",\"y\":20,\"id\":2,\"type\":\"ObjectNode\",\"children\":[]}";
+		String edges = "{\"start\":1,\"end\":2,\"type\":\"ObjectReferenceEdge\"}";
+		for( String encoding : encodings )
+		{
+			Diagram diagram = JsonDecoder.decode(new StringReader(String.format(encoding, nodes, edges)));
+			assertEquals(ObjectDiagram.class, diagram.getClass());
+			Iterator<Edge> edgeIterator = diagram.edges().iterator();
+			Edge edge = edgeIterator.next();
+			FieldNode field = (FieldNode) edge.getStart();
+			ObjectNode object = (ObjectNode) field.getParent();
+			assertEquals("o1", object.getName());
+			assertSame(field, object.getChildren().get(0));
+			assertEquals("o2", ((ObjectNode)edge.getEnd()).getName());
+			int roots = 0;
+			for( Node node : diagram.rootNodes() )
+			{
+				assertSame(diagram, node.getDiagram().get());
+				roots++;
+			}
+			assertEquals(2, roots);
+		}
+	}
 }
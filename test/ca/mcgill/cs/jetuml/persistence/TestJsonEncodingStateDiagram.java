@@ -28,6 +28,8 @@ import static ca.mcgill.cs.jetuml.persistence.PersistenceTestUtils.findRootNode;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.io.IOException;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
@@ -247,4 +249,18 @@ public class TestJsonEncodingStateDiagram
 		assertSame(edge2.getStart(), node1);
 		assertSame(edge2.getEnd(), node2);
 	}
+	
+	@Test
+	public void testEncodeStreamingGraph1() throws IOException
+	{
+		initiGraph1();
+		StringBuilder output = new StringBuilder();
+		JsonEncoder.encode(aGraph, output);
+		
+		JSONObject streamed = new JSONObject(output.toString());
+		JSONObject built = new JSONObject(JsonEncoder.encode(aGraph).toString());
+		assertEquals(built.toString(), streamed.toString());
+		assertEquals(4, streamed.getJSONArray("nodes").length());
+		assertEquals(3, streamed.getJSONArray("edges").length());
+	}
 }
@@ -21,6 +21,11 @@
 package ca.mcgill.cs.jetuml.viewers.edges;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +35,7 @@ import ca.mcgill.cs.jetuml.JavaFXLoader;
 import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
 import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
 import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
 
@@ -68,4 +74,50 @@ public class TestDependencyEdgeViewer
 		assertEquals(new Rectangle(99,23,102,12), EdgeViewerRegistry.getBounds(aEdge));
 
 	}
+	
+	@Test
+	public void testEdgeViewBounds_AfterMove()
+	{
+		assertEquals(new Rectangle(99,23,102,12), EdgeViewerRegistry.getBounds(aEdge));
+		aNode2.translate(0, 200);
+		Rectangle bounds = EdgeViewerRegistry.getBounds(aEdge);
+		assertTrue(bounds.getMaxY() > 200);
+		aNode2.translate(0, -200);
+		assertEquals(new Rectangle(99,23,102,12), EdgeViewerRegistry.getBounds(aEdge));
+	}
+	
+	@Test
+	public void testContains()
+	{
+		assertTrue(EdgeViewerRegistry.contains(aEdge, new Point(150,30)));
+		assertTrue(EdgeViewerRegistry.contains(aEdge, new Point(150,33)));
+		assertFalse(EdgeViewerRegistry.contains(aEdge, new Point(150,34)));
+		aNode2.translate(0, 200);
+		assertFalse(EdgeViewerRegistry.contains(aEdge, new Point(150,30)));
+	}
+	
+	@Test
+	public void testEdgeViewBounds_DiagramNotRetained()
+	{
+		WeakReference<ClassDiagram> reference = new WeakReference<>(measuredDiagram());
+		for( int i = 0; i < 50 && reference.get() != null; i++ )
+		{
+			System.gc();
+		}
+		assertNull(reference.get());
+	}
+	
+	private static ClassDiagram measuredDiagram()
+	{
+		ClassDiagram diagram = new ClassDiagram();
+		ClassNode start = new ClassNode();
+		ClassNode end = new ClassNode();
+		DependencyEdge edge = new DependencyEdge();
+		diagram.addRootNode(start);
+		diagram.addRootNode(end);
+		edge.connect(start, end, diagram);
+		diagram.addEdge(edge);
+		EdgeViewerRegistry.getBounds(edge);
+		return diagram;
+	}
 }
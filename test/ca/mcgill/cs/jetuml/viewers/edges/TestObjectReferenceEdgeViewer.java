@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2015-2019 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.edges;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ObjectDiagram;
+import ca.mcgill.cs.jetuml.diagram.edges.ObjectReferenceEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ObjectNode;
+import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.views.DrawingColor;
+import ca.mcgill.cs.jetuml.views.Java2DDrawingContext;
+
+public class TestObjectReferenceEdgeViewer
+{
+	private static final int WHITE = 0xFFFFFFFF;
+	// Distance from the end of the edge within which the arrow head is drawn
+	private static final int ARROW_HEAD = 25;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@Test
+	public void testDrawnLinesAreHit_SShaped()
+	{
+		assertDrawnLinesAreHit(new Point(0, 0), new Point(250, 150));
+	}
+	
+	@Test
+	public void testDrawnLinesAreHit_CShaped()
+	{
+		assertDrawnLinesAreHit(new Point(150, 0), new Point(50, 150));
+	}
+	
+	/*
+	 * Draws an edge between two object nodes at pStart and pEnd and checks that 
+	 * every pixel drawn for the line of the edge is found by hit testing.
+	 */
+	private static void assertDrawnLinesAreHit(Point pStart, Point pEnd)
+	{
+		ObjectDiagram diagram = new ObjectDiagram();
+		ObjectNode start = new ObjectNode();
+		start.moveTo(pStart);
+		ObjectNode end = new ObjectNode();
+		end.moveTo(pEnd);
+		diagram.addRootNode(start);
+		diagram.addRootNode(end);
+		ObjectReferenceEdge edge = new ObjectReferenceEdge();
+		edge.connect(start, end, diagram);
+		diagram.addEdge(edge);
+		
+		BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		Java2DDrawingContext context = new Java2DDrawingContext(graphics);
+		context.setFill(DrawingColor.WHITE);
+		context.fillRect(0, 0, image.getWidth(), image.getHeight());
+		EdgeViewerRegistry.draw(edge, context);
+		graphics.dispose();
+		
+		Line connectionPoints = EdgeViewerRegistry.getConnectionPoints(edge);
+		int drawn = 0;
+		for( int y = 0; y < image.getHeight(); y++ )
+		{
+			for( int x = 0; x < image.getWidth(); x++ )
+			{
+				Point point = new Point(x, y);
+				// Hit testing excludes the end points of the edge
+				if( image.getRGB(x, y) != WHITE && point.distance(connectionPoints.getPoint2()) > ARROW_HEAD && 
+						point.distance(connectionPoints.getPoint1()) > AbstractEdgeViewer.MAX_DISTANCE + 1 )
+				{
+					drawn++;
+					assertTrue(EdgeViewerRegistry.contains(edge, point), point.toString());
+				}
+			}
+		}
+		assertTrue(drawn > 0);
+	}
+}
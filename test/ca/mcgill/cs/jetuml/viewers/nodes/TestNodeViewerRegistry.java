@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2016, 2019 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.nodes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ObjectDiagram;
+import ca.mcgill.cs.jetuml.diagram.SequenceDiagram;
+import ca.mcgill.cs.jetuml.diagram.StateDiagram;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.FinalStateNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.InitialStateNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ObjectNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
+public class TestNodeViewerRegistry
+{
+	private StateDiagram aDiagram;
+	private FinalStateNode aFinal; 
+	private InitialStateNode aInitial;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new StateDiagram();
+		aFinal = new FinalStateNode();
+		aInitial = new InitialStateNode();
+		NodeViewerRegistry.clearBoundsCache();
+	}
+	
+	@Test
+	public void testGetBounds_DetachedNodeNotCached()
+	{
+		assertEquals(new Rectangle(0,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(new Rectangle(0,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_Cached()
+	{
+		aDiagram.addRootNode(aFinal);
+		assertEquals(new Rectangle(0,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(new Rectangle(0,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(new Rectangle(0,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(2, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(1, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_InvalidatedByTranslate()
+	{
+		aDiagram.addRootNode(aFinal);
+		NodeViewerRegistry.getBounds(aFinal);
+		aFinal.translate(10, 20);
+		assertEquals(new Rectangle(10,20,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(2, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_InvalidatedByMoveTo()
+	{
+		aDiagram.addRootNode(aFinal);
+		NodeViewerRegistry.getBounds(aFinal);
+		aFinal.moveTo(new Point(5, 5));
+		assertEquals(new Rectangle(5,5,20,20), NodeViewerRegistry.getBounds(aFinal));
+	}
+	
+	@Test
+	public void testGetBounds_InvalidatedByProperty()
+	{
+		aDiagram.addRootNode(aFinal);
+		NodeViewerRegistry.getBounds(aFinal);
+		aFinal.properties().get("x").set(30);
+		assertEquals(new Rectangle(30,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+	}
+	
+	@Test
+	public void testGetBounds_NotInvalidatedByOtherNode()
+	{
+		aDiagram.addRootNode(aFinal);
+		aDiagram.addRootNode(aInitial);
+		NodeViewerRegistry.getBounds(aFinal);
+		aInitial.translate(10, 10);
+		assertEquals(new Rectangle(0,0,20,20), NodeViewerRegistry.getBounds(aFinal));
+		assertEquals(1, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(1, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_InvalidatedByChild()
+	{
+		ObjectDiagram diagram = new ObjectDiagram();
+		ObjectNode object = new ObjectNode();
+		FieldNode field = new FieldNode();
+		object.addChild(field);
+		diagram.addRootNode(object);
+		NodeViewerRegistry.getBounds(object);
+		field.setName("aLongerFieldNameThanTheObjectName");
+		NodeViewerRegistry.getBounds(object);
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(2, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_InvalidatedBySibling()
+	{
+		ObjectDiagram diagram = new ObjectDiagram();
+		ObjectNode object = new ObjectNode();
+		FieldNode field1 = new FieldNode();
+		FieldNode field2 = new FieldNode();
+		object.addChild(field1);
+		object.addChild(field2);
+		diagram.addRootNode(object);
+		NodeViewerRegistry.getBounds(field2);
+		field1.setName("aLongerFieldNameThanTheObjectName");
+		NodeViewerRegistry.getBounds(field2);
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(2, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_SequenceDiagramInvalidatedByOtherNode()
+	{
+		SequenceDiagram diagram = new SequenceDiagram();
+		ImplicitParameterNode caller = new ImplicitParameterNode();
+		ImplicitParameterNode callee = new ImplicitParameterNode();
+		CallNode call = new CallNode();
+		caller.addChild(call);
+		diagram.addRootNode(caller);
+		diagram.addRootNode(callee);
+		NodeViewerRegistry.getBounds(call);
+		callee.translate(100, 0);
+		NodeViewerRegistry.getBounds(call);
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(2, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_InvalidatedByDetach()
+	{
+		aDiagram.addRootNode(aFinal);
+		NodeViewerRegistry.getBounds(aFinal);
+		aDiagram.removeRootNode(aFinal);
+		aFinal.translate(10, 10);
+		assertEquals(new Rectangle(10,10,20,20), NodeViewerRegistry.getBounds(aFinal));
+	}
+	
+	@Test
+	public void testGetBounds_MovedToOtherDiagram()
+	{
+		aDiagram.addRootNode(aFinal);
+		NodeViewerRegistry.getBounds(aFinal);
+		aDiagram.removeRootNode(aFinal);
+		StateDiagram other = new StateDiagram();
+		other.addRootNode(aFinal);
+		NodeViewerRegistry.getBounds(aFinal);
+		assertEquals(0, NodeViewerRegistry.getBoundsCacheHits());
+		assertEquals(2, NodeViewerRegistry.getBoundsCacheMisses());
+	}
+	
+	@Test
+	public void testGetBounds_DiagramNotRetained()
+	{
+		WeakReference<StateDiagram> reference = new WeakReference<>(measuredDiagram());
+		for( int i = 0; i < 50 && reference.get() != null; i++ )
+		{
+			System.gc();
+		}
+		assertNull(reference.get());
+	}
+	
+	private static StateDiagram measuredDiagram()
+	{
+		StateDiagram diagram = new StateDiagram();
+		FinalStateNode node = new FinalStateNode();
+		diagram.addRootNode(node);
+		NodeViewerRegistry.getBounds(node);
+		return diagram;
+	}
+}
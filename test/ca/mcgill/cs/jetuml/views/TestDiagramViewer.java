@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
+import ca.mcgill.cs.jetuml.diagram.edges.AssociationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
+
+public class TestDiagramViewer
+{
+	private final DiagramViewer aViewer = new DiagramViewer();
+	private ClassDiagram aDiagram;
+	private ClassNode aClassNode1;
+	private ClassNode aClassNode2;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new ClassDiagram();
+		aClassNode1 = new ClassNode();
+		aClassNode2 = new ClassNode();
+		aClassNode2.moveTo(new Point(500, 0));
+		aDiagram.addRootNode(aClassNode1);
+		aDiagram.addRootNode(aClassNode2);
+	}
+	
+	@Test
+	public void testFindNode_Empty()
+	{
+		assertFalse(aViewer.findNode(new ClassDiagram(), new Point(10, 10)).isPresent());
+	}
+	
+	@Test
+	public void testFindNode_Simple()
+	{
+		assertSame(aClassNode1, aViewer.findNode(aDiagram, new Point(10, 10)).get());
+		assertSame(aClassNode2, aViewer.findNode(aDiagram, new Point(510, 10)).get());
+		assertFalse(aViewer.findNode(aDiagram, new Point(300, 10)).isPresent());
+	}
+	
+	@Test
+	public void testFindNode_LastInList()
+	{
+		ClassNode node = new ClassNode();
+		node.moveTo(new Point(50, 30));
+		aDiagram.addRootNode(node);
+		assertSame(node, aViewer.findNode(aDiagram, new Point(60, 40)).get());
+		assertSame(aClassNode1, aViewer.findNode(aDiagram, new Point(10, 10)).get());
+	}
+	
+	@Test
+	public void testFindNode_DeepestChild()
+	{
+		PackageNode packageNode = new PackageNode();
+		ClassNode child = new ClassNode();
+		child.moveTo(new Point(1000, 1000));
+		packageNode.addChild(child);
+		aDiagram.addRootNode(packageNode);
+		assertSame(child, aViewer.findNode(aDiagram, new Point(1010, 1010)).get());
+	}
+	
+	@Test
+	public void testFindNode_AfterMove()
+	{
+		assertSame(aClassNode1, aViewer.findNode(aDiagram, new Point(10, 10)).get());
+		aClassNode1.moveTo(new Point(2000, 2000));
+		assertFalse(aViewer.findNode(aDiagram, new Point(10, 10)).isPresent());
+		assertSame(aClassNode1, aViewer.findNode(aDiagram, new Point(2010, 2010)).get());
+	}
+	
+	@Test
+	public void testFindNode_AfterRemoval()
+	{
+		assertSame(aClassNode2, aViewer.findNode(aDiagram, new Point(510, 10)).get());
+		aDiagram.removeRootNode(aClassNode2);
+		assertFalse(aViewer.findNode(aDiagram, new Point(510, 10)).isPresent());
+	}
+	
+	@Test
+	public void testFindNode_ManyNodes()
+	{
+		ClassDiagram diagram = new ClassDiagram();
+		ClassNode[][] nodes = new ClassNode[30][30];
+		for( int row = 0; row < nodes.length; row++ )
+		{
+			for( int column = 0; column < nodes[row].length; column++ )
+			{
+				nodes[row][column] = new ClassNode();
+				nodes[row][column].moveTo(new Point(column * 150, row * 100));
+				diagram.addRootNode(nodes[row][column]);
+			}
+		}
+		for( int row = 0; row < nodes.length; row++ )
+		{
+			for( int column = 0; column < nodes[row].length; column++ )
+			{
+				assertSame(nodes[row][column], aViewer.findNode(diagram, new Point(column * 150 + 5, row * 100 + 5)).get());
+			}
+		}
+		assertFalse(aViewer.findNode(diagram, new Point(120, 5)).isPresent());
+	}
+	
+	@Test
+	public void testFindEdge()
+	{
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aClassNode1, aClassNode2, aDiagram);
+		aDiagram.addEdge(edge);
+		assertSame(edge, aViewer.findEdge(aDiagram, new Point(300, 30)).get());
+		assertFalse(aViewer.findEdge(aDiagram, new Point(300, 300)).isPresent());
+		aClassNode2.moveTo(new Point(500, 1000));
+		assertFalse(aViewer.findEdge(aDiagram, new Point(300, 30)).isPresent());
+	}
+
+	@Test
+	public void testGetBounds_AfterChanges()
+	{
+		assertEquals(new DiagramViewer().getBounds(aDiagram), aViewer.getBounds(aDiagram));
+		aClassNode2.moveTo(new Point(1000, 300));
+		assertEquals(new DiagramViewer().getBounds(aDiagram), aViewer.getBounds(aDiagram));
+		aClassNode1.translate(10, 10);
+		assertEquals(new DiagramViewer().getBounds(aDiagram), aViewer.getBounds(aDiagram));
+		aClassNode2.moveTo(new Point(200, 0));
+		Rectangle bounds = aViewer.getBounds(aDiagram);
+		assertEquals(new DiagramViewer().getBounds(aDiagram), bounds);
+		assertEquals(300, bounds.getMaxX());
+		
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aClassNode1, aClassNode2, aDiagram);
+		aDiagram.addEdge(edge);
+		assertEquals(new DiagramViewer().getBounds(aDiagram), aViewer.getBounds(aDiagram));
+		aDiagram.removeRootNode(aClassNode2);
+		aDiagram.removeEdge(edge);
+		assertEquals(new DiagramViewer().getBounds(aDiagram), aViewer.getBounds(aDiagram));
+		aDiagram.removeRootNode(aClassNode1);
+		assertEquals(new Rectangle(0, 0, 0, 0), aViewer.getBounds(aDiagram));
+	}
+	
+	/*
+	 * A and C are both connected to the west side of B, where their edges 
+	 * are ordered by the position of A and C. Moving A below C changes the 
+	 * route of the edge between B and C.
+	 */
+	@Test
+	public void testGetAffectedBounds_EdgesOfNeighbours()
+	{
+		ClassNode nodeA = new ClassNode();
+		ClassNode nodeB = new ClassNode();
+		ClassNode nodeC = new ClassNode();
+		nodeB.moveTo(new Point(400, 100));
+		nodeC.moveTo(new Point(0, 150));
+		ClassDiagram diagram = new ClassDiagram();
+		diagram.addRootNode(nodeA);
+		diagram.addRootNode(nodeB);
+		diagram.addRootNode(nodeC);
+		AssociationEdge edgeAB = new AssociationEdge();
+		edgeAB.connect(nodeA, nodeB, diagram);
+		diagram.addEdge(edgeAB);
+		AssociationEdge edgeBC = new AssociationEdge();
+		edgeBC.connect(nodeB, nodeC, diagram);
+		diagram.addEdge(edgeBC);
+		
+		Rectangle oldBounds = EdgeViewerRegistry.getBounds(edgeBC);
+		Rectangle oldArea = aViewer.getAffectedBounds(diagram, Arrays.asList(nodeA)).get();
+		nodeA.moveTo(new Point(0, 300));
+		Rectangle newBounds = EdgeViewerRegistry.getBounds(edgeBC);
+		Rectangle newArea = aViewer.getAffectedBounds(diagram, Arrays.asList(nodeA)).get();
+		
+		assertNotEquals(oldBounds, newBounds);
+		assertTrue(oldArea.contains(oldBounds));
+		assertTrue(newArea.contains(newBounds));
+	}
+	
+	/*
+	 * A and C are both connected to the south side of B, where their edges
+	 * are ordered by the position of A and C. The long label at the start of the 
+	 * edge between B and C is the rightmost element of the diagram, and it moves 
+	 * when A is dragged past C.
+	 */
+	@Test
+	public void testGetBounds_DragAmongConnectedNodes()
+	{
+		ClassNode nodeA = new ClassNode();
+		ClassNode nodeB = new ClassNode();
+		ClassNode nodeC = new ClassNode();
+		nodeA.moveTo(new Point(150, 300));
+		nodeB.moveTo(new Point(200, 0));
+		nodeC.moveTo(new Point(250, 300));
+		ClassDiagram diagram = new ClassDiagram();
+		diagram.addRootNode(nodeA);
+		diagram.addRootNode(nodeB);
+		diagram.addRootNode(nodeC);
+		AssociationEdge edgeAB = new AssociationEdge();
+		edgeAB.connect(nodeA, nodeB, diagram);
+		diagram.addEdge(edgeAB);
+		AssociationEdge edgeBC = new AssociationEdge();
+		edgeBC.setStartLabel("a label that extends past all the nodes");
+		edgeBC.connect(nodeB, nodeC, diagram);
+		diagram.addEdge(edgeBC);
+		
+		Rectangle initialBounds = aViewer.getBounds(diagram);
+		for( int step = 0; step < 12; step++ )
+		{
+			nodeA.translate(10, 0);
+			assertEquals(new DiagramViewer().getBounds(diagram), aViewer.getBounds(diagram));
+		}
+		assertNotEquals(initialBounds.getMaxX(), aViewer.getBounds(diagram).getMaxX());
+	}
+	
+	@Test
+	public void testDiagramNotRetained()
+	{
+		WeakReference<ClassDiagram> reference = new WeakReference<>(indexedDiagram());
+		for( int i = 0; i < 50 && reference.get() != null; i++ )
+		{
+			System.gc();
+		}
+		assertNull(reference.get());
+	}
+	
+	private ClassDiagram indexedDiagram()
+	{
+		ClassDiagram diagram = new ClassDiagram();
+		ClassNode start = new ClassNode();
+		ClassNode end = new ClassNode();
+		end.moveTo(new Point(500, 0));
+		DependencyEdge edge = new DependencyEdge();
+		diagram.addRootNode(start);
+		diagram.addRootNode(end);
+		edge.connect(start, end, diagram);
+		diagram.addEdge(edge);
+		aViewer.findNode(diagram, new Point(10, 10));
+		aViewer.findEdge(diagram, new Point(300, 30));
+		aViewer.getBounds(diagram);
+		return diagram;
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+public class TestImageCreator
+{
+	private static final int NUMBER_OF_DIAGRAMS = 16;
+	private static final int NUMBER_OF_THREADS = 4;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private static Diagram createDiagram(int pIndex)
+	{
+		ClassDiagram diagram = new ClassDiagram();
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		node1.setName("Node" + pIndex);
+		node2.setName("Other\nnode");
+		node2.moveTo(new Point(100 + pIndex * 20, 150));
+		diagram.addRootNode(node1);
+		diagram.addRootNode(node2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(node1, node2, diagram);
+		diagram.addEdge(edge);
+		return diagram;
+	}
+	
+	private static int[] pixels(BufferedImage pImage)
+	{
+		return pImage.getRGB(0, 0, pImage.getWidth(), pImage.getHeight(), null, 0, pImage.getWidth());
+	}
+	
+	@Test
+	public void testCreateBufferedImage()
+	{
+		Diagram diagram = createDiagram(0);
+		BufferedImage image = ImageCreator.createBufferedImage(diagram);
+		Rectangle bounds = new DiagramViewer().getBounds(diagram);
+		assertEquals(bounds.getWidth() + 8, image.getWidth());
+		assertEquals(bounds.getHeight() + 8, image.getHeight());
+		assertEquals(0xFFFFFFFF, image.getRGB(0, 0));
+	}
+	
+	@Test
+	public void testCreateBufferedImage_Parallel() throws Exception
+	{
+		List<int[]> expected = new ArrayList<>();
+		for( int i = 0; i < NUMBER_OF_DIAGRAMS; i++ )
+		{
+			expected.add(pixels(ImageCreator.createBufferedImage(createDiagram(i))));
+		}
+		NodeViewerRegistry.clearBoundsCache();
+		ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+		try
+		{
+			List<Future<int[]>> results = new ArrayList<>();
+			for( int i = 0; i < NUMBER_OF_DIAGRAMS; i++ )
+			{
+				int index = i;
+				results.add(executor.submit(() -> pixels(ImageCreator.createBufferedImage(createDiagram(index)))));
+			}
+			for( int i = 0; i < NUMBER_OF_DIAGRAMS; i++ )
+			{
+				assertArrayEquals(expected.get(i), results.get(i).get());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
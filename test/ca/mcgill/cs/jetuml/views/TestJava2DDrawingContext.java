@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextAlign;
+import ca.mcgill.cs.jetuml.views.DrawingContext.TextBaseline;
+
+public class TestJava2DDrawingContext
+{
+	private static final int WHITE = 0xFFFFFFFF;
+	private static final int RED = 0xFFFF0000;
+	private static final DrawingColor RED_COLOR = DrawingColor.rgb(255, 0, 0);
+	
+	private BufferedImage aImage;
+	private Graphics2D aGraphics;
+	private Java2DDrawingContext aContext;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aImage = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+		aGraphics = aImage.createGraphics();
+		aContext = new Java2DDrawingContext(aGraphics);
+		aContext.setFill(DrawingColor.WHITE);
+		aContext.fillRect(0, 0, 40, 40);
+	}
+	
+	@AfterEach
+	public void tearDown()
+	{
+		aGraphics.dispose();
+	}
+	
+	@Test
+	public void testFillRect()
+	{
+		aContext.setFill(RED_COLOR);
+		aContext.fillRect(10, 10, 10, 10);
+		assertEquals(RED, aImage.getRGB(15, 15));
+		assertEquals(WHITE, aImage.getRGB(25, 25));
+	}
+	
+	@Test
+	public void testClearRect()
+	{
+		aContext.clearRect(0, 0, 10, 10);
+		assertEquals(0, aImage.getRGB(5, 5));
+		assertEquals(WHITE, aImage.getRGB(15, 15));
+	}
+	
+	@Test
+	public void testSaveRestore()
+	{
+		aContext.save();
+		aContext.translate(20, 20);
+		aContext.setFill(RED_COLOR);
+		aContext.fillRect(0, 0, 10, 10);
+		aContext.restore();
+		assertEquals(DrawingColor.WHITE, aContext.getFill());
+		aContext.fillRect(0, 0, 10, 10);
+		assertEquals(RED, aImage.getRGB(25, 25));
+		assertEquals(WHITE, aImage.getRGB(5, 5));
+	}
+	
+	@Test
+	public void testStrokeLine()
+	{
+		aContext.setStroke(RED_COLOR);
+		aContext.setLineWidth(2);
+		aContext.strokeLine(5, 20, 35, 20);
+		assertEquals(RED, aImage.getRGB(20, 20));
+		assertEquals(WHITE, aImage.getRGB(20, 30));
+	}
+	
+	@Test
+	public void testPath()
+	{
+		aContext.setFill(RED_COLOR);
+		aContext.beginPath();
+		aContext.moveTo(0, 0);
+		aContext.lineTo(40, 0);
+		aContext.lineTo(0, 40);
+		aContext.fill();
+		assertEquals(RED, aImage.getRGB(5, 5));
+		assertEquals(WHITE, aImage.getRGB(35, 35));
+	}
+	
+	@Test
+	public void testFillText()
+	{
+		aContext.setFill(DrawingColor.BLACK);
+		aContext.setFont(StringViewer.FONT);
+		aContext.setTextAlign(TextAlign.CENTER);
+		aContext.setTextBaseline(TextBaseline.CENTER);
+		aContext.fillText("X", 20, 20);
+		assertTrue(isDrawn(15, 15, 25, 25));
+		assertFalse(isDrawn(0, 0, 10, 10));
+	}
+	
+	private boolean isDrawn(int pX1, int pY1, int pX2, int pY2)
+	{
+		for( int x = pX1; x < pX2; x++ )
+		{
+			for( int y = pY1; y < pY2; y++ )
+			{
+				if( aImage.getRGB(x, y) != WHITE )
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
+public class TestSpatialIndex
+{
+	private final SpatialIndex<String> aIndex = new SpatialIndex<>();
+	
+	@Test
+	public void testCandidates_Empty()
+	{
+		assertEquals(Collections.emptyList(), aIndex.candidates(new Point(0, 0)));
+	}
+	
+	@Test
+	public void testCandidates_Bounded()
+	{
+		aIndex.add("A", Optional.of(new Rectangle(0, 0, 50, 50)));
+		aIndex.add("B", Optional.of(new Rectangle(200, 200, 50, 50)));
+		assertEquals(2, aIndex.size());
+		assertEquals(Arrays.asList("A"), aIndex.candidates(new Point(50, 50)));
+		assertEquals(Arrays.asList("B"), aIndex.candidates(new Point(210, 210)));
+		assertEquals(Collections.emptyList(), aIndex.candidates(new Point(100, 100)));
+	}
+	
+	@Test
+	public void testCandidates_NegativeCoordinates()
+	{
+		aIndex.add("A", Optional.of(new Rectangle(-300, -20, 50, 50)));
+		assertEquals(Arrays.asList("A"), aIndex.candidates(new Point(-280, -10)));
+		assertEquals(Collections.emptyList(), aIndex.candidates(new Point(-280, 40)));
+	}
+	
+	@Test
+	public void testCandidates_Order()
+	{
+		aIndex.add("A", Optional.of(new Rectangle(0, 0, 100, 100)));
+		aIndex.add("B", Optional.empty());
+		aIndex.add("C", Optional.of(new Rectangle(0, 0, 10000, 10000)));
+		aIndex.add("D", Optional.of(new Rectangle(50, 50, 100, 100)));
+		assertEquals(Arrays.asList("A", "B", "C", "D"), aIndex.candidates(new Point(60, 60)));
+		assertEquals(Arrays.asList("B", "C"), aIndex.candidates(new Point(5000, 5000)));
+		assertEquals(Arrays.asList("B"), aIndex.candidates(new Point(-5000, 5000)));
+	}
+	
+	@Test
+	public void testCandidatesArea()
+	{
+		aIndex.add("A", Optional.of(new Rectangle(0, 0, 300, 300)));
+		aIndex.add("B", Optional.empty());
+		aIndex.add("C", Optional.of(new Rectangle(1000, 1000, 50, 50)));
+		aIndex.add("D", Optional.of(new Rectangle(250, 250, 100, 100)));
+		assertEquals(Arrays.asList("A", "B", "D"), aIndex.candidates(new Rectangle(200, 200, 100, 100)));
+		assertEquals(Arrays.asList("B", "C"), aIndex.candidates(new Rectangle(900, 900, 120, 120)));
+		assertEquals(Arrays.asList("A", "B", "C", "D"), aIndex.candidates(new Rectangle(-5000, -5000, 10000, 10000)));
+		assertEquals(Arrays.asList("B"), aIndex.candidates(new Rectangle(2000, 0, 10, 10)));
+	}
+	
+	@Test
+	public void testUpdate_KeepsRank()
+	{
+		aIndex.add("A", Optional.of(new Rectangle(0, 0, 50, 50)));
+		aIndex.add("B", Optional.of(new Rectangle(500, 500, 50, 50)));
+		assertTrue(aIndex.update("A", Optional.of(new Rectangle(510, 510, 50, 50))));
+		assertEquals(Collections.emptyList(), aIndex.candidates(new Point(10, 10)));
+		assertEquals(Arrays.asList("A", "B"), aIndex.candidates(new Point(520, 520)));
+		assertTrue(aIndex.update("A", Optional.empty()));
+		assertEquals(Arrays.asList("A"), aIndex.candidates(new Point(10, 10)));
+		assertFalse(aIndex.update("C", Optional.empty()));
+		assertEquals(2, aIndex.size());
+	}
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+
+public class TestSvgDrawingContext
+{
+	private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + 
+			"<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"100\" height=\"50\" viewBox=\"0 0 100 50\" " + 
+			"stroke-linecap=\"square\" stroke-miterlimit=\"10\">\n";
+	
+	private StringWriter aWriter;
+	private SvgDrawingContext aContext;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aWriter = new StringWriter();
+		aContext = new SvgDrawingContext(aWriter, 100, 50);
+	}
+	
+	/*
+	 * Returns the elements written since the header.
+	 */
+	private String written()
+	{
+		return aWriter.toString().substring(HEADER.length());
+	}
+	
+	@Test
+	public void testDocument()
+	{
+		assertEquals(HEADER, aWriter.toString());
+		aContext.finish();
+		assertEquals(HEADER + "</svg>\n", aWriter.toString());
+	}
+	
+	@Test
+	public void testFillRect()
+	{
+		aContext.setFill(DrawingColor.WHITE);
+		aContext.fillRect(10.5, 20.5, 30, 40);
+		assertEquals("<rect x=\"10.5\" y=\"20.5\" width=\"30\" height=\"40\" fill=\"#ffffff\" stroke=\"none\"/>\n", written());
+	}
+	
+	@Test
+	public void testStrokeRect_Dashed()
+	{
+		aContext.setLineWidth(0.6);
+		aContext.setLineStyle(LineStyle.DOTTED);
+		aContext.strokeRect(0, 0, 10, 10);
+		assertEquals("<rect x=\"0\" y=\"0\" width=\"10\" height=\"10\" fill=\"none\" stroke=\"#000000\" " + 
+				"stroke-width=\"0.6\" stroke-dasharray=\"3 3\"/>\n", written());
+	}
+	
+	@Test
+	public void testTransparentFill()
+	{
+		aContext.setFill(DrawingColor.rgb(173, 193, 214, 0.75));
+		aContext.fillOval(0, 0, 10, 20);
+		aContext.setFill(DrawingColor.TRANSPARENT);
+		aContext.fillRoundRect(0, 0, 10, 20, 4, 6);
+		assertEquals("<ellipse cx=\"5\" cy=\"10\" rx=\"5\" ry=\"10\" fill=\"#adc1d6\" fill-opacity=\"0.75\" stroke=\"none\"/>\n" + 
+				"<rect x=\"0\" y=\"0\" width=\"10\" height=\"20\" rx=\"2\" ry=\"3\" fill=\"none\" stroke=\"none\"/>\n", written());
+	}
+	
+	@Test
+	public void testTransform()
+	{
+		aContext.translate(10, 20);
+		aContext.save();
+		aContext.scale(2, 2);
+		aContext.translate(1, 1);
+		aContext.strokeLine(0, 0, 5, 5);
+		aContext.restore();
+		aContext.strokeLine(0, 0, 5, 5);
+		assertEquals("<line x1=\"12\" y1=\"22\" x2=\"22\" y2=\"32\" fill=\"none\" stroke=\"#000000\" stroke-width=\"2\"/>\n" + 
+				"<line x1=\"10\" y1=\"20\" x2=\"15\" y2=\"25\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>\n", 
+				written());
+	}
+	
+	@Test
+	public void testSaveRestore()
+	{
+		aContext.setFill(DrawingColor.rgb(255, 0, 0));
+		aContext.setLineStyle(LineStyle.DOTTED);
+		aContext.save();
+		aContext.setFill(DrawingColor.rgb(0, 0, 255));
+		aContext.setLineStyle(LineStyle.SOLID);
+		assertEquals(LineStyle.SOLID, aContext.getLineStyle());
+		aContext.restore();
+		assertEquals(DrawingColor.rgb(255, 0, 0), aContext.getFill());
+		assertEquals(LineStyle.DOTTED, aContext.getLineStyle());
+	}
+	
+	@Test
+	public void testPath()
+	{
+		aContext.beginPath();
+		aContext.moveTo(0.5, 0.5);
+		aContext.lineTo(10.5, 0.5);
+		aContext.quadraticCurveTo(20, 0, 20, 10.25);
+		aContext.stroke();
+		aContext.beginPath();
+		aContext.fill();
+		assertEquals("<path d=\"M0.5 0.5 L10.5 0.5 Q20 0 20 10.25\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>\n", 
+				written());
+	}
+	
+	@Test
+	public void testStrokeArc()
+	{
+		aContext.strokeArc(0, 0, 20, 20, 0, 90);
+		assertEquals("<path d=\"M20 10 A10 10 0 0 0 10 0\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>\n", written());
+	}
+	
+	@Test
+	public void testFillText_Escaped()
+	{
+		aContext.fillText("<<a & b>>", 0, 0);
+		assertTrue(written().contains(">&lt;&lt;a &amp; b&gt;&gt;</tspan></text>\n"));
+	}
+	
+	@Test
+	public void testFillText_MultipleLines()
+	{
+		aContext.fillText("a\nb", 5, 0);
+		String text = written();
+		assertTrue(text.contains("<tspan x=\"5\" y=\"0\">a</tspan>"));
+		assertTrue(text.contains("\">b</tspan>"));
+	}
+	
+	@Test
+	public void testDropShadow()
+	{
+		aContext.setDropShadow(true);
+		aContext.fillRect(0, 0, 10, 10);
+		aContext.fillRect(0, 0, 10, 10);
+		aContext.setDropShadow(false);
+		aContext.fillRect(0, 0, 10, 10);
+		String[] elements = written().split("\n");
+		assertEquals(4, elements.length);
+		assertEquals("<filter id=\"shadow0\" x=\"-50%\" y=\"-50%\" width=\"200%\" height=\"200%\">" + 
+				"<feDropShadow dx=\"3\" dy=\"3\" stdDeviation=\"1\" flood-color=\"#d3d3d3\"/></filter>", elements[0]);
+		assertTrue(elements[1].endsWith(" filter=\"url(#shadow0)\"/>"));
+		assertTrue(elements[2].endsWith(" filter=\"url(#shadow0)\"/>"));
+		assertTrue(elements[3].endsWith("stroke=\"none\"/>"));
+	}
+}
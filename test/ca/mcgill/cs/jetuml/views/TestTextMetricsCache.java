@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.geom.Rectangle2D;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.views.StringViewer.Align;
+
+public class TestTextMetricsCache
+{
+	private TextMetricsCache aCache;
+	private int aMeasurements;
+	
+	@BeforeEach
+	public void setup()
+	{
+		aCache = new TextMetricsCache(2);
+		aMeasurements = 0;
+	}
+	
+	private Rectangle2D measure()
+	{
+		aMeasurements++;
+		return new Rectangle2D.Double(0, 0, aMeasurements, aMeasurements);
+	}
+	
+	@Test
+	public void testGetBounds_Hit()
+	{
+		Rectangle2D bounds = aCache.getBounds("Foo", false, false, Align.LEFT, this::measure);
+		assertSame(bounds, aCache.getBounds("Foo", false, false, Align.LEFT, this::measure));
+		assertEquals(1, aMeasurements);
+		assertEquals(1, aCache.getHits());
+		assertEquals(1, aCache.getMisses());
+		assertEquals(0.5, aCache.getHitRate());
+	}
+	
+	@Test
+	public void testGetBounds_DistinctDecorations()
+	{
+		aCache = new TextMetricsCache(10);
+		aCache.getBounds("Foo", false, false, Align.LEFT, this::measure);
+		aCache.getBounds("Foo", true, false, Align.LEFT, this::measure);
+		aCache.getBounds("Foo", false, true, Align.LEFT, this::measure);
+		aCache.getBounds("Foo", false, false, Align.CENTER, this::measure);
+		aCache.getBounds("Bar", false, false, Align.LEFT, this::measure);
+		assertEquals(5, aMeasurements);
+		assertEquals(0, aCache.getHits());
+		assertEquals(5, aCache.size());
+	}
+	
+	@Test
+	public void testGetBounds_EvictsLeastRecentlyUsed()
+	{
+		aCache.getBounds("A", false, false, Align.LEFT, this::measure);
+		aCache.getBounds("B", false, false, Align.LEFT, this::measure);
+		aCache.getBounds("A", false, false, Align.LEFT, this::measure);
+		aCache.getBounds("C", false, false, Align.LEFT, this::measure); // Evicts B
+		assertEquals(2, aCache.size());
+		aCache.getBounds("A", false, false, Align.LEFT, this::measure);
+		assertEquals(3, aMeasurements);
+		aCache.getBounds("B", false, false, Align.LEFT, this::measure);
+		assertEquals(4, aMeasurements);
+	}
+	
+	@Test
+	public void testClear()
+	{
+		aCache.getBounds("A", false, false, Align.LEFT, this::measure);
+		aCache.getBounds("A", false, false, Align.LEFT, this::measure);
+		aCache.clear();
+		assertEquals(0, aCache.size());
+		assertEquals(0, aCache.getHits());
+		assertEquals(0, aCache.getMisses());
+		assertEquals(0, aCache.getHitRate());
+	}
+}
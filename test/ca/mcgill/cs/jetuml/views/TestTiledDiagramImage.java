@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by the contributors of the JetUML project.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.ClassDiagram;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.TiledDiagramImage.Renderer;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+
+public class TestTiledDiagramImage
+{
+	private static final int TILE_SIZE = 64;
+	private static final int PADDING = 4;
+	private static final int NUMBER_OF_THREADS = 4;
+	// Only prevents the test from hanging if the images are not written in parallel
+	private static final int BARRIER_TIMEOUT = 30;
+	
+	private ClassDiagram aDiagram;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = createDiagram();
+	}
+	
+	private static ClassDiagram createDiagram()
+	{
+		ClassDiagram diagram = new ClassDiagram();
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		node1.setName("Node1");
+		node2.setName("Node2");
+		node2.moveTo(new Point(300, 150));
+		diagram.addRootNode(node1);
+		diagram.addRootNode(node2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(node1, node2, diagram);
+		diagram.addEdge(edge);
+		return diagram;
+	}
+	
+	/*
+	 * Tiles can only be rendered on the JavaFX application thread.
+	 */
+	private static <T> T onFXThread(Callable<T> pTask) throws Exception
+	{
+		FutureTask<T> task = new FutureTask<>(pTask);
+		Platform.runLater(task);
+		return task.get();
+	}
+	
+	@Test
+	public void testDimensions()
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aDiagram, PADDING, TILE_SIZE);
+		Rectangle bounds = new DiagramViewer().getBounds(aDiagram);
+		assertEquals(bounds.getWidth() + 2 * PADDING, image.getWidth());
+		assertEquals(bounds.getHeight() + 2 * PADDING, image.getHeight());
+		assertEquals((image.getWidth() + TILE_SIZE - 1) / TILE_SIZE, image.getNumXTiles());
+		assertEquals((image.getHeight() + TILE_SIZE - 1) / TILE_SIZE, image.getNumYTiles());
+		assertEquals(0, image.getNumberOfRenderedTiles());
+	}
+	
+	@Test
+	public void testPixelsMatchCreateImage() throws Exception
+	{
+		TiledDiagramImage tiled = new TiledDiagramImage(aDiagram, PADDING, TILE_SIZE);
+		Raster raster = onFXThread(() -> tiled.getData());
+		Image image = onFXThread(() -> ImageCreator.createImage(aDiagram));
+		assertEquals((int) image.getWidth(), raster.getWidth());
+		assertEquals((int) image.getHeight(), raster.getHeight());
+		PixelReader reader = image.getPixelReader();
+		for( int y = 0; y < raster.getHeight(); y++ )
+		{
+			for( int x = 0; x < raster.getWidth(); x++ )
+			{
+				int rgb = raster.getSample(x, y, 0) << 16 | raster.getSample(x, y, 1) << 8 | raster.getSample(x, y, 2);
+				assertEquals(reader.getArgb(x, y) & 0xFFFFFF, rgb);
+			}
+		}
+	}
+	
+	@Test
+	public void testGetData_OtherThread()
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aDiagram, PADDING, TILE_SIZE);
+		int[] notifications = {0};
+		image.setRenderListener(() -> notifications[0]++);
+		// The tiles are rendered on the JavaFX application thread
+		Raster raster = image.getData(new java.awt.Rectangle(0, 0, TILE_SIZE * 2, 1));
+		assertEquals(2, image.getNumberOfRenderedTiles());
+		assertEquals(2, notifications[0]);
+		assertEquals(TILE_SIZE * 2, raster.getWidth());
+		assertEquals(255, raster.getSample(0, 0, 0));
+	}
+	
+	@Test
+	public void testWritePng() throws Exception
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aDiagram, PADDING, TILE_SIZE);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(onFXThread(() -> ImageIO.write(image, "png", out)));
+		// The encoder reads rows in order, so each tile is rendered once
+		assertEquals(image.getNumXTiles() * image.getNumYTiles(), image.getNumberOfRenderedTiles());
+		BufferedImage result = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(image.getWidth(), result.getWidth());
+		assertEquals(image.getHeight(), result.getHeight());
+		assertEquals(0xFFFFFFFF, result.getRGB(0, 0));
+	}
+	
+	@Test
+	public void testGetData_Java2D()
+	{
+		TiledDiagramImage image = new TiledDiagramImage(aDiagram, PADDING, TILE_SIZE, Renderer.JAVA2D);
+		List<Thread> threads = new ArrayList<>();
+		image.setRenderListener(() -> threads.add(Thread.currentThread()));
+		Raster raster = image.getData();
+		assertEquals(image.getNumXTiles() * image.getNumYTiles(), image.getNumberOfRenderedTiles());
+		assertTrue(threads.stream().allMatch(thread -> thread == Thread.currentThread()));
+		assertEquals(image.getWidth(), raster.getWidth());
+		assertEquals(255, raster.getSample(0, 0, 0));
+		
+		BufferedImage expected = ImageCreator.createBufferedImage(aDiagram);
+		for( int y = 0; y < raster.getHeight(); y++ )
+		{
+			for( int x = 0; x < raster.getWidth(); x++ )
+			{
+				int rgb = raster.getSample(x, y, 0) << 16 | raster.getSample(x, y, 1) << 8 | raster.getSample(x, y, 2);
+				assertEquals(expected.getRGB(x, y) & 0xFFFFFF, rgb);
+			}
+		}
+	}
+	
+	/*
+	 * Each thread waits for all the others after rendering its first tile, 
+	 * so the images can only be written if they are rendered at the same time. 
+	 * The JavaFX application thread is kept busy to show that it is not used.
+	 * Each thread draws its own diagram, since a diagram is only drawn by one 
+	 * thread at a time.
+	 */
+	@Test
+	public void testWritePng_Java2DInParallel() throws Exception
+	{
+		byte[] expected = writePng(new TiledDiagramImage(aDiagram, PADDING, TILE_SIZE, Renderer.JAVA2D));
+		CountDownLatch release = new CountDownLatch(1);
+		Platform.runLater(() -> 
+		{
+			try
+			{
+				release.await();
+			}
+			catch( InterruptedException exception )
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		CyclicBarrier barrier = new CyclicBarrier(NUMBER_OF_THREADS);
+		ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+		try
+		{
+			List<Future<byte[]>> results = new ArrayList<>();
+			for( int i = 0; i < NUMBER_OF_THREADS; i++ )
+			{
+				results.add(executor.submit(() -> 
+				{
+					TiledDiagramImage image = new TiledDiagramImage(createDiagram(), PADDING, TILE_SIZE, Renderer.JAVA2D);
+					image.setRenderListener(() -> 
+					{
+						if( image.getNumberOfRenderedTiles() == 1 )
+						{
+							await(barrier);
+						}
+					});
+					return writePng(image);
+				}));
+			}
+			for( Future<byte[]> result : results )
+			{
+				assertArrayEquals(expected, result.get());
+			}
+		}
+		finally
+		{
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+	
+	private static byte[] writePng(TiledDiagramImage pImage) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(pImage, "png", out));
+		return out.toByteArray();
+	}
+	
+	private static void await(CyclicBarrier pBarrier)
+	{
+		try
+		{
+			pBarrier.await(BARRIER_TIMEOUT, TimeUnit.SECONDS);
+		}
+		catch( Exception exception )
+		{
+			throw new IllegalStateException(exception);
+		}
+	}
+}